@@ -21,12 +21,19 @@ import science.atlarge.granula.modeller.source.log.Log;
 import science.atlarge.granula.modeller.source.log.LogLocation;
 import science.atlarge.granula.util.UuidGenerator;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -35,6 +42,25 @@ import java.util.regex.Pattern;
  */
 public class GiraphExtractionRule extends ExtractionRule {
 
+    private static final byte[] GRANULA_MARKER = "GRANULA".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OPERATION_LOG_MARKER = "OperationLog".getBytes(StandardCharsets.US_ASCII);
+    private static final String GRANULA_PREFIX = "GRANULA ";
+    private static final Pattern COMPUTE_THREAD_PATTERN =
+            Pattern.compile(".*time=(\\d*).*worker=(\\d*).*superstep=(\\d*).*thread=compute-(\\d*)");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Receives the records extracted from a log one at a time, so that they do not have to be collected in a list.
+     */
+    public interface LogSink {
+
+        /**
+         * @param log a record extracted from a log
+         */
+        void accept(Log log);
+
+    }
+
     public GiraphExtractionRule(int level) {
         super(level);
     }
@@ -47,61 +73,185 @@ public class GiraphExtractionRule extends ExtractionRule {
 
     public List<Log> extractLogFromInputStream(DataStream dataStream) {
 
-        List<Log> granularlogList = new ArrayList<>();
+        final List<Log> granularlogList = new ArrayList<>();
 
         try {
-            BufferedReader br = new BufferedReader(
-                    new InputStreamReader(dataStream.getInputStream()));
+            extractLogFromInputStream(dataStream.getInputStream(), new LogSink() {
+                @Override
+                public void accept(Log log) {
+                    granularlogList.add(log);
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return granularlogList;
+    }
 
-            String line = null;
-            int lineCount = 0;
+    /**
+     * Extracts all records from a log in a single pass, and passes them to a sink as they are found. Lines are scanned
+     * for the Granula and Grade10 markers as raw bytes; only matching lines are decoded and parsed. Lines end at a line
+     * feed, a carriage return, or a carriage return followed by a line feed, as in {@link java.io.BufferedReader}.
+     *
+     * @param inputStream the log to extract records from, which is closed afterwards
+     * @param sink        the sink to pass the extracted records to
+     * @throws IOException if the log could not be read
+     */
+    public void extractLogFromInputStream(InputStream inputStream, LogSink sink) throws IOException {
+        Charset charset = Charset.defaultCharset();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int start = 0;
+        int end = 0;
+        int lineCount = 0;
+
+        try (InputStream input = inputStream) {
+            boolean endOfStream = false;
+            while (!endOfStream || start < end) {
+                // Find the end of the next line, reading more data if necessary. A carriage return at the end of the
+                // buffer may be followed by a line feed that has not been read yet.
+                int lineEnd = indexOfLineTerminator(buffer, start, end);
+                boolean incomplete = lineEnd < 0 || (lineEnd == end - 1 && buffer[lineEnd] == '\r');
+                if (incomplete && !endOfStream) {
+                    if (start > 0) {
+                        System.arraycopy(buffer, start, buffer, 0, end - start);
+                        end -= start;
+                        start = 0;
+                    } else if (end == buffer.length) {
+                        byte[] larger = new byte[buffer.length * 2];
+                        System.arraycopy(buffer, 0, larger, 0, end);
+                        buffer = larger;
+                    }
+                    int read = input.read(buffer, end, buffer.length - end);
+                    if (read < 0) {
+                        endOfStream = true;
+                    } else {
+                        end += read;
+                    }
+                    continue;
+                }
 
-            while ((line = br.readLine()) != null) {
+                int contentEnd = lineEnd < 0 ? end : lineEnd;
+                int next;
+                if (lineEnd < 0) {
+                    next = end;
+                } else if (buffer[lineEnd] == '\r' && lineEnd + 1 < end && buffer[lineEnd + 1] == '\n') {
+                    next = lineEnd + 2;
+                } else {
+                    next = lineEnd + 1;
+                }
                 lineCount++;
 
-                if(line.contains("GRANULA") ) {
-                    parseGranulaLog(line, lineCount, granularlogList);
-                } else if(line.contains("OperationLog")) {
-                    parseGrade10Log(line, lineCount, granularlogList);
+                int marker = findMarker(buffer, start, contentEnd);
+                if (marker != 0) {
+                    String line = new String(buffer, start, contentEnd - start, charset);
+                    if (marker == 1) {
+                        parseGranulaLog(line, lineCount, sink);
+                    } else {
+                        parseGrade10Log(line, lineCount, sink);
+                    }
                 }
+                start = next;
             }
-            br.close();
+        }
+    }
 
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Extracts all records from a number of log files, processing multiple files concurrently. Records of different
+     * files are passed to the sink concurrently, so the sink must be thread-safe.
+     *
+     * @param files   the log files to extract records from
+     * @param sink    the sink to pass the extracted records to
+     * @param threads the maximum number of files to process concurrently
+     * @throws IOException if a log file could not be read
+     */
+    public void extractLogFromFiles(List<File> files, final LogSink sink, int threads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())));
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (final File file : files) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        extractLogFromInputStream(new FileInputStream(file), sink);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting logs", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to extract logs", e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
-        return granularlogList;
     }
 
+    /**
+     * @return 1 if the line contains the Granula marker, otherwise 2 if it contains the Grade10 marker, otherwise 0
+     */
+    private static int findMarker(byte[] buffer, int start, int end) {
+        boolean operationLog = false;
+        for (int i = start; i < end; i++) {
+            byte b = buffer[i];
+            if (b == 'G' && matchesAt(buffer, i, end, GRANULA_MARKER)) {
+                return 1;
+            } else if (b == 'O' && !operationLog && matchesAt(buffer, i, end, OPERATION_LOG_MARKER)) {
+                operationLog = true;
+            }
+        }
+        return operationLog ? 2 : 0;
+    }
 
-    private void parseGranulaLog(String line, int lineCount, List<Log> granularlogList) {
+    private static boolean matchesAt(byte[] buffer, int offset, int end, byte[] marker) {
+        if (end - offset < marker.length) {
+            return false;
+        }
+        for (int i = 1; i < marker.length; i++) {
+            if (buffer[offset + i] != marker[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        // Skip top-level operation -> it is defined by Grpahalytics benchmark itself, not the platform.
-        if (line.contains("Giraph") && line.contains("Job")) {
+    private static int indexOfLineTerminator(byte[] buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer[i] == '\n' || buffer[i] == '\r') {
+                return i;
+            }
+        }
+        return -1;
+    }
 
-        } else {
 
-            Log log = extractRecord(line);
+    private void parseGranulaLog(String line, int lineCount, LogSink sink) {
 
-            LogLocation trace = new LogLocation();
+        // Skip lines that mention GRANULA without containing a Granula record
+        if (!line.contains(GRANULA_PREFIX)) {
+            return;
+        }
 
-            String codeLocation;
-            String logFilePath;
-            codeLocation = "unspecified";
-            logFilePath = "unspecified";
+        // Skip top-level operation -> it is defined by Grpahalytics benchmark itself, not the platform.
+        if (line.contains("Giraph") && line.contains("Job")) {
 
-            trace.setLocation(logFilePath, lineCount, codeLocation);
-            log.setLocation(trace);
+        } else {
 
-            granularlogList.add(log);
+            Log log = extractRecord(line);
+            log.setLocation(createLocation(lineCount));
+            sink.accept(log);
         }
 
     }
 
 
-    private void parseGrade10Log(String line, int lineCount, List<Log> granularlogList) {
+    private void parseGrade10Log(String line, int lineCount, LogSink sink) {
 
             if(line.contains("ComputeThread")) {
                 String infoType = "";
@@ -111,43 +261,48 @@ public class GiraphExtractionRule extends ExtractionRule {
                     infoType="EndTime";
                 }
 
-                Pattern regex = Pattern.compile(".*time=(\\d*).*worker=(\\d*).*superstep=(\\d*).*thread=compute-(\\d*)");
-                Matcher matcher = regex.matcher(line);
-                matcher.find();
+                Matcher matcher = COMPUTE_THREAD_PATTERN.matcher(line);
+                if (!matcher.find()) {
+                    return;
+                }
                 String time = matcher.group(1);
                 String worker = matcher.group(2);
                 String superstep = matcher.group(3);
                 String thread = matcher.group(4);
 
-                line = generateText(infoType, time, "WorkerThread", worker + "-" + thread,  "ParallelCompute", superstep, "6796432509645137309");
-//                line = String.format("askdjfhsd - GRANULA InfoName:%s InfoValue:%s Timestamp:1487360899995 " +
-//                                "RecordUuid:7202475161608429203 OperationUuid:6796432509645137309 ActorType:WorkerThread ActorId:%s MissionType:ParallelCompute MissionId:%s",
-//                        infoType, time, worker + "-" + thread, superstep);
-
-
-                Log log = extractRecord(line);
+                Log log = createRecord(infoType, time, "WorkerThread", worker + "-" + thread,  "ParallelCompute", superstep, "6796432509645137309");
+                log.setLocation(createLocation(lineCount));
+                sink.accept(log);
+            }
 
-                LogLocation trace = new LogLocation();
+    }
 
-                String codeLocation;
-                String logFilePath;
-                codeLocation = "unspecified";
-                logFilePath = "unspecified";
+    private LogLocation createLocation(int lineCount) {
+        LogLocation trace = new LogLocation();
 
-                trace.setLocation(logFilePath, lineCount, codeLocation);
-                log.setLocation(trace);
-
-                granularlogList.add(log);
-            }
+        String codeLocation;
+        String logFilePath;
+        codeLocation = "unspecified";
+        logFilePath = "unspecified";
 
+        trace.setLocation(logFilePath, lineCount, codeLocation);
+        return trace;
     }
 
-    private String generateText(String infoName, String infoValue, String actorType, String actorId, String missionType,
-                               String missionId, String operationUuid) {
-        String text = String.format("GRANULA - InfoName:%s InfoValue:%s ActorType:%s ActorId:%s MissionType:%s MissionId:%s RecordUuid:%s OperationUuid:%s Timestamp:%s\n",
-                infoName, infoValue, actorType, actorId, missionType,
-                missionId, UuidGenerator.getRandomUUID(), operationUuid, System.currentTimeMillis());
-        return text;
+    private Log createRecord(String infoName, String infoValue, String actorType, String actorId, String missionType,
+                             String missionId, String operationUuid) {
+        // Same attributes, in the same order, as a Granula log line for this record
+        Log log = new Log();
+        log.addLogInfo("InfoName", infoName);
+        log.addLogInfo("InfoValue", infoValue);
+        log.addLogInfo("ActorType", actorType);
+        log.addLogInfo("ActorId", actorId);
+        log.addLogInfo("MissionType", missionType);
+        log.addLogInfo("MissionId", missionId);
+        log.addLogInfo("RecordUuid", String.valueOf(UuidGenerator.getRandomUUID()));
+        log.addLogInfo("OperationUuid", operationUuid);
+        log.addLogInfo("Timestamp", String.valueOf(System.currentTimeMillis()));
+        return log;
     }
 
 
@@ -155,24 +310,73 @@ public class GiraphExtractionRule extends ExtractionRule {
     public Log extractRecord(String line) {
         Log log = new Log();
 
-        String granularLog = line.split("GRANULA ")[1];
-        String[] logAttrs = granularLog.split("\\s+");
+        // Parse the attributes between the first marker and the next one, if any
+        int prefix = line.indexOf(GRANULA_PREFIX);
+        if (prefix < 0) {
+            return log;
+        }
+        int start = prefix + GRANULA_PREFIX.length();
+        int end = line.indexOf(GRANULA_PREFIX, start);
+        if (end < 0) {
+            end = line.length();
+        }
+
+        int position = start;
+        while (position < end) {
+            while (position < end && isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            int tokenStart = position;
+            while (position < end && !isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            if (position > tokenStart) {
+                addLogInfo(log, line, tokenStart, position);
+            }
+        }
+        return log;
+    }
 
-        for (String logAttr : logAttrs) {
-            if (logAttr.contains(":")) {
-                String[] attrKeyValue = logAttr.split(":");
-                if (attrKeyValue.length == 2) {
+    private static void addLogInfo(Log log, String line, int start, int end) {
+        int separator = indexOf(line, start, end, ':');
+        if (separator < 0) {
+            return;
+        }
+        // Trailing separators are ignored, and a value containing another separator is replaced by an empty value
+        while (end > start && line.charAt(end - 1) == ':') {
+            end--;
+        }
+        if (end == start) {
+            return;
+        }
+        separator = indexOf(line, start, end, ':');
+        if (separator < 0) {
+            log.addLogInfo(line.substring(start, end), "");
+            return;
+        }
 
-                    String name = attrKeyValue[0];
-                    String value = attrKeyValue[1];
-                    String unescapedValue = value.replaceAll("\\[COLON\\]", ":").replaceAll("\\[SPACE\\]", " ");
+        String name = line.substring(start, separator);
+        String value = "";
+        if (indexOf(line, separator + 1, end, ':') < 0) {
+            value = line.substring(separator + 1, end);
+            if (value.indexOf('[') >= 0) {
+                value = value.replace("[COLON]", ":").replace("[SPACE]", " ");
+            }
+        }
+        log.addLogInfo(name, value);
+    }
 
-                    log.addLogInfo(name, unescapedValue);
-                } else {
-                    log.addLogInfo(attrKeyValue[0], "");
-                }
+    private static int indexOf(String line, int start, int end, char value) {
+        for (int i = start; i < end; i++) {
+            if (line.charAt(i) == value) {
+                return i;
             }
         }
-        return log;
+        return -1;
+    }
+
+    private static boolean isWhitespace(char c) {
+        // The characters matched by \s in a regular expression
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 }
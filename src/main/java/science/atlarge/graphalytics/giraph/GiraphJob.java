@@ -15,6 +15,7 @@
  */
 package science.atlarge.graphalytics.giraph;
 
+import org.apache.giraph.conf.BooleanConfOption;
 import org.apache.giraph.conf.FacebookConfiguration;
 import org.apache.giraph.conf.GiraphConfiguration;
 import org.apache.giraph.conf.IntConfOption;
@@ -31,6 +32,11 @@ import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 import org.apache.hadoop.util.Tool;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import science.atlarge.graphalytics.giraph.io.BinaryCsrVertexInputFormat;
+import science.atlarge.graphalytics.giraph.io.BinaryIdWithValueOutputFormat;
+import science.atlarge.graphalytics.giraph.io.LongIdWithValueTextOutputFormat;
+import science.atlarge.graphalytics.giraph.metrics.SuperstepMetricsMasterObserver;
+import science.atlarge.graphalytics.giraph.metrics.SuperstepMetricsWorkerObserver;
 
 import java.util.Map;
 
@@ -124,6 +130,38 @@ public abstract class GiraphJob extends Configured implements Tool {
 	public static final StrConfOption ZOOKEEPER_ADDRESS = new StrConfOption(ZOOKEEPER_ADDRESS_KEY,
 			"", "ZooKeeper address");
 
+	/**
+	 * The configuration key for reading the input graph from the binary CSR format.
+	 */
+	public static final String BINARY_CSR_INPUT_KEY = "graphalytics.giraphjob.binary-csr-input";
+	/**
+	 * Whether the vertex input path refers to a graph in the binary CSR format, instead of a text vertex file.
+	 */
+	public static final BooleanConfOption BINARY_CSR_INPUT = new BooleanConfOption(BINARY_CSR_INPUT_KEY,
+			false, "Read the input graph from the binary CSR format");
+
+	/**
+	 * The configuration key for writing vertex IDs and values in a binary format.
+	 */
+	public static final String BINARY_OUTPUT_KEY = "graphalytics.giraphjob.binary-output";
+	/**
+	 * Whether jobs that output a value per vertex write it in the binary format of
+	 * {@link BinaryIdWithValueOutputFormat}, which must be decoded before validation.
+	 */
+	public static final BooleanConfOption BINARY_OUTPUT = new BooleanConfOption(BINARY_OUTPUT_KEY,
+			false, "Write vertex IDs and values in a binary format");
+
+	/**
+	 * The configuration key for the directory on HDFS to which superstep metrics are written.
+	 */
+	public static final String METRICS_DIRECTORY_KEY = "graphalytics.giraphjob.metrics-directory";
+	/**
+	 * The directory on HDFS to which the master and workers write superstep metrics, or an empty string to disable
+	 * the collection of superstep metrics.
+	 */
+	public static final StrConfOption METRICS_DIRECTORY = new StrConfOption(METRICS_DIRECTORY_KEY,
+			"", "Directory on HDFS to write superstep metrics to");
+
 	public static final String JOB_ID_KEY = "graphalytics.job-id";
 
 	public static final StrConfOption JOB_ID = new StrConfOption(JOB_ID_KEY,
@@ -137,6 +175,8 @@ public abstract class GiraphJob extends Configured implements Tool {
 	private int workerMemory;
 	private int workerHeap;
 	private int workerCores;
+	private boolean binaryCsrInput;
+	private boolean binaryOutput;
 
 	/**
 	 * @return the Giraph job output path
@@ -145,6 +185,14 @@ public abstract class GiraphJob extends Configured implements Tool {
 		return outputPath;
 	}
 
+	/**
+	 * @return true iff the input graph is read from the binary CSR format, in which case the vertex and edge input
+	 * format hooks are not used
+	 */
+	protected boolean isBinaryCsrInput() {
+		return binaryCsrInput;
+	}
+
 	private void loadConfiguration() {
 		if (VERTEX_INPUT_PATH.isDefaultValue(getConf())) {
 			throw new IllegalStateException("Missing mandatory configuration: " + VERTEX_INPUT_PATH);
@@ -163,6 +211,8 @@ public abstract class GiraphJob extends Configured implements Tool {
 		workerMemory = WORKER_MEMORY_MB.get(getConf());
 		workerHeap = WORKER_HEAP_MB.get(getConf());
 		workerCores = WORKER_CORES.get(getConf());
+		binaryCsrInput = BINARY_CSR_INPUT.get(getConf());
+		binaryOutput = BINARY_OUTPUT.get(getConf());
 		vertexInputPath = VERTEX_INPUT_PATH.get(getConf());
 		edgeInputPath = EDGE_INPUT_PATH.get(getConf());
 		outputPath = OUTPUT_PATH.get(getConf());
@@ -190,22 +240,39 @@ public abstract class GiraphJob extends Configured implements Tool {
 		// Set the computation class
 		configuration.setComputationClass(getComputationClass());
 
-		// Set input paths
-		GiraphFileInputFormat.addVertexInputPath(configuration, new Path(vertexInputPath));
-		GiraphFileInputFormat.addEdgeInputPath(configuration, new Path(edgeInputPath));
+		if (binaryCsrInput) {
+			// Binary CSR graphs contain both the vertices and their adjacency lists
+			GiraphFileInputFormat.addVertexInputPath(configuration, new Path(vertexInputPath));
+			configuration.setVertexInputFormatClass(BinaryCsrVertexInputFormat.class);
+		} else {
+			// Set input paths
+			GiraphFileInputFormat.addVertexInputPath(configuration, new Path(vertexInputPath));
+			GiraphFileInputFormat.addEdgeInputPath(configuration, new Path(edgeInputPath));
 
-		// Set vertex/edge input format class
-		configuration.setVertexInputFormatClass(getVertexInputFormatClass());
-		configuration.setEdgeInputFormatClass(getEdgeInputFormatClass());
+			// Set vertex/edge input format class
+			configuration.setVertexInputFormatClass(getVertexInputFormatClass());
+			configuration.setEdgeInputFormatClass(getEdgeInputFormatClass());
+		}
 
 		// Set and output path and class
 		configuration.set(FileOutputFormat.OUTDIR, outputPath);
 		if (getVertexOutputFormatClass() != null) {
-			configuration.setVertexOutputFormatClass(getVertexOutputFormatClass());
+			// Vertex IDs and values may be written in a binary format instead, to be decoded after downloading
+			if (binaryOutput && getVertexOutputFormatClass() == LongIdWithValueTextOutputFormat.class) {
+				configuration.setVertexOutputFormatClass(BinaryIdWithValueOutputFormat.class);
+			} else {
+				configuration.setVertexOutputFormatClass(getVertexOutputFormatClass());
+			}
 		} else {
 			configuration.setEdgeOutputFormatClass(getEdgeOutputFormatClass());
 		}
 
+		// Record the metrics of every superstep, if requested
+		if (!METRICS_DIRECTORY.isDefaultValue(getConf())) {
+			configuration.addMasterObserverClass(SuperstepMetricsMasterObserver.class);
+			configuration.addWorkerObserverClass(SuperstepMetricsWorkerObserver.class);
+		}
+
 		// Set deployment-specific configuration from external configuration files
 		configuration.setWorkerConfiguration(workerCount, workerCount, 100.0f);
 		configuration.setZooKeeperConfiguration(zooKeeperAddress);
@@ -15,24 +15,19 @@
  */
 package science.atlarge.graphalytics.giraph;
 
+import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.hadoop.yarn.client.cli.ApplicationCLI;
 import science.atlarge.granula.archiver.PlatformArchive;
 import science.atlarge.granula.modeller.job.JobModel;
 import science.atlarge.granula.modeller.platform.Giraph;
-import science.atlarge.granula.util.FileUtil;
 import science.atlarge.graphalytics.configuration.GraphalyticsExecutionException;
 import science.atlarge.graphalytics.execution.BenchmarkRunSetup;
 import science.atlarge.graphalytics.execution.RunSpecification;
@@ -44,7 +39,12 @@ import science.atlarge.graphalytics.report.result.BenchmarkMetrics;
 import science.atlarge.graphalytics.domain.algorithms.Algorithm;
 import science.atlarge.graphalytics.report.result.BenchmarkRunResult;
 import science.atlarge.graphalytics.domain.benchmark.BenchmarkRun;
+import science.atlarge.graphalytics.giraph.io.BinaryCsrGraphConverter;
+import science.atlarge.graphalytics.giraph.io.BinaryIdWithValueOutputDecoder;
 import science.atlarge.graphalytics.giraph.log.JobLogger;
+import science.atlarge.graphalytics.giraph.metrics.SuperstepMetrics;
+import science.atlarge.graphalytics.giraph.metrics.SuperstepMetricsCollector;
+import science.atlarge.graphalytics.giraph.metrics.SuperstepMetricsReader;
 import science.atlarge.graphalytics.granula.GranulaAwarePlatform;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.giraph.conf.IntConfOption;
@@ -114,9 +114,61 @@ public class GiraphPlatform implements GranulaAwarePlatform {
 	 * Property key for the directory on HDFS in which to store all input and output.
 	 */
 	public static final String HDFS_DIRECTORY = "graphalytics";
+	/**
+	 * Property key for enabling the conversion of graphs to a binary CSR format when uploading them to HDFS.
+	 */
+	public static final String INPUT_BINARY_CSR = "platform.giraph.input.binary-csr";
+	/**
+	 * Property key for the maximum number of edges per part file of a graph in the binary CSR format.
+	 */
+	public static final String INPUT_BINARY_CSR_EDGES_PER_PART = "platform.giraph.input.binary-csr.edges-per-part";
+	/**
+	 * Default maximum number of edges per part file of a graph in the binary CSR format.
+	 */
+	public static final long INPUT_BINARY_CSR_EDGES_PER_PART_DEFAULT = 64L * 1024 * 1024;
+	/**
+	 * Property key for enabling the binary output format for vertex values, which is decoded to text after the output
+	 * has been downloaded from HDFS.
+	 */
+	public static final String OUTPUT_BINARY = "platform.giraph.output.binary";
+	/**
+	 * Property key for enabling the streaming merge of job output, which reads the output from HDFS and writes it to
+	 * a single local file sorted by vertex ID, instead of downloading all part files.
+	 */
+	public static final String OUTPUT_STREAMING_MERGE = "platform.giraph.output.streaming-merge";
+	/**
+	 * Name of the local file that merged job output is written to, in a directory named after the job output.
+	 */
+	public static final String OUTPUT_MERGED_FILE = "part-merged";
+	/**
+	 * Name of the file in the log directory of a benchmark run to which the metrics of every superstep are written.
+	 */
+	public static final String SUPERSTEP_METRICS_FILE = "superstep-metrics.csv";
+	/**
+	 * Name of the file in the log directory of a benchmark run to which the time every worker spent computing and
+	 * flushing messages, and waiting at the barrier, in every superstep is written.
+	 */
+	public static final String WORKER_METRICS_FILE = "worker-metrics.csv";
+	/**
+	 * Property key for the number of concurrent streams used to upload graphs to and download output from HDFS.
+	 */
+	public static final String TRANSFER_THREADS = "platform.giraph.transfer.threads";
+	/**
+	 * Property key for enabling the cache of uploaded graphs on HDFS, which is kept between benchmark runs.
+	 */
+	public static final String GRAPH_CACHE_ENABLED = "platform.giraph.graph-cache.enabled";
+	/**
+	 * Property key for the maximum total size in bytes of all graphs in the HDFS graph cache.
+	 */
+	public static final String GRAPH_CACHE_MAX_BYTES = "platform.giraph.graph-cache.max-bytes";
 
 	private org.apache.commons.configuration.Configuration benchmarkConfig;
 	private String hdfsDirectory;
+	private boolean binaryCsrInput;
+	private boolean binaryOutput;
+	private boolean streamingMerge;
+	private int transferThreads;
+	private HdfsGraphCache graphCache;
 
 	/**
 	 * Constructor that opens the Giraph-specific properties file for the public
@@ -134,27 +186,75 @@ public class GiraphPlatform implements GranulaAwarePlatform {
 
 	@Override
 	public LoadedGraph loadGraph(FormattedGraph formattedGraph) throws Exception {
-		LOG.info("Uploading graph \"{}\" to HDFS", formattedGraph.getName());
-
 		String uploadPath = Paths.get(hdfsDirectory, getPlatformName(), "input", formattedGraph.getName()).toString();
-		org.apache.hadoop.fs.Path vertexFilePath = new org.apache.hadoop.fs.Path(uploadPath + ".v");
-		org.apache.hadoop.fs.Path edgeFilePath =  new org.apache.hadoop.fs.Path(uploadPath + ".e");
 
-		// Upload the graph to HDFS
-		FileSystem fs = FileSystem.get(new Configuration());
+		try (FileSystem fs = FileSystem.get(new Configuration())) {
+			String cacheKey = null;
+			if (graphCache != null) {
+				cacheKey = HdfsGraphCache.computeKey(formattedGraph, binaryCsrInput ? "csr" : "text");
+				uploadPath = new org.apache.hadoop.fs.Path(graphCache.getEntryPath(cacheKey),
+						formattedGraph.getName()).toString();
+				if (graphCache.lookup(fs, cacheKey)) {
+					LOG.info("Found graph \"{}\" in the HDFS graph cache, skipping upload", formattedGraph.getName());
+					return createLoadedGraph(formattedGraph, uploadPath);
+				}
+			}
+
+			LOG.info("Uploading graph \"{}\" to HDFS", formattedGraph.getName());
+			if (binaryCsrInput) {
+				uploadGraphAsBinaryCsr(fs, formattedGraph, new org.apache.hadoop.fs.Path(uploadPath + ".csr"));
+			} else {
+				uploadGraph(fs, formattedGraph, uploadPath);
+			}
+
+			if (cacheKey != null) {
+				graphCache.add(fs, cacheKey, formattedGraph.getName());
+			}
+		}
+		return createLoadedGraph(formattedGraph, uploadPath);
+	}
+
+	private LoadedGraph createLoadedGraph(FormattedGraph formattedGraph, String uploadPath) {
+		if (binaryCsrInput) {
+			return new LoadedGraph(formattedGraph, uploadPath + ".csr", uploadPath + ".csr");
+		}
+		return new LoadedGraph(formattedGraph, uploadPath + ".v", uploadPath + ".e");
+	}
+
+	private void uploadGraph(FileSystem fs, FormattedGraph formattedGraph, String uploadPath) throws IOException {
+		ParallelHdfsTransfer transfer = new ParallelHdfsTransfer(fs, transferThreads);
 
 		LOG.debug("- Uploading vertex list");
-		fs.copyFromLocalFile(new org.apache.hadoop.fs.Path(formattedGraph.getVertexFilePath()), vertexFilePath);
+		transfer.upload(formattedGraph.getVertexFilePath(), new org.apache.hadoop.fs.Path(uploadPath + ".v"));
 
 		LOG.debug("- Uploading edge list");
-		fs.copyFromLocalFile(new org.apache.hadoop.fs.Path(formattedGraph.getEdgeFilePath()), edgeFilePath);
+		transfer.upload(formattedGraph.getEdgeFilePath(), new org.apache.hadoop.fs.Path(uploadPath + ".e"));
+	}
 
-		fs.close();
-		return new LoadedGraph(formattedGraph, vertexFilePath.toString(), edgeFilePath.toString());
+	private void uploadGraphAsBinaryCsr(FileSystem fs, FormattedGraph formattedGraph, org.apache.hadoop.fs.Path csrPath)
+			throws IOException {
+		// Limit the size of parts such that every worker has at least one part to read
+		long edgesPerPart = benchmarkConfig.getLong(INPUT_BINARY_CSR_EDGES_PER_PART,
+				INPUT_BINARY_CSR_EDGES_PER_PART_DEFAULT);
+		int workerCount = benchmarkConfig.getInt(JOB_WORKERCOUNT, 1);
+		long storedEdges = formattedGraph.isDirected() ?
+				formattedGraph.getNumberOfEdges() : 2 * formattedGraph.getNumberOfEdges();
+		edgesPerPart = Math.max(1, Math.min(edgesPerPart, (storedEdges + workerCount - 1) / workerCount));
+
+		LOG.debug("- Converting graph to binary CSR format");
+		fs.delete(csrPath, true);
+		new BinaryCsrGraphConverter(formattedGraph.isDirected(), edgesPerPart).convert(
+				formattedGraph.getVertexFilePath(), formattedGraph.getEdgeFilePath(), fs, csrPath);
 	}
 
 	@Override
 	public void deleteGraph(LoadedGraph loadedGraph) {
+		// Cached graphs are kept for future runs, and are only removed by evicting them from the cache
+		if (graphCache != null && graphCache.contains(loadedGraph.getVertexPath())) {
+			LOG.info("Keeping graph in the HDFS graph cache");
+			return;
+		}
+
 		try(FileSystem fs = FileSystem.get(new Configuration())) {
 			fs.delete(new org.apache.hadoop.fs.Path(loadedGraph.getVertexPath()), true);
 			fs.delete(new org.apache.hadoop.fs.Path(loadedGraph.getEdgePath()), true);
@@ -227,8 +327,13 @@ public class GiraphPlatform implements GranulaAwarePlatform {
 
 			GiraphJob.VERTEX_INPUT_PATH.set(jobConf, loadedGraph.getVertexPath().toString());
 			GiraphJob.EDGE_INPUT_PATH.set(jobConf, loadedGraph.getEdgePath().toString());
+			GiraphJob.BINARY_CSR_INPUT.set(jobConf, binaryCsrInput);
+			GiraphJob.BINARY_OUTPUT.set(jobConf, binaryOutput);
 
 			GiraphJob.OUTPUT_PATH.set(jobConf, hdfsOutputPath);
+			String hdfsMetricsPath = Paths.get(hdfsDirectory, getPlatformName(), "metrics",
+					benchmarkRun.getId() + "_" + algorithm.getAcronym() + "-" + formattedGraph.getName()).toString();
+			GiraphJob.METRICS_DIRECTORY.set(jobConf, hdfsMetricsPath);
 			GiraphJob.ZOOKEEPER_ADDRESS.set(jobConf, ConfigurationUtil.getString(benchmarkConfig, ZOOKEEPERADDRESS));
 
 			transferIfSet(benchmarkConfig, JOB_WORKERCOUNT, jobConf, GiraphJob.WORKER_COUNT);
@@ -239,15 +344,28 @@ public class GiraphPlatform implements GranulaAwarePlatform {
 			GiraphJob.JOB_ID.set(jobConf, benchmarkRun.getId());
 
 			transferGiraphOptions(benchmarkConfig, jobConf);
+			transferAlgorithmOptions(benchmarkConfig, jobConf);
 
 			// Execute the Giraph job
 			result = ToolRunner.run(jobConf, job, new String[0]);
+			collectSuperstepMetrics(hdfsMetricsPath, benchmarkRunSetup.getLogDir());
 			// TODO: Clean up intermediate and output data, depending on some configuration.
 
 			if(benchmarkRunSetup.isOutputRequired()){
 					FileSystem fs = FileSystem.get(new Configuration());
-					fs.copyToLocalFile(false, new org.apache.hadoop.fs.Path(hdfsOutputPath),
-							new org.apache.hadoop.fs.Path(benchmarkRunSetup.getOutputDir().toAbsolutePath().toString()), true);
+					org.apache.hadoop.fs.Path outputPath = new org.apache.hadoop.fs.Path(hdfsOutputPath);
+					File localOutputDirectory = new File(benchmarkRunSetup.getOutputDir().toFile(), outputPath.getName());
+					if (streamingMerge) {
+						// Write the output once, as a single sorted file, instead of copying every part file
+						new HdfsOutputMerger(fs, transferThreads).merge(outputPath,
+								new File(localOutputDirectory, OUTPUT_MERGED_FILE));
+					} else {
+						new ParallelHdfsTransfer(fs, transferThreads).download(outputPath,
+								benchmarkRunSetup.getOutputDir().toAbsolutePath().toString());
+						if (binaryOutput) {
+							BinaryIdWithValueOutputDecoder.decodeDirectory(localOutputDirectory);
+						}
+					}
 					fs.close();
 			}
 			deleteOutput(hdfsOutputPath);
@@ -273,34 +391,39 @@ public class GiraphPlatform implements GranulaAwarePlatform {
 
 
 		JobLogger.collectYarnLogs(benchmarkRunSetup.getLogDir());
-		LOG.info("Extracting performance metrics from logs.");
-		Path platformLogPath = benchmarkRunSetup.getLogDir().resolve("platform");
+		LOG.info("Extracting performance metrics from superstep metrics.");
+		Path superstepMetricsPath = benchmarkRunSetup.getLogDir().resolve(SUPERSTEP_METRICS_FILE);
 
 		final List<Double> superstepTimes = new ArrayList<>();
 
-		try {
-			Files.walkFileTree(platformLogPath, new SimpleFileVisitor<Path>() {
-				@Override
-				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-					String logs = FileUtil.readFile(file);
-
-					LOG.info(String.format("Parsing logs at %s.", file.toAbsolutePath()));
-					for (String line : logs.split("\n")) {
-						if (line.contains("MasterThread  - superstep")) {
-							Pattern regex = Pattern.compile(
-									".*MasterThread  - superstep (\\d*): Took ([+-]?([0-9]*[.])?[0-9]+) seconds..*");
-							Matcher matcher = regex.matcher(line);
-							matcher.find();
-							superstepTimes.add(Double.parseDouble(matcher.group(2)));
-
-							LOG.info(String.format("Extracting performance metrics from superstep %s -> %s s", matcher.group(1), matcher.group(2)));
-						}
+		if (Files.exists(superstepMetricsPath)) {
+			try (SuperstepMetricsReader reader = new SuperstepMetricsReader(superstepMetricsPath.toFile())) {
+				long messagesSent = 0;
+				long messageBytesSent = 0;
+				SuperstepMetrics superstep;
+				while ((superstep = reader.next()) != null) {
+					// The input superstep is not part of the processing time
+					if (superstep.getSuperstep() < 0) {
+						continue;
 					}
-					return FileVisitResult.CONTINUE;
+					double seconds = superstep.getTimeMillis() / 1000.0;
+					superstepTimes.add(seconds);
+					messagesSent += superstep.getMessagesSent();
+					messageBytesSent += superstep.getMessageBytesSent();
+
+					LOG.info(String.format("Extracting performance metrics from superstep %d -> %s s, " +
+									"%d active vertices, %d messages (%d bytes), " +
+									"slowest worker %s (%d ms computing and flushing)",
+							superstep.getSuperstep(), seconds, superstep.getActiveVertices(),
+							superstep.getMessagesSent(), superstep.getMessageBytesSent(),
+							superstep.getSlowestWorker(), superstep.getSlowestWorkerMillis()));
 				}
-			});
-		} catch (IOException e) {
-			e.printStackTrace();
+				LOG.info(String.format("Sent %d messages (%d bytes) in %d supersteps, see %s and %s for details",
+						messagesSent, messageBytesSent, superstepTimes.size(), SUPERSTEP_METRICS_FILE,
+						WORKER_METRICS_FILE));
+			} catch (IOException e) {
+				LOG.error("Failed to read superstep metrics from " + superstepMetricsPath, e);
+			}
 		}
 
 		if (superstepTimes.size() != 0) {
@@ -375,9 +498,33 @@ public class GiraphPlatform implements GranulaAwarePlatform {
 			benchmarkConfig = new PropertiesConfiguration();
 		}
 		hdfsDirectory = benchmarkConfig.getString(HDFS_DIRECTORY_KEY, HDFS_DIRECTORY);
+		binaryCsrInput = benchmarkConfig.getBoolean(INPUT_BINARY_CSR, false);
+		binaryOutput = benchmarkConfig.getBoolean(OUTPUT_BINARY, false);
+		streamingMerge = benchmarkConfig.getBoolean(OUTPUT_STREAMING_MERGE, false);
+		transferThreads = benchmarkConfig.getInt(TRANSFER_THREADS, 1);
+		if (benchmarkConfig.getBoolean(GRAPH_CACHE_ENABLED, false)) {
+			graphCache = new HdfsGraphCache(
+					new org.apache.hadoop.fs.Path(Paths.get(hdfsDirectory, getPlatformName(), "cache").toString()),
+					benchmarkConfig.getLong(GRAPH_CACHE_MAX_BYTES, Long.MAX_VALUE));
+		}
 	}
 
 
+	private void collectSuperstepMetrics(String hdfsMetricsPath, Path logDirectory) {
+		try (FileSystem fs = FileSystem.get(new Configuration())) {
+			org.apache.hadoop.fs.Path metricsPath = new org.apache.hadoop.fs.Path(hdfsMetricsPath);
+			try {
+				SuperstepMetricsCollector.collect(fs, metricsPath,
+						logDirectory.resolve(SUPERSTEP_METRICS_FILE).toFile(),
+						logDirectory.resolve(WORKER_METRICS_FILE).toFile());
+			} finally {
+				fs.delete(metricsPath, true);
+			}
+		} catch (IOException e) {
+			LOG.warn("Failed to collect superstep metrics", e);
+		}
+	}
+
 	private void deleteOutput(String outputPath) {
 
 		try(FileSystem fs = FileSystem.get(new Configuration())) {
@@ -407,6 +554,15 @@ public class GiraphPlatform implements GranulaAwarePlatform {
 		}
 	}
 
+	private static void transferAlgorithmOptions(org.apache.commons.configuration.Configuration source,
+												 Configuration destination) {
+		org.apache.commons.configuration.Configuration algorithmOptions = source.subset("platform.giraph.algorithms");
+		for (Iterator<String> optionIterator = algorithmOptions.getKeys(); optionIterator.hasNext(); ) {
+			String option = optionIterator.next();
+			destination.set("graphalytics." + option, algorithmOptions.getString(option));
+		}
+	}
+
 	@Override
 	public JobModel getJobModel() {
 		return new JobModel(new Giraph());
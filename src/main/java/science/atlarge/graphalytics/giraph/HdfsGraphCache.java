@@ -0,0 +1,265 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import science.atlarge.graphalytics.domain.graph.FormattedGraph;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Content-addressed cache of uploaded graphs on HDFS, shared between benchmark runs. Every cached graph is stored in
+ * a directory named after a key derived from the size, modification time, and a sampled hash of its local files. A
+ * manifest in the cache directory records the size and last use of every entry; when the total size exceeds the
+ * configured limit, the least recently used entries are evicted.
+ */
+public final class HdfsGraphCache {
+	private static final Logger LOG = LogManager.getLogger();
+
+	private static final String MANIFEST_FILE = "manifest";
+	private static final int SAMPLE_COUNT = 16;
+	private static final int SAMPLE_SIZE = 4096;
+
+	private final Path cacheDirectory;
+	private final long maxBytes;
+
+	/**
+	 * @param cacheDirectory the directory on HDFS in which to store cached graphs
+	 * @param maxBytes       the maximum total size of all cached graphs
+	 */
+	public HdfsGraphCache(Path cacheDirectory, long maxBytes) {
+		this.cacheDirectory = cacheDirectory;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Computes the cache key of a graph. The key covers the size and modification time of the vertex and edge files,
+	 * a hash of samples spread over both files, and the given upload variant.
+	 *
+	 * @param formattedGraph the graph to compute the key for
+	 * @param variant        identifier of the format in which the graph is uploaded
+	 * @return the cache key
+	 * @throws IOException if the graph files could not be read
+	 */
+	public static String computeKey(FormattedGraph formattedGraph, String variant) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-1 is not supported", e);
+		}
+		digest.update((variant + "/" + formattedGraph.isDirected()).getBytes(StandardCharsets.UTF_8));
+		sampleFile(digest, new File(formattedGraph.getVertexFilePath()));
+		sampleFile(digest, new File(formattedGraph.getEdgeFilePath()));
+
+		StringBuilder key = new StringBuilder();
+		for (byte b : digest.digest()) {
+			key.append(String.format("%02x", b));
+		}
+		return key.toString();
+	}
+
+	private static void sampleFile(MessageDigest digest, File file) throws IOException {
+		long length = file.length();
+		updateLong(digest, length);
+		updateLong(digest, file.lastModified());
+
+		byte[] sample = new byte[SAMPLE_SIZE];
+		try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+			for (int i = 0; i < SAMPLE_COUNT; i++) {
+				// Samples are spread evenly, with the first at the start and the last at the end of the file
+				long offset = Math.max(0, (length - SAMPLE_SIZE) * i / (SAMPLE_COUNT - 1));
+				input.seek(offset);
+				int read = input.read(sample);
+				if (read > 0) {
+					digest.update(sample, 0, read);
+				}
+			}
+		}
+	}
+
+	private static void updateLong(MessageDigest digest, long value) {
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			digest.update((byte)(value >>> shift));
+		}
+	}
+
+	/**
+	 * @param key a cache key
+	 * @return the directory on HDFS in which the graph with the given key is stored
+	 */
+	public Path getEntryPath(String key) {
+		return new Path(cacheDirectory, key);
+	}
+
+	/**
+	 * @param path a path on HDFS
+	 * @return true iff the path is located in the cache
+	 */
+	public boolean contains(String path) {
+		String cachePrefix = cacheDirectory.toUri().getPath() + "/";
+		return new Path(path).toUri().getPath().startsWith(cachePrefix);
+	}
+
+	/**
+	 * Looks up a graph in the cache and, if it is present, marks it as recently used.
+	 *
+	 * @param fs  the file system containing the cache
+	 * @param key the cache key of the graph
+	 * @return true iff the graph is present in the cache
+	 * @throws IOException if the cache could not be accessed
+	 */
+	public boolean lookup(FileSystem fs, String key) throws IOException {
+		Map<String, Entry> entries = readManifest(fs);
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return false;
+		}
+		if (!fs.exists(getEntryPath(key))) {
+			LOG.warn("Cached graph \"{}\" is missing from HDFS, removing it from the cache", entry.graphName);
+			entries.remove(key);
+			writeManifest(fs, entries);
+			return false;
+		}
+
+		entry.lastUsed = System.currentTimeMillis();
+		writeManifest(fs, entries);
+		return true;
+	}
+
+	/**
+	 * Adds a graph that has been uploaded to its entry directory to the cache, and evicts the least recently used
+	 * graphs until the total size of the cache is within bounds.
+	 *
+	 * @param fs        the file system containing the cache
+	 * @param key       the cache key of the graph
+	 * @param graphName the name of the graph, for logging purposes
+	 * @throws IOException if the cache could not be accessed
+	 */
+	public void add(FileSystem fs, String key, String graphName) throws IOException {
+		Map<String, Entry> entries = readManifest(fs);
+		Entry added = new Entry(key, graphName, fs.getContentSummary(getEntryPath(key)).getLength(),
+				System.currentTimeMillis());
+		entries.put(key, added);
+
+		long totalBytes = 0;
+		for (Entry entry : entries.values()) {
+			totalBytes += entry.bytes;
+		}
+
+		List<Entry> byLastUse = new ArrayList<>(entries.values());
+		Collections.sort(byLastUse, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry first, Entry second) {
+				return Long.compare(first.lastUsed, second.lastUsed);
+			}
+		});
+		for (Entry entry : byLastUse) {
+			if (totalBytes <= maxBytes) {
+				break;
+			}
+			if (entry == added) {
+				continue;
+			}
+			LOG.info("Evicting graph \"{}\" ({} bytes) from the HDFS graph cache", entry.graphName, entry.bytes);
+			fs.delete(getEntryPath(entry.key), true);
+			entries.remove(entry.key);
+			totalBytes -= entry.bytes;
+		}
+
+		writeManifest(fs, entries);
+	}
+
+	private Map<String, Entry> readManifest(FileSystem fs) throws IOException {
+		Map<String, Entry> entries = new LinkedHashMap<>();
+		Path manifestPath = new Path(cacheDirectory, MANIFEST_FILE);
+		if (!fs.exists(manifestPath)) {
+			return entries;
+		}
+
+		try (FSDataInputStream input = fs.open(manifestPath);
+			 BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] tokens = line.split("\t", 4);
+				if (tokens.length != 4) {
+					continue;
+				}
+				try {
+					entries.put(tokens[0], new Entry(tokens[0], tokens[3], Long.parseLong(tokens[1]),
+							Long.parseLong(tokens[2])));
+				} catch (NumberFormatException e) {
+					LOG.warn("Ignoring malformed line in graph cache manifest: {}", line);
+				}
+			}
+		}
+		return entries;
+	}
+
+	private void writeManifest(FileSystem fs, Map<String, Entry> entries) throws IOException {
+		// Write to a temporary file first, so an interrupted write does not corrupt the manifest
+		Path manifestPath = new Path(cacheDirectory, MANIFEST_FILE);
+		Path temporaryPath = new Path(cacheDirectory, "." + MANIFEST_FILE + ".tmp");
+		fs.mkdirs(cacheDirectory);
+		try (FSDataOutputStream output = fs.create(temporaryPath, true);
+			 Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+			for (Entry entry : entries.values()) {
+				writer.write(entry.key + "\t" + entry.bytes + "\t" + entry.lastUsed + "\t" + entry.graphName + "\n");
+			}
+		}
+		fs.delete(manifestPath, false);
+		if (!fs.rename(temporaryPath, manifestPath)) {
+			throw new IOException("Failed to update graph cache manifest: " + manifestPath);
+		}
+	}
+
+	private static final class Entry {
+
+		private final String key;
+		private final String graphName;
+		private final long bytes;
+		private long lastUsed;
+
+		private Entry(String key, String graphName, long bytes, long lastUsed) {
+			this.key = key;
+			this.graphName = graphName;
+			this.bytes = bytes;
+			this.lastUsed = lastUsed;
+		}
+
+	}
+
+}
@@ -0,0 +1,546 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph;
+
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.util.LineReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import science.atlarge.graphalytics.giraph.io.BinaryIdWithValueOutputDecoder;
+import science.atlarge.graphalytics.giraph.io.BinaryIdWithValueOutputDecoder.LineDecoder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams the output of a Giraph job from HDFS into a single local file, sorted by vertex ID, without first copying
+ * the part files to local disk. Part files are read concurrently and cut into runs of a bounded size, which are sorted
+ * in memory. The last run of every part is kept in memory as long as all retained runs together fit in the run size
+ * times the number of threads; only runs beyond that budget are spilled to temporary files next to the destination.
+ * All runs are then combined with a k-way merge, in several passes if there are more spilled runs than can be merged
+ * at once. Output that fits in memory is therefore written to local disk exactly once, and memory use is bounded by
+ * twice the run size times the number of threads, independent of the size of the output. Every line of the output
+ * must start with a vertex ID. Part files in the binary format of
+ * {@link science.atlarge.graphalytics.giraph.io.BinaryIdWithValueOutputFormat} are decoded to text while reading.
+ */
+public final class HdfsOutputMerger {
+	private static final Logger LOG = LogManager.getLogger();
+
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final int RUN_BUFFER_SIZE = 64 * 1024;
+	/**
+	 * Default maximum number of bytes of output lines sorted in memory at once by a single thread.
+	 */
+	private static final int DEFAULT_RUN_BYTES = 64 * 1024 * 1024;
+	/**
+	 * Default maximum number of runs merged at once.
+	 */
+	private static final int DEFAULT_MERGE_FAN_IN = 128;
+
+	private final FileSystem fileSystem;
+	private final int threads;
+	private final int runBytes;
+	private final int mergeFanIn;
+	private volatile int spilledRunCount = 0;
+
+	/**
+	 * @param fileSystem the HDFS file system to read from
+	 * @param threads    the maximum number of part files to read concurrently
+	 */
+	public HdfsOutputMerger(FileSystem fileSystem, int threads) {
+		this(fileSystem, threads, DEFAULT_RUN_BYTES, DEFAULT_MERGE_FAN_IN);
+	}
+
+	/**
+	 * @param fileSystem the HDFS file system to read from
+	 * @param threads    the maximum number of part files to read concurrently
+	 * @param runBytes   the maximum number of bytes of output lines to sort in memory at once, per thread
+	 * @param mergeFanIn the maximum number of runs to merge at once
+	 */
+	HdfsOutputMerger(FileSystem fileSystem, int threads, int runBytes, int mergeFanIn) {
+		this.fileSystem = fileSystem;
+		this.threads = Math.max(1, threads);
+		this.runBytes = Math.max(1, runBytes);
+		this.mergeFanIn = Math.max(2, mergeFanIn);
+	}
+
+	/**
+	 * Merges all part files in a directory on HDFS into a single local file. Hidden files and Hadoop's marker files,
+	 * whose names start with "." or "_", are skipped.
+	 *
+	 * @param source          directory on HDFS containing the output of a job
+	 * @param destinationFile local file to write the merged output to
+	 * @throws IOException if the output could not be read or written
+	 */
+	public void merge(Path source, File destinationFile) throws IOException {
+		File parent = destinationFile.getAbsoluteFile().getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Failed to create local directory: " + parent);
+		}
+		// The destination has room for the merged output, so it also has room for the runs
+		final File runDirectory = Files.createTempDirectory(parent.toPath(), ".merge-").toFile();
+		final AtomicLong memoryBudget = new AtomicLong((long)threads * runBytes);
+		final AtomicInteger spilledRuns = new AtomicInteger();
+		try {
+			List<Callable<SortedPart>> tasks = new ArrayList<>();
+			for (final FileStatus file : fileSystem.listStatus(source)) {
+				String name = file.getPath().getName();
+				if (!file.isFile() || name.startsWith(".") || name.startsWith("_")) {
+					continue;
+				}
+				tasks.add(new Callable<SortedPart>() {
+					@Override
+					public SortedPart call() throws IOException {
+						return sortPart(file.getPath(), runDirectory, memoryBudget, spilledRuns);
+					}
+				});
+			}
+			List<File> fileRuns = new ArrayList<>();
+			List<RunBuffer> memoryRuns = new ArrayList<>();
+			for (SortedPart part : runAll(tasks)) {
+				fileRuns.addAll(part.fileRuns);
+				if (part.memoryRun != null) {
+					memoryRuns.add(part.memoryRun);
+				}
+			}
+			LOG.debug("Sorted {} part file(s) from {} into {} run(s) in memory and {} run(s) on disk using {} threads",
+					tasks.size(), source, memoryRuns.size(), fileRuns.size(), threads);
+
+			// Merge spilled runs in intermediate passes until they can all be merged at once
+			while (fileRuns.size() > mergeFanIn) {
+				List<File> mergedRuns = new ArrayList<>(fileRuns.subList(0, mergeFanIn));
+				fileRuns = new ArrayList<>(fileRuns.subList(mergeFanIn, fileRuns.size()));
+				File run = createRunFile(runDirectory, spilledRuns);
+				try (OutputStream output = new BufferedOutputStream(new FileOutputStream(run), BUFFER_SIZE)) {
+					mergeRuns(openRuns(mergedRuns, Collections.<RunBuffer>emptyList()), output);
+				}
+				for (File mergedRun : mergedRuns) {
+					Files.delete(mergedRun.toPath());
+				}
+				fileRuns.add(run);
+			}
+
+			try (OutputStream output = new BufferedOutputStream(new FileOutputStream(destinationFile), BUFFER_SIZE)) {
+				mergeRuns(openRuns(fileRuns, memoryRuns), output);
+			}
+		} finally {
+			spilledRunCount = spilledRuns.get();
+			deleteDirectory(runDirectory);
+		}
+	}
+
+	/**
+	 * @return the number of runs written to local disk by the last call to {@link #merge(Path, File)}, including the
+	 * runs written by intermediate merge passes
+	 */
+	int getSpilledRunCount() {
+		return spilledRunCount;
+	}
+
+	private SortedPart sortPart(Path path, File runDirectory, AtomicLong memoryBudget, AtomicInteger spilledRuns)
+			throws IOException {
+		List<File> runs = new ArrayList<>();
+		RunBuffer buffer = new RunBuffer(runBytes);
+		try (InputStream input = new BufferedInputStream(fileSystem.open(path, BUFFER_SIZE), BUFFER_SIZE)) {
+			if (BinaryIdWithValueOutputDecoder.isBinaryOutput(input)) {
+				LineDecoder decoder = new LineDecoder(input);
+				String line;
+				while ((line = decoder.nextLine()) != null) {
+					byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+					addLine(buffer, decoder.getId(), bytes, bytes.length, runs, runDirectory, spilledRuns);
+				}
+			} else {
+				LineReader reader = new LineReader(input, BUFFER_SIZE);
+				Text line = new Text();
+				long offset = 0;
+				int bytesRead;
+				while ((bytesRead = reader.readLine(line)) > 0) {
+					long id = parseId(line.getBytes(), line.getLength(), path, offset);
+					addLine(buffer, id, line.getBytes(), line.getLength(), runs, runDirectory, spilledRuns);
+					offset += bytesRead;
+				}
+			}
+		}
+		if (buffer.isEmpty()) {
+			return new SortedPart(runs, null);
+		}
+
+		// Keep the last run in memory for the final merge if it fits in the budget shared by all parts
+		buffer.sortAndTrim();
+		long footprint = buffer.getFootprint();
+		if (memoryBudget.addAndGet(-footprint) >= 0) {
+			return new SortedPart(runs, buffer);
+		}
+		memoryBudget.addAndGet(footprint);
+		runs.add(buffer.spill(createRunFile(runDirectory, spilledRuns)));
+		return new SortedPart(runs, null);
+	}
+
+	private static void addLine(RunBuffer buffer, long id, byte[] line, int length, List<File> runs,
+			File runDirectory, AtomicInteger spilledRuns) throws IOException {
+		if (!buffer.add(id, line, length)) {
+			runs.add(buffer.spill(createRunFile(runDirectory, spilledRuns)));
+			buffer.add(id, line, length);
+		}
+	}
+
+	private static File createRunFile(File runDirectory, AtomicInteger spilledRuns) throws IOException {
+		spilledRuns.incrementAndGet();
+		return File.createTempFile("run-", "", runDirectory);
+	}
+
+	private static long parseId(byte[] line, int length, Object source, long offset) throws IOException {
+		int position = 0;
+		boolean negative = length > 0 && line[0] == '-';
+		if (negative) {
+			position++;
+		}
+		long id = 0;
+		int digits = 0;
+		while (position < length && line[position] >= '0' && line[position] <= '9') {
+			id = id * 10 + (line[position] - '0');
+			position++;
+			digits++;
+		}
+		if (digits == 0) {
+			throw new IOException("Output line does not start with a vertex ID in " + source + " at offset " + offset);
+		}
+		return negative ? -id : id;
+	}
+
+	private static List<RunReader> openRuns(List<File> fileRuns, List<RunBuffer> memoryRuns) throws IOException {
+		List<RunReader> readers = new ArrayList<>(fileRuns.size() + memoryRuns.size());
+		for (RunBuffer memoryRun : memoryRuns) {
+			readers.add(new MemoryRunReader(memoryRun));
+		}
+		try {
+			for (File fileRun : fileRuns) {
+				readers.add(new FileRunReader(fileRun));
+			}
+		} catch (IOException e) {
+			for (RunReader reader : readers) {
+				reader.close();
+			}
+			throw e;
+		}
+		return readers;
+	}
+
+	private static void mergeRuns(List<RunReader> readers, OutputStream output) throws IOException {
+		try {
+			PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, readers.size()));
+			for (RunReader reader : readers) {
+				if (reader.next()) {
+					queue.add(reader);
+				}
+			}
+			while (!queue.isEmpty()) {
+				RunReader reader = queue.poll();
+				reader.writeLine(output);
+				if (reader.next()) {
+					queue.add(reader);
+				}
+			}
+		} finally {
+			for (RunReader reader : readers) {
+				reader.close();
+			}
+		}
+	}
+
+	private <T> List<T> runAll(List<Callable<T>> tasks) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, tasks.size())));
+		try {
+			List<Future<T>> futures = new ArrayList<>();
+			for (Callable<T> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			List<T> results = new ArrayList<>(futures.size());
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while merging output files", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException)e.getCause();
+			}
+			throw new IOException("Failed to merge output files", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void deleteDirectory(File directory) {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (!file.delete()) {
+					LOG.warn("Failed to delete temporary file {}", file);
+				}
+			}
+		}
+		if (!directory.delete()) {
+			LOG.warn("Failed to delete temporary directory {}", directory);
+		}
+	}
+
+	/**
+	 * The sorted runs of a single part file: the runs spilled to disk, and the last run if it was kept in memory.
+	 */
+	private static final class SortedPart {
+
+		private final List<File> fileRuns;
+		private final RunBuffer memoryRun;
+
+		private SortedPart(List<File> fileRuns, RunBuffer memoryRun) {
+			this.fileRuns = fileRuns;
+			this.memoryRun = memoryRun;
+		}
+
+	}
+
+	/**
+	 * Output lines collected in memory, which are sorted by vertex ID and either written to a run file when the buffer
+	 * is full, or kept in memory for the final merge.
+	 */
+	private static final class RunBuffer {
+
+		private static final int INITIAL_CAPACITY = 64 * 1024;
+
+		private final int capacity;
+		private byte[] data;
+		private int size = 0;
+		private long[] ids = new long[1024];
+		/**
+		 * The start (upper 32 bits) and length (lower 32 bits) of every line in the data array.
+		 */
+		private long[] lines = new long[1024];
+		private int lineCount = 0;
+
+		private RunBuffer(int capacity) {
+			this.capacity = capacity;
+			this.data = new byte[Math.min(capacity, INITIAL_CAPACITY)];
+		}
+
+		private boolean isEmpty() {
+			return lineCount == 0;
+		}
+
+		/**
+		 * @return true iff the line was added, false if the buffer is full
+		 */
+		private boolean add(long id, byte[] line, int length) {
+			if (data.length - size < length) {
+				if (size + length <= capacity) {
+					data = Arrays.copyOf(data, (int)Math.min(capacity, Math.max(2L * data.length, size + length)));
+				} else if (lineCount > 0) {
+					return false;
+				} else {
+					// A single line longer than the buffer is sorted on its own
+					data = new byte[length];
+				}
+			}
+			if (lineCount == ids.length) {
+				ids = Arrays.copyOf(ids, lineCount * 2);
+				lines = Arrays.copyOf(lines, lineCount * 2);
+			}
+			System.arraycopy(line, 0, data, size, length);
+			ids[lineCount] = id;
+			lines[lineCount] = (long)size << 32 | length;
+			lineCount++;
+			size += length;
+			return true;
+		}
+
+		private void sort() {
+			// Lines are sorted by ID, and lines with equal IDs keep their order as their start offsets increase
+			LongArrays.radixSort(ids, lines, 0, lineCount);
+		}
+
+		/**
+		 * Sorts the lines and releases unused capacity, before the buffer is kept for the final merge.
+		 */
+		private void sortAndTrim() {
+			sort();
+			data = Arrays.copyOf(data, size);
+			ids = Arrays.copyOf(ids, lineCount);
+			lines = Arrays.copyOf(lines, lineCount);
+		}
+
+		/**
+		 * @return the approximate number of bytes of memory used by the buffer
+		 */
+		private long getFootprint() {
+			return data.length + 16L * ids.length;
+		}
+
+		private File spill(File run) throws IOException {
+			sort();
+			try (OutputStream output = new BufferedOutputStream(new FileOutputStream(run), RUN_BUFFER_SIZE)) {
+				for (int i = 0; i < lineCount; i++) {
+					output.write(data, (int)(lines[i] >>> 32), (int)lines[i]);
+					output.write('\n');
+				}
+			}
+			size = 0;
+			lineCount = 0;
+			return run;
+		}
+
+	}
+
+	/**
+	 * Reads the lines of a sorted run one at a time.
+	 */
+	private abstract static class RunReader implements Comparable<RunReader>, Closeable {
+
+		protected long id;
+
+		/**
+		 * @return true iff another line was read, false at the end of the run
+		 */
+		abstract boolean next() throws IOException;
+
+		abstract void writeLine(OutputStream output) throws IOException;
+
+		@Override
+		public int compareTo(RunReader other) {
+			return Long.compare(id, other.id);
+		}
+
+	}
+
+	/**
+	 * Reads a sorted run that was kept in memory.
+	 */
+	private static final class MemoryRunReader extends RunReader {
+
+		private final RunBuffer run;
+		private int index = -1;
+
+		private MemoryRunReader(RunBuffer run) {
+			this.run = run;
+		}
+
+		@Override
+		boolean next() {
+			index++;
+			if (index >= run.lineCount) {
+				return false;
+			}
+			id = run.ids[index];
+			return true;
+		}
+
+		@Override
+		void writeLine(OutputStream output) throws IOException {
+			long line = run.lines[index];
+			output.write(run.data, (int)(line >>> 32), (int)line);
+			output.write('\n');
+		}
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+	/**
+	 * Reads a sorted run that was spilled to disk.
+	 */
+	private static final class FileRunReader extends RunReader {
+
+		private final File file;
+		private final InputStream input;
+		private final byte[] buffer = new byte[RUN_BUFFER_SIZE];
+		private int bufferPosition = 0;
+		private int bufferLimit = 0;
+
+		private byte[] line = new byte[256];
+		private int lineLength;
+
+		private FileRunReader(File file) throws IOException {
+			this.file = file;
+			this.input = new FileInputStream(file);
+		}
+
+		@Override
+		boolean next() throws IOException {
+			lineLength = 0;
+			while (true) {
+				if (bufferPosition == bufferLimit) {
+					bufferLimit = input.read(buffer);
+					bufferPosition = 0;
+					if (bufferLimit <= 0) {
+						bufferLimit = 0;
+						// Every line in a run ends with a line separator
+						return false;
+					}
+				}
+				byte b = buffer[bufferPosition++];
+				if (b == '\n') {
+					id = parseId(line, lineLength, file, 0);
+					return true;
+				}
+				if (lineLength == line.length) {
+					line = Arrays.copyOf(line, line.length * 2);
+				}
+				line[lineLength++] = b;
+			}
+		}
+
+		@Override
+		void writeLine(OutputStream output) throws IOException {
+			output.write(line, 0, lineLength);
+			output.write('\n');
+		}
+
+		@Override
+		public void close() throws IOException {
+			input.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Copies files between the local file system and HDFS using multiple concurrent streams. Local text files are
+ * uploaded as a directory of part files, each covering a whole number of lines and roughly a whole number of HDFS
+ * blocks, which Giraph's file input formats read like a single file. Directories on HDFS, such as the output of a
+ * Giraph job, are downloaded one file per stream.
+ */
+public final class ParallelHdfsTransfer {
+	private static final Logger LOG = LogManager.getLogger();
+
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private final FileSystem fileSystem;
+	private final int threads;
+
+	/**
+	 * @param fileSystem the HDFS file system to transfer to and from
+	 * @param threads    the maximum number of concurrent transfers
+	 */
+	public ParallelHdfsTransfer(FileSystem fileSystem, int threads) {
+		this.fileSystem = fileSystem;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Uploads a local text file to HDFS. With a single thread the file is copied as-is; otherwise the destination is
+	 * a directory containing one part file per chunk of the input.
+	 *
+	 * @param localFile   path of the local file to upload
+	 * @param destination path on HDFS to upload to
+	 * @throws IOException if the file could not be uploaded
+	 */
+	public void upload(String localFile, Path destination) throws IOException {
+		if (threads == 1) {
+			fileSystem.copyFromLocalFile(new Path(localFile), destination);
+			return;
+		}
+
+		long[] boundaries = computeChunkBoundaries(new File(localFile), fileSystem.getDefaultBlockSize(destination));
+		LOG.debug("Uploading {} as {} part(s) using {} threads", localFile, boundaries.length - 1, threads);
+
+		fileSystem.delete(destination, true);
+		fileSystem.mkdirs(destination);
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int i = 0; i + 1 < boundaries.length; i++) {
+			tasks.add(new ChunkUpload(localFile, boundaries[i], boundaries[i + 1],
+					new Path(destination, String.format("part-%05d", i))));
+		}
+		runAll(tasks);
+	}
+
+	/**
+	 * Downloads a file or directory from HDFS, with the same semantics as
+	 * {@link FileSystem#copyToLocalFile(boolean, Path, Path, boolean)}: if the local destination is an existing
+	 * directory, the source is copied into it.
+	 *
+	 * @param source           path on HDFS to download
+	 * @param localDestination local path to download to
+	 * @throws IOException if the file or directory could not be downloaded
+	 */
+	public void download(Path source, String localDestination) throws IOException {
+		FileStatus sourceStatus = fileSystem.getFileStatus(source);
+		if (threads == 1 || !sourceStatus.isDirectory()) {
+			fileSystem.copyToLocalFile(false, source, new Path(localDestination), true);
+			return;
+		}
+
+		File targetDirectory = new File(localDestination);
+		if (targetDirectory.isDirectory()) {
+			targetDirectory = new File(targetDirectory, source.getName());
+		}
+		if (!targetDirectory.isDirectory() && !targetDirectory.mkdirs()) {
+			throw new IOException("Failed to create local directory: " + targetDirectory);
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (final FileStatus file : fileSystem.listStatus(source)) {
+			final Path target = new Path(new File(targetDirectory, file.getPath().getName()).getAbsolutePath());
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws IOException {
+					fileSystem.copyToLocalFile(false, file.getPath(), target, true);
+					return null;
+				}
+			});
+		}
+		LOG.debug("Downloading {} file(s) from {} using {} threads", tasks.size(), source, threads);
+		runAll(tasks);
+	}
+
+	/**
+	 * Splits a file into chunks of approximately equal size, rounded up to a multiple of the block size, and moves
+	 * every boundary forward to the start of the next line.
+	 *
+	 * @return the offsets at which chunks start, followed by the length of the file
+	 */
+	private long[] computeChunkBoundaries(File file, long blockSize) throws IOException {
+		long length = file.length();
+		long chunkSize = Math.max(1, (length + threads - 1) / threads);
+		if (blockSize > 0) {
+			chunkSize = (chunkSize + blockSize - 1) / blockSize * blockSize;
+		}
+
+		List<Long> boundaries = new ArrayList<>();
+		boundaries.add(0L);
+		try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+			long previous = 0;
+			while (previous + chunkSize < length) {
+				long boundary = nextLineStart(input, previous + chunkSize, length);
+				if (boundary >= length) {
+					break;
+				}
+				boundaries.add(boundary);
+				previous = boundary;
+			}
+		}
+		boundaries.add(length);
+
+		long[] result = new long[boundaries.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = boundaries.get(i);
+		}
+		return result;
+	}
+
+	private static long nextLineStart(RandomAccessFile input, long offset, long length) throws IOException {
+		byte[] buffer = new byte[64 * 1024];
+		long position = offset;
+		input.seek(position);
+		while (position < length) {
+			int read = input.read(buffer);
+			if (read < 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (buffer[i] == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return length;
+	}
+
+	private void runAll(List<Callable<Void>> tasks) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, tasks.size())));
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+			for (Callable<Void> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while transferring files", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException)e.getCause();
+			}
+			throw new IOException("Failed to transfer files", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private class ChunkUpload implements Callable<Void> {
+
+		private final String localFile;
+		private final long start;
+		private final long end;
+		private final Path destination;
+
+		private ChunkUpload(String localFile, long start, long end, Path destination) {
+			this.localFile = localFile;
+			this.start = start;
+			this.end = end;
+			this.destination = destination;
+		}
+
+		@Override
+		public Void call() throws IOException {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			try (RandomAccessFile input = new RandomAccessFile(localFile, "r");
+				 FSDataOutputStream output = fileSystem.create(destination, true, BUFFER_SIZE)) {
+				input.seek(start);
+				long remaining = end - start;
+				while (remaining > 0) {
+					int read = input.read(buffer, 0, (int)Math.min(buffer.length, remaining));
+					if (read < 0) {
+						throw new IOException("Unexpected end of file while uploading " + localFile);
+					}
+					output.write(buffer, 0, read);
+					remaining -= read;
+				}
+			}
+			return null;
+		}
+
+	}
+
+}
@@ -55,6 +55,9 @@ public class BreadthFirstSearchComputation extends BasicComputation<LongWritable
 			if (vertex.getId().get() == sourceVertexId) {
 				vertex.getValue().set(bfsDepth);
 				sendMessageToAllEdges(vertex, vertex.getValue());
+			} else {
+				// Do not rely on the input format to initialize the vertex value
+				vertex.getValue().set(UNVISITED);
 			}
 		} else {
 			// If this vertex was not yet visited, set the vertex depth and propagate to neighbours
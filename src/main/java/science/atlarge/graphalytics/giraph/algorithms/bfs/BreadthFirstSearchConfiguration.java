@@ -15,6 +15,7 @@
  */
 package science.atlarge.graphalytics.giraph.algorithms.bfs;
 
+import org.apache.giraph.conf.BooleanConfOption;
 import org.apache.giraph.conf.LongConfOption;
 
 /**
@@ -34,6 +35,51 @@ public final class BreadthFirstSearchConfiguration {
 	public static final LongConfOption SOURCE_VERTEX = new LongConfOption(
 			SOURCE_VERTEX_KEY, -1, "Source vertex for the breadth first search algorithm");
 
+	/**
+	 * Configuration key for enabling the message combiner of the algorithm
+	 */
+	public static final String USE_COMBINER_KEY = "graphalytics.bfs.use-combiner";
+	/**
+	 * Configuration option for enabling the message combiner of the algorithm
+	 */
+	public static final BooleanConfOption USE_COMBINER = new BooleanConfOption(
+			USE_COMBINER_KEY, true, "Combine messages sent to the same vertex in the breadth first search algorithm");
+
+	/**
+	 * Configuration key for enabling direction-optimizing breadth-first search on undirected graphs
+	 */
+	public static final String DIRECTION_OPTIMIZING_KEY = "graphalytics.bfs.direction-optimizing";
+	/**
+	 * Configuration option for enabling direction-optimizing breadth-first search on undirected graphs
+	 */
+	public static final BooleanConfOption DIRECTION_OPTIMIZING = new BooleanConfOption(
+			DIRECTION_OPTIMIZING_KEY, false, "Switch between top-down and bottom-up breadth first search steps");
+
+	/**
+	 * Name of aggregator for the number of vertices in the frontier.
+	 */
+	public static final String FRONTIER_SIZE = "Frontier size";
+	/**
+	 * Name of aggregator for the number of edges of vertices in the frontier.
+	 */
+	public static final String FRONTIER_EDGES = "Frontier edges";
+	/**
+	 * Name of aggregator for the bitmap of vertices in the frontier, for bottom-up steps.
+	 */
+	public static final String FRONTIER_BITMAP = "Frontier bitmap";
+	/**
+	 * Name of aggregator for the direction in which the frontier of the current superstep is expanded.
+	 */
+	public static final String BOTTOM_UP = "Bottom-up";
+	/**
+	 * Name of aggregator for the lowest vertex ID.
+	 */
+	public static final String MIN_VERTEX_ID = "Minimum vertex ID";
+	/**
+	 * Name of aggregator for the highest vertex ID.
+	 */
+	public static final String MAX_VERTEX_ID = "Maximum vertex ID";
+
 	private BreadthFirstSearchConfiguration() {
 	}
 
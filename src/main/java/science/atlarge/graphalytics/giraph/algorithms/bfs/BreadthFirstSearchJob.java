@@ -18,6 +18,8 @@ package science.atlarge.graphalytics.giraph.algorithms.bfs;
 import science.atlarge.graphalytics.domain.graph.FormattedGraph;
 import science.atlarge.graphalytics.domain.algorithms.BreadthFirstSearchParameters;
 import science.atlarge.graphalytics.giraph.GiraphJob;
+import science.atlarge.graphalytics.giraph.io.LongIdWithValueTextOutputFormat;
+import science.atlarge.graphalytics.giraph.combiner.FirstWinsLongMessageCombiner;
 import science.atlarge.graphalytics.giraph.io.DirectedLongNullTextEdgeInputFormat;
 import science.atlarge.graphalytics.giraph.io.UndirectedLongNullTextEdgeInputFormat;
 import org.apache.giraph.comm.messages.MessageEncodeAndStoreType;
@@ -27,9 +29,10 @@ import org.apache.giraph.io.EdgeInputFormat;
 import org.apache.giraph.io.EdgeOutputFormat;
 import org.apache.giraph.io.VertexInputFormat;
 import org.apache.giraph.io.VertexOutputFormat;
-import org.apache.giraph.io.formats.IdWithValueTextOutputFormat;
 
+import static science.atlarge.graphalytics.giraph.algorithms.bfs.BreadthFirstSearchConfiguration.DIRECTION_OPTIMIZING;
 import static science.atlarge.graphalytics.giraph.algorithms.bfs.BreadthFirstSearchConfiguration.SOURCE_VERTEX;
+import static science.atlarge.graphalytics.giraph.algorithms.bfs.BreadthFirstSearchConfiguration.USE_COMBINER;
 import static org.apache.giraph.conf.GiraphConstants.MESSAGE_ENCODE_AND_STORE_TYPE;
 
 /**
@@ -58,7 +61,16 @@ public class BreadthFirstSearchJob extends GiraphJob {
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends Computation> getComputationClass() {
-		return BreadthFirstSearchComputation.class;
+		return useDirectionOptimizing() ?
+				DirectionOptimizingBreadthFirstSearchComputation.class :
+				BreadthFirstSearchComputation.class;
+	}
+
+	/**
+	 * Bottom-up steps look for visited neighbours along outgoing edges, so they are only used on undirected graphs.
+	 */
+	private boolean useDirectionOptimizing() {
+		return !formattedGraph.isDirected() && DIRECTION_OPTIMIZING.get(getConf());
 	}
 
 	@SuppressWarnings("rawtypes")
@@ -70,7 +82,7 @@ public class BreadthFirstSearchJob extends GiraphJob {
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends VertexOutputFormat> getVertexOutputFormatClass() {
-		return IdWithValueTextOutputFormat.class;
+		return LongIdWithValueTextOutputFormat.class;
 	}
 
 	@SuppressWarnings("rawtypes")
@@ -92,6 +104,16 @@ public class BreadthFirstSearchJob extends GiraphJob {
 		SOURCE_VERTEX.set(config, parameters.getSourceVertex());
 		// Set the message store type to optimize for one-to-many messages (i.e. broadcasts as used in BFS)
 		MESSAGE_ENCODE_AND_STORE_TYPE.set(config, MessageEncodeAndStoreType.EXTRACT_BYTEARRAY_PER_PARTITION);
+
+		// Only the presence of a message matters, so all messages to a vertex can be combined into one
+		if (USE_COMBINER.get(config)) {
+			config.setMessageCombinerClass(FirstWinsLongMessageCombiner.class);
+		}
+
+		if (useDirectionOptimizing()) {
+			config.setMasterComputeClass(DirectionOptimizingBreadthFirstSearchMasterComputation.class);
+			config.setWorkerContextClass(DirectionOptimizingBreadthFirstSearchWorkerContext.class);
+		}
 	}
 
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.bfs;
+
+import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.graph.BasicComputation;
+import org.apache.giraph.graph.Vertex;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+
+import java.io.IOException;
+
+import static science.atlarge.graphalytics.giraph.algorithms.bfs.BreadthFirstSearchConfiguration.*;
+
+/**
+ * Direction-optimizing BFS on an unweighted, undirected graph. Vertices visited in a superstep either send a message
+ * to all neighbours (top-down), or add themselves to a frontier bitmap that is shared with all workers (bottom-up).
+ * In a bottom-up step, every unvisited vertex checks whether any of its neighbours is in the bitmap, which requires
+ * no messages and stops at the first visited neighbour. The direction is chosen by
+ * {@link DirectionOptimizingBreadthFirstSearchMasterComputation}. Unvisited vertices remain active, as they must be
+ * able to look for visited neighbours in bottom-up steps.
+ */
+public class DirectionOptimizingBreadthFirstSearchComputation extends
+		BasicComputation<LongWritable, LongWritable, NullWritable, LongWritable> {
+
+	/**
+	 * Constant vertex value representing an unvisited vertex
+	 */
+	private static final long UNVISITED = Long.MAX_VALUE;
+	/**
+	 * Source vertex ID read at the start of the algorithm execution
+	 */
+	private long sourceVertexId = -1L;
+
+	private LongWritable one = new LongWritable(1);
+	private LongWritable edgeCount = new LongWritable();
+	private FrontierBitmap visitedVertex = new FrontierBitmap();
+
+	@Override
+	public void setConf(ImmutableClassesGiraphConfiguration<LongWritable, LongWritable, NullWritable> conf) {
+		super.setConf(conf);
+		sourceVertexId = SOURCE_VERTEX.get(getConf());
+	}
+
+	@Override
+	public void compute(Vertex<LongWritable, LongWritable, NullWritable> vertex,
+			Iterable<LongWritable> messages) throws IOException {
+		DirectionOptimizingBreadthFirstSearchWorkerContext workerContext = getWorkerContext();
+
+		if (getSuperstep() == 0) {
+			// Collect the range of vertex IDs to determine if a frontier bitmap is feasible
+			aggregate(MIN_VERTEX_ID, vertex.getId());
+			aggregate(MAX_VERTEX_ID, vertex.getId());
+			// During the first superstep only the source vertex should be active
+			if (vertex.getId().get() == sourceVertexId) {
+				visit(vertex, workerContext);
+			} else {
+				// Do not rely on the input format to initialize the vertex value
+				vertex.getValue().set(UNVISITED);
+			}
+			return;
+		}
+
+		if (vertex.getValue().get() != UNVISITED) {
+			vertex.voteToHalt();
+			return;
+		}
+
+		// Visit this vertex if a neighbour was visited in the previous superstep
+		boolean reached;
+		if (workerContext.isPreviousBottomUp()) {
+			reached = hasNeighbourInFrontier(vertex, workerContext.getPreviousFrontier());
+		} else {
+			reached = messages.iterator().hasNext();
+		}
+		if (reached) {
+			visit(vertex, workerContext);
+		}
+	}
+
+	private void visit(Vertex<LongWritable, LongWritable, NullWritable> vertex,
+			DirectionOptimizingBreadthFirstSearchWorkerContext workerContext) {
+		vertex.getValue().set(getSuperstep());
+
+		// Add this vertex to the frontier
+		aggregate(FRONTIER_SIZE, one);
+		edgeCount.set(vertex.getNumEdges());
+		aggregate(FRONTIER_EDGES, edgeCount);
+		if (workerContext.isBottomUp()) {
+			visitedVertex.clear();
+			visitedVertex.set(vertex.getId().get());
+			aggregate(FRONTIER_BITMAP, visitedVertex);
+		} else {
+			sendMessageToAllEdges(vertex, vertex.getValue());
+		}
+
+		vertex.voteToHalt();
+	}
+
+	private static boolean hasNeighbourInFrontier(Vertex<LongWritable, LongWritable, NullWritable> vertex,
+			FrontierBitmap frontier) {
+		if (frontier.isEmpty()) {
+			return false;
+		}
+		for (Edge<LongWritable, NullWritable> edge : vertex.getEdges()) {
+			if (frontier.contains(edge.getTargetVertexId().get())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.bfs;
+
+import org.apache.giraph.aggregators.BooleanOverwriteAggregator;
+import org.apache.giraph.aggregators.LongMaxAggregator;
+import org.apache.giraph.aggregators.LongMinAggregator;
+import org.apache.giraph.aggregators.LongSumAggregator;
+import org.apache.giraph.master.DefaultMasterCompute;
+import org.apache.hadoop.io.BooleanWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static science.atlarge.graphalytics.giraph.algorithms.bfs.BreadthFirstSearchConfiguration.*;
+
+/**
+ * Master computation for direction-optimizing breadth-first search. Before every superstep, it decides whether the
+ * frontier found in that superstep is expanded top-down (by sending messages) or bottom-up (by unvisited vertices
+ * looking up their neighbours in a bitmap of the frontier), following the heuristic of Beamer et al. The decision is
+ * based on the size of the frontier of the previous superstep, as the size of the new frontier is not known until
+ * the end of the superstep.
+ */
+public class DirectionOptimizingBreadthFirstSearchMasterComputation extends DefaultMasterCompute {
+	private static final Logger LOG = LogManager.getLogger();
+
+	/**
+	 * Switch to bottom-up steps once the frontier has more than 1/ALPHA of the unexplored edges.
+	 */
+	private static final long ALPHA = 14;
+	/**
+	 * Switch back to top-down steps once the frontier has less than 1/BETA of all vertices.
+	 */
+	private static final long BETA = 24;
+
+	private boolean bottomUp = false;
+	private boolean bitmapAllowed = false;
+	private long exploredEdges = 0;
+
+	@Override
+	public void initialize() throws InstantiationException, IllegalAccessException {
+		registerAggregator(FRONTIER_SIZE, LongSumAggregator.class);
+		registerAggregator(FRONTIER_EDGES, LongSumAggregator.class);
+		registerAggregator(FRONTIER_BITMAP, FrontierBitmapAggregator.class);
+		registerAggregator(MIN_VERTEX_ID, LongMinAggregator.class);
+		registerAggregator(MAX_VERTEX_ID, LongMaxAggregator.class);
+		registerPersistentAggregator(BOTTOM_UP, BooleanOverwriteAggregator.class);
+	}
+
+	@Override
+	public void compute() {
+		if (getSuperstep() == 0) {
+			setAggregatedValue(BOTTOM_UP, new BooleanWritable(false));
+			return;
+		}
+		if (getSuperstep() == 1) {
+			// Only use bottom-up steps if a bitmap covering all vertex IDs takes at most one word per vertex
+			long minVertexId = ((LongWritable)getAggregatedValue(MIN_VERTEX_ID)).get();
+			long maxVertexId = ((LongWritable)getAggregatedValue(MAX_VERTEX_ID)).get();
+			bitmapAllowed = (maxVertexId >> 6) - (minVertexId >> 6) < getTotalNumVertices();
+			if (!bitmapAllowed) {
+				LOG.info("Vertex IDs are too sparse for a frontier bitmap, using only top-down steps");
+			}
+		}
+
+		// The search is complete when the previous superstep did not visit any vertices
+		long frontierSize = ((LongWritable)getAggregatedValue(FRONTIER_SIZE)).get();
+		if (frontierSize == 0) {
+			haltComputation();
+			return;
+		}
+
+		long frontierEdges = ((LongWritable)getAggregatedValue(FRONTIER_EDGES)).get();
+		exploredEdges += frontierEdges;
+		long unexploredEdges = getTotalNumEdges() - exploredEdges;
+		if (!bottomUp && bitmapAllowed && frontierEdges > unexploredEdges / ALPHA) {
+			bottomUp = true;
+			LOG.info("Switching to bottom-up steps in superstep {} (frontier: {} vertices, {} edges)",
+					getSuperstep(), frontierSize, frontierEdges);
+		} else if (bottomUp && frontierSize < getTotalNumVertices() / BETA) {
+			bottomUp = false;
+			LOG.info("Switching to top-down steps in superstep {} (frontier: {} vertices, {} edges)",
+					getSuperstep(), frontierSize, frontierEdges);
+		}
+		setAggregatedValue(BOTTOM_UP, new BooleanWritable(bottomUp));
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.bfs;
+
+import org.apache.giraph.worker.DefaultWorkerContext;
+import org.apache.hadoop.io.BooleanWritable;
+
+/**
+ * Worker context for direction-optimizing breadth-first search to provide access to the direction of the current and
+ * previous superstep, and to the frontier bitmap of the previous superstep, which is shared by all vertices on a worker.
+ */
+public class DirectionOptimizingBreadthFirstSearchWorkerContext extends DefaultWorkerContext {
+
+	private boolean bottomUp = false;
+	private boolean previousBottomUp = false;
+	private FrontierBitmap previousFrontier = new FrontierBitmap();
+
+	@Override
+	public void preSuperstep() {
+		super.preSuperstep();
+		previousBottomUp = bottomUp;
+		bottomUp = ((BooleanWritable)getAggregatedValue(BreadthFirstSearchConfiguration.BOTTOM_UP)).get();
+		previousFrontier = (FrontierBitmap)getAggregatedValue(BreadthFirstSearchConfiguration.FRONTIER_BITMAP);
+	}
+
+	/**
+	 * @return true iff the vertices visited in the current superstep are expanded bottom-up
+	 */
+	public boolean isBottomUp() {
+		return bottomUp;
+	}
+
+	/**
+	 * @return true iff the vertices visited in the previous superstep are expanded bottom-up
+	 */
+	public boolean isPreviousBottomUp() {
+		return previousBottomUp;
+	}
+
+	/**
+	 * @return bitmap of the vertices visited in the previous superstep, if they are expanded bottom-up
+	 */
+	public FrontierBitmap getPreviousFrontier() {
+		return previousFrontier;
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.bfs;
+
+import org.apache.hadoop.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Bitmap of vertex IDs in the frontier of a breadth-first search. The bitmap only covers the range of words between
+ * the lowest and highest vertex ID it contains, so a bitmap with a single vertex takes a single word.
+ */
+public class FrontierBitmap implements Writable {
+
+	private static final long MIN_WORD_INDEX = Long.MIN_VALUE >> 6;
+	private static final long MAX_WORDS = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Index (vertex ID divided by 64) of the first word in the words array.
+	 */
+	private long firstWordIndex = 0;
+	private long[] words = new long[0];
+	private boolean empty = true;
+
+	/**
+	 * @param vertexId the vertex ID to add to the bitmap
+	 */
+	public void set(long vertexId) {
+		long wordIndex = vertexId >> 6;
+		ensureRange(wordIndex, wordIndex);
+		words[(int)(wordIndex - firstWordIndex)] |= 1L << (vertexId & 63);
+		empty = false;
+	}
+
+	/**
+	 * @param vertexId a vertex ID
+	 * @return true iff the vertex ID is in the bitmap
+	 */
+	public boolean contains(long vertexId) {
+		long offset = (vertexId >> 6) - firstWordIndex;
+		return offset >= 0 && offset < words.length && (words[(int)offset] & (1L << (vertexId & 63))) != 0;
+	}
+
+	/**
+	 * @param other a bitmap of which all vertex IDs are added to this bitmap
+	 */
+	public void or(FrontierBitmap other) {
+		if (other.empty) {
+			return;
+		}
+		// Only the words up to the last non-zero word of the other bitmap need to be covered
+		int lastWord = other.words.length - 1;
+		while (other.words[lastWord] == 0) {
+			lastWord--;
+		}
+		int firstWord = 0;
+		while (other.words[firstWord] == 0) {
+			firstWord++;
+		}
+		ensureRange(other.firstWordIndex + firstWord, other.firstWordIndex + lastWord);
+		int offset = (int)(other.firstWordIndex - firstWordIndex);
+		for (int i = firstWord; i <= lastWord; i++) {
+			words[offset + i] |= other.words[i];
+		}
+		empty = false;
+	}
+
+	public boolean isEmpty() {
+		return empty;
+	}
+
+	public void clear() {
+		Arrays.fill(words, 0L);
+		empty = true;
+	}
+
+	/**
+	 * Grows the words array to cover the given range of word indices. The array grows by at least a factor of two,
+	 * so repeatedly adding vertex IDs beyond either end of the bitmap takes amortized constant time.
+	 */
+	private void ensureRange(long fromWordIndex, long toWordIndex) {
+		if (empty) {
+			// All words are zero, so the existing array can be moved to the requested range if it is large enough
+			int length = (int)(toWordIndex - fromWordIndex + 1);
+			if (words.length < length) {
+				words = new long[length];
+			}
+			firstWordIndex = Math.max(MIN_WORD_INDEX, Math.min(fromWordIndex, toWordIndex - words.length + 1));
+			return;
+		}
+
+		long lastWordIndex = firstWordIndex + words.length - 1;
+		if (fromWordIndex >= firstWordIndex && toWordIndex <= lastWordIndex) {
+			return;
+		}
+		long newFirstWordIndex = firstWordIndex;
+		long newLastWordIndex = lastWordIndex;
+		if (fromWordIndex < firstWordIndex) {
+			newFirstWordIndex = Math.max(MIN_WORD_INDEX, Math.min(fromWordIndex, firstWordIndex - words.length));
+		}
+		if (toWordIndex > lastWordIndex) {
+			newLastWordIndex = Math.max(toWordIndex, lastWordIndex + words.length);
+		}
+		if (newLastWordIndex - newFirstWordIndex + 1 > MAX_WORDS) {
+			// Fall back to the exact range if growing geometrically would exceed the maximum array size
+			newFirstWordIndex = Math.min(fromWordIndex, firstWordIndex);
+			newLastWordIndex = Math.max(toWordIndex, lastWordIndex);
+			if (newLastWordIndex - newFirstWordIndex + 1 > MAX_WORDS) {
+				throw new IllegalArgumentException("Range of vertex IDs is too large for a frontier bitmap");
+			}
+		}
+		long[] newWords = new long[(int)(newLastWordIndex - newFirstWordIndex + 1)];
+		System.arraycopy(words, 0, newWords, (int)(firstWordIndex - newFirstWordIndex), words.length);
+		firstWordIndex = newFirstWordIndex;
+		words = newWords;
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		out.writeBoolean(empty);
+		if (empty) {
+			return;
+		}
+		// Only write the range of non-zero words
+		int firstWord = 0;
+		while (words[firstWord] == 0) {
+			firstWord++;
+		}
+		int lastWord = words.length - 1;
+		while (words[lastWord] == 0) {
+			lastWord--;
+		}
+		out.writeLong(firstWordIndex + firstWord);
+		out.writeInt(lastWord - firstWord + 1);
+		for (int i = firstWord; i <= lastWord; i++) {
+			out.writeLong(words[i]);
+		}
+	}
+
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		empty = in.readBoolean();
+		if (empty) {
+			Arrays.fill(words, 0L);
+			return;
+		}
+		firstWordIndex = in.readLong();
+		int length = in.readInt();
+		if (words.length != length) {
+			words = new long[length];
+		}
+		for (int i = 0; i < length; i++) {
+			words[i] = in.readLong();
+		}
+	}
+
+}
@@ -13,34 +13,23 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package science.atlarge.graphalytics.giraph.io;
+package science.atlarge.graphalytics.giraph.algorithms.bfs;
+
+import org.apache.giraph.aggregators.BasicAggregator;
 
 /**
- * Wrapper class for a pair of longs.
- *
- * @author Tim Hegeman
+ * Aggregator that computes the union of frontier bitmaps.
  */
-public class Triplet<A, B, C> {
+public class FrontierBitmapAggregator extends BasicAggregator<FrontierBitmap> {
 
-	final private A first;
-	final private B second;
-	final private C third;
-	
-	public Triplet(A first, B second, C third) {
-		this.first = first;
-		this.second = second;
-		this.third = third;
-	}
-	
-	public A getFirst() {
-		return first;
+	@Override
+	public void aggregate(FrontierBitmap value) {
+		getAggregatedValue().or(value);
 	}
-	
-	public B getSecond() {
-		return second;
-	}
-	
-	public C getThird() {
-		return third;
+
+	@Override
+	public FrontierBitmap createInitialValue() {
+		return new FrontierBitmap();
 	}
+
 }
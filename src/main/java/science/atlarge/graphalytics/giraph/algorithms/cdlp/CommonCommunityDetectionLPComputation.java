@@ -15,8 +15,6 @@
  */
 package science.atlarge.graphalytics.giraph.algorithms.cdlp;
 
-import it.unimi.dsi.fastutil.longs.Long2LongMap;
-import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
 import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
 import org.apache.giraph.graph.BasicComputation;
 import org.apache.giraph.graph.Vertex;
@@ -80,35 +78,22 @@ public abstract class CommonCommunityDetectionLPComputation<E extends Writable>
 	 */
 	protected abstract void propagateLabel(Vertex<LongWritable, LongWritable, E> vertex);
 
-	private Long2LongMap labelOccurences = new Long2LongOpenHashMap();
+	private LabelModeFinder labelModeFinder = new LabelModeFinder();
 
 	/**
 	 * Chooses new label by finding the most frequent label and picking the lowest id amongst the most frequent.
 	 */
 	private void determineLabel(Vertex<LongWritable, LongWritable, E> vertex,
 			Iterable<LongWritable> incomingLabels) {
-		// Compute for each incoming label the aggregate and maximum scores
-		labelOccurences.clear();
-		labelOccurences.defaultReturnValue(0L);
+		// Collect the incoming labels, and find the label with the highest frequency (primary key) and lowest id
+		// (secondary key)
+		labelModeFinder.clear();
 		for (LongWritable incomingLabel : incomingLabels) {
-			long label = incomingLabel.get();
-			labelOccurences.put(label, labelOccurences.get(label) + 1);
-		}
-
-		// Find the label with the highest frequency score (primary key) and lowest id (secondary key)
-		long bestLabel = 0;
-		long highestFrequency = 0;
-		for (Long2LongMap.Entry labelFrequency : labelOccurences.long2LongEntrySet()) {
-			long label = labelFrequency.getLongKey();
-			long frequency = labelFrequency.getLongValue();
-			if (frequency > highestFrequency || (frequency == highestFrequency && label < bestLabel)) {
-				bestLabel = label;
-				highestFrequency = frequency;
-			}
+			labelModeFinder.add(incomingLabel.get());
 		}
 
 		// Update the label of this vertex
-		vertex.getValue().set(bestLabel);
+		vertex.getValue().set(labelModeFinder.findMode());
 	}
 
 }
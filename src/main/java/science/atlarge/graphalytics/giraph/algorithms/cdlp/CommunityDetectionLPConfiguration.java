@@ -15,6 +15,7 @@
  */
 package science.atlarge.graphalytics.giraph.algorithms.cdlp;
 
+import org.apache.giraph.conf.BooleanConfOption;
 import org.apache.giraph.conf.IntConfOption;
 
 /**
@@ -34,6 +35,17 @@ public final class CommunityDetectionLPConfiguration {
 	public static final IntConfOption MAX_ITERATIONS = new IntConfOption(
 			MAX_ITERATIONS_KEY, 1, "Maximum number of iterations to run the community detection algorithm for.");
 
+	/**
+	 * Configuration key for symmetrizing directed graphs while reading the edges.
+	 */
+	public static final String SYMMETRIZE_INPUT_KEY = "graphalytics.cd.symmetrize-input";
+	/**
+	 * Whether to add the reverse of every edge of a directed graph while reading the edges, instead of discovering
+	 * incoming edges in the first supersteps of the algorithm. Not applicable to graphs in the binary CSR format.
+	 */
+	public static final BooleanConfOption SYMMETRIZE_INPUT = new BooleanConfOption(
+			SYMMETRIZE_INPUT_KEY, false, "Add reverse edges to directed graphs while reading the input.");
+
 	private CommunityDetectionLPConfiguration() {
 	}
 
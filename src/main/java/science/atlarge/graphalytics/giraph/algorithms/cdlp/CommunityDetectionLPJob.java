@@ -18,6 +18,8 @@ package science.atlarge.graphalytics.giraph.algorithms.cdlp;
 import science.atlarge.graphalytics.domain.graph.FormattedGraph;
 import science.atlarge.graphalytics.domain.algorithms.CommunityDetectionLPParameters;
 import science.atlarge.graphalytics.giraph.GiraphJob;
+import science.atlarge.graphalytics.giraph.io.LongIdWithValueTextOutputFormat;
+import science.atlarge.graphalytics.giraph.io.SymmetrizedLongBooleanTextEdgeInputFormat;
 import science.atlarge.graphalytics.giraph.io.UndirectedLongNullTextEdgeInputFormat;
 import org.apache.giraph.comm.messages.MessageEncodeAndStoreType;
 import org.apache.giraph.conf.GiraphConfiguration;
@@ -26,7 +28,6 @@ import org.apache.giraph.io.EdgeInputFormat;
 import org.apache.giraph.io.EdgeOutputFormat;
 import org.apache.giraph.io.VertexInputFormat;
 import org.apache.giraph.io.VertexOutputFormat;
-import org.apache.giraph.io.formats.IdWithValueTextOutputFormat;
 
 import static science.atlarge.graphalytics.giraph.algorithms.cdlp.CommunityDetectionLPConfiguration.*;
 import static org.apache.giraph.conf.GiraphConstants.MESSAGE_ENCODE_AND_STORE_TYPE;
@@ -57,9 +58,12 @@ public class CommunityDetectionLPJob extends GiraphJob {
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends Computation> getComputationClass() {
-		return formattedGraph.isDirected() ?
-				DirectedCommunityDetectionLPComputation.class :
-				UndirectedCommunityDetectionLPComputation.class;
+		if (!formattedGraph.isDirected()) {
+			return UndirectedCommunityDetectionLPComputation.class;
+		}
+		return useSymmetrizedInput() ?
+				SymmetrizedCommunityDetectionLPComputation.class :
+				DirectedCommunityDetectionLPComputation.class;
 	}
 
 	@SuppressWarnings("rawtypes")
@@ -73,15 +77,18 @@ public class CommunityDetectionLPJob extends GiraphJob {
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends VertexOutputFormat> getVertexOutputFormatClass() {
-		return IdWithValueTextOutputFormat.class;
+		return LongIdWithValueTextOutputFormat.class;
 	}
 
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends EdgeInputFormat> getEdgeInputFormatClass() {
-		return formattedGraph.isDirected() ?
-				DirectedCommunityDetectionLPEdgeInputFormat.class :
-				UndirectedLongNullTextEdgeInputFormat.class;
+		if (!formattedGraph.isDirected()) {
+			return UndirectedLongNullTextEdgeInputFormat.class;
+		}
+		return useSymmetrizedInput() ?
+				SymmetrizedLongBooleanTextEdgeInputFormat.class :
+				DirectedCommunityDetectionLPEdgeInputFormat.class;
 	}
 
 	@SuppressWarnings("rawtypes")
@@ -97,4 +104,12 @@ public class CommunityDetectionLPJob extends GiraphJob {
 		MESSAGE_ENCODE_AND_STORE_TYPE.set(config, MessageEncodeAndStoreType.EXTRACT_BYTEARRAY_PER_PARTITION);
 	}
 
+	/**
+	 * @return true iff reverse edges are added by the edge input format; graphs in the binary CSR format are read
+	 * without an edge input format
+	 */
+	private boolean useSymmetrizedInput() {
+		return SYMMETRIZE_INPUT.get(getConf()) && !isBinaryCsrInput();
+	}
+
 }
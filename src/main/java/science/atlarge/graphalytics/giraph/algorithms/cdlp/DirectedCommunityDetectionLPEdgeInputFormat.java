@@ -15,18 +15,9 @@
  */
 package science.atlarge.graphalytics.giraph.algorithms.cdlp;
 
-import science.atlarge.graphalytics.giraph.io.Triplet;
-import org.apache.giraph.io.EdgeReader;
-import org.apache.giraph.io.formats.TextEdgeInputFormat;
 import org.apache.hadoop.io.BooleanWritable;
-import org.apache.hadoop.io.LongWritable;
-import org.apache.hadoop.io.Text;
-import org.apache.hadoop.mapreduce.InputSplit;
-import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import science.atlarge.graphalytics.giraph.io.DirectedLongNullTextEdgeInputFormat;
-
-import java.io.IOException;
-import java.util.regex.Pattern;
+import science.atlarge.graphalytics.giraph.io.LongTextEdgeInputFormat;
 
 /**
  * Similar to {@link DirectedLongNullTextEdgeInputFormat
@@ -34,43 +25,16 @@ import java.util.regex.Pattern;
  *
  * @author Tim Hegeman
  */
-public class DirectedCommunityDetectionLPEdgeInputFormat extends TextEdgeInputFormat<LongWritable, BooleanWritable> {
-
-	private static final Pattern SEPARATOR = Pattern.compile("[\t ]");
+public class DirectedCommunityDetectionLPEdgeInputFormat extends LongTextEdgeInputFormat<BooleanWritable> {
 
 	@Override
-	public EdgeReader<LongWritable, BooleanWritable> createEdgeReader(
-			InputSplit split, TaskAttemptContext context) throws IOException {
-		return new LongBooleanEdgeReader();
+	protected boolean isUndirected() {
+		return false;
 	}
 
-	private class LongBooleanEdgeReader extends TextEdgeReaderFromEachLineProcessed<Triplet<Long, Long, Void>> {
-
-		@Override
-		protected Triplet preprocessLine(Text line) throws IOException {
-			String[] tokens = SEPARATOR.split(line.toString());
-			long source = Long.parseLong(tokens[0]);
-			long destination = Long.parseLong(tokens[1]);
-			return new Triplet(source, destination, null);
-		}
-
-		@Override
-		protected LongWritable getTargetVertexId(Triplet<Long, Long, Void> line)
-				throws IOException {
-			return new LongWritable(line.getSecond());
-		}
-
-		@Override
-		protected LongWritable getSourceVertexId(Triplet<Long, Long, Void> line)
-				throws IOException {
-			return new LongWritable(line.getFirst());
-		}
-
-		@Override
-		protected BooleanWritable getValue(Triplet<Long, Long, Void> line) throws IOException {
-			return new BooleanWritable(false);
-		}
-
+	@Override
+	protected BooleanWritable createEdgeValue() {
+		return new BooleanWritable(false);
 	}
 
 }
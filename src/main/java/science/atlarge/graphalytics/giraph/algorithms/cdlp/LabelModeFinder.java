@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.cdlp;
+
+import java.util.Arrays;
+
+/**
+ * Finds the most frequent label among the labels received by a vertex. Labels are collected in a reused array and
+ * sorted, after which the most frequent label is found in a single scan over runs of equal labels. Small numbers of
+ * labels are sorted by insertion sort; larger numbers by an LSD radix sort on bytes, which skips bytes that are equal
+ * for all labels.
+ */
+public class LabelModeFinder {
+
+	/**
+	 * The maximum number of labels to sort using insertion sort.
+	 */
+	static final int INSERTION_SORT_THRESHOLD = 32;
+
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX = 1 << RADIX_BITS;
+	private static final int RADIX_MASK = RADIX - 1;
+
+	private long[] labels = new long[16];
+	private long[] buffer = new long[0];
+	private final int[] digitCounts = new int[RADIX];
+	private int size = 0;
+
+	/**
+	 * Removes all labels.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * @param label a received label
+	 */
+	public void add(long label) {
+		if (size == labels.length) {
+			labels = Arrays.copyOf(labels, size * 2);
+		}
+		labels[size++] = label;
+	}
+
+	/**
+	 * Finds the most frequent label, breaking ties in favour of the smallest label. Reorders the added labels.
+	 *
+	 * @return the most frequent label, or 0 if no labels were added
+	 */
+	public long findMode() {
+		if (size <= INSERTION_SORT_THRESHOLD) {
+			insertionSort();
+		} else {
+			radixSort();
+		}
+
+		// Labels are in ascending order, so the first run of maximum length has the smallest label
+		long bestLabel = 0;
+		int highestFrequency = 0;
+		int runStart = 0;
+		for (int i = 1; i <= size; i++) {
+			if (i == size || labels[i] != labels[runStart]) {
+				if (i - runStart > highestFrequency) {
+					bestLabel = labels[runStart];
+					highestFrequency = i - runStart;
+				}
+				runStart = i;
+			}
+		}
+		return bestLabel;
+	}
+
+	private void insertionSort() {
+		for (int i = 1; i < size; i++) {
+			long label = labels[i];
+			int j = i - 1;
+			while (j >= 0 && labels[j] > label) {
+				labels[j + 1] = labels[j];
+				j--;
+			}
+			labels[j + 1] = label;
+		}
+	}
+
+	private void radixSort() {
+		if (buffer.length < size) {
+			buffer = new long[labels.length];
+		}
+
+		// Find the bits that differ between any of the labels, to skip passes over bytes that are all equal
+		long differingBits = 0;
+		for (int i = 1; i < size; i++) {
+			differingBits |= labels[i] ^ labels[0];
+		}
+
+		long[] source = labels;
+		long[] target = buffer;
+		for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+			if (((differingBits >>> shift) & RADIX_MASK) == 0) {
+				continue;
+			}
+
+			// Flip the sign bit so negative labels are ordered before positive labels
+			long signFlip = shift + RADIX_BITS == Long.SIZE ? Long.MIN_VALUE : 0;
+
+			Arrays.fill(digitCounts, 0);
+			for (int i = 0; i < size; i++) {
+				digitCounts[(int)(((source[i] ^ signFlip) >>> shift) & RADIX_MASK)]++;
+			}
+			int offset = 0;
+			for (int digit = 0; digit < RADIX; digit++) {
+				int count = digitCounts[digit];
+				digitCounts[digit] = offset;
+				offset += count;
+			}
+			for (int i = 0; i < size; i++) {
+				long label = source[i];
+				target[digitCounts[(int)(((label ^ signFlip) >>> shift) & RADIX_MASK)]++] = label;
+			}
+
+			long[] swap = source;
+			source = target;
+			target = swap;
+		}
+
+		// Keep the sorted labels in the primary array
+		if (source != labels) {
+			buffer = labels;
+			labels = source;
+		}
+	}
+
+}
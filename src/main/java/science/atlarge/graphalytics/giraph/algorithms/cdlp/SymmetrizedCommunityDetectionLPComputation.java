@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.cdlp;
+
+import org.apache.giraph.graph.Vertex;
+import org.apache.hadoop.io.BooleanWritable;
+import org.apache.hadoop.io.LongWritable;
+import science.atlarge.graphalytics.giraph.io.SymmetrizedLongBooleanTextEdgeInputFormat;
+
+/**
+ * Specialisation of {@link CommonCommunityDetectionLPComputation} for directed graphs that were symmetrized by
+ * {@link SymmetrizedLongBooleanTextEdgeInputFormat}. The value of an edge is true iff it has the direction of an edge
+ * in the input. A bidirectional edge in the input is stored as two edges to the same neighbour, so sending the label
+ * once over every edge gives it double weight, exactly like {@link DirectedCommunityDetectionLPComputation}, without
+ * the supersteps needed there to discover incoming edges.
+ */
+public class SymmetrizedCommunityDetectionLPComputation extends CommonCommunityDetectionLPComputation<BooleanWritable> {
+
+	@Override
+	protected void doInitialisationStep(Vertex<LongWritable, LongWritable, BooleanWritable> vertex,
+			Iterable<LongWritable> messages) {
+		// Initialize the label of a vertex to its own id
+		vertex.getValue().set(vertex.getId().get());
+	}
+
+	@Override
+	protected int getNumberOfInitialisationSteps() {
+		return 1;
+	}
+
+	@Override
+	protected void propagateLabel(Vertex<LongWritable, LongWritable, BooleanWritable> vertex) {
+		// Send the label of the vertex over every edge, including both copies of a bidirectional edge
+		sendMessageToAllEdges(vertex, vertex.getValue());
+	}
+
+}
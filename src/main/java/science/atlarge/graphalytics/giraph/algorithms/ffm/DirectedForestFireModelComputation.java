@@ -15,6 +15,9 @@
  */
 package science.atlarge.graphalytics.giraph.algorithms.ffm;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
 import org.apache.giraph.edge.EdgeFactory;
 import org.apache.giraph.graph.BasicComputation;
@@ -38,6 +41,14 @@ public class DirectedForestFireModelComputation extends
 	private float backwardProbability;
 	private Random rnd = new Random();
 
+	// Scratch space for burnLinks, reused for all vertices processed by this computation
+	private LongOpenHashSet inLinks = new LongOpenHashSet();
+	private Long2ObjectOpenHashMap<LongArrayList> aliveInLinks = new Long2ObjectOpenHashMap<>();
+	private Long2ObjectOpenHashMap<LongArrayList> aliveOutLinks = new Long2ObjectOpenHashMap<>();
+	private List<LongArrayList> spareLinkLists = new ArrayList<>();
+	private LongWritable messageTargetId = new LongWritable();
+	private LongArrayList instigatorBuffer = new LongArrayList();
+
 	@Override
 	public void setConf(
 			ImmutableClassesGiraphConfiguration<LongWritable, ForestFireModelData, NullWritable> conf) {
@@ -129,100 +140,152 @@ public class DirectedForestFireModelComputation extends
 	}
 
 	private void requestNeighbourLiveness(Vertex<LongWritable, ForestFireModelData, NullWritable> vertex) {
-		for (Map.Entry<Long, ForestFireModelData.ForestFireModelState> state : vertex.getValue().getStates()) {
-			if (state.getValue() == ForestFireModelData.ForestFireModelState.BURNING) {
-				// Request from out-edges
-				ForestFireModelMessage livenessRequest =
-						ForestFireModelMessage.livenessRequest(vertex.getId().get(), state.getKey());
-				sendMessageToAllEdges(vertex, livenessRequest);
-				// Request from in-edges
-				for (long inEdge : vertex.getValue().getInEdges()) {
-					sendMessage(new LongWritable(inEdge), livenessRequest);
-				}
+		// Collect all instigators for which this vertex is burning (in ascending order)
+		ForestFireModelData data = vertex.getValue();
+		instigatorBuffer.clear();
+		for (int i = 0; i < data.getStateCount(); i++) {
+			if (data.getStateAt(i) == ForestFireModelData.ForestFireModelState.BURNING) {
+				instigatorBuffer.add(data.getInstigatorId(i));
 			}
 		}
+		if (instigatorBuffer.isEmpty()) {
+			return;
+		}
+
+		// Send a single request for all instigators to every neighbour
+		ForestFireModelMessage livenessRequest = ForestFireModelMessage.livenessRequest(vertex.getId().get(),
+				instigatorBuffer.elements(), instigatorBuffer.size());
+		// Request from out-edges
+		sendMessageToAllEdges(vertex, livenessRequest);
+		// Request from in-edges
+		for (long inEdge : data.getInEdges()) {
+			messageTargetId.set(inEdge);
+			sendMessage(messageTargetId, livenessRequest);
+		}
 	}
 
 	private void replyToLivenessRequests(Vertex<LongWritable, ForestFireModelData, NullWritable> vertex,
 			Iterable<ForestFireModelMessage> messages) {
+		ForestFireModelData data = vertex.getValue();
 		for (ForestFireModelMessage message : messages) {
-			if (vertex.getValue().getState(message.getInstigatorId()) == ForestFireModelData.ForestFireModelState.ALIVE) {
-				sendMessage(new LongWritable(message.getSourceId()),
-						ForestFireModelMessage.aliveAcknowledgement(vertex.getId().get(),
-								message.getInstigatorId()));
+			// Reply with the subset of requested instigators for which this vertex is alive
+			instigatorBuffer.clear();
+			long[] instigatorIds = message.getInstigatorIds();
+			for (int i = 0; i < message.getInstigatorCount(); i++) {
+				if (data.getState(instigatorIds[i]) == ForestFireModelData.ForestFireModelState.ALIVE) {
+					instigatorBuffer.add(instigatorIds[i]);
+				}
+			}
+			if (!instigatorBuffer.isEmpty()) {
+				messageTargetId.set(message.getSourceId());
+				sendMessage(messageTargetId, ForestFireModelMessage.aliveAcknowledgement(vertex.getId().get(),
+						instigatorBuffer.elements(), instigatorBuffer.size()));
 			}
 		}
 	}
 
-	private void burnLinks(Vertex<LongWritable, ForestFireModelData, NullWritable> vertex,
+	/**
+	 * Package-private so that the hot path can be benchmarked in isolation (see BurnLinksBenchmark in the tests).
+	 */
+	void burnLinks(Vertex<LongWritable, ForestFireModelData, NullWritable> vertex,
 			Iterable<ForestFireModelMessage> messages) throws IOException {
 		// Create a fast lookup for incoming node IDs
-		Set<Long> inLinks = new HashSet<>();
+		inLinks.clear();
 		for (long in : vertex.getValue().getInEdges()) {
 			inLinks.add(in);
 		}
 		// Group all incoming liveness messages by instigator ID and by incoming/outgoing link
-		Map<Long, Set<Long>> aliveInLinks = new HashMap<>();
-		Map<Long, Set<Long>> aliveOutLinks = new HashMap<>();
+		clearLinksMap(aliveInLinks);
+		clearLinksMap(aliveOutLinks);
 		for (ForestFireModelMessage message : messages) {
-			long instigatorId = message.getInstigatorId();
 			long sourceId = message.getSourceId();
-			if (inLinks.contains(sourceId)) {
-				addToLinksMap(aliveInLinks, instigatorId, sourceId);
-			} else {
-				addToLinksMap(aliveOutLinks, instigatorId, sourceId);
+			long[] instigatorIds = message.getInstigatorIds();
+			Long2ObjectOpenHashMap<LongArrayList> linksMap = inLinks.contains(sourceId) ? aliveInLinks : aliveOutLinks;
+			for (int i = 0; i < message.getInstigatorCount(); i++) {
+				addToLinksMap(linksMap, instigatorIds[i], sourceId);
 			}
 		}
 		// Go through the set of possible instigator IDs (current burning states) and process them
-		for (long instigatorId : vertex.getValue().getInstigatorIds()) {
-			if (vertex.getValue().getState(instigatorId) == ForestFireModelData.ForestFireModelState.BURNING) {
+		ForestFireModelData data = vertex.getValue();
+		for (int i = 0; i < data.getStateCount(); i++) {
+			if (data.getStateAt(i) == ForestFireModelData.ForestFireModelState.BURNING) {
+				long instigatorId = data.getInstigatorId(i);
 				LongWritable instigatorIdFull = new LongWritable(instigatorId);
 				ForestFireModelMessage message = ForestFireModelMessage.burningNotification(instigatorId);
 				// Handle out links
-				if (aliveOutLinks.containsKey(instigatorId)) {
-					int outBurningCount = getGeometricVariable(1.0f - forwardProbability);
-					Set<Long> outBurning = selectLinksFromSet(aliveOutLinks.get(instigatorId), outBurningCount);
-					for (Long target : outBurning) {
-						LongWritable targetId = new LongWritable(target);
-						addEdgeRequest(instigatorIdFull, EdgeFactory.create(targetId));
-						sendMessage(targetId, message);
-					}
+				LongArrayList outLinks = aliveOutLinks.get(instigatorId);
+				if (outLinks != null) {
+					int outBurningCount = selectLinks(outLinks, getGeometricVariable(1.0f - forwardProbability));
+					burnSelectedLinks(instigatorIdFull, outLinks, outBurningCount, message);
 				}
 				// Handle in links
-				if (aliveInLinks.containsKey(instigatorId)) {
-					int inBurningCount = getGeometricVariable(1.0f - backwardProbability);
-					Set<Long> inBurning = selectLinksFromSet(aliveInLinks.get(instigatorId), inBurningCount);
-					for (Long target : inBurning) {
-						LongWritable targetId = new LongWritable(target);
-						addEdgeRequest(instigatorIdFull, EdgeFactory.create(targetId));
-						sendMessage(targetId, message);
-					}
+				LongArrayList inLinksOfInstigator = aliveInLinks.get(instigatorId);
+				if (inLinksOfInstigator != null) {
+					int inBurningCount = selectLinks(inLinksOfInstigator,
+							getGeometricVariable(1.0f - backwardProbability));
+					burnSelectedLinks(instigatorIdFull, inLinksOfInstigator, inBurningCount, message);
 				}
 			}
 		}
 	}
 
-	private static void addToLinksMap(Map<Long, Set<Long>> linksMap, long instigatorId, long sourceId) {
-		if (!linksMap.containsKey(instigatorId)) {
-			linksMap.put(instigatorId, new HashSet<Long>());
+	private void burnSelectedLinks(LongWritable instigatorId, LongArrayList links, int count,
+			ForestFireModelMessage message) {
+		long[] targets = links.elements();
+		for (int i = 0; i < count; i++) {
+			// Mutation requests are buffered by Giraph, so every edge needs its own objects
+			addEdgeRequest(instigatorId, EdgeFactory.create(new LongWritable(targets[i])));
+			// Messages are serialized immediately, so the target ID can be reused
+			messageTargetId.set(targets[i]);
+			sendMessage(messageTargetId, message);
 		}
-		linksMap.get(instigatorId).add(sourceId);
 	}
 
-	private Set<Long> selectLinksFromSet(Set<Long> links, int amount) {
-		if (amount >= links.size()) {
-			return links;
+	private void clearLinksMap(Long2ObjectOpenHashMap<LongArrayList> linksMap) {
+		for (LongArrayList links : linksMap.values()) {
+			links.clear();
+			spareLinkLists.add(links);
 		}
+		linksMap.clear();
+	}
+
+	private void addToLinksMap(Long2ObjectOpenHashMap<LongArrayList> linksMap, long instigatorId, long sourceId) {
+		LongArrayList links = linksMap.get(instigatorId);
+		if (links == null) {
+			links = spareLinkLists.isEmpty() ? new LongArrayList() : spareLinkLists.remove(spareLinkLists.size() - 1);
+			linksMap.put(instigatorId, links);
+		}
+		links.add(sourceId);
+	}
 
-		List<Long> linksAsList = new ArrayList<>(links);
-		Set<Long> selection = new HashSet<>();
-		while (amount > 0) {
-			int idx = rnd.nextInt(linksAsList.size());
-			selection.add(linksAsList.get(idx));
-			linksAsList.remove(idx);
-			amount--;
+	/**
+	 * Removes duplicate links from a list and moves a uniformly random selection of links to the front of the list,
+	 * using a partial Fisher-Yates shuffle.
+	 *
+	 * @return the number of selected links
+	 */
+	private int selectLinks(LongArrayList links, int amount) {
+		// A neighbour that is both an in- and out-neighbour replies twice
+		long[] elements = links.elements();
+		Arrays.sort(elements, 0, links.size());
+		int uniqueCount = 0;
+		for (int i = 0; i < links.size(); i++) {
+			if (uniqueCount == 0 || elements[i] != elements[uniqueCount - 1]) {
+				elements[uniqueCount++] = elements[i];
+			}
+		}
+		links.size(uniqueCount);
+
+		if (amount >= uniqueCount) {
+			return uniqueCount;
+		}
+		for (int i = 0; i < amount; i++) {
+			int idx = i + rnd.nextInt(uniqueCount - i);
+			long selected = elements[idx];
+			elements[idx] = elements[i];
+			elements[i] = selected;
 		}
-		return selection;
+		return amount;
 	}
 
 	private int getGeometricVariable(float p) {
@@ -234,9 +297,10 @@ public class DirectedForestFireModelComputation extends
 
 	private void burnOut(Vertex<LongWritable, ForestFireModelData, NullWritable> vertex) {
 		// Loop through the list of states and replacing burning with burned
-		for (Map.Entry<Long, ForestFireModelData.ForestFireModelState> state : vertex.getValue().getStates()) {
-			if (state.getValue() == ForestFireModelData.ForestFireModelState.BURNING) {
-				vertex.getValue().setState(state.getKey(), ForestFireModelData.ForestFireModelState.BURNED);
+		ForestFireModelData data = vertex.getValue();
+		for (int i = 0; i < data.getStateCount(); i++) {
+			if (data.getStateAt(i) == ForestFireModelData.ForestFireModelState.BURNING) {
+				data.setStateAt(i, ForestFireModelData.ForestFireModelState.BURNED);
 			}
 		}
 	}
@@ -20,15 +20,15 @@ import org.apache.hadoop.io.Writable;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Vertex data for the forest fire model algorithm. Include a list of incoming edges
  * (which is not provided by Giraph), and a set of states to track which "instigators"
- * have reached this node.
+ * have reached this node. The states are stored as parallel arrays of instigator IDs
+ * (in ascending order) and state ordinals, which are reused when the object is
+ * deserialized again.
  *
  * @author Tim Hegeman
  */
@@ -40,20 +40,24 @@ public class ForestFireModelData implements Writable {
 		BURNED
 	}
 
+	private static final ForestFireModelState[] STATES = ForestFireModelState.values();
+	private static final long[] NO_IDS = new long[0];
+	private static final byte[] NO_STATES = new byte[0];
+
 	private long[] inEdges;
-	private Map<Long, ForestFireModelState> statePerInstigator;
+	private long[] instigatorIds = NO_IDS;
+	private byte[] states = NO_STATES;
+	private int stateCount = 0;
 
 	/**
 	 * Required for instantiation using the Writable interface. Do not use.
 	 */
 	public ForestFireModelData() {
-		inEdges = new long[0];
-		statePerInstigator = new HashMap<>();
+		inEdges = NO_IDS;
 	}
 
 	private ForestFireModelData(long[] inEdges) {
 		this.inEdges = inEdges;
-		this.statePerInstigator = new HashMap<>();
 	}
 
 	/**
@@ -64,10 +68,34 @@ public class ForestFireModelData implements Writable {
 	}
 
 	/**
-	 * @return set of instigator and state pairs
+	 * @return the number of instigators with a known state in this node
+	 */
+	public int getStateCount() {
+		return stateCount;
+	}
+
+	/**
+	 * @param index the index of an instigator, between zero and {@link #getStateCount()}
+	 * @return the ID of the instigator with the given index
+	 */
+	public long getInstigatorId(int index) {
+		return instigatorIds[index];
+	}
+
+	/**
+	 * @param index the index of an instigator, between zero and {@link #getStateCount()}
+	 * @return the state of this node for the instigator with the given index
+	 */
+	public ForestFireModelState getStateAt(int index) {
+		return STATES[states[index]];
+	}
+
+	/**
+	 * @param index    the index of an instigator, between zero and {@link #getStateCount()}
+	 * @param newState the new state for the instigator with the given index
 	 */
-	public Set<Map.Entry<Long, ForestFireModelState>> getStates() {
-		return statePerInstigator.entrySet();
+	public void setStateAt(int index, ForestFireModelState newState) {
+		states[index] = (byte)newState.ordinal();
 	}
 
 	/**
@@ -75,25 +103,37 @@ public class ForestFireModelData implements Writable {
 	 * @return the state of this node for the given instigator
 	 */
 	public ForestFireModelState getState(long instigatorId) {
-		if (statePerInstigator.containsKey(instigatorId)) {
-			return statePerInstigator.get(instigatorId);
+		int index = Arrays.binarySearch(instigatorIds, 0, stateCount, instigatorId);
+		if (index >= 0) {
+			return STATES[states[index]];
 		}
 		return ForestFireModelState.ALIVE;
 	}
 
-	/**
-	 * @return the set of instigators with a known state in this node
-	 */
-	public Set<Long> getInstigatorIds() {
-		return statePerInstigator.keySet();
-	}
-
 	/**
 	 * @param instigatorId an instigator whose state to change at this node
 	 * @param newState     the new state for the instigator
 	 */
 	public void setState(long instigatorId, ForestFireModelState newState) {
-		statePerInstigator.put(instigatorId, newState);
+		int index = Arrays.binarySearch(instigatorIds, 0, stateCount, instigatorId);
+		if (index < 0) {
+			// Insert the new instigator, keeping the instigator IDs sorted
+			index = -index - 1;
+			ensureStateCapacity(stateCount + 1);
+			System.arraycopy(instigatorIds, index, instigatorIds, index + 1, stateCount - index);
+			System.arraycopy(states, index, states, index + 1, stateCount - index);
+			instigatorIds[index] = instigatorId;
+			stateCount++;
+		}
+		states[index] = (byte)newState.ordinal();
+	}
+
+	private void ensureStateCapacity(int capacity) {
+		if (instigatorIds.length < capacity) {
+			int newCapacity = Math.max(capacity, Math.max(4, instigatorIds.length * 2));
+			instigatorIds = Arrays.copyOf(instigatorIds, newCapacity);
+			states = Arrays.copyOf(states, newCapacity);
+		}
 	}
 
 	@Override
@@ -104,29 +144,32 @@ public class ForestFireModelData implements Writable {
 			out.writeLong(inEdges[i]);
 		}
 		// Store the forest fire state of this vertex with respect to various sources
-		out.writeInt(statePerInstigator.size());
-		for (Map.Entry<Long, ForestFireModelState> state : statePerInstigator.entrySet()) {
-			out.writeLong(state.getKey());
-			out.writeByte(state.getValue().ordinal());
+		out.writeInt(stateCount);
+		for (int i = 0; i < stateCount; i++) {
+			out.writeLong(instigatorIds[i]);
+			out.writeByte(states[i]);
 		}
 	}
 
 	@Override
 	public void readFields(DataInput in) throws IOException {
-		// Read the incoming edges
+		// Read the incoming edges, reusing the existing array if it has the right length
 		int length = in.readInt();
-		inEdges = new long[length];
+		if (inEdges.length != length) {
+			inEdges = length == 0 ? NO_IDS : new long[length];
+		}
 		for (int i = 0; i < length; i++) {
 			inEdges[i] = in.readLong();
 		}
-		// Read the forest fire states
+		// Read the forest fire states (written in ascending order of instigator ID) into the existing arrays
+		stateCount = 0;
 		length = in.readInt();
-		statePerInstigator = new HashMap<>();
+		ensureStateCapacity(length);
 		for (int i = 0; i < length; i++) {
-			long id = in.readLong();
-			ForestFireModelState state = ForestFireModelState.values()[in.readByte()];
-			statePerInstigator.put(id, state);
+			instigatorIds[i] = in.readLong();
+			states[i] = in.readByte();
 		}
+		stateCount = length;
 	}
 
 	/**
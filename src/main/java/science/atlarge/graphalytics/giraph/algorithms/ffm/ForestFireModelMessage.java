@@ -16,6 +16,7 @@
 package science.atlarge.graphalytics.giraph.algorithms.ffm;
 
 import org.apache.hadoop.io.Writable;
+import science.atlarge.graphalytics.giraph.io.VarLongEncoding;
 
 import java.io.DataInput;
 import java.io.DataOutput;
@@ -23,7 +24,9 @@ import java.io.IOException;
 
 /**
  * Message class for the forest fire model algorithm. Wraps the multiple types
- * of messages that are sent throughout the algorithm.
+ * of messages that are sent throughout the algorithm. Liveness requests and
+ * acknowledgements carry all instigators relevant to a pair of neighbours in a
+ * single message, stored in ascending order as variable length deltas.
  */
 public class ForestFireModelMessage implements Writable {
 
@@ -39,8 +42,12 @@ public class ForestFireModelMessage implements Writable {
 	// [NEIGHBOUR_NOTIFICATION,LIVENESS_REQUEST,ALIVE_ACKNOWLEDGEMENT]
 	// The ID of the vertex sending the message.
 	private long sourceId;
-	// [LIVENESS_REQUEST,ALIVE_ACKNOWLEDGEMENT,BURNING_NOTIFICATION]
+	// [BURNING_NOTIFICATION]
 	private long instigatorId;
+	// [LIVENESS_REQUEST,ALIVE_ACKNOWLEDGEMENT]
+	// The instigators to request or confirm liveness for, of which the first instigatorCount elements are valid.
+	private long[] instigatorIds;
+	private int instigatorCount;
 
 	/**
 	 * Required for instantiation using the Writable interface. Do not use.
@@ -52,10 +59,11 @@ public class ForestFireModelMessage implements Writable {
 		this.type = type;
 	}
 
-	private ForestFireModelMessage(Type type, long sourceId, long instigatorId) {
+	private ForestFireModelMessage(Type type, long sourceId, long[] instigatorIds, int instigatorCount) {
 		this.type = type;
 		this.sourceId = sourceId;
-		this.instigatorId = instigatorId;
+		this.instigatorIds = instigatorIds;
+		this.instigatorCount = instigatorCount;
 	}
 
 	private ForestFireModelMessage withSourceId(long sourceId) {
@@ -78,7 +86,7 @@ public class ForestFireModelMessage implements Writable {
 	}
 
 	/**
-	 * Note: This returns a sane value for any message type except NEIGHBOUR_NOTIFICATION.
+	 * Note: This returns a sane value only for the BURNING_NOTIFICATION message type.
 	 *
 	 * @return the instigator described by this message
 	 */
@@ -86,6 +94,25 @@ public class ForestFireModelMessage implements Writable {
 		return instigatorId;
 	}
 
+	/**
+	 * Note: This returns a sane value only for the LIVENESS_REQUEST and ALIVE_ACKNOWLEDGEMENT message types.
+	 *
+	 * @return the number of instigators described by this message
+	 */
+	public int getInstigatorCount() {
+		return instigatorCount;
+	}
+
+	/**
+	 * Note: This returns a sane value only for the LIVENESS_REQUEST and ALIVE_ACKNOWLEDGEMENT message types.
+	 *
+	 * @return array of which the first {@link #getInstigatorCount()} elements are the instigators described by this
+	 * message, in ascending order
+	 */
+	public long[] getInstigatorIds() {
+		return instigatorIds;
+	}
+
 	@Override
 	public void write(DataOutput out) throws IOException {
 		out.writeByte(type.ordinal());
@@ -96,7 +123,8 @@ public class ForestFireModelMessage implements Writable {
 			case LIVENESS_REQUEST:
 			case ALIVE_ACKNOWLEDGEMENT:
 				out.writeLong(sourceId);
-				out.writeLong(instigatorId);
+				VarLongEncoding.writeVarLong(out, instigatorCount);
+				VarLongEncoding.writeDeltas(out, instigatorIds, 0, instigatorCount);
 				break;
 			case BURNING_NOTIFICATION:
 				out.writeLong(instigatorId);
@@ -115,7 +143,12 @@ public class ForestFireModelMessage implements Writable {
 			case LIVENESS_REQUEST:
 			case ALIVE_ACKNOWLEDGEMENT:
 				sourceId = in.readLong();
-				instigatorId = in.readLong();
+				instigatorCount = (int)VarLongEncoding.readVarLong(in);
+				// Reuse the instigator array of a previous message if possible
+				if (instigatorIds == null || instigatorIds.length < instigatorCount) {
+					instigatorIds = new long[instigatorCount];
+				}
+				VarLongEncoding.readDeltas(in, instigatorIds, 0, instigatorCount);
 				break;
 			case BURNING_NOTIFICATION:
 				instigatorId = in.readLong();
@@ -133,21 +166,24 @@ public class ForestFireModelMessage implements Writable {
 	}
 
 	/**
-	 * @param sourceId     the source of this message
-	 * @param instigatorId the instigator to request liveness for
+	 * @param sourceId        the source of this message
+	 * @param instigatorIds   array containing the instigators to request liveness for, in ascending order
+	 * @param instigatorCount the number of instigators in the array
 	 * @return a new message of the LIVENESS_REQUEST type
 	 */
-	public static ForestFireModelMessage livenessRequest(long sourceId, long instigatorId) {
-		return new ForestFireModelMessage(Type.LIVENESS_REQUEST, sourceId, instigatorId);
+	public static ForestFireModelMessage livenessRequest(long sourceId, long[] instigatorIds, int instigatorCount) {
+		return new ForestFireModelMessage(Type.LIVENESS_REQUEST, sourceId, instigatorIds, instigatorCount);
 	}
 
 	/**
-	 * @param sourceId     the source of this message
-	 * @param instigatorId the instigator to confirm liveness for
+	 * @param sourceId        the source of this message
+	 * @param instigatorIds   array containing the instigators to confirm liveness for, in ascending order
+	 * @param instigatorCount the number of instigators in the array
 	 * @return a new message of the ALIVE_ACKNOWLEDGEMENT type
 	 */
-	public static ForestFireModelMessage aliveAcknowledgement(long sourceId, long instigatorId) {
-		return new ForestFireModelMessage(Type.ALIVE_ACKNOWLEDGEMENT, sourceId, instigatorId);
+	public static ForestFireModelMessage aliveAcknowledgement(long sourceId, long[] instigatorIds,
+			int instigatorCount) {
+		return new ForestFireModelMessage(Type.ALIVE_ACKNOWLEDGEMENT, sourceId, instigatorIds, instigatorCount);
 	}
 
 	/**
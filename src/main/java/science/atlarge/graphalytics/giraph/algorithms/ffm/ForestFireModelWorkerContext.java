@@ -19,46 +19,49 @@ package science.atlarge.graphalytics.giraph.algorithms.ffm;
 import org.apache.giraph.worker.WorkerContext;
 
 import java.util.Arrays;
-import java.util.PriorityQueue;
-import java.util.Random;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static science.atlarge.graphalytics.giraph.algorithms.ffm.ForestFireModelConfiguration.AVAILABLE_VERTEX_ID;
 import static science.atlarge.graphalytics.giraph.algorithms.ffm.ForestFireModelConfiguration.NEW_VERTICES;
 
 /**
  * Per-worker context for the forest fire model algorithm. Used to select
- * ambassadors during the first superstep of the algorithm.
+ * ambassadors during the first superstep of the algorithm. Every compute thread
+ * keeps its own bounded set of candidates, which are merged after the superstep,
+ * so registering vertices does not require any locking.
  *
  * @author Tim Hegeman
  */
 public class ForestFireModelWorkerContext extends WorkerContext {
 
-	private Random rnd = new Random();
-
 	private boolean initialized = false;
-	private long nextVertexId;
+	private long firstVertexId;
+	private AtomicLong newVertexCount = new AtomicLong();
 	private long numberOfNewVertices;
-	private PriorityQueue<AmbassadorSelection> candidateAmbassadors = new PriorityQueue<>();
+	private Queue<CandidateReservoir> candidateReservoirs = new ConcurrentLinkedQueue<>();
+	private ThreadLocal<CandidateReservoir> threadCandidates = new ThreadLocal<CandidateReservoir>() {
+		@Override
+		protected CandidateReservoir initialValue() {
+			CandidateReservoir reservoir = new CandidateReservoir(numberOfNewVertices);
+			candidateReservoirs.add(reservoir);
+			return reservoir;
+		}
+	};
 	private long[] selectedAmbassadors = null;
 
 	/**
 	 * @param vertexId a vertex in this worker's partition
 	 */
-	public synchronized void registerVertex(long vertexId) {
+	public void registerVertex(long vertexId) {
 		if (numberOfNewVertices == 0) {
 			return;
 		}
 
 		// Consider the given vertex as a potential ambassador by assigning it a random score
-		AmbassadorSelection candidate = new AmbassadorSelection(rnd.nextFloat(), vertexId);
-		if (candidateAmbassadors.size() < numberOfNewVertices) {
-			// Fill the list of candidates
-			candidateAmbassadors.add(candidate);
-		} else if (candidateAmbassadors.peek().compareTo(candidate) <= 0) {
-			// Replace the lowest scoring candidate if the new vertex has a higher score
-			candidateAmbassadors.add(candidate);
-			candidateAmbassadors.poll();
-		}
+		threadCandidates.get().offer(ThreadLocalRandom.current().nextFloat(), vertexId);
 	}
 
 	/**
@@ -72,10 +75,8 @@ public class ForestFireModelWorkerContext extends WorkerContext {
 	/**
 	 * @return a guaranteed unique vertex id
 	 */
-	public synchronized long getNewVertexId() {
-		long newId = nextVertexId;
-		nextVertexId += getWorkerCount();
-		return newId;
+	public long getNewVertexId() {
+		return firstVertexId + newVertexCount.getAndIncrement() * getWorkerCount();
 	}
 
 	@Override
@@ -105,7 +106,7 @@ public class ForestFireModelWorkerContext extends WorkerContext {
 			}
 
 			// Get the first vertex ID to assign to a new vertex
-			nextVertexId = AVAILABLE_VERTEX_ID.get(getConf()) + getMyWorkerIndex();
+			firstVertexId = AVAILABLE_VERTEX_ID.get(getConf()) + getMyWorkerIndex();
 
 			initialized = true;
 		}
@@ -114,50 +115,68 @@ public class ForestFireModelWorkerContext extends WorkerContext {
 	@Override
 	public void postSuperstep() {
 		if (getSuperstep() == 0) {
-			// After the first superstep, create an ordered array with the selected ambassadors
-			selectedAmbassadors = new long[candidateAmbassadors.size()];
-			int i = 0;
-			for (AmbassadorSelection selection : candidateAmbassadors) {
-				selectedAmbassadors[i++] = selection.getVertexId();
+			// After the first superstep, merge the candidates of all threads and create an ordered array with the
+			// selected ambassadors
+			CandidateReservoir merged = new CandidateReservoir(numberOfNewVertices);
+			for (CandidateReservoir reservoir : candidateReservoirs) {
+				for (int i = 0; i < reservoir.size; i++) {
+					merged.offer(reservoir.scores[i], reservoir.vertexIds[i]);
+				}
 			}
+			candidateReservoirs.clear();
+			selectedAmbassadors = Arrays.copyOf(merged.vertexIds, merged.size);
 			Arrays.sort(selectedAmbassadors);
 		}
 	}
 
 	/**
-	 * Represents a possible choice for an ambassador, with a vertex ID and a score.
-	 * The selections are ordered by score values.
+	 * Bounded collection of the possible choices for an ambassador with the highest scores, stored as a min-heap of
+	 * scores with corresponding vertex IDs.
 	 */
-	private static class AmbassadorSelection implements Comparable<AmbassadorSelection> {
-		private float score;
-		private long vertexId;
-
-		public AmbassadorSelection(float score, long vertexId) {
-			this.score = score;
-			this.vertexId = vertexId;
-		}
-
-		public float getScore() {
-			return score;
-		}
-
-		public long getVertexId() {
-			return vertexId;
+	private static class CandidateReservoir {
+		private final long maxSize;
+		private float[] scores = new float[16];
+		private long[] vertexIds = new long[16];
+		private int size = 0;
+
+		public CandidateReservoir(long maxSize) {
+			this.maxSize = maxSize;
 		}
 
-		@Override
-		public int compareTo(AmbassadorSelection o) {
-			return Float.compare(getScore(), o.getScore());
-		}
-
-		@Override
-		public boolean equals(Object obj) {
-			return obj instanceof AmbassadorSelection && this.compareTo((AmbassadorSelection)obj) == 0;
-		}
-
-		@Override
-		public int hashCode() {
-			return score != +0.0f ? Float.floatToIntBits(score) : 0;
+		public void offer(float score, long vertexId) {
+			if (size < maxSize) {
+				// Fill the list of candidates
+				if (size == scores.length) {
+					scores = Arrays.copyOf(scores, size * 2);
+					vertexIds = Arrays.copyOf(vertexIds, size * 2);
+				}
+				int i = size++;
+				while (i > 0 && scores[(i - 1) / 2] > score) {
+					int parent = (i - 1) / 2;
+					scores[i] = scores[parent];
+					vertexIds[i] = vertexIds[parent];
+					i = parent;
+				}
+				scores[i] = score;
+				vertexIds[i] = vertexId;
+			} else if (size > 0 && scores[0] <= score) {
+				// Replace the lowest scoring candidate if the new vertex has a higher score
+				int i = 0;
+				while (2 * i + 1 < size) {
+					int child = 2 * i + 1;
+					if (child + 1 < size && scores[child + 1] < scores[child]) {
+						child++;
+					}
+					if (scores[child] >= score) {
+						break;
+					}
+					scores[i] = scores[child];
+					vertexIds[i] = vertexIds[child];
+					i = child;
+				}
+				scores[i] = score;
+				vertexIds[i] = vertexId;
+			}
 		}
 	}
 
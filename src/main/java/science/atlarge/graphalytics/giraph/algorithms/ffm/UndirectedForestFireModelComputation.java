@@ -16,6 +16,8 @@
 package science.atlarge.graphalytics.giraph.algorithms.ffm;
 
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
 import org.apache.giraph.edge.EdgeFactory;
 import org.apache.giraph.graph.BasicComputation;
@@ -38,6 +40,12 @@ public class UndirectedForestFireModelComputation extends
 	private float forwardProbability;
 	private Random rnd = new Random();
 
+	// Scratch space for burnLinks, reused for all vertices processed by this computation
+	private Long2ObjectOpenHashMap<LongArrayList> aliveLinks = new Long2ObjectOpenHashMap<>();
+	private List<LongArrayList> spareLinkLists = new ArrayList<>();
+	private LongWritable messageTargetId = new LongWritable();
+	private LongArrayList instigatorBuffer = new LongArrayList();
+
 	@Override
 	public void setConf(
 			ImmutableClassesGiraphConfiguration<LongWritable, ForestFireModelData, NullWritable> conf) {
@@ -114,81 +122,135 @@ public class UndirectedForestFireModelComputation extends
 	}
 
 	private void requestNeighbourLiveness(Vertex<LongWritable, ForestFireModelData, NullWritable> vertex) {
-		for (Map.Entry<Long, ForestFireModelData.ForestFireModelState> state : vertex.getValue().getStates()) {
-			if (state.getValue() == ForestFireModelData.ForestFireModelState.BURNING) {
-				// Request from out-edges
-				ForestFireModelMessage livenessRequest =
-						ForestFireModelMessage.livenessRequest(vertex.getId().get(), state.getKey());
-				sendMessageToAllEdges(vertex, livenessRequest);
-				// Request from in-edges
-				for (long inEdge : vertex.getValue().getInEdges()) {
-					sendMessage(new LongWritable(inEdge), livenessRequest);
-				}
+		// Collect all instigators for which this vertex is burning (in ascending order)
+		ForestFireModelData data = vertex.getValue();
+		instigatorBuffer.clear();
+		for (int i = 0; i < data.getStateCount(); i++) {
+			if (data.getStateAt(i) == ForestFireModelData.ForestFireModelState.BURNING) {
+				instigatorBuffer.add(data.getInstigatorId(i));
 			}
 		}
+		if (instigatorBuffer.isEmpty()) {
+			return;
+		}
+
+		// Send a single request for all instigators to every neighbour
+		ForestFireModelMessage livenessRequest = ForestFireModelMessage.livenessRequest(vertex.getId().get(),
+				instigatorBuffer.elements(), instigatorBuffer.size());
+		// Request from out-edges
+		sendMessageToAllEdges(vertex, livenessRequest);
+		// Request from in-edges
+		for (long inEdge : data.getInEdges()) {
+			messageTargetId.set(inEdge);
+			sendMessage(messageTargetId, livenessRequest);
+		}
 	}
 
 	private void replyToLivenessRequests(Vertex<LongWritable, ForestFireModelData, NullWritable> vertex,
 			Iterable<ForestFireModelMessage> messages) {
+		ForestFireModelData data = vertex.getValue();
 		for (ForestFireModelMessage message : messages) {
-			if (vertex.getValue().getState(message.getInstigatorId()) == ForestFireModelData.ForestFireModelState.ALIVE) {
-				sendMessage(new LongWritable(message.getSourceId()),
-						ForestFireModelMessage.aliveAcknowledgement(vertex.getId().get(),
-								message.getInstigatorId()));
+			// Reply with the subset of requested instigators for which this vertex is alive
+			instigatorBuffer.clear();
+			long[] instigatorIds = message.getInstigatorIds();
+			for (int i = 0; i < message.getInstigatorCount(); i++) {
+				if (data.getState(instigatorIds[i]) == ForestFireModelData.ForestFireModelState.ALIVE) {
+					instigatorBuffer.add(instigatorIds[i]);
+				}
+			}
+			if (!instigatorBuffer.isEmpty()) {
+				messageTargetId.set(message.getSourceId());
+				sendMessage(messageTargetId, ForestFireModelMessage.aliveAcknowledgement(vertex.getId().get(),
+						instigatorBuffer.elements(), instigatorBuffer.size()));
 			}
 		}
 	}
 
-	private void burnLinks(Vertex<LongWritable, ForestFireModelData, NullWritable> vertex,
+	/**
+	 * Package-private so that the hot path can be benchmarked in isolation (see BurnLinksBenchmark in the tests).
+	 */
+	void burnLinks(Vertex<LongWritable, ForestFireModelData, NullWritable> vertex,
 			Iterable<ForestFireModelMessage> messages) throws IOException {
 		// Group all incoming liveness messages by instigator ID
-		Map<Long, Set<Long>> aliveLinks = new HashMap<>();
+		clearLinksMap(aliveLinks);
 		for (ForestFireModelMessage message : messages) {
-			long instigatorId = message.getInstigatorId();
 			long sourceId = message.getSourceId();
-			addToLinksMap(aliveLinks, instigatorId, sourceId);
+			long[] instigatorIds = message.getInstigatorIds();
+			for (int i = 0; i < message.getInstigatorCount(); i++) {
+				addToLinksMap(aliveLinks, instigatorIds[i], sourceId);
+			}
 		}
 		// Go through the set of possible instigator IDs (current burning states) and process them
-		for (long instigatorId : vertex.getValue().getInstigatorIds()) {
-			if (vertex.getValue().getState(instigatorId) == ForestFireModelData.ForestFireModelState.BURNING) {
+		ForestFireModelData data = vertex.getValue();
+		for (int i = 0; i < data.getStateCount(); i++) {
+			if (data.getStateAt(i) == ForestFireModelData.ForestFireModelState.BURNING) {
+				long instigatorId = data.getInstigatorId(i);
 				LongWritable instigatorIdFull = new LongWritable(instigatorId);
 				ForestFireModelMessage message = ForestFireModelMessage.burningNotification(instigatorId);
 				// Handle links
-				if (aliveLinks.containsKey(instigatorId)) {
+				LongArrayList links = aliveLinks.get(instigatorId);
+				if (links != null) {
 					// TODO: Use backward burning probability as well?
-					int outBurningCount = getGeometricVariable(1.0f - forwardProbability);
-					Set<Long> outBurning = selectLinksFromSet(aliveLinks.get(instigatorId), outBurningCount);
-					for (Long target : outBurning) {
-						LongWritable targetId = new LongWritable(target);
+					int outBurningCount = selectLinks(links, getGeometricVariable(1.0f - forwardProbability));
+					long[] targets = links.elements();
+					for (int j = 0; j < outBurningCount; j++) {
+						// Mutation requests are buffered by Giraph, so every edge needs its own objects
+						LongWritable targetId = new LongWritable(targets[j]);
 						addEdgeRequest(instigatorIdFull, EdgeFactory.create(targetId));
 						addEdgeRequest(targetId, EdgeFactory.create(instigatorIdFull));
-						sendMessage(targetId, message);
+						// Messages are serialized immediately, so the target ID can be reused
+						messageTargetId.set(targets[j]);
+						sendMessage(messageTargetId, message);
 					}
 				}
 			}
 		}
 	}
 
-	private static void addToLinksMap(Map<Long, Set<Long>> linksMap, long instigatorId, long sourceId) {
-		if (!linksMap.containsKey(instigatorId)) {
-			linksMap.put(instigatorId, new HashSet<Long>());
+	private void clearLinksMap(Long2ObjectOpenHashMap<LongArrayList> linksMap) {
+		for (LongArrayList links : linksMap.values()) {
+			links.clear();
+			spareLinkLists.add(links);
 		}
-		linksMap.get(instigatorId).add(sourceId);
+		linksMap.clear();
 	}
 
-	private Set<Long> selectLinksFromSet(Set<Long> links, int amount) {
-		if (amount >= links.size()) {
-			return links;
+	private void addToLinksMap(Long2ObjectOpenHashMap<LongArrayList> linksMap, long instigatorId, long sourceId) {
+		LongArrayList links = linksMap.get(instigatorId);
+		if (links == null) {
+			links = spareLinkLists.isEmpty() ? new LongArrayList() : spareLinkLists.remove(spareLinkLists.size() - 1);
+			linksMap.put(instigatorId, links);
 		}
+		links.add(sourceId);
+	}
 
-		List<Long> linksAsList = new ArrayList<>(links);
-		Set<Long> selection = new HashSet<>();
+	/**
+	 * Removes duplicate links from a list and moves a uniformly random selection of links to the front of the list,
+	 * using a partial Fisher-Yates shuffle.
+	 *
+	 * @return the number of selected links
+	 */
+	private int selectLinks(LongArrayList links, int amount) {
+		long[] elements = links.elements();
+		Arrays.sort(elements, 0, links.size());
+		int uniqueCount = 0;
+		for (int i = 0; i < links.size(); i++) {
+			if (uniqueCount == 0 || elements[i] != elements[uniqueCount - 1]) {
+				elements[uniqueCount++] = elements[i];
+			}
+		}
+		links.size(uniqueCount);
+
+		if (amount >= uniqueCount) {
+			return uniqueCount;
+		}
 		for (int i = 0; i < amount; i++) {
-			int idx = rnd.nextInt(linksAsList.size());
-			selection.add(linksAsList.get(idx));
-			linksAsList.remove(idx);
+			int idx = i + rnd.nextInt(uniqueCount - i);
+			long selected = elements[idx];
+			elements[idx] = elements[i];
+			elements[i] = selected;
 		}
-		return selection;
+		return amount;
 	}
 
 	private int getGeometricVariable(float p) {
@@ -200,9 +262,10 @@ public class UndirectedForestFireModelComputation extends
 
 	private void burnOut(Vertex<LongWritable, ForestFireModelData, NullWritable> vertex) {
 		// Loop through the list of states and replacing burning with burned
-		for (Map.Entry<Long, ForestFireModelData.ForestFireModelState> state : vertex.getValue().getStates()) {
-			if (state.getValue() == ForestFireModelData.ForestFireModelState.BURNING) {
-				vertex.getValue().setState(state.getKey(), ForestFireModelData.ForestFireModelState.BURNED);
+		ForestFireModelData data = vertex.getValue();
+		for (int i = 0; i < data.getStateCount(); i++) {
+			if (data.getStateAt(i) == ForestFireModelData.ForestFireModelState.BURNING) {
+				data.setStateAt(i, ForestFireModelData.ForestFireModelState.BURNED);
 			}
 		}
 	}
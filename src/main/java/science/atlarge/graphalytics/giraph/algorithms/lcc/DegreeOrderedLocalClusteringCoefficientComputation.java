@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.lcc;
+
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.graph.BasicComputation;
+import org.apache.giraph.graph.Vertex;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computation for the local clustering coefficient algorithm on Giraph for undirected graphs, based on triangle
+ * counting over edges oriented by (degree, id). Every vertex sends its list of higher-ranked neighbours only to those
+ * neighbours, which intersect it with their own list of higher-ranked neighbours. Each triangle is thereby found
+ * exactly once, by its middle-ranked vertex, which reports it to the other two corners. Compared to
+ * {@link UndirectedLocalClusteringCoefficientComputation}, which sends every neighbour list to all neighbours, this
+ * bounds the size of the lists sent by high-degree vertices by the number of neighbours with an even higher degree.
+ */
+public class DegreeOrderedLocalClusteringCoefficientComputation extends
+		BasicComputation<LongWritable, DoubleWritable, NullWritable, LocalClusteringCoefficientMessage> {
+
+	private LocalClusteringCoefficientMessage degreeMessage = new LocalClusteringCoefficientMessage();
+	private LocalClusteringCoefficientMessage listMessage = new LocalClusteringCoefficientMessage();
+	private LocalClusteringCoefficientMessage countMessage = new LocalClusteringCoefficientMessage();
+	private LongArrayList higherNeighbours = new LongArrayList();
+	private Long2IntOpenHashMap triangleCounts = new Long2IntOpenHashMap();
+	private LongWritable destinationId = new LongWritable();
+
+	@Override
+	public void compute(Vertex<LongWritable, DoubleWritable, NullWritable> vertex,
+			Iterable<LocalClusteringCoefficientMessage> messages) throws IOException {
+		if (getSuperstep() == 0) {
+			// First superstep: inform all neighbours of this vertex's degree, which determines its rank
+			vertex.getValue().set(vertex.getNumEdges());
+			degreeMessage.setSource(vertex.getId().get());
+			// The match count field carries the degree of the source vertex
+			degreeMessage.setMatchCount(vertex.getNumEdges());
+			sendMessageToAllEdges(vertex, degreeMessage);
+		} else if (getSuperstep() == 1) {
+			// Second superstep: keep only edges to higher-ranked neighbours, and send the list of those neighbours
+			// to each of them
+			long[] sortedHigherNeighbours = collectHigherNeighbours(vertex, messages);
+			sendNeighbourList(vertex, sortedHigherNeighbours);
+		} else if (getSuperstep() == 2) {
+			// Third superstep: find triangles by intersecting received lists with this vertex's own list, and
+			// report them to all three corners
+			countTriangles(vertex, messages);
+		} else if (getSuperstep() == 3) {
+			// Fourth superstep: compute the ratio of triangles to possible triangles
+			double lcc = computeLCC((long)vertex.getValue().get(), messages);
+			vertex.getValue().set(lcc);
+			vertex.voteToHalt();
+		}
+	}
+
+	private long[] collectHigherNeighbours(Vertex<LongWritable, DoubleWritable, NullWritable> vertex,
+			Iterable<LocalClusteringCoefficientMessage> messages) {
+		long vertexId = vertex.getId().get();
+		int degree = vertex.getNumEdges();
+
+		higherNeighbours.clear();
+		for (LocalClusteringCoefficientMessage msg : messages) {
+			if (isHigherRanked(msg.getMatchCount(), msg.getSource(), degree, vertexId)) {
+				higherNeighbours.add(msg.getSource());
+			}
+		}
+		long[] neighbourArray = higherNeighbours.toLongArray();
+		Arrays.sort(neighbourArray);
+
+		// Replace the edges of this vertex by its (sorted) edges to higher-ranked neighbours for the next superstep
+		List<Edge<LongWritable, NullWritable>> higherEdges = new ArrayList<>(neighbourArray.length);
+		for (long neighbour : neighbourArray) {
+			higherEdges.add(EdgeFactory.create(new LongWritable(neighbour)));
+		}
+		vertex.setEdges(higherEdges);
+		return neighbourArray;
+	}
+
+	private static boolean isHigherRanked(int degree, long id, int referenceDegree, long referenceId) {
+		return degree > referenceDegree || (degree == referenceDegree && id > referenceId);
+	}
+
+	private void sendNeighbourList(Vertex<LongWritable, DoubleWritable, NullWritable> vertex,
+			long[] sortedHigherNeighbours) {
+		// A vertex with at most one higher-ranked neighbour is never the lowest-ranked corner of a triangle
+		if (sortedHigherNeighbours.length <= 1) {
+			return;
+		}
+
+		listMessage.setSource(vertex.getId().get());
+		listMessage.setEdgeList(sortedHigherNeighbours);
+		sendMessageToAllEdges(vertex, listMessage);
+	}
+
+	private void countTriangles(Vertex<LongWritable, DoubleWritable, NullWritable> vertex,
+			Iterable<LocalClusteringCoefficientMessage> messages) {
+		long vertexId = vertex.getId().get();
+
+		higherNeighbours.clear();
+		for (Edge<LongWritable, NullWritable> edge : vertex.getEdges()) {
+			higherNeighbours.add(edge.getTargetVertexId().get());
+		}
+		long[] ownList = higherNeighbours.elements();
+		int ownSize = higherNeighbours.size();
+		// The edges were set in sorted order, but only some OutEdges implementations preserve insertion order
+		Arrays.sort(ownList, 0, ownSize);
+
+		triangleCounts.clear();
+		for (LocalClusteringCoefficientMessage msg : messages) {
+			// Merge-intersect the sorted list of the lower-ranked sender with this vertex's sorted list
+			long[] otherList = msg.getEdgeList();
+			int otherSize = msg.getEdgeListLength();
+			int i = 0;
+			int j = 0;
+			int matches = 0;
+			while (i < otherSize && j < ownSize) {
+				if (otherList[i] < ownList[j]) {
+					i++;
+				} else if (otherList[i] > ownList[j]) {
+					j++;
+				} else {
+					triangleCounts.addTo(otherList[i], 1);
+					matches++;
+					i++;
+					j++;
+				}
+			}
+			if (matches > 0) {
+				triangleCounts.addTo(msg.getSource(), matches);
+				triangleCounts.addTo(vertexId, matches);
+			}
+		}
+
+		// Send a single message with the total number of triangles to every corner, including this vertex
+		for (Long2IntMap.Entry entry : triangleCounts.long2IntEntrySet()) {
+			destinationId.set(entry.getLongKey());
+			countMessage.setMatchCount(entry.getIntValue());
+			sendMessage(destinationId, countMessage);
+		}
+	}
+
+	private static double computeLCC(long numberOfNeighbours, Iterable<LocalClusteringCoefficientMessage> messages) {
+		// Any vertex with less than two neighbours can have no edges between neighbours; LCC = 0
+		if (numberOfNeighbours < 2) {
+			return 0.0;
+		}
+
+		// Count the number of triangles; every triangle corresponds to two matches in the all-pairs algorithm
+		long numberOfTriangles = 0;
+		for (LocalClusteringCoefficientMessage msg : messages) {
+			numberOfTriangles += msg.getMatchCount();
+		}
+		// Compute the LCC as the ratio between the number of existing edges and number of possible edges
+		return (double)(2 * numberOfTriangles) / numberOfNeighbours / (numberOfNeighbours - 1);
+	}
+
+}
@@ -15,6 +15,7 @@
  */
 package science.atlarge.graphalytics.giraph.algorithms.lcc;
 
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import org.apache.giraph.edge.Edge;
@@ -25,6 +26,7 @@ import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.NullWritable;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Computation for the local clustering coefficient algorithm on Giraph for directed graphs.
@@ -38,6 +40,14 @@ public class DirectedLocalClusteringCoefficientComputation extends
 	private LongSet neighbours = new LongOpenHashSet();
 	private LongToLongWritableIterator longWritableIterator = new LongToLongWritableIterator();
 	private LongWritable destinationId = new LongWritable();
+	private HubNeighbourLists hubNeighbourList = new HubNeighbourLists();
+	private LongArrayList adjacentHubs = new LongArrayList();
+	private int hubDegreeThreshold;
+
+	@Override
+	public void preSuperstep() {
+		hubDegreeThreshold = LocalClusteringCoefficientConfiguration.HUB_DEGREE_THRESHOLD.get(getConf());
+	}
 
 	@Override
 	public void compute(Vertex<LongWritable, DoubleWritable, NullWritable> vertex,
@@ -54,6 +64,9 @@ public class DirectedLocalClusteringCoefficientComputation extends
 		} else if (getSuperstep() == 2) {
 			// Third superstep: for each inquiry reply iff the requested edge exists
 			sendConnectionReplies(vertex.getEdges(), messages);
+			if (hubDegreeThreshold > 0) {
+				sendHubReplies(vertex.getId().get());
+			}
 		} else if (getSuperstep() == 3) {
 			// Fourth superstep: compute the ratio of responses to requests
 			double lcc = computeLCC(vertex.getValue().get(), messages);
@@ -82,9 +95,21 @@ public class DirectedLocalClusteringCoefficientComputation extends
 			return;
 		}
 
+		// Sort the neighbours for a compact delta encoding
+		long[] sortedNeighbours = neighbours.toLongArray();
+		Arrays.sort(sortedNeighbours);
+
+		// Hubs share their neighbour list once with every worker instead of sending it to every neighbour
+		if (hubDegreeThreshold > 0 && neighbours.size() > hubDegreeThreshold) {
+			hubNeighbourList.clear();
+			hubNeighbourList.put(sourceVertexId, sortedNeighbours);
+			aggregate(LocalClusteringCoefficientConfiguration.HUB_NEIGHBOUR_LISTS, hubNeighbourList);
+			return;
+		}
+
 		// Send the set of neighbours to all neighbours
 		msgObject.setSource(sourceVertexId);
-		msgObject.setEdgeList(neighbours.toLongArray());
+		msgObject.setEdgeList(sortedNeighbours);
 		longWritableIterator.reset(neighbours);
 		sendMessageToMultipleEdges(longWritableIterator, msgObject);
 	}
@@ -99,8 +124,9 @@ public class DirectedLocalClusteringCoefficientComputation extends
 		// Loop through the inquiries, count the number of existing edges, and send replies
 		for (LocalClusteringCoefficientMessage msg : inquiries) {
 			int matchCount = 0;
-			for (long edgeId : msg.getEdgeList()) {
-				if (neighbours.contains(edgeId)) {
+			long[] edgeList = msg.getEdgeList();
+			for (int i = 0; i < msg.getEdgeListLength(); i++) {
+				if (neighbours.contains(edgeList[i])) {
 					matchCount++;
 				}
 			}
@@ -111,6 +137,18 @@ public class DirectedLocalClusteringCoefficientComputation extends
 		}
 	}
 
+	private void sendHubReplies(long vertexId) {
+		// Treat the neighbour list of every adjacent hub as an inquiry, and reply to the hub
+		LocalClusteringCoefficientWorkerContext workerContext = getWorkerContext();
+		workerContext.findAdjacentHubs(vertexId, adjacentHubs);
+		for (int i = 0; i < adjacentHubs.size(); i++) {
+			long hubId = adjacentHubs.getLong(i);
+			destinationId.set(hubId);
+			msgObject.setMatchCount(workerContext.countCommonNeighbours(hubId, neighbours));
+			sendMessage(destinationId, msgObject);
+		}
+	}
+
 	private static double computeLCC(double numberOfNeighbours, Iterable<LocalClusteringCoefficientMessage> messages) {
 		// Any vertex with less than two neighbours can have no edges between neighbours; LCC = 0
 		if (numberOfNeighbours < 2) {
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.lcc;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.apache.hadoop.io.Writable;
+import science.atlarge.graphalytics.giraph.io.VarLongEncoding;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Collection of the sorted neighbour lists of hub vertices, shared with all workers through an aggregator. Lists are
+ * serialized as delta-encoded variable length longs.
+ */
+public class HubNeighbourLists implements Writable {
+
+	private final Long2ObjectOpenHashMap<long[]> neighbourLists = new Long2ObjectOpenHashMap<>();
+
+	/**
+	 * @param hubId              the ID of the hub vertex
+	 * @param sortedNeighbourIds the sorted IDs of the neighbours of the hub vertex
+	 */
+	public void put(long hubId, long[] sortedNeighbourIds) {
+		neighbourLists.put(hubId, sortedNeighbourIds);
+	}
+
+	/**
+	 * @param other the neighbour lists to add to this collection
+	 */
+	public void putAll(HubNeighbourLists other) {
+		neighbourLists.putAll(other.neighbourLists);
+	}
+
+	/**
+	 * @param hubId the ID of a hub vertex
+	 * @return the sorted IDs of the neighbours of the hub vertex, or null if it is not in this collection
+	 */
+	public long[] get(long hubId) {
+		return neighbourLists.get(hubId);
+	}
+
+	/**
+	 * @return the neighbour lists of all hubs in this collection, indexed by hub ID
+	 */
+	public Long2ObjectMap<long[]> getNeighbourLists() {
+		return neighbourLists;
+	}
+
+	public boolean isEmpty() {
+		return neighbourLists.isEmpty();
+	}
+
+	public void clear() {
+		neighbourLists.clear();
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(neighbourLists.size());
+		for (Long2ObjectMap.Entry<long[]> entry : neighbourLists.long2ObjectEntrySet()) {
+			out.writeLong(entry.getLongKey());
+			long[] neighbours = entry.getValue();
+			out.writeInt(neighbours.length);
+			VarLongEncoding.writeDeltas(out, neighbours, 0, neighbours.length);
+		}
+	}
+
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		neighbourLists.clear();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			long hubId = in.readLong();
+			long[] neighbours = new long[in.readInt()];
+			VarLongEncoding.readDeltas(in, neighbours, 0, neighbours.length);
+			neighbourLists.put(hubId, neighbours);
+		}
+	}
+
+}
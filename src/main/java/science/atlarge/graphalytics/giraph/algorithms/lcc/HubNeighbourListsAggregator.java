@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.lcc;
+
+import org.apache.giraph.aggregators.BasicAggregator;
+
+/**
+ * Aggregator that collects the neighbour lists of all hub vertices.
+ */
+public class HubNeighbourListsAggregator extends BasicAggregator<HubNeighbourLists> {
+
+	@Override
+	public void aggregate(HubNeighbourLists value) {
+		getAggregatedValue().putAll(value);
+	}
+
+	@Override
+	public HubNeighbourLists createInitialValue() {
+		return new HubNeighbourLists();
+	}
+
+}
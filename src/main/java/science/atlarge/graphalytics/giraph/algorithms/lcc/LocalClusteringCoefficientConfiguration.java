@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.lcc;
+
+import org.apache.giraph.conf.BooleanConfOption;
+import org.apache.giraph.conf.IntConfOption;
+
+/**
+ * Configuration constants for the local clustering coefficient algorithm on Giraph.
+ */
+public final class LocalClusteringCoefficientConfiguration {
+
+	/**
+	 * Configuration key for selecting degree-ordered triangle counting for undirected graphs
+	 */
+	public static final String DEGREE_ORDERED_KEY = "graphalytics.lcc.degree-ordered";
+	/**
+	 * Configuration option for selecting degree-ordered triangle counting for undirected graphs
+	 */
+	public static final BooleanConfOption DEGREE_ORDERED = new BooleanConfOption(
+			DEGREE_ORDERED_KEY, false, "Count triangles on undirected graphs using edges oriented by degree");
+
+	/**
+	 * Configuration key for the degree above which vertices share their neighbour list through an aggregator
+	 */
+	public static final String HUB_DEGREE_THRESHOLD_KEY = "graphalytics.lcc.hub-degree-threshold";
+	/**
+	 * Configuration option for the degree above which vertices share their neighbour list with all workers through an
+	 * aggregator, instead of sending it to every neighbour. A value of zero disables this.
+	 */
+	public static final IntConfOption HUB_DEGREE_THRESHOLD = new IntConfOption(
+			HUB_DEGREE_THRESHOLD_KEY, 0, "Degree above which LCC shares neighbour lists through an aggregator");
+
+	/**
+	 * Name of aggregator for collecting the neighbour lists of hub vertices.
+	 */
+	public static final String HUB_NEIGHBOUR_LISTS = "Hub neighbour lists";
+
+	private LocalClusteringCoefficientConfiguration() {
+	}
+
+}
@@ -25,9 +25,9 @@ import org.apache.giraph.io.EdgeInputFormat;
 import org.apache.giraph.io.EdgeOutputFormat;
 import org.apache.giraph.io.VertexInputFormat;
 import org.apache.giraph.io.VertexOutputFormat;
-import org.apache.giraph.io.formats.IdWithValueTextOutputFormat;
 
 import science.atlarge.graphalytics.giraph.GiraphJob;
+import science.atlarge.graphalytics.giraph.io.LongIdWithValueTextOutputFormat;
 import science.atlarge.graphalytics.giraph.io.DirectedLongNullTextEdgeInputFormat;
 import science.atlarge.graphalytics.giraph.io.UndirectedLongNullTextEdgeInputFormat;
 
@@ -52,9 +52,12 @@ public class LocalClusteringCoefficientJob extends GiraphJob {
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends Computation> getComputationClass() {
-		return (formattedGraph.isDirected() ?
-				DirectedLocalClusteringCoefficientComputation.class :
-				UndirectedLocalClusteringCoefficientComputation.class);
+		if (formattedGraph.isDirected()) {
+			return DirectedLocalClusteringCoefficientComputation.class;
+		}
+		return LocalClusteringCoefficientConfiguration.DEGREE_ORDERED.get(getConf()) ?
+				DegreeOrderedLocalClusteringCoefficientComputation.class :
+				UndirectedLocalClusteringCoefficientComputation.class;
 	}
 
 	@SuppressWarnings("rawtypes")
@@ -66,7 +69,7 @@ public class LocalClusteringCoefficientJob extends GiraphJob {
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends VertexOutputFormat> getVertexOutputFormatClass() {
-		return IdWithValueTextOutputFormat.class;
+		return LongIdWithValueTextOutputFormat.class;
 	}
 
 	@SuppressWarnings("rawtypes")
@@ -87,6 +90,12 @@ public class LocalClusteringCoefficientJob extends GiraphJob {
 	protected void configure(GiraphConfiguration config) {
 		// Set the message store type to optimize for one-to-many messages (i.e. broadcasts of neighbour sets)
 		MESSAGE_ENCODE_AND_STORE_TYPE.set(config, MessageEncodeAndStoreType.EXTRACT_BYTEARRAY_PER_PARTITION);
+		// Share the neighbour lists of hub vertices through an aggregator, if enabled
+		if (LocalClusteringCoefficientConfiguration.HUB_DEGREE_THRESHOLD.get(config) > 0 &&
+				getComputationClass() != DegreeOrderedLocalClusteringCoefficientComputation.class) {
+			config.setMasterComputeClass(LocalClusteringCoefficientMasterComputation.class);
+			config.setWorkerContextClass(LocalClusteringCoefficientWorkerContext.class);
+		}
 	}
 
 }
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.lcc;
+
+import org.apache.giraph.master.DefaultMasterCompute;
+
+/**
+ * Master computation for the local clustering coefficient algorithm to manage the sharing of hub neighbour lists.
+ */
+public class LocalClusteringCoefficientMasterComputation extends DefaultMasterCompute {
+
+	@Override
+	public void initialize() throws InstantiationException, IllegalAccessException {
+		registerAggregator(LocalClusteringCoefficientConfiguration.HUB_NEIGHBOUR_LISTS,
+				HubNeighbourListsAggregator.class);
+	}
+
+}
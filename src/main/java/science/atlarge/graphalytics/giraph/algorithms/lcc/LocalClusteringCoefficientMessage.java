@@ -16,13 +16,17 @@
 package science.atlarge.graphalytics.giraph.algorithms.lcc;
 
 import org.apache.hadoop.io.Writable;
+import science.atlarge.graphalytics.giraph.io.VarLongEncoding;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
 /**
- * Message class representing the various types of messages sent in the LCC algorithm.
+ * Message class representing the various types of messages sent in the LCC algorithm. Edge lists are serialized as
+ * variable length deltas, which is most compact if the edge list is sorted. When a message object is deserialized
+ * repeatedly (e.g. while iterating over the messages of a vertex), the edge list array is reused if it is large
+ * enough, so only the first {@link #getEdgeListLength()} elements of {@link #getEdgeList()} are valid.
  *
  * @author Tim Hegeman
  */
@@ -35,6 +39,7 @@ public class LocalClusteringCoefficientMessage implements Writable {
 	private int validFields;
 	private long source;
 	private long[] edgeList;
+	private int edgeListLength;
 	private int matchCount;
 
 	public LocalClusteringCoefficientMessage() {
@@ -77,6 +82,7 @@ public class LocalClusteringCoefficientMessage implements Writable {
 		this.validFields = validFields;
 		this.source = source;
 		this.edgeList = edgeList;
+		this.edgeListLength = edgeList != null ? edgeList.length : 0;
 		this.matchCount = matchCount;
 	}
 
@@ -105,8 +111,21 @@ public class LocalClusteringCoefficientMessage implements Writable {
 		return edgeList;
 	}
 
+	public int getEdgeListLength() {
+		return edgeListLength;
+	}
+
 	public void setEdgeList(long[] edgeList) {
+		setEdgeList(edgeList, edgeList.length);
+	}
+
+	/**
+	 * @param edgeList       array containing the edge list, preferably sorted
+	 * @param edgeListLength the number of elements of the array that are part of the edge list
+	 */
+	public void setEdgeList(long[] edgeList, int edgeListLength) {
 		this.edgeList = edgeList;
+		this.edgeListLength = edgeListLength;
 		validFields |= EDGELIST_PRESENT;
 	}
 
@@ -135,16 +154,14 @@ public class LocalClusteringCoefficientMessage implements Writable {
 	public void write(DataOutput out) throws IOException {
 		out.writeChar(validFields);
 		if ((validFields & SOURCE_PRESENT) == SOURCE_PRESENT) {
-			out.writeLong(source);
+			VarLongEncoding.writeVarLong(out, source);
 		}
 		if ((validFields & EDGELIST_PRESENT) == EDGELIST_PRESENT) {
-			out.writeInt(edgeList.length);
-			for (long edge : edgeList) {
-				out.writeLong(edge);
-			}
+			VarLongEncoding.writeVarLong(out, edgeListLength);
+			VarLongEncoding.writeDeltas(out, edgeList, 0, edgeListLength);
 		}
 		if ((validFields & MATCHCOUNT_PRESENT) == MATCHCOUNT_PRESENT) {
-			out.writeInt(matchCount);
+			VarLongEncoding.writeVarLong(out, matchCount);
 		}
 	}
 
@@ -152,16 +169,18 @@ public class LocalClusteringCoefficientMessage implements Writable {
 	public void readFields(DataInput in) throws IOException {
 		validFields = in.readChar();
 		if ((validFields & SOURCE_PRESENT) == SOURCE_PRESENT) {
-			source = in.readLong();
+			source = VarLongEncoding.readVarLong(in);
 		}
 		if ((validFields & EDGELIST_PRESENT) == EDGELIST_PRESENT) {
-			edgeList = new long[in.readInt()];
-			for (int i = 0; i < edgeList.length; i++) {
-				edgeList[i] = in.readLong();
+			edgeListLength = (int)VarLongEncoding.readVarLong(in);
+			// Reuse the edge list array of a previous message if possible
+			if (edgeList == null || edgeList.length < edgeListLength) {
+				edgeList = new long[edgeListLength];
 			}
+			VarLongEncoding.readDeltas(in, edgeList, 0, edgeListLength);
 		}
 		if ((validFields & MATCHCOUNT_PRESENT) == MATCHCOUNT_PRESENT) {
-			matchCount = in.readInt();
+			matchCount = (int)VarLongEncoding.readVarLong(in);
 		}
 	}
 
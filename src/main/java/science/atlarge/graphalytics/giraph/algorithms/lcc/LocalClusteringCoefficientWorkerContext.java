@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.lcc;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.apache.giraph.worker.DefaultWorkerContext;
+
+import java.util.Arrays;
+
+/**
+ * Worker context for the local clustering coefficient algorithm to provide access to the neighbour lists of hub
+ * vertices. The neighbour lists received through the aggregator are shared by all vertices on a worker, and are
+ * indexed by neighbour so every vertex can find the hubs it is adjacent to.
+ */
+public class LocalClusteringCoefficientWorkerContext extends DefaultWorkerContext {
+
+	private HubNeighbourLists hubNeighbourLists = new HubNeighbourLists();
+	/**
+	 * Maps the ID of every neighbour of a hub to its slot in the index.
+	 */
+	private final Long2IntOpenHashMap neighbourSlots = new Long2IntOpenHashMap();
+	/**
+	 * For every slot, the offset of the first hub adjacent to the corresponding neighbour in hubIds.
+	 */
+	private int[] slotOffsets = new int[1];
+	private long[] hubIds = new long[0];
+
+	@Override
+	public void preSuperstep() {
+		super.preSuperstep();
+		hubNeighbourLists = (HubNeighbourLists)getAggregatedValue(LocalClusteringCoefficientConfiguration.HUB_NEIGHBOUR_LISTS);
+		buildIndex();
+	}
+
+	private void buildIndex() {
+		neighbourSlots.clear();
+		neighbourSlots.defaultReturnValue(-1);
+		if (hubNeighbourLists == null || hubNeighbourLists.isEmpty()) {
+			slotOffsets = new int[1];
+			hubIds = new long[0];
+			return;
+		}
+
+		// Assign a slot to every distinct neighbour and count the number of hubs it is adjacent to
+		int[] counts = new int[16];
+		int totalCount = 0;
+		for (long[] neighbours : hubNeighbourLists.getNeighbourLists().values()) {
+			for (long neighbour : neighbours) {
+				int slot = neighbourSlots.get(neighbour);
+				if (slot == -1) {
+					slot = neighbourSlots.size();
+					neighbourSlots.put(neighbour, slot);
+					if (slot == counts.length) {
+						counts = Arrays.copyOf(counts, counts.length * 2);
+					}
+				}
+				counts[slot]++;
+				totalCount++;
+			}
+		}
+
+		// Lay out the hubs adjacent to each neighbour consecutively
+		int slots = neighbourSlots.size();
+		slotOffsets = new int[slots + 1];
+		for (int slot = 0; slot < slots; slot++) {
+			slotOffsets[slot + 1] = slotOffsets[slot] + counts[slot];
+		}
+		int[] fillPositions = Arrays.copyOf(slotOffsets, slots);
+		hubIds = new long[totalCount];
+		for (Long2ObjectMap.Entry<long[]> entry : hubNeighbourLists.getNeighbourLists().long2ObjectEntrySet()) {
+			for (long neighbour : entry.getValue()) {
+				hubIds[fillPositions[neighbourSlots.get(neighbour)]++] = entry.getLongKey();
+			}
+		}
+	}
+
+	/**
+	 * @param vertexId the ID of a vertex
+	 * @param hubs     list to fill with the IDs of all hubs that have the given vertex as neighbour
+	 */
+	public void findAdjacentHubs(long vertexId, LongArrayList hubs) {
+		hubs.clear();
+		if (hubIds.length == 0) {
+			return;
+		}
+		int slot = neighbourSlots.get(vertexId);
+		if (slot == -1) {
+			return;
+		}
+		hubs.addElements(0, hubIds, slotOffsets[slot], slotOffsets[slot + 1] - slotOffsets[slot]);
+	}
+
+	/**
+	 * @param hubId      the ID of a hub vertex
+	 * @param neighbours a set of vertex IDs
+	 * @return the number of vertices in the given set that are neighbours of the hub
+	 */
+	public int countCommonNeighbours(long hubId, LongSet neighbours) {
+		long[] hubNeighbours = hubNeighbourLists.get(hubId);
+		int matchCount = 0;
+		if (neighbours.size() < hubNeighbours.length) {
+			// Look up the smaller set in the sorted neighbour list of the hub
+			for (LongIterator iter = neighbours.iterator(); iter.hasNext(); ) {
+				if (Arrays.binarySearch(hubNeighbours, iter.nextLong()) >= 0) {
+					matchCount++;
+				}
+			}
+		} else {
+			for (long neighbour : hubNeighbours) {
+				if (neighbours.contains(neighbour)) {
+					matchCount++;
+				}
+			}
+		}
+		return matchCount;
+	}
+
+}
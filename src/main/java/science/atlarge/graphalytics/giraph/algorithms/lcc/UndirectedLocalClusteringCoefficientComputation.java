@@ -16,6 +16,7 @@
 package science.atlarge.graphalytics.giraph.algorithms.lcc;
 
 import com.google.common.collect.Iterables;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import org.apache.giraph.edge.Edge;
@@ -26,6 +27,7 @@ import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.NullWritable;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Computation for the local clustering coefficient algorithm on Giraph for undirected graphs.
@@ -39,6 +41,14 @@ public class UndirectedLocalClusteringCoefficientComputation extends
 	private LongSet neighbours = new LongOpenHashSet();
 	private LongToLongWritableIterator longWritableIterator = new LongToLongWritableIterator();
 	private LongWritable destinationId = new LongWritable();
+	private HubNeighbourLists hubNeighbourList = new HubNeighbourLists();
+	private LongArrayList adjacentHubs = new LongArrayList();
+	private int hubDegreeThreshold;
+
+	@Override
+	public void preSuperstep() {
+		hubDegreeThreshold = LocalClusteringCoefficientConfiguration.HUB_DEGREE_THRESHOLD.get(getConf());
+	}
 
 	@Override
 	public void compute(Vertex<LongWritable, DoubleWritable, NullWritable> vertex,
@@ -50,6 +60,9 @@ public class UndirectedLocalClusteringCoefficientComputation extends
 		} else if (getSuperstep() == 1) {
 			// Second superstep: for each inquiry reply iff the requested edge exists
 			sendConnectionReplies(vertex.getEdges(), messages);
+			if (hubDegreeThreshold > 0) {
+				sendHubReplies(vertex.getId().get());
+			}
 		} else if (getSuperstep() == 2) {
 			// Third superstep: compute the ratio of responses to requests
 			double lcc = computeLCC(Iterables.size(vertex.getEdges()), messages);
@@ -73,9 +86,21 @@ public class UndirectedLocalClusteringCoefficientComputation extends
 			return;
 		}
 
+		// Sort the neighbours for a compact delta encoding
+		long[] sortedNeighbours = neighbours.toLongArray();
+		Arrays.sort(sortedNeighbours);
+
+		// Hubs share their neighbour list once with every worker instead of sending it to every neighbour
+		if (hubDegreeThreshold > 0 && neighbours.size() > hubDegreeThreshold) {
+			hubNeighbourList.clear();
+			hubNeighbourList.put(sourceVertexId, sortedNeighbours);
+			aggregate(LocalClusteringCoefficientConfiguration.HUB_NEIGHBOUR_LISTS, hubNeighbourList);
+			return;
+		}
+
 		// Send out inquiries in an all-pair fashion
 		msgObject.setSource(sourceVertexId);
-		msgObject.setEdgeList(neighbours.toLongArray());
+		msgObject.setEdgeList(sortedNeighbours);
 		longWritableIterator.reset(neighbours);
 		sendMessageToMultipleEdges(longWritableIterator, msgObject);
 	}
@@ -87,8 +112,9 @@ public class UndirectedLocalClusteringCoefficientComputation extends
 		// Loop through the inquiries, count the number of existing edges, and send replies
 		for (LocalClusteringCoefficientMessage msg : inquiries) {
 			int matchCount = 0;
-			for (long edgeId : msg.getEdgeList()) {
-				if (neighbours.contains(edgeId)) {
+			long[] edgeList = msg.getEdgeList();
+			for (int i = 0; i < msg.getEdgeListLength(); i++) {
+				if (neighbours.contains(edgeList[i])) {
 					matchCount++;
 				}
 			}
@@ -99,6 +125,18 @@ public class UndirectedLocalClusteringCoefficientComputation extends
 		}
 	}
 
+	private void sendHubReplies(long vertexId) {
+		// Treat the neighbour list of every adjacent hub as an inquiry, and reply to the hub
+		LocalClusteringCoefficientWorkerContext workerContext = getWorkerContext();
+		workerContext.findAdjacentHubs(vertexId, adjacentHubs);
+		for (int i = 0; i < adjacentHubs.size(); i++) {
+			long hubId = adjacentHubs.getLong(i);
+			destinationId.set(hubId);
+			msgObject.setMatchCount(workerContext.countCommonNeighbours(hubId, neighbours));
+			sendMessage(destinationId, msgObject);
+		}
+	}
+
 	private static double computeLCC(long numberOfNeighbours, Iterable<LocalClusteringCoefficientMessage> messages) {
 		// Any vertex with less than two neighbours can have no edges between neighbours; LCC = 0
 		if (numberOfNeighbours < 2) {
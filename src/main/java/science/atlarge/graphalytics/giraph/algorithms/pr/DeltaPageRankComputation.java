@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.pr;
+
+import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
+import org.apache.giraph.graph.BasicComputation;
+import org.apache.giraph.graph.Vertex;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+
+import java.io.IOException;
+
+/**
+ * Delta-based variant of the PageRank algorithm on Giraph. Instead of sending its full contribution along every
+ * out-edge in every iteration, a vertex sends only the change in its contribution since the last time it informed its
+ * neighbours, and every vertex accumulates the received changes. Vertices whose rank changed by at most the
+ * configured (relative) tolerance since their last update stop sending until their rank has drifted further. Dangling
+ * vertices contribute their full rank through the dangling node sum every iteration, as in
+ * {@link PageRankComputation}.
+ * <p>
+ * With a tolerance of zero, this computes the same ranks as {@link PageRankComputation}, up to floating point
+ * rounding. Every vertex remains active until the last iteration so that all ranks include the dangling node sum of
+ * that iteration.
+ */
+public class DeltaPageRankComputation
+		extends BasicComputation<LongWritable, DeltaPageRankValue, NullWritable, DoubleWritable> {
+
+	private float dampingFactor;
+	private int numberOfIterations;
+	private float tolerance;
+
+	@Override
+	public void setConf(ImmutableClassesGiraphConfiguration<LongWritable, DeltaPageRankValue, NullWritable> conf) {
+		super.setConf(conf);
+		dampingFactor = PageRankConfiguration.DAMPING_FACTOR.get(conf);
+		numberOfIterations = PageRankConfiguration.NUMBER_OF_ITERATIONS.get(conf);
+		tolerance = PageRankConfiguration.DELTA_TOLERANCE.get(conf);
+	}
+
+	private DoubleWritable msgObject = new DoubleWritable();
+	private DoubleWritable aggregateObject = new DoubleWritable();
+
+	@Override
+	public void compute(Vertex<LongWritable, DeltaPageRankValue, NullWritable> vertex,
+			Iterable<DoubleWritable> messages) throws IOException {
+		DeltaPageRankValue value = vertex.getValue();
+		if (getSuperstep() == 0) {
+			value.setRank(1.0 / getTotalNumVertices());
+			value.setNeighbourSum(0.0);
+			value.setSentRank(0.0);
+		} else {
+			double neighbourSum = value.getNeighbourSum();
+			for (DoubleWritable message : messages) {
+				neighbourSum += message.get();
+			}
+			value.setNeighbourSum(neighbourSum);
+			double danglingSum = this.<PageRankWorkerContext>getWorkerContext().getLastDanglingNodeSum();
+			value.setRank((1.0 - dampingFactor) / getTotalNumVertices() +
+					dampingFactor * (danglingSum / getTotalNumVertices() + neighbourSum));
+		}
+
+		if (getSuperstep() < numberOfIterations) {
+			if (vertex.getNumEdges() == 0) {
+				aggregateObject.set(value.getRank());
+				aggregate(PageRankConfiguration.DANGLING_NODE_SUM, aggregateObject);
+			} else {
+				double delta = value.getRank() - value.getSentRank();
+				if (getSuperstep() == 0 || Math.abs(delta) > tolerance * Math.abs(value.getRank())) {
+					msgObject.set(delta / vertex.getNumEdges());
+					sendMessageToAllEdges(vertex, msgObject);
+					value.setSentRank(value.getRank());
+				} else if (delta != 0.0) {
+					// Track the part of the rank that neighbours have not been informed of
+					aggregateObject.set(Math.abs(delta));
+					aggregate(PageRankConfiguration.DELTA_RESIDUAL_SUM, aggregateObject);
+				}
+			}
+		} else {
+			vertex.voteToHalt();
+		}
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.pr;
+
+import org.apache.giraph.aggregators.DoubleSumAggregator;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Master computation for the delta-based PageRank algorithm. In addition to the dangling node sum, it tracks an upper
+ * bound on the deviation (in L1 norm) of the computed ranks from those of the exact fixed-iteration algorithm, and
+ * reports this bound in the log of the master task after the last iteration.
+ */
+public class DeltaPageRankMasterComputation extends PageRankMasterComputation {
+	private static final Logger LOG = LogManager.getLogger();
+
+	private double deviationBound = 0.0;
+
+	@Override
+	public void initialize() throws InstantiationException, IllegalAccessException {
+		super.initialize();
+		registerAggregator(PageRankConfiguration.DELTA_RESIDUAL_SUM, DoubleSumAggregator.class);
+	}
+
+	@Override
+	public void compute() {
+		if (getSuperstep() == 0) {
+			return;
+		}
+
+		// Ranks in this iteration are computed from neighbour contributions that may be off by the residual left in
+		// the previous iteration, in addition to the deviation already present in the ranks of the previous iteration.
+		// Both are scaled by the damping factor, as every vertex receives its rank mass only through that factor.
+		double residual = ((DoubleWritable)getAggregatedValue(PageRankConfiguration.DELTA_RESIDUAL_SUM)).get();
+		float dampingFactor = PageRankConfiguration.DAMPING_FACTOR.get(getConf());
+		deviationBound = dampingFactor * (deviationBound + residual);
+
+		if (getSuperstep() == PageRankConfiguration.NUMBER_OF_ITERATIONS.get(getConf())) {
+			LOG.info("Delta PageRank deviates from the exact result by at most {} (L1 norm over all ranks)",
+					deviationBound);
+		}
+	}
+
+	/**
+	 * @return an upper bound on the deviation (in L1 norm) of the ranks computed so far from those of the exact
+	 * algorithm
+	 */
+	double getDeviationBound() {
+		return deviationBound;
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.pr;
+
+import org.apache.hadoop.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Vertex value for the delta-based PageRank algorithm. In addition to the current rank of a vertex, it stores the
+ * sum of all contributions received from neighbours so far, and the rank that neighbours have last been informed of.
+ */
+public class DeltaPageRankValue implements Writable {
+
+	private double rank;
+	private double neighbourSum;
+	private double sentRank;
+
+	/**
+	 * @return the current rank of the vertex
+	 */
+	public double getRank() {
+		return rank;
+	}
+
+	/**
+	 * @param rank the new rank of the vertex
+	 */
+	public void setRank(double rank) {
+		this.rank = rank;
+	}
+
+	/**
+	 * @return the sum of all contributions received from neighbours so far
+	 */
+	public double getNeighbourSum() {
+		return neighbourSum;
+	}
+
+	/**
+	 * @param neighbourSum the new sum of all contributions received from neighbours
+	 */
+	public void setNeighbourSum(double neighbourSum) {
+		this.neighbourSum = neighbourSum;
+	}
+
+	/**
+	 * @return the rank on which the contributions last sent to neighbours were based
+	 */
+	public double getSentRank() {
+		return sentRank;
+	}
+
+	/**
+	 * @param sentRank the rank on which the contributions last sent to neighbours were based
+	 */
+	public void setSentRank(double sentRank) {
+		this.sentRank = sentRank;
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		out.writeDouble(rank);
+		out.writeDouble(neighbourSum);
+		out.writeDouble(sentRank);
+	}
+
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		rank = in.readDouble();
+		neighbourSum = in.readDouble();
+		sentRank = in.readDouble();
+	}
+
+	/**
+	 * @return the rank of the vertex, formatted identically to the output of the exact PageRank algorithm
+	 */
+	@Override
+	public String toString() {
+		return Double.toString(rank);
+	}
+
+}
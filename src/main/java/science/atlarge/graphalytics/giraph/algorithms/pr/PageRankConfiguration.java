@@ -15,6 +15,7 @@
  */
 package science.atlarge.graphalytics.giraph.algorithms.pr;
 
+import org.apache.giraph.conf.BooleanConfOption;
 import org.apache.giraph.conf.FloatConfOption;
 import org.apache.giraph.conf.IntConfOption;
 
@@ -45,10 +46,50 @@ public final class PageRankConfiguration {
 	public static final IntConfOption NUMBER_OF_ITERATIONS = new IntConfOption(
 			NUMBER_OF_ITERATIONS_KEY, -1, "Number of iterations to run the PageRank algorithm for");
 
+	/**
+	 * Configuration key for enabling the message combiner of the PageRank algorithm
+	 */
+	public static final String USE_COMBINER_KEY = "graphalytics.pr.use-combiner";
+	/**
+	 * Configuration option for enabling the message combiner of the PageRank algorithm. Combining messages changes
+	 * the order in which contributions are summed, so results may differ from the uncombined algorithm in the last
+	 * bits of precision.
+	 */
+	public static final BooleanConfOption USE_COMBINER = new BooleanConfOption(
+			USE_COMBINER_KEY, false, "Sum messages sent to the same vertex in the PageRank algorithm");
+
+	/**
+	 * Configuration key for selecting the delta-based PageRank algorithm
+	 */
+	public static final String USE_DELTA_KEY = "graphalytics.pr.delta";
+	/**
+	 * Configuration option for selecting the delta-based PageRank algorithm, in which vertices only send changes in
+	 * their contributions
+	 */
+	public static final BooleanConfOption USE_DELTA = new BooleanConfOption(
+			USE_DELTA_KEY, false, "Use the delta-based PageRank algorithm");
+
+	/**
+	 * Configuration key for the tolerance of the delta-based PageRank algorithm
+	 */
+	public static final String DELTA_TOLERANCE_KEY = "graphalytics.pr.delta-tolerance";
+	/**
+	 * Configuration option for the tolerance of the delta-based PageRank algorithm. A vertex does not send the change
+	 * in its rank as long as it is at most this fraction of its rank.
+	 */
+	public static final FloatConfOption DELTA_TOLERANCE = new FloatConfOption(
+			DELTA_TOLERANCE_KEY, 1e-6f, "Relative change in rank below which the delta-based PageRank algorithm " +
+			"does not send updates");
+
 	/**
 	 * Name of aggregator for compute the sum of dangling node values.
 	 */
 	public static final String DANGLING_NODE_SUM = "Dangling node sum";
+	/**
+	 * Name of aggregator for computing the sum of rank changes not sent to neighbours in the delta-based PageRank
+	 * algorithm.
+	 */
+	public static final String DELTA_RESIDUAL_SUM = "Delta residual sum";
 
 	private PageRankConfiguration() {
 	}
@@ -18,8 +18,10 @@ package science.atlarge.graphalytics.giraph.algorithms.pr;
 import science.atlarge.graphalytics.domain.graph.FormattedGraph;
 import science.atlarge.graphalytics.domain.algorithms.PageRankParameters;
 import science.atlarge.graphalytics.giraph.GiraphJob;
+import science.atlarge.graphalytics.giraph.io.LongIdWithValueTextOutputFormat;
 import science.atlarge.graphalytics.giraph.io.DirectedLongNullTextEdgeInputFormat;
 import science.atlarge.graphalytics.giraph.io.UndirectedLongNullTextEdgeInputFormat;
+import org.apache.giraph.combiner.DoubleSumMessageCombiner;
 import org.apache.giraph.comm.messages.MessageEncodeAndStoreType;
 import org.apache.giraph.conf.GiraphConfiguration;
 import org.apache.giraph.graph.Computation;
@@ -27,7 +29,6 @@ import org.apache.giraph.io.EdgeInputFormat;
 import org.apache.giraph.io.EdgeOutputFormat;
 import org.apache.giraph.io.VertexInputFormat;
 import org.apache.giraph.io.VertexOutputFormat;
-import org.apache.giraph.io.formats.IdWithValueTextOutputFormat;
 
 import static org.apache.giraph.conf.GiraphConstants.MESSAGE_ENCODE_AND_STORE_TYPE;
 
@@ -56,17 +57,21 @@ public class PageRankJob extends GiraphJob {
 
 	@Override
 	protected Class<? extends Computation> getComputationClass() {
-		return PageRankComputation.class;
+		return PageRankConfiguration.USE_DELTA.get(getConf()) ?
+				DeltaPageRankComputation.class :
+				PageRankComputation.class;
 	}
 
 	@Override
 	protected Class<? extends VertexInputFormat> getVertexInputFormatClass() {
-		return PageRankVertexInputFormat.class;
+		return PageRankConfiguration.USE_DELTA.get(getConf()) ?
+				DeltaPageRankVertexInputFormat.class :
+				PageRankVertexInputFormat.class;
 	}
 
 	@Override
 	protected Class<? extends VertexOutputFormat> getVertexOutputFormatClass() {
-		return IdWithValueTextOutputFormat.class;
+		return LongIdWithValueTextOutputFormat.class;
 	}
 
 	@Override
@@ -87,8 +92,15 @@ public class PageRankJob extends GiraphJob {
 		PageRankConfiguration.NUMBER_OF_ITERATIONS.set(config, parameters.getNumberOfIterations());
 		// Set the message store type to optimize for one-to-many messages (i.e. broadcasts as used in PageRank)
 		MESSAGE_ENCODE_AND_STORE_TYPE.set(config, MessageEncodeAndStoreType.EXTRACT_BYTEARRAY_PER_PARTITION);
+		// Vertices only use the sum of their incoming messages, so messages can be summed before they are stored. For
+		// long vertex IDs Giraph then keeps a single primitive double per receiving vertex instead of one per edge.
+		if (PageRankConfiguration.USE_COMBINER.get(config)) {
+			config.setMessageCombinerClass(DoubleSumMessageCombiner.class);
+		}
 
-		config.setMasterComputeClass(PageRankMasterComputation.class);
+		config.setMasterComputeClass(PageRankConfiguration.USE_DELTA.get(config) ?
+				DeltaPageRankMasterComputation.class :
+				PageRankMasterComputation.class);
 		config.setWorkerContextClass(PageRankWorkerContext.class);
 	}
 
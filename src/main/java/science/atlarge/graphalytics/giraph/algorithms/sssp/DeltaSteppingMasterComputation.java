@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.sssp;
+
+import org.apache.giraph.aggregators.BooleanOverwriteAggregator;
+import org.apache.giraph.aggregators.LongMinAggregator;
+import org.apache.giraph.aggregators.LongOverwriteAggregator;
+import org.apache.giraph.aggregators.LongSumAggregator;
+import org.apache.giraph.master.DefaultMasterCompute;
+import org.apache.hadoop.io.BooleanWritable;
+import org.apache.hadoop.io.LongWritable;
+
+import static science.atlarge.graphalytics.giraph.algorithms.sssp.SingleSourceShortestPathConfiguration.*;
+
+/**
+ * Master computation for delta-stepping single source shortest path. Buckets of distances are processed in
+ * ascending order. Within a bucket, light edges are relaxed until no more messages are sent to vertices in the
+ * bucket; then heavy edges are relaxed once, after which the computation advances to the lowest bucket containing a
+ * vertex with pending edges or a message in flight.
+ */
+public class DeltaSteppingMasterComputation extends DefaultMasterCompute {
+
+	private long currentBucket = 0;
+	private boolean heavyPhase = false;
+
+	@Override
+	public void initialize() throws InstantiationException, IllegalAccessException {
+		registerPersistentAggregator(CURRENT_BUCKET, LongOverwriteAggregator.class);
+		registerPersistentAggregator(HEAVY_PHASE, BooleanOverwriteAggregator.class);
+		registerAggregator(NEXT_BUCKET, LongMinAggregator.class);
+		registerAggregator(CURRENT_BUCKET_MESSAGES, LongSumAggregator.class);
+	}
+
+	@Override
+	public void compute() {
+		if (getSuperstep() > 0) {
+			long nextBucket = ((LongWritable)getAggregatedValue(NEXT_BUCKET)).get();
+			long currentBucketMessages = ((LongWritable)getAggregatedValue(CURRENT_BUCKET_MESSAGES)).get();
+
+			if (!heavyPhase && currentBucketMessages > 0) {
+				// Continue relaxing light edges in the current bucket
+			} else if (nextBucket == Long.MAX_VALUE) {
+				// No vertex has pending edges and no messages are in flight
+				haltComputation();
+				return;
+			} else if (!heavyPhase && nextBucket == currentBucket) {
+				// The current bucket is settled with respect to light edges, relax its heavy edges
+				heavyPhase = true;
+			} else {
+				currentBucket = nextBucket;
+				heavyPhase = false;
+			}
+		}
+
+		setAggregatedValue(CURRENT_BUCKET, new LongWritable(currentBucket));
+		setAggregatedValue(HEAVY_PHASE, new BooleanWritable(heavyPhase));
+	}
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.sssp;
+
+import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.graph.BasicComputation;
+import org.apache.giraph.graph.Vertex;
+import org.apache.hadoop.io.BooleanWritable;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+
+import java.io.IOException;
+
+import static science.atlarge.graphalytics.giraph.algorithms.sssp.SingleSourceShortestPathConfiguration.*;
+
+/**
+ * Delta-stepping single source shortest path on a weighted graph. Vertices are grouped in buckets of distances of
+ * a configurable width, which are processed in the order selected by {@link DeltaSteppingMasterComputation}. A
+ * vertex only relaxes its edges when its bucket is processed: light edges whenever its distance improves within the
+ * bucket, and heavy edges once after the bucket is settled. Compared to relaxing all edges on every improvement,
+ * this avoids most messages for distances that are improved again later.
+ */
+public class DeltaSteppingSingleSourceShortestPathComputation
+		extends BasicComputation<LongWritable, DeltaSteppingValue, DoubleWritable, DoubleWritable> {
+
+	/**
+	 * Source vertex ID read at the start of the algorithm execution
+	 */
+	private long sourceVertexId = -1L;
+	private double bucketWidth;
+
+	private long currentBucket;
+	private boolean heavyPhase;
+
+	private DoubleWritable msg = new DoubleWritable();
+	private LongWritable bucketAggregate = new LongWritable();
+	private LongWritable messageCountAggregate = new LongWritable();
+
+	@Override
+	public void setConf(ImmutableClassesGiraphConfiguration<LongWritable, DeltaSteppingValue, DoubleWritable> conf) {
+		super.setConf(conf);
+		sourceVertexId = SOURCE_VERTEX.get(getConf());
+		bucketWidth = BUCKET_WIDTH.get(getConf());
+	}
+
+	@Override
+	public void preSuperstep() {
+		currentBucket = this.<LongWritable>getAggregatedValue(CURRENT_BUCKET).get();
+		heavyPhase = this.<BooleanWritable>getAggregatedValue(HEAVY_PHASE).get();
+	}
+
+	@Override
+	public void compute(Vertex<LongWritable, DeltaSteppingValue, DoubleWritable> vertex,
+			Iterable<DoubleWritable> messages) throws IOException {
+		DeltaSteppingValue value = vertex.getValue();
+
+		if (getSuperstep() == 0) {
+			// In the first superstep, the source vertex sets its distance to 0.0
+			value.reset();
+			if (vertex.getId().get() == sourceVertexId) {
+				value.improveDistance(0.0);
+			}
+		} else {
+			// Find the minimum distance received from neighbours
+			double minDist = Double.POSITIVE_INFINITY;
+			for (DoubleWritable message : messages) {
+				if (message.get() < minDist) {
+					minDist = message.get();
+				}
+			}
+			if (minDist < value.getDistance()) {
+				value.improveDistance(minDist);
+			}
+		}
+
+		if (!value.isPending()) {
+			// Halt until a neighbour sends a shorter distance
+			vertex.voteToHalt();
+			return;
+		}
+
+		// Relax edges if the vertex is in the bucket that is currently processed
+		long bucket = bucketOf(value.getDistance());
+		long nextBucket = Long.MAX_VALUE;
+		if (bucket == currentBucket) {
+			if (!heavyPhase && value.isLightPending()) {
+				nextBucket = relaxEdges(vertex, true);
+				value.clearLightPending();
+			} else if (heavyPhase && value.isHeavyPending()) {
+				nextBucket = relaxEdges(vertex, false);
+				value.clearHeavyPending();
+			}
+		}
+
+		// Vertices with pending edges remain active until their bucket is processed
+		if (value.isPending()) {
+			nextBucket = Math.min(nextBucket, bucket);
+		} else {
+			vertex.voteToHalt();
+		}
+		if (nextBucket != Long.MAX_VALUE) {
+			bucketAggregate.set(nextBucket);
+			aggregate(NEXT_BUCKET, bucketAggregate);
+		}
+	}
+
+	/**
+	 * Sends the distance via either all light or all heavy edges, and reports the number of messages that may
+	 * improve a vertex in the current bucket.
+	 *
+	 * @return the lowest bucket of any distance sent
+	 */
+	private long relaxEdges(Vertex<LongWritable, DeltaSteppingValue, DoubleWritable> vertex, boolean light) {
+		double distance = vertex.getValue().getDistance();
+		long lowestBucket = Long.MAX_VALUE;
+		long currentBucketMessages = 0;
+		for (Edge<LongWritable, DoubleWritable> edge : vertex.getEdges()) {
+			double weight = edge.getValue().get();
+			if ((weight <= bucketWidth) != light) {
+				continue;
+			}
+
+			msg.set(distance + weight);
+			sendMessage(edge.getTargetVertexId(), msg);
+			long bucket = bucketOf(distance + weight);
+			lowestBucket = Math.min(lowestBucket, bucket);
+			if (bucket == currentBucket) {
+				currentBucketMessages++;
+			}
+		}
+		if (currentBucketMessages > 0) {
+			messageCountAggregate.set(currentBucketMessages);
+			aggregate(CURRENT_BUCKET_MESSAGES, messageCountAggregate);
+		}
+		return lowestBucket;
+	}
+
+	private long bucketOf(double distance) {
+		// Long.MAX_VALUE is reserved to indicate the absence of a bucket
+		return Math.min((long)(distance / bucketWidth), Long.MAX_VALUE - 1);
+	}
+
+}
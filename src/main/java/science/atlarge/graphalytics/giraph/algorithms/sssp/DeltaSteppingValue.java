@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.sssp;
+
+import org.apache.hadoop.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Vertex value for the delta-stepping single source shortest path algorithm. In addition to the current distance of
+ * a vertex, it tracks whether the light and heavy edges of the vertex still need to be relaxed for that distance.
+ */
+public class DeltaSteppingValue implements Writable {
+
+	private static final int LIGHT_PENDING = 1;
+	private static final int HEAVY_PENDING = 2;
+
+	private double distance = Double.POSITIVE_INFINITY;
+	private int pending = 0;
+
+	/**
+	 * @return the current distance of the vertex
+	 */
+	public double getDistance() {
+		return distance;
+	}
+
+	/**
+	 * Sets a new distance, and marks all edges of the vertex as to be relaxed.
+	 *
+	 * @param distance the new distance of the vertex
+	 */
+	public void improveDistance(double distance) {
+		this.distance = distance;
+		this.pending = LIGHT_PENDING | HEAVY_PENDING;
+	}
+
+	/**
+	 * Resets the vertex to an unreached state.
+	 */
+	public void reset() {
+		distance = Double.POSITIVE_INFINITY;
+		pending = 0;
+	}
+
+	public boolean isPending() {
+		return pending != 0;
+	}
+
+	public boolean isLightPending() {
+		return (pending & LIGHT_PENDING) != 0;
+	}
+
+	public boolean isHeavyPending() {
+		return (pending & HEAVY_PENDING) != 0;
+	}
+
+	public void clearLightPending() {
+		pending &= ~LIGHT_PENDING;
+	}
+
+	public void clearHeavyPending() {
+		pending &= ~HEAVY_PENDING;
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		out.writeDouble(distance);
+		out.writeByte(pending);
+	}
+
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		distance = in.readDouble();
+		pending = in.readByte();
+	}
+
+	/**
+	 * @return the distance of the vertex, formatted identically to the output of the default algorithm
+	 */
+	@Override
+	public String toString() {
+		return Double.toString(distance);
+	}
+
+}
@@ -15,6 +15,8 @@
  */
 package science.atlarge.graphalytics.giraph.algorithms.sssp;
 
+import org.apache.giraph.conf.BooleanConfOption;
+import org.apache.giraph.conf.FloatConfOption;
 import org.apache.giraph.conf.LongConfOption;
 
 /**
@@ -35,6 +37,45 @@ public final class SingleSourceShortestPathConfiguration {
 	public static final LongConfOption SOURCE_VERTEX = new LongConfOption(
 			SOURCE_VERTEX_KEY, -1, "Source vertex for the single source shortest path algorithm");
 
+	/**
+	 * Configuration key for enabling the message combiner of the algorithm
+	 */
+	public static final String USE_COMBINER_KEY = "graphalytics.sssp.use-combiner";
+	/**
+	 * Configuration option for enabling the message combiner of the algorithm
+	 */
+	public static final BooleanConfOption USE_COMBINER = new BooleanConfOption(
+			USE_COMBINER_KEY, true, "Combine messages sent to the same vertex in the single source shortest path algorithm");
+
+	/**
+	 * Configuration key for the bucket width of delta-stepping
+	 */
+	public static final String BUCKET_WIDTH_KEY = "graphalytics.sssp.bucket-width";
+	/**
+	 * Configuration option for the bucket width of delta-stepping. Edges with a weight up to the bucket width are
+	 * light, and are relaxed repeatedly within a bucket; heavier edges are relaxed once per bucket. A value of zero
+	 * disables delta-stepping.
+	 */
+	public static final FloatConfOption BUCKET_WIDTH = new FloatConfOption(
+			BUCKET_WIDTH_KEY, 0.0f, "Bucket width for delta-stepping single source shortest path, or zero to disable");
+
+	/**
+	 * Name of aggregator for the index of the bucket processed in the current superstep.
+	 */
+	public static final String CURRENT_BUCKET = "Current bucket";
+	/**
+	 * Name of aggregator for whether heavy edges are relaxed in the current superstep.
+	 */
+	public static final String HEAVY_PHASE = "Heavy phase";
+	/**
+	 * Name of aggregator for the lowest bucket index with pending vertices or messages.
+	 */
+	public static final String NEXT_BUCKET = "Next bucket";
+	/**
+	 * Name of aggregator for the number of messages sent to vertices in the current bucket.
+	 */
+	public static final String CURRENT_BUCKET_MESSAGES = "Current bucket messages";
+
 	private SingleSourceShortestPathConfiguration() {
 		//
 	}
@@ -15,7 +15,9 @@
  */
 package science.atlarge.graphalytics.giraph.algorithms.sssp;
 
+import static science.atlarge.graphalytics.giraph.algorithms.sssp.SingleSourceShortestPathConfiguration.BUCKET_WIDTH;
 import static science.atlarge.graphalytics.giraph.algorithms.sssp.SingleSourceShortestPathConfiguration.SOURCE_VERTEX;
+import static science.atlarge.graphalytics.giraph.algorithms.sssp.SingleSourceShortestPathConfiguration.USE_COMBINER;
 import static org.apache.giraph.conf.GiraphConstants.MESSAGE_ENCODE_AND_STORE_TYPE;
 
 import org.apache.giraph.comm.messages.MessageEncodeAndStoreType;
@@ -25,11 +27,12 @@ import org.apache.giraph.io.EdgeInputFormat;
 import org.apache.giraph.io.EdgeOutputFormat;
 import org.apache.giraph.io.VertexInputFormat;
 import org.apache.giraph.io.VertexOutputFormat;
-import org.apache.giraph.io.formats.IdWithValueTextOutputFormat;
 
 import science.atlarge.graphalytics.domain.graph.FormattedGraph;
 import science.atlarge.graphalytics.domain.algorithms.SingleSourceShortestPathsParameters;
 import science.atlarge.graphalytics.giraph.GiraphJob;
+import science.atlarge.graphalytics.giraph.io.LongIdWithValueTextOutputFormat;
+import science.atlarge.graphalytics.giraph.combiner.MinimumDoubleMessageCombiner;
 import science.atlarge.graphalytics.giraph.io.DirectedLongDoubleTextEdgeInputFormat;
 import science.atlarge.graphalytics.giraph.io.UndirectedLongDoubleTextEdgeInputFormat;
 
@@ -59,19 +62,23 @@ public class SingleSourceShortestPathJob extends GiraphJob {
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends Computation> getComputationClass() {
-		return SingleSourceShortestPathComputation.class;
+		return useDeltaStepping(BUCKET_WIDTH.get(getConf())) ?
+				DeltaSteppingSingleSourceShortestPathComputation.class :
+				SingleSourceShortestPathComputation.class;
 	}
 
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends VertexInputFormat> getVertexInputFormatClass() {
-		return SingleSourceShortestPathVertexInputFormat.class;
+		return useDeltaStepping(BUCKET_WIDTH.get(getConf())) ?
+				DeltaSteppingVertexInputFormat.class :
+				SingleSourceShortestPathVertexInputFormat.class;
 	}
 
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends VertexOutputFormat> getVertexOutputFormatClass() {
-		return IdWithValueTextOutputFormat.class;
+		return LongIdWithValueTextOutputFormat.class;
 	}
 
 	@SuppressWarnings("rawtypes")
@@ -94,6 +101,20 @@ public class SingleSourceShortestPathJob extends GiraphJob {
 
 		// Set the message store type to optimize for one-to-many messages (i.e. broadcasts as used in BFS)
 		MESSAGE_ENCODE_AND_STORE_TYPE.set(config, MessageEncodeAndStoreType.EXTRACT_BYTEARRAY_PER_PARTITION);
+
+		// Only the shortest distance received by a vertex matters, so messages can be combined
+		if (USE_COMBINER.get(config)) {
+			config.setMessageCombinerClass(MinimumDoubleMessageCombiner.class);
+		}
+
+		// Delta-stepping requires a master computation to select the bucket processed in each superstep
+		if (useDeltaStepping(BUCKET_WIDTH.get(config))) {
+			config.setMasterComputeClass(DeltaSteppingMasterComputation.class);
+		}
+	}
+
+	private static boolean useDeltaStepping(float bucketWidth) {
+		return bucketWidth > 0.0f;
 	}
 
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.wcc;
+
+import org.apache.giraph.master.DefaultMasterCompute;
+import science.atlarge.graphalytics.giraph.combiner.MinimumLongMessageCombiner;
+
+/**
+ * Master computation for weakly connected components on directed graphs. The messages sent in the first superstep
+ * are used to discover incoming edges and may not be combined, so the minimum combiner is only enabled from the
+ * second superstep onwards.
+ */
+public class DirectedWeaklyConnectedComponentsMasterComputation extends DefaultMasterCompute {
+
+	@Override
+	public void compute() {
+		if (getSuperstep() > 0) {
+			setMessageCombiner(MinimumLongMessageCombiner.class);
+		}
+	}
+
+}
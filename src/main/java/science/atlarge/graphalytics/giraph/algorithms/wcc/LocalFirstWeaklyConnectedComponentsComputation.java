@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.wcc;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.graph.BasicComputation;
+import org.apache.giraph.graph.Vertex;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+
+import java.io.IOException;
+
+import static science.atlarge.graphalytics.giraph.algorithms.wcc.WeaklyConnectedComponentsConfiguration.DIRECTED;
+import static science.atlarge.graphalytics.giraph.algorithms.wcc.WeaklyConnectedComponentsConfiguration.LABEL_UPDATES;
+
+/**
+ * Weakly connected components algorithm that collapses the components within every worker before exchanging labels.
+ * In the first two supersteps, {@link LocalFirstWeaklyConnectedComponentsWorkerContext} finds the components formed
+ * by edges between vertices on the same worker. Afterwards, only vertices with edges to other workers send messages,
+ * and a smaller label received by any vertex is applied to its entire local component in the next superstep. The
+ * number of supersteps thereby depends on the number of worker boundaries along a path rather than its length.
+ * <p/>
+ * On directed graphs, the first superstep also informs the targets of all edges of their incoming edges, so labels
+ * can be exchanged in both directions across edges between workers.
+ */
+public class LocalFirstWeaklyConnectedComponentsComputation extends
+		BasicComputation<LongWritable, LongWritable, NullWritable, LongWritable> {
+
+	private boolean directed;
+	private LongSet edgeSet = new LongOpenHashSet();
+	private LongWritable updateCount = new LongWritable();
+
+	@Override
+	public void preSuperstep() {
+		directed = DIRECTED.get(getConf());
+	}
+
+	@Override
+	public void compute(Vertex<LongWritable, LongWritable, NullWritable> vertex, Iterable<LongWritable> messages)
+			throws IOException {
+		LocalFirstWeaklyConnectedComponentsWorkerContext workerContext = getWorkerContext();
+		long vertexId = vertex.getId().get();
+
+		if (getSuperstep() == 0) {
+			// Add this vertex to the worker's index, and notify neighbours of incoming edges on directed graphs
+			workerContext.registerVertex(vertexId);
+			if (directed) {
+				sendMessageToAllEdges(vertex, vertex.getId());
+			}
+		} else if (getSuperstep() == 1) {
+			// Add edges from other workers, which the local components do not cover
+			if (directed) {
+				addIncomingEdges(vertex, messages, workerContext);
+			}
+
+			// Record local edges for the union-find, and initialize the label to the minimum id of the neighbours
+			long minId = vertexId;
+			for (Edge<LongWritable, NullWritable> edge : vertex.getEdges()) {
+				long targetVertexId = edge.getTargetVertexId().get();
+				if (targetVertexId < minId) {
+					minId = targetVertexId;
+				}
+				// On undirected graphs, every local edge is recorded once by its endpoint with the smaller id
+				if (workerContext.isLocal(targetVertexId) && (directed || vertexId < targetVertexId)) {
+					workerContext.addLocalEdge(vertexId, targetVertexId);
+				}
+			}
+			workerContext.setInitialLabel(vertexId, minId);
+		} else {
+			// Propose the smallest label received from other workers to the local component
+			long componentLabel = workerContext.getComponentLabel(vertexId);
+			long updates = 0;
+			for (LongWritable message : messages) {
+				if (message.get() < componentLabel) {
+					componentLabel = message.get();
+					updates = 1;
+				}
+			}
+			if (updates > 0) {
+				workerContext.proposeComponentLabel(vertexId, componentLabel);
+			}
+
+			// Adopt the label of the local component, and send it to neighbours on other workers if it changed
+			long currentComponent = workerContext.getComponentLabel(vertexId);
+			if (getSuperstep() == 2 || currentComponent != vertex.getValue().get()) {
+				vertex.getValue().set(currentComponent);
+				updates += sendToRemoteNeighbours(vertex, workerContext);
+			}
+
+			if (updates > 0) {
+				updateCount.set(updates);
+				aggregate(LABEL_UPDATES, updateCount);
+			}
+		}
+	}
+
+	private void addIncomingEdges(Vertex<LongWritable, LongWritable, NullWritable> vertex,
+			Iterable<LongWritable> messages, LocalFirstWeaklyConnectedComponentsWorkerContext workerContext) {
+		edgeSet.clear();
+		for (Edge<LongWritable, NullWritable> existingEdge : vertex.getEdges()) {
+			edgeSet.add(existingEdge.getTargetVertexId().get());
+		}
+		for (LongWritable incomingId : messages) {
+			if (!workerContext.isLocal(incomingId.get()) && edgeSet.add(incomingId.get())) {
+				vertex.addEdge(EdgeFactory.create(new LongWritable(incomingId.get())));
+			}
+		}
+	}
+
+	private long sendToRemoteNeighbours(Vertex<LongWritable, LongWritable, NullWritable> vertex,
+			LocalFirstWeaklyConnectedComponentsWorkerContext workerContext) {
+		long messageCount = 0;
+		for (Edge<LongWritable, NullWritable> edge : vertex.getEdges()) {
+			if (!workerContext.isLocal(edge.getTargetVertexId().get())) {
+				sendMessage(edge.getTargetVertexId(), vertex.getValue());
+				messageCount++;
+			}
+		}
+		return messageCount;
+	}
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.wcc;
+
+import org.apache.giraph.aggregators.LongSumAggregator;
+import org.apache.giraph.master.DefaultMasterCompute;
+import org.apache.hadoop.io.LongWritable;
+import science.atlarge.graphalytics.giraph.combiner.MinimumLongMessageCombiner;
+
+import static science.atlarge.graphalytics.giraph.algorithms.wcc.WeaklyConnectedComponentsConfiguration.LABEL_UPDATES;
+import static science.atlarge.graphalytics.giraph.algorithms.wcc.WeaklyConnectedComponentsConfiguration.USE_COMBINER;
+
+/**
+ * Master computation for the local-first weakly connected components algorithm. Vertices remain active to pick up
+ * the labels of their local component, so the master halts the computation once a superstep neither sent labels nor
+ * updated any component.
+ */
+public class LocalFirstWeaklyConnectedComponentsMasterComputation extends DefaultMasterCompute {
+
+	/**
+	 * The first superstep in which labels are exchanged between workers.
+	 */
+	private static final long FIRST_EXCHANGE_SUPERSTEP = 2;
+
+	@Override
+	public void initialize() throws InstantiationException, IllegalAccessException {
+		registerAggregator(LABEL_UPDATES, LongSumAggregator.class);
+	}
+
+	@Override
+	public void compute() {
+		if (getSuperstep() > FIRST_EXCHANGE_SUPERSTEP &&
+				((LongWritable)getAggregatedValue(LABEL_UPDATES)).get() == 0) {
+			haltComputation();
+			return;
+		}
+
+		// Messages in the first superstep are used to discover incoming edges and may not be combined
+		if (getSuperstep() > 0 && USE_COMBINER.get(getConf())) {
+			setMessageCombiner(MinimumLongMessageCombiner.class);
+		}
+	}
+
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.wcc;
+
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.apache.giraph.worker.DefaultWorkerContext;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Worker context for the local-first weakly connected components algorithm. It assigns a dense index to every vertex
+ * on the worker, finds the components formed by edges between those vertices using union-find over a primitive
+ * parent array, and keeps a single label per local component. Labels received over edges between workers are applied
+ * to the whole component at once, so they cross each component in a single superstep.
+ * <p/>
+ * Compute threads record vertices, edges, and label updates in per-thread buffers, which are merged after every
+ * superstep.
+ */
+public class LocalFirstWeaklyConnectedComponentsWorkerContext extends DefaultWorkerContext {
+
+	private final Long2IntOpenHashMap vertexIndices = new Long2IntOpenHashMap();
+	/**
+	 * The parent of every vertex in the union-find forest; after the local components are found, the root of every
+	 * vertex.
+	 */
+	private int[] parents = new int[0];
+	/**
+	 * The smallest known vertex ID in the component of each vertex, valid only for roots once components are found.
+	 */
+	private long[] labels = new long[0];
+
+	private final Queue<ThreadBuffer> threadBuffers = new ConcurrentLinkedQueue<>();
+	private final ThreadLocal<ThreadBuffer> threadBuffer = new ThreadLocal<ThreadBuffer>() {
+		@Override
+		protected ThreadBuffer initialValue() {
+			return new ThreadBuffer();
+		}
+	};
+
+	public LocalFirstWeaklyConnectedComponentsWorkerContext() {
+		vertexIndices.defaultReturnValue(-1);
+	}
+
+	/**
+	 * Adds a vertex to this worker's index. Must be called for every vertex in the first superstep.
+	 *
+	 * @param vertexId a vertex in this worker's partitions
+	 */
+	public void registerVertex(long vertexId) {
+		getThreadBuffer().vertexIds.add(vertexId);
+	}
+
+	/**
+	 * @param vertexId any vertex ID
+	 * @return true iff the vertex is in this worker's partitions
+	 */
+	public boolean isLocal(long vertexId) {
+		return vertexIndices.containsKey(vertexId);
+	}
+
+	/**
+	 * Sets the initial label of a local vertex. Must be called for every vertex in the second superstep.
+	 *
+	 * @param vertexId a vertex in this worker's partitions
+	 * @param label    the smallest ID among the vertex and its neighbours
+	 */
+	public void setInitialLabel(long vertexId, long label) {
+		// Every vertex writes only its own element, so no synchronization is required
+		labels[vertexIndices.get(vertexId)] = label;
+	}
+
+	/**
+	 * Records an edge between two local vertices. Edges are only used in the second superstep.
+	 *
+	 * @param sourceId a vertex in this worker's partitions
+	 * @param targetId a vertex in this worker's partitions
+	 */
+	public void addLocalEdge(long sourceId, long targetId) {
+		IntArrayList localEdges = getThreadBuffer().localEdges;
+		localEdges.add(vertexIndices.get(sourceId));
+		localEdges.add(vertexIndices.get(targetId));
+	}
+
+	/**
+	 * @param vertexId a vertex in this worker's partitions
+	 * @return the label of the local component containing the vertex
+	 */
+	public long getComponentLabel(long vertexId) {
+		return labels[parents[vertexIndices.get(vertexId)]];
+	}
+
+	/**
+	 * Proposes a smaller label for the local component of a vertex, which takes effect in the next superstep.
+	 *
+	 * @param vertexId a vertex in this worker's partitions
+	 * @param label    a label received from a neighbour of the vertex
+	 */
+	public void proposeComponentLabel(long vertexId, long label) {
+		int root = parents[vertexIndices.get(vertexId)];
+		Int2LongOpenHashMap proposals = getThreadBuffer().proposals;
+		if (label < proposals.get(root)) {
+			proposals.put(root, label);
+		}
+	}
+
+	@Override
+	public void postSuperstep() {
+		super.postSuperstep();
+		if (getSuperstep() == 0) {
+			buildIndex();
+		} else if (getSuperstep() == 1) {
+			findLocalComponents();
+		} else {
+			applyProposals();
+		}
+		threadBuffers.clear();
+	}
+
+	private ThreadBuffer getThreadBuffer() {
+		// Compute threads may change between supersteps, so buffers are registered on first use in every superstep
+		ThreadBuffer buffer = threadBuffer.get();
+		if (!buffer.registered) {
+			buffer.registered = true;
+			threadBuffers.add(buffer);
+		}
+		return buffer;
+	}
+
+	private void buildIndex() {
+		int vertexCount = 0;
+		for (ThreadBuffer buffer : threadBuffers) {
+			vertexCount += buffer.vertexIds.size();
+		}
+
+		vertexIndices.clear();
+		for (ThreadBuffer buffer : threadBuffers) {
+			for (int i = 0; i < buffer.vertexIds.size(); i++) {
+				vertexIndices.put(buffer.vertexIds.getLong(i), vertexIndices.size());
+			}
+			buffer.vertexIds.clear();
+			buffer.vertexIds.trim();
+			buffer.registered = false;
+		}
+
+		parents = new int[vertexCount];
+		for (int i = 0; i < vertexCount; i++) {
+			parents[i] = i;
+		}
+		labels = new long[vertexCount];
+		Arrays.fill(labels, Long.MAX_VALUE);
+	}
+
+	private void findLocalComponents() {
+		for (ThreadBuffer buffer : threadBuffers) {
+			IntArrayList localEdges = buffer.localEdges;
+			for (int i = 0; i < localEdges.size(); i += 2) {
+				union(localEdges.getInt(i), localEdges.getInt(i + 1));
+			}
+			localEdges.clear();
+			localEdges.trim();
+			buffer.registered = false;
+		}
+
+		// Point every vertex directly to its root, and collect the smallest label of each component at the root
+		for (int i = 0; i < parents.length; i++) {
+			int root = find(i);
+			parents[i] = root;
+			if (labels[i] < labels[root]) {
+				labels[root] = labels[i];
+			}
+		}
+	}
+
+	private int find(int vertex) {
+		// Path halving: point every visited vertex to its grandparent
+		while (parents[vertex] != vertex) {
+			parents[vertex] = parents[parents[vertex]];
+			vertex = parents[vertex];
+		}
+		return vertex;
+	}
+
+	private void union(int first, int second) {
+		int firstRoot = find(first);
+		int secondRoot = find(second);
+		if (firstRoot < secondRoot) {
+			parents[secondRoot] = firstRoot;
+		} else if (secondRoot < firstRoot) {
+			parents[firstRoot] = secondRoot;
+		}
+	}
+
+	private void applyProposals() {
+		for (ThreadBuffer buffer : threadBuffers) {
+			for (Int2LongMap.Entry proposal : buffer.proposals.int2LongEntrySet()) {
+				int root = proposal.getIntKey();
+				if (proposal.getLongValue() < labels[root]) {
+					labels[root] = proposal.getLongValue();
+				}
+			}
+			buffer.proposals.clear();
+			buffer.registered = false;
+		}
+	}
+
+	/**
+	 * Vertices, local edges, and label proposals recorded by a single compute thread in the current superstep.
+	 */
+	private static class ThreadBuffer {
+		private final LongArrayList vertexIds = new LongArrayList();
+		private final IntArrayList localEdges = new IntArrayList();
+		private final Int2LongOpenHashMap proposals = new Int2LongOpenHashMap();
+		private boolean registered = false;
+
+		private ThreadBuffer() {
+			proposals.defaultReturnValue(Long.MAX_VALUE);
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.wcc;
+
+import org.apache.giraph.aggregators.LongSumAggregator;
+import org.apache.giraph.master.DefaultMasterCompute;
+import org.apache.hadoop.io.LongWritable;
+import science.atlarge.graphalytics.giraph.combiner.MinimumLongMessageCombiner;
+
+import static science.atlarge.graphalytics.giraph.algorithms.wcc.WeaklyConnectedComponentsConfiguration.DIRECTED;
+import static science.atlarge.graphalytics.giraph.algorithms.wcc.WeaklyConnectedComponentsConfiguration.GRANDPARENT_CHANGES;
+import static science.atlarge.graphalytics.giraph.algorithms.wcc.WeaklyConnectedComponentsConfiguration.USE_COMBINER;
+
+/**
+ * Master computation for the pointer-jumping weakly connected components algorithm. Every iteration of the algorithm
+ * spans four supersteps, of which only those exchanging candidate parents may combine messages. The computation halts
+ * once an iteration leaves the grandparent of every vertex unchanged.
+ */
+public class ShiloachVishkinMasterComputation extends DefaultMasterCompute {
+
+	/**
+	 * The steps of the algorithm, determined by the superstep.
+	 */
+	public static enum Phase {
+		/**
+		 * Notify neighbours of incoming edges; only on directed graphs.
+		 */
+		DISCOVER,
+		/**
+		 * Set the parent of every vertex to its smallest neighbour, and request the parent of the parent.
+		 */
+		INITIALIZE,
+		/**
+		 * Reply to requests with the parent of this vertex.
+		 */
+		REPLY,
+		/**
+		 * Store the received grandparent, and send it to all neighbours.
+		 */
+		GRANDPARENT,
+		/**
+		 * Hook the vertex and its parent onto the smallest grandparent of any neighbour, and shortcut the vertex to
+		 * its grandparent.
+		 */
+		HOOK,
+		/**
+		 * Apply hooks proposed by children, and request the parent of the new parent.
+		 */
+		PROPOSAL;
+
+		private static final Phase[] ITERATION = {REPLY, GRANDPARENT, HOOK, PROPOSAL};
+
+		/**
+		 * @param superstep the current superstep
+		 * @param directed  true iff the input graph is directed
+		 * @return the phase of the algorithm in the given superstep
+		 */
+		public static Phase forSuperstep(long superstep, boolean directed) {
+			long initializeSuperstep = directed ? 1 : 0;
+			if (superstep < initializeSuperstep) {
+				return DISCOVER;
+			} else if (superstep == initializeSuperstep) {
+				return INITIALIZE;
+			}
+			return ITERATION[(int)((superstep - initializeSuperstep - 1) % ITERATION.length)];
+		}
+	}
+
+	@Override
+	public void initialize() throws InstantiationException, IllegalAccessException {
+		registerAggregator(GRANDPARENT_CHANGES, LongSumAggregator.class);
+	}
+
+	@Override
+	public void compute() {
+		Phase phase = Phase.forSuperstep(getSuperstep(), DIRECTED.get(getConf()));
+
+		// The grandparents were updated in the previous superstep; stop when none of them changed
+		if (phase == Phase.HOOK && ((LongWritable)getAggregatedValue(GRANDPARENT_CHANGES)).get() == 0) {
+			haltComputation();
+			return;
+		}
+
+		// Only the smallest candidate parent matters, but requests for the grandparent must all be answered
+		if ((phase == Phase.GRANDPARENT || phase == Phase.HOOK) && USE_COMBINER.get(getConf())) {
+			setMessageCombiner(MinimumLongMessageCombiner.class);
+		}
+	}
+
+}
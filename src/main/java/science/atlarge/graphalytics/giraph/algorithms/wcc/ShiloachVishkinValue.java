@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.wcc;
+
+import org.apache.hadoop.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Vertex value for the pointer-jumping weakly connected components algorithm, consisting of the parent of a vertex
+ * in the forest of components and the parent of that parent. Once the algorithm converges, the grandparent of every
+ * vertex is the smallest vertex ID in its component.
+ */
+public class ShiloachVishkinValue implements Writable {
+
+	private long parent;
+	private long grandparent;
+
+	public long getParent() {
+		return parent;
+	}
+
+	public void setParent(long parent) {
+		this.parent = parent;
+	}
+
+	public long getGrandparent() {
+		return grandparent;
+	}
+
+	public void setGrandparent(long grandparent) {
+		this.grandparent = grandparent;
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		out.writeLong(parent);
+		out.writeLong(grandparent);
+	}
+
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		parent = in.readLong();
+		grandparent = in.readLong();
+	}
+
+	/**
+	 * @return the component label of the vertex, formatted identically to the output of the other algorithms
+	 */
+	@Override
+	public String toString() {
+		return Long.toString(grandparent);
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.wcc;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.graph.BasicComputation;
+import org.apache.giraph.graph.Vertex;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import science.atlarge.graphalytics.giraph.algorithms.wcc.ShiloachVishkinMasterComputation.Phase;
+
+import java.io.IOException;
+
+import static science.atlarge.graphalytics.giraph.algorithms.wcc.WeaklyConnectedComponentsConfiguration.DIRECTED;
+import static science.atlarge.graphalytics.giraph.algorithms.wcc.WeaklyConnectedComponentsConfiguration.GRANDPARENT_CHANGES;
+
+/**
+ * Weakly connected components algorithm based on hooking and pointer jumping, in the style of Shiloach-Vishkin (as
+ * refined by FastSV). Every vertex maintains a parent in a forest whose roots are the smallest vertex IDs of their
+ * trees. In every iteration, each vertex and its parent hook onto the smallest grandparent among the neighbours of
+ * the vertex, and each vertex shortcuts to its own grandparent. Trees thereby merge and flatten at the same time, so
+ * the number of iterations grows with the logarithm of the component size instead of the diameter.
+ * <p/>
+ * All updates take the minimum of the current and proposed parent, so the algorithm converges to the smallest vertex
+ * ID of every component, identical to the label propagation algorithm.
+ */
+public class ShiloachVishkinWeaklyConnectedComponentsComputation extends
+		BasicComputation<LongWritable, ShiloachVishkinValue, NullWritable, LongWritable> {
+
+	private boolean directed;
+	private LongSet edgeSet = new LongOpenHashSet();
+	private LongWritable messageValue = new LongWritable();
+	private LongWritable destinationId = new LongWritable();
+	private LongWritable changeCount = new LongWritable(1);
+
+	@Override
+	public void preSuperstep() {
+		directed = DIRECTED.get(getConf());
+	}
+
+	@Override
+	public void compute(Vertex<LongWritable, ShiloachVishkinValue, NullWritable> vertex,
+			Iterable<LongWritable> messages) throws IOException {
+		ShiloachVishkinValue value = vertex.getValue();
+		long vertexId = vertex.getId().get();
+
+		switch (Phase.forSuperstep(getSuperstep(), directed)) {
+			case DISCOVER:
+				// Broadcast own id to notify neighbours of incoming edges
+				sendMessageToAllEdges(vertex, vertex.getId());
+				break;
+			case INITIALIZE:
+				if (directed) {
+					addIncomingEdges(vertex, messages);
+				}
+
+				// Hook onto the smallest neighbour, and request its parent
+				long minId = vertexId;
+				for (Edge<LongWritable, NullWritable> edge : vertex.getEdges()) {
+					minId = Math.min(minId, edge.getTargetVertexId().get());
+				}
+				value.setParent(minId);
+				value.setGrandparent(Long.MAX_VALUE);
+				requestGrandparent(vertex);
+				break;
+			case REPLY:
+				// Answer every request with the parent of this vertex
+				messageValue.set(value.getParent());
+				for (LongWritable requester : messages) {
+					sendMessage(requester, messageValue);
+				}
+				break;
+			case GRANDPARENT:
+				// Store the grandparent, which equals the parent for roots, and send it to all neighbours
+				long grandparent = value.getParent();
+				for (LongWritable reply : messages) {
+					grandparent = reply.get();
+				}
+				if (grandparent != value.getGrandparent()) {
+					value.setGrandparent(grandparent);
+					aggregate(GRANDPARENT_CHANGES, changeCount);
+				}
+				messageValue.set(grandparent);
+				sendMessageToAllEdges(vertex, messageValue);
+				break;
+			case HOOK:
+				// Find the smallest grandparent of any neighbour
+				long minNeighbourGrandparent = Long.MAX_VALUE;
+				for (LongWritable message : messages) {
+					minNeighbourGrandparent = Math.min(minNeighbourGrandparent, message.get());
+				}
+				// Hook the parent of this vertex onto it
+				if (minNeighbourGrandparent < value.getParent()) {
+					destinationId.set(value.getParent());
+					messageValue.set(minNeighbourGrandparent);
+					sendMessage(destinationId, messageValue);
+				}
+				// Hook this vertex onto it, or shortcut to the grandparent of this vertex
+				value.setParent(Math.min(value.getParent(), Math.min(minNeighbourGrandparent, value.getGrandparent())));
+				break;
+			case PROPOSAL:
+				// Apply the smallest parent proposed by any child, and request the new grandparent
+				for (LongWritable message : messages) {
+					value.setParent(Math.min(value.getParent(), message.get()));
+				}
+				requestGrandparent(vertex);
+				break;
+		}
+	}
+
+	private void addIncomingEdges(Vertex<LongWritable, ShiloachVishkinValue, NullWritable> vertex,
+			Iterable<LongWritable> messages) {
+		// For every incoming edge that does not have a corresponding outgoing edge, create one
+		edgeSet.clear();
+		for (Edge<LongWritable, NullWritable> existingEdge : vertex.getEdges()) {
+			edgeSet.add(existingEdge.getTargetVertexId().get());
+		}
+		for (LongWritable incomingId : messages) {
+			if (edgeSet.add(incomingId.get())) {
+				vertex.addEdge(EdgeFactory.create(new LongWritable(incomingId.get())));
+			}
+		}
+	}
+
+	private void requestGrandparent(Vertex<LongWritable, ShiloachVishkinValue, NullWritable> vertex) {
+		// Roots are their own grandparent, so only other vertices need to ask their parent
+		long parent = vertex.getValue().getParent();
+		if (parent != vertex.getId().get()) {
+			destinationId.set(parent);
+			sendMessage(destinationId, vertex.getId());
+		}
+	}
+
+}
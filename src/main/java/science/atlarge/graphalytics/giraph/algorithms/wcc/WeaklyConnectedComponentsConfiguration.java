@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.wcc;
+
+import org.apache.giraph.conf.BooleanConfOption;
+
+/**
+ * Configuration constants for weakly connected components on Giraph.
+ */
+public final class WeaklyConnectedComponentsConfiguration {
+
+	/**
+	 * Configuration key for enabling the message combiner of the algorithm
+	 */
+	public static final String USE_COMBINER_KEY = "graphalytics.wcc.use-combiner";
+	/**
+	 * Configuration option for enabling the message combiner of the algorithm
+	 */
+	public static final BooleanConfOption USE_COMBINER = new BooleanConfOption(
+			USE_COMBINER_KEY, true, "Combine messages sent to the same vertex in the weakly connected components algorithm");
+
+	/**
+	 * Configuration key for symmetrizing directed graphs while reading the edges
+	 */
+	public static final String SYMMETRIZE_INPUT_KEY = "graphalytics.wcc.symmetrize-input";
+	/**
+	 * Configuration option for adding the reverse of every edge of a directed graph while reading the edges, so the
+	 * graph can be processed as an undirected graph without first discovering incoming edges. Not applicable to
+	 * graphs in the binary CSR format.
+	 */
+	public static final BooleanConfOption SYMMETRIZE_INPUT = new BooleanConfOption(
+			SYMMETRIZE_INPUT_KEY, false, "Add reverse edges to directed graphs while reading the input");
+
+	/**
+	 * Configuration key for enabling the local-first variant of the algorithm
+	 */
+	public static final String LOCAL_FIRST_KEY = "graphalytics.wcc.local-first";
+	/**
+	 * Configuration option for enabling the local-first variant of the algorithm, which finds the components within
+	 * each worker using union-find before exchanging labels across edges between workers
+	 */
+	public static final BooleanConfOption LOCAL_FIRST = new BooleanConfOption(
+			LOCAL_FIRST_KEY, false, "Collapse components within each worker before exchanging labels between workers");
+
+	/**
+	 * Configuration key for enabling the pointer-jumping variant of the algorithm
+	 */
+	public static final String POINTER_JUMPING_KEY = "graphalytics.wcc.pointer-jumping";
+	/**
+	 * Configuration option for enabling the pointer-jumping variant of the algorithm, which combines hooking and
+	 * shortcutting in the style of Shiloach-Vishkin to converge in a number of supersteps logarithmic in the size of
+	 * the components, rather than linear in their diameter
+	 */
+	public static final BooleanConfOption POINTER_JUMPING = new BooleanConfOption(
+			POINTER_JUMPING_KEY, false, "Find weakly connected components using hooking and pointer jumping");
+
+	/**
+	 * Configuration key for the directedness of the input graph, set by the job
+	 */
+	public static final String DIRECTED_KEY = "graphalytics.wcc.directed";
+	/**
+	 * Configuration option for the directedness of the input graph. Edges of a directed graph are only known to their
+	 * source vertex, so the local-first variant must discover edges from other workers before exchanging labels.
+	 */
+	public static final BooleanConfOption DIRECTED = new BooleanConfOption(
+			DIRECTED_KEY, false, "Whether the input graph of the weakly connected components algorithm is directed");
+
+	/**
+	 * Name of aggregator for the number of label messages and component label updates in a superstep.
+	 */
+	public static final String LABEL_UPDATES = "Label updates";
+	/**
+	 * Name of aggregator for the number of vertices whose grandparent changed in an iteration of pointer jumping.
+	 */
+	public static final String GRANDPARENT_CHANGES = "Grandparent changes";
+
+	private WeaklyConnectedComponentsConfiguration() {
+	}
+
+}
@@ -25,10 +25,11 @@ import org.apache.giraph.io.EdgeInputFormat;
 import org.apache.giraph.io.EdgeOutputFormat;
 import org.apache.giraph.io.VertexInputFormat;
 import org.apache.giraph.io.VertexOutputFormat;
-import org.apache.giraph.io.formats.IdWithValueTextOutputFormat;
 import org.apache.giraph.io.formats.LongLongNullTextInputFormat;
 
 import science.atlarge.graphalytics.giraph.GiraphJob;
+import science.atlarge.graphalytics.giraph.io.LongIdWithValueTextOutputFormat;
+import science.atlarge.graphalytics.giraph.combiner.MinimumLongMessageCombiner;
 import science.atlarge.graphalytics.giraph.io.DirectedLongNullTextEdgeInputFormat;
 import science.atlarge.graphalytics.giraph.io.UndirectedLongNullTextEdgeInputFormat;
 
@@ -53,7 +54,12 @@ public class WeaklyConnectedComponentsJob extends GiraphJob {
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends Computation> getComputationClass() {
-		return formattedGraph.isDirected() ?
+		if (WeaklyConnectedComponentsConfiguration.LOCAL_FIRST.get(getConf())) {
+			return LocalFirstWeaklyConnectedComponentsComputation.class;
+		} else if (WeaklyConnectedComponentsConfiguration.POINTER_JUMPING.get(getConf())) {
+			return ShiloachVishkinWeaklyConnectedComponentsComputation.class;
+		}
+		return isInputDirected() ?
 				DirectedWeaklyConnectedComponentsComputation.class :
 				UndirectedWeaklyConnectedComponentsComputation.class;
 	}
@@ -61,19 +67,23 @@ public class WeaklyConnectedComponentsJob extends GiraphJob {
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends VertexInputFormat> getVertexInputFormatClass() {
+		if (!WeaklyConnectedComponentsConfiguration.LOCAL_FIRST.get(getConf()) &&
+				WeaklyConnectedComponentsConfiguration.POINTER_JUMPING.get(getConf())) {
+			return ShiloachVishkinVertexInputFormat.class;
+		}
 		return LongLongNullTextInputFormat.class;
 	}
 
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends VertexOutputFormat> getVertexOutputFormatClass() {
-		return IdWithValueTextOutputFormat.class;
+		return LongIdWithValueTextOutputFormat.class;
 	}
 
 	@SuppressWarnings("rawtypes")
 	@Override
 	protected Class<? extends EdgeInputFormat> getEdgeInputFormatClass() {
-		return formattedGraph.isDirected() ?
+		return isInputDirected() ?
 				DirectedLongNullTextEdgeInputFormat.class :
 				UndirectedLongNullTextEdgeInputFormat.class;
 	}
@@ -88,6 +98,40 @@ public class WeaklyConnectedComponentsJob extends GiraphJob {
 	protected void configure(GiraphConfiguration config) {
 		// Set the message store type to optimize for one-to-many messages (i.e. broadcasts as used in CC)
 		MESSAGE_ENCODE_AND_STORE_TYPE.set(config, MessageEncodeAndStoreType.EXTRACT_BYTEARRAY_PER_PARTITION);
+
+		// The local-first variant finds components within a worker first, and has its master computation configure
+		// the combiner
+		if (WeaklyConnectedComponentsConfiguration.LOCAL_FIRST.get(config)) {
+			WeaklyConnectedComponentsConfiguration.DIRECTED.set(config, isInputDirected());
+			config.setWorkerContextClass(LocalFirstWeaklyConnectedComponentsWorkerContext.class);
+			config.setMasterComputeClass(LocalFirstWeaklyConnectedComponentsMasterComputation.class);
+			return;
+		}
+
+		// The pointer-jumping variant has its master computation select the supersteps in which to use the combiner
+		if (WeaklyConnectedComponentsConfiguration.POINTER_JUMPING.get(config)) {
+			WeaklyConnectedComponentsConfiguration.DIRECTED.set(config, isInputDirected());
+			config.setMasterComputeClass(ShiloachVishkinMasterComputation.class);
+			return;
+		}
+
+		// Only the smallest component id received by a vertex matters, so messages can be combined
+		if (WeaklyConnectedComponentsConfiguration.USE_COMBINER.get(config)) {
+			if (isInputDirected()) {
+				config.setMasterComputeClass(DirectedWeaklyConnectedComponentsMasterComputation.class);
+			} else {
+				config.setMessageCombinerClass(MinimumLongMessageCombiner.class);
+			}
+		}
+	}
+
+	/**
+	 * @return true iff the edges of the graph as read by Giraph are directed; directed graphs are symmetrized by the
+	 * edge input format if configured, except when they are read from the binary CSR format
+	 */
+	private boolean isInputDirected() {
+		return formattedGraph.isDirected() &&
+				!(WeaklyConnectedComponentsConfiguration.SYMMETRIZE_INPUT.get(getConf()) && !isBinaryCsrInput());
 	}
 
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.combiner;
+
+import org.apache.giraph.combiner.MessageCombiner;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.WritableComparable;
+
+/**
+ * Combines long messages by keeping the first message received, for algorithms in which only the presence of a
+ * message matters (e.g., breadth-first search, where all messages received in a superstep are equivalent).
+ * {@link Long#MIN_VALUE} is reserved to mark a combined message that has not received a value yet.
+ */
+public class FirstWinsLongMessageCombiner implements MessageCombiner<WritableComparable, LongWritable> {
+
+	private static final long NO_MESSAGE = Long.MIN_VALUE;
+
+	@Override
+	public void combine(WritableComparable vertexIndex, LongWritable originalMessage, LongWritable messageToCombine) {
+		if (originalMessage.get() == NO_MESSAGE) {
+			originalMessage.set(messageToCombine.get());
+		}
+	}
+
+	@Override
+	public LongWritable createInitialMessage() {
+		return new LongWritable(NO_MESSAGE);
+	}
+
+}
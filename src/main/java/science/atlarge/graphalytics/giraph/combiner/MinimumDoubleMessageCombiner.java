@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.combiner;
+
+import org.apache.giraph.combiner.MessageCombiner;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.WritableComparable;
+
+/**
+ * Combines double messages by keeping only the smallest value, for algorithms that only use the minimum of their
+ * incoming messages (e.g., tentative distances in shortest path algorithms).
+ */
+public class MinimumDoubleMessageCombiner implements MessageCombiner<WritableComparable, DoubleWritable> {
+
+	@Override
+	public void combine(WritableComparable vertexIndex, DoubleWritable originalMessage,
+			DoubleWritable messageToCombine) {
+		if (messageToCombine.get() < originalMessage.get()) {
+			originalMessage.set(messageToCombine.get());
+		}
+	}
+
+	@Override
+	public DoubleWritable createInitialMessage() {
+		return new DoubleWritable(Double.POSITIVE_INFINITY);
+	}
+
+}
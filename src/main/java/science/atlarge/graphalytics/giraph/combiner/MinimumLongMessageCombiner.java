@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.combiner;
+
+import org.apache.giraph.combiner.MessageCombiner;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.WritableComparable;
+
+/**
+ * Combines long messages by keeping only the smallest value, for algorithms that only use the minimum of their
+ * incoming messages (e.g., label propagation of connected components).
+ */
+public class MinimumLongMessageCombiner implements MessageCombiner<WritableComparable, LongWritable> {
+
+	@Override
+	public void combine(WritableComparable vertexIndex, LongWritable originalMessage, LongWritable messageToCombine) {
+		if (messageToCombine.get() < originalMessage.get()) {
+			originalMessage.set(messageToCombine.get());
+		}
+	}
+
+	@Override
+	public LongWritable createInitialMessage() {
+		return new LongWritable(Long.MAX_VALUE);
+	}
+
+}
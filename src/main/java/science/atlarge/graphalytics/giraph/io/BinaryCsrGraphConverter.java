@@ -0,0 +1,392 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.util.LineReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Converts a graph in the Graphalytics text format (a vertex file and an edge file) to a binary compressed sparse row
+ * (CSR) representation, split over one or more part files. Each part covers a contiguous range of the sorted vertex
+ * IDs and has the following layout:
+ * <pre>
+ * int     magic number ({@link #MAGIC})
+ * byte    format version ({@link #VERSION})
+ * byte    flags ({@link #FLAG_WEIGHTED} if edge weights are included)
+ * int     number of vertices in the part
+ * long    number of edges in the part
+ * varlong vertex IDs, sorted and delta-encoded
+ * varlong out-degree of every vertex (the offsets array, delta-encoded)
+ * per vertex: varlong neighbour IDs, sorted and delta-encoded, followed by a double per edge if weighted
+ * </pre>
+ * Undirected graphs are stored with both directions of every edge, so a reader can treat every graph as directed.
+ * The text edge file is tokenized once, while computing vertex degrees, into a local binary edge list. A second pass
+ * over that edge list distributes the edges over one local spill file per part, after which every part is built from
+ * its own spill file. Only a single part of the graph is kept in memory at a time.
+ */
+public final class BinaryCsrGraphConverter {
+	private static final Logger LOG = LogManager.getLogger();
+
+	/**
+	 * Magic number at the start of every binary CSR part file ("GCSR").
+	 */
+	public static final int MAGIC = 0x47435352;
+	/**
+	 * Version of the binary CSR format written by this converter.
+	 */
+	public static final byte VERSION = 1;
+	/**
+	 * Flag indicating that every edge is followed by a double-precision weight.
+	 */
+	public static final byte FLAG_WEIGHTED = 1;
+
+	private static final int READ_BUFFER_SIZE = 1 << 20;
+	private static final int SPILL_BUFFER_SIZE = 64 * 1024;
+
+	private final boolean directed;
+	private final long maxEdgesPerPart;
+	private final TextLineTokenizer tokenizer = new TextLineTokenizer();
+
+	private long[] vertexIds;
+	private int[] degrees;
+	private boolean weighted;
+
+	/**
+	 * @param directed        true iff the graph is directed
+	 * @param maxEdgesPerPart the maximum number of edges to store in a single part file
+	 */
+	public BinaryCsrGraphConverter(boolean directed, long maxEdgesPerPart) {
+		this.directed = directed;
+		// Parts are indexed using ints, so limit the number of edges accordingly
+		this.maxEdgesPerPart = Math.min(Math.max(1, maxEdgesPerPart), Integer.MAX_VALUE - 8);
+	}
+
+	/**
+	 * Converts the given local graph files and writes the resulting part files to a directory on the given file
+	 * system.
+	 *
+	 * @param vertexFilePath  path of the local vertex file
+	 * @param edgeFilePath    path of the local edge file
+	 * @param fileSystem      the file system to write to
+	 * @param outputDirectory the directory in which to create the part files
+	 * @throws IOException if reading the input or writing the output failed
+	 */
+	public void convert(String vertexFilePath, String edgeFilePath, FileSystem fileSystem, Path outputDirectory)
+			throws IOException {
+		File temporaryDirectory = Files.createTempDirectory("graphalytics-csr").toFile();
+		try {
+			LOG.debug("- Reading vertex list");
+			readVertexIds(vertexFilePath);
+
+			LOG.debug("- Computing vertex degrees");
+			File edgeList = new File(temporaryDirectory, "edges");
+			long numberOfEdges = computeDegrees(edgeFilePath, edgeList);
+
+			int[] partStarts = computePartStarts();
+			int partCount = partStarts.length - 1;
+			LOG.debug("- Distributing edges over {} part(s)", partCount);
+			File[] spillFiles = new File[partCount];
+			for (int part = 0; part < partCount; part++) {
+				spillFiles[part] = new File(temporaryDirectory, "part-" + part);
+			}
+			spillEdges(edgeList, partStarts, spillFiles);
+			edgeList.delete();
+
+			fileSystem.mkdirs(outputDirectory);
+			for (int part = 0; part < partCount; part++) {
+				Path partPath = new Path(outputDirectory, String.format("part-%05d.csr", part));
+				writePart(spillFiles[part], fileSystem, partPath, partStarts[part], partStarts[part + 1]);
+				spillFiles[part].delete();
+			}
+			LOG.info("Converted graph with {} vertices and {} edges to {} binary CSR part(s)",
+					vertexIds.length, numberOfEdges, partCount);
+		} finally {
+			deleteDirectory(temporaryDirectory);
+		}
+	}
+
+	private void readVertexIds(String vertexFilePath) throws IOException {
+		LongArrayList ids = new LongArrayList();
+		Text line = new Text();
+		try (LineReader reader = openReader(vertexFilePath)) {
+			while (reader.readLine(line) > 0) {
+				tokenizer.reset(line);
+				if (tokenizer.hasNext()) {
+					ids.add(tokenizer.nextLong());
+				}
+			}
+		}
+		vertexIds = ids.toLongArray();
+		Arrays.sort(vertexIds);
+	}
+
+	/**
+	 * Parses the text edge file, counts the degree of every vertex, and writes every edge to a binary edge list as
+	 * the indices of its endpoints followed by its weight, if any.
+	 */
+	private long computeDegrees(String edgeFilePath, File edgeList) throws IOException {
+		degrees = new int[vertexIds.length];
+		long numberOfEdges = 0;
+		boolean first = true;
+		Text line = new Text();
+		try (LineReader reader = openReader(edgeFilePath);
+			 DataOutputStream out = openSpill(edgeList, READ_BUFFER_SIZE)) {
+			while (reader.readLine(line) > 0) {
+				tokenizer.reset(line);
+				if (!tokenizer.hasNext()) {
+					continue;
+				}
+				int source = indexOf(tokenizer.nextLong());
+				int destination = indexOf(tokenizer.nextLong());
+				if (first) {
+					weighted = tokenizer.hasNext();
+					first = false;
+				}
+				out.writeInt(source);
+				out.writeInt(destination);
+				if (weighted) {
+					out.writeDouble(tokenizer.nextDouble());
+				}
+
+				degrees[source]++;
+				numberOfEdges++;
+				if (!directed) {
+					degrees[destination]++;
+					numberOfEdges++;
+				}
+			}
+		}
+		return numberOfEdges;
+	}
+
+	/**
+	 * @return the index of the first vertex of every part, followed by the number of vertices
+	 */
+	private int[] computePartStarts() {
+		LongArrayList starts = new LongArrayList();
+		int firstVertex = 0;
+		do {
+			starts.add(firstVertex);
+			// Include vertices in this part until the edge budget is exhausted, but always include at least one vertex
+			int lastVertex = firstVertex;
+			long partEdges = 0;
+			while (lastVertex < vertexIds.length &&
+					(lastVertex == firstVertex || partEdges + degrees[lastVertex] <= maxEdgesPerPart)) {
+				partEdges += degrees[lastVertex];
+				lastVertex++;
+			}
+			firstVertex = lastVertex;
+		} while (firstVertex < vertexIds.length);
+		starts.add(vertexIds.length);
+
+		int[] result = new int[starts.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = (int)starts.getLong(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Appends every edge to the spill file of the part containing its source, and for undirected graphs also to the
+	 * spill file of the part containing its destination.
+	 */
+	private void spillEdges(File edgeList, int[] partStarts, File[] spillFiles) throws IOException {
+		DataOutputStream[] spills = new DataOutputStream[spillFiles.length];
+		try (DataInputStream in = openEdgeList(edgeList)) {
+			for (int part = 0; part < spills.length; part++) {
+				spills[part] = openSpill(spillFiles[part], SPILL_BUFFER_SIZE);
+			}
+			while (true) {
+				int source;
+				try {
+					source = in.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+				int destination = in.readInt();
+				double weight = weighted ? in.readDouble() : 0.0;
+
+				writeSpilledEdge(spills[partOf(partStarts, source)], source, destination, weight);
+				if (!directed) {
+					writeSpilledEdge(spills[partOf(partStarts, destination)], destination, source, weight);
+				}
+			}
+		} finally {
+			for (DataOutputStream spill : spills) {
+				if (spill != null) {
+					spill.close();
+				}
+			}
+		}
+	}
+
+	private void writeSpilledEdge(DataOutputStream spill, int source, int destination, double weight)
+			throws IOException {
+		spill.writeInt(source);
+		spill.writeLong(vertexIds[destination]);
+		if (weighted) {
+			spill.writeDouble(weight);
+		}
+	}
+
+	private static int partOf(int[] partStarts, int vertex) {
+		int index = Arrays.binarySearch(partStarts, 0, partStarts.length - 1, vertex);
+		if (index >= 0) {
+			// Parts never share a start, so an exact match is the first vertex of that part
+			return index;
+		}
+		return -index - 2;
+	}
+
+	private void writePart(File spillFile, FileSystem fileSystem, Path partPath, int firstVertex, int lastVertex)
+			throws IOException {
+		// Compute the offset of every vertex's adjacency list in this part
+		int vertexCount = lastVertex - firstVertex;
+		int[] offsets = new int[vertexCount + 1];
+		for (int i = 0; i < vertexCount; i++) {
+			offsets[i + 1] = offsets[i] + degrees[firstVertex + i];
+		}
+		int partEdges = offsets[vertexCount];
+		LOG.debug("- Writing part {} with {} vertices and {} edges", partPath.getName(), vertexCount, partEdges);
+
+		int[] fill = Arrays.copyOf(offsets, vertexCount);
+		long[] neighbours = new long[partEdges];
+		double[] weights = weighted ? new double[partEdges] : null;
+		try (DataInputStream in = openEdgeList(spillFile)) {
+			for (int e = 0; e < partEdges; e++) {
+				int index = in.readInt() - firstVertex;
+				neighbours[fill[index]] = in.readLong();
+				if (weighted) {
+					weights[fill[index]] = in.readDouble();
+				}
+				fill[index]++;
+			}
+		}
+
+		// Sort every adjacency list to minimize the size of the delta encoding
+		for (int i = 0; i < vertexCount; i++) {
+			if (weighted) {
+				sortByNeighbour(neighbours, weights, offsets[i], offsets[i + 1] - 1);
+			} else {
+				Arrays.sort(neighbours, offsets[i], offsets[i + 1]);
+			}
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileSystem.create(partPath, true)))) {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeByte(weighted ? FLAG_WEIGHTED : 0);
+			out.writeInt(vertexCount);
+			out.writeLong(partEdges);
+			VarLongEncoding.writeDeltas(out, vertexIds, firstVertex, vertexCount);
+			for (int i = 0; i < vertexCount; i++) {
+				VarLongEncoding.writeVarLong(out, degrees[firstVertex + i]);
+			}
+			for (int i = 0; i < vertexCount; i++) {
+				VarLongEncoding.writeDeltas(out, neighbours, offsets[i], offsets[i + 1] - offsets[i]);
+				if (weighted) {
+					for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+						out.writeDouble(weights[e]);
+					}
+				}
+			}
+		}
+	}
+	private int indexOf(long vertexId) throws IOException {
+		int index = Arrays.binarySearch(vertexIds, vertexId);
+		if (index < 0) {
+			throw new IOException("Edge refers to vertex " + vertexId + ", which is not in the vertex list");
+		}
+		return index;
+	}
+
+	/**
+	 * Sorts a range of neighbours (inclusive bounds) and permutes the matching weights accordingly.
+	 */
+	private static void sortByNeighbour(long[] neighbours, double[] weights, int low, int high) {
+		while (low < high) {
+			long pivot = neighbours[(low + high) >>> 1];
+			int i = low;
+			int j = high;
+			while (i <= j) {
+				while (neighbours[i] < pivot) {
+					i++;
+				}
+				while (neighbours[j] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					long neighbour = neighbours[i];
+					neighbours[i] = neighbours[j];
+					neighbours[j] = neighbour;
+					double weight = weights[i];
+					weights[i] = weights[j];
+					weights[j] = weight;
+					i++;
+					j--;
+				}
+			}
+			// Recurse into the smaller half to bound the stack depth
+			if (j - low < high - i) {
+				sortByNeighbour(neighbours, weights, low, j);
+				low = i;
+			} else {
+				sortByNeighbour(neighbours, weights, i, high);
+				high = j;
+			}
+		}
+	}
+
+	private static LineReader openReader(String path) throws IOException {
+		return new LineReader(new FileInputStream(path), READ_BUFFER_SIZE);
+	}
+
+	private static DataInputStream openEdgeList(File file) throws IOException {
+		return new DataInputStream(new BufferedInputStream(new FileInputStream(file), READ_BUFFER_SIZE));
+	}
+
+	private static DataOutputStream openSpill(File file, int bufferSize) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), bufferSize));
+	}
+
+	private static void deleteDirectory(File directory) {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+}
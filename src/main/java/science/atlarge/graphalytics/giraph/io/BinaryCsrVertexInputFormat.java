@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.edge.OutEdges;
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.io.VertexInputFormat;
+import org.apache.giraph.io.VertexReader;
+import org.apache.giraph.io.formats.GiraphFileInputFormat;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Input format for graphs stored in the binary CSR format written by {@link BinaryCsrGraphConverter}. Every vertex is
+ * read together with its complete adjacency list, so no separate edge input is needed. Vertex values are created
+ * using the default value of the job's vertex value class; computations are expected to initialize their values in
+ * the first superstep. Edge values are the default edge value, or the stored weight if the graph is weighted and the
+ * job uses {@link DoubleWritable} edge values.
+ */
+public class BinaryCsrVertexInputFormat extends VertexInputFormat<LongWritable, Writable, Writable> {
+
+	private static final PathFilter HIDDEN_FILE_FILTER = new PathFilter() {
+		@Override
+		public boolean accept(Path path) {
+			String name = path.getName();
+			return !name.startsWith("_") && !name.startsWith(".");
+		}
+	};
+
+	@Override
+	public void checkInputSpecs(Configuration conf) {
+	}
+
+	@Override
+	public List<InputSplit> getSplits(JobContext context, int minSplitCountHint)
+			throws IOException, InterruptedException {
+		// Part files are delta-encoded and can not be split, so every part file becomes a single split
+		List<InputSplit> splits = new ArrayList<>();
+		for (Path inputPath : GiraphFileInputFormat.getVertexInputPaths(context)) {
+			FileSystem fs = inputPath.getFileSystem(context.getConfiguration());
+			for (FileStatus file : fs.listStatus(inputPath, HIDDEN_FILE_FILTER)) {
+				if (file.isDirectory()) {
+					continue;
+				}
+				BlockLocation[] blocks = fs.getFileBlockLocations(file, 0, file.getLen());
+				String[] hosts = blocks.length > 0 ? blocks[0].getHosts() : new String[0];
+				splits.add(new FileSplit(file.getPath(), 0, file.getLen(), hosts));
+			}
+		}
+		return splits;
+	}
+
+	@Override
+	public VertexReader<LongWritable, Writable, Writable> createVertexReader(InputSplit split,
+			TaskAttemptContext context) throws IOException {
+		return new BinaryCsrVertexReader();
+	}
+
+	private class BinaryCsrVertexReader extends VertexReader<LongWritable, Writable, Writable> {
+
+		private DataInputStream in;
+		private boolean weighted;
+		private long[] vertexIds;
+		private int[] degrees;
+		private long[] neighbours = new long[16];
+		private int verticesRead;
+		private Vertex<LongWritable, Writable, Writable> currentVertex;
+
+		@Override
+		public void initialize(InputSplit inputSplit, TaskAttemptContext context)
+				throws IOException, InterruptedException {
+			Path path = ((FileSplit)inputSplit).getPath();
+			FileSystem fs = path.getFileSystem(context.getConfiguration());
+			in = new DataInputStream(new BufferedInputStream(fs.open(path), 1 << 20));
+
+			if (in.readInt() != BinaryCsrGraphConverter.MAGIC) {
+				throw new IOException("Not a binary CSR file: " + path);
+			}
+			byte version = in.readByte();
+			if (version != BinaryCsrGraphConverter.VERSION) {
+				throw new IOException("Unsupported binary CSR version " + version + " in file: " + path);
+			}
+			weighted = (in.readByte() & BinaryCsrGraphConverter.FLAG_WEIGHTED) != 0;
+			int vertexCount = in.readInt();
+			in.readLong();
+
+			// Read the vertex IDs and offsets of this part; adjacency lists are streamed vertex by vertex
+			vertexIds = new long[vertexCount];
+			VarLongEncoding.readDeltas(in, vertexIds, 0, vertexCount);
+			degrees = new int[vertexCount];
+			for (int i = 0; i < vertexCount; i++) {
+				degrees[i] = (int)VarLongEncoding.readVarLong(in);
+			}
+			verticesRead = 0;
+		}
+
+		@Override
+		public boolean nextVertex() throws IOException, InterruptedException {
+			if (verticesRead >= vertexIds.length) {
+				return false;
+			}
+
+			int degree = degrees[verticesRead];
+			if (neighbours.length < degree) {
+				neighbours = new long[Math.max(degree, neighbours.length * 2)];
+			}
+			VarLongEncoding.readDeltas(in, neighbours, 0, degree);
+
+			OutEdges<LongWritable, Writable> edges = getConf().createAndInitializeOutEdges(degree);
+			for (int i = 0; i < degree; i++) {
+				Writable edgeValue = getConf().createEdgeValue();
+				if (weighted) {
+					double weight = in.readDouble();
+					if (edgeValue instanceof DoubleWritable) {
+						((DoubleWritable)edgeValue).set(weight);
+					}
+				}
+				edges.add(EdgeFactory.create(new LongWritable(neighbours[i]), edgeValue));
+			}
+
+			currentVertex = getConf().createVertex();
+			currentVertex.initialize(new LongWritable(vertexIds[verticesRead]), getConf().createVertexValue(), edges);
+			verticesRead++;
+			return true;
+		}
+
+		@Override
+		public Vertex<LongWritable, Writable, Writable> getCurrentVertex() throws IOException, InterruptedException {
+			return currentVertex;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (in != null) {
+				in.close();
+			}
+		}
+
+		@Override
+		public float getProgress() throws IOException, InterruptedException {
+			return vertexIds.length == 0 ? 1.0f : (float)verticesRead / vertexIds.length;
+		}
+
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts output files written by {@link BinaryIdWithValueOutputFormat} to the text format of
+ * {@link LongIdWithValueTextOutputFormat}, using the {@link Object#toString()} method of the vertex value class and
+ * the delimiter recorded in every file. Files are decoded one vertex at a time, so their size is not limited by the
+ * available memory.
+ */
+public final class BinaryIdWithValueOutputDecoder {
+	private static final Logger LOG = LogManager.getLogger();
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private BinaryIdWithValueOutputDecoder() {
+	}
+
+	/**
+	 * Converts all binary output files in a directory to text, in place. Files that do not start with the magic
+	 * number of the binary format, including Hadoop's marker files, are left unchanged.
+	 *
+	 * @param directory a local directory containing the output of a job
+	 * @throws IOException if a file could not be converted
+	 */
+	public static void decodeDirectory(File directory) throws IOException {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			throw new IOException("Not a directory: " + directory);
+		}
+
+		int decodedFiles = 0;
+		for (File file : files) {
+			if (file.isFile() && decodeFile(file)) {
+				decodedFiles++;
+			}
+		}
+		LOG.debug("Decoded {} binary output file(s) in {}", decodedFiles, directory);
+	}
+
+	private static boolean decodeFile(File file) throws IOException {
+		File temporaryFile = new File(file.getParentFile(), "." + file.getName() + ".tmp");
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)) {
+			if (!isBinaryOutput(in)) {
+				return false;
+			}
+			LineDecoder decoder = new LineDecoder(in);
+			try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temporaryFile),
+					StandardCharsets.UTF_8), BUFFER_SIZE)) {
+				String line;
+				while ((line = decoder.nextLine()) != null) {
+					out.write(line);
+					out.write('\n');
+				}
+			}
+		}
+
+		if (!file.delete() || !temporaryFile.renameTo(file)) {
+			throw new IOException("Failed to replace binary output file: " + file);
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether a stream starts with the magic number of the binary format, without consuming any data.
+	 *
+	 * @param in the contents of an output file, supporting {@link InputStream#mark(int)}
+	 * @return true iff the stream starts with the magic number of the binary format
+	 * @throws IOException if the stream could not be read
+	 */
+	public static boolean isBinaryOutput(InputStream in) throws IOException {
+		if (!in.markSupported()) {
+			throw new IllegalArgumentException("Stream does not support mark and reset");
+		}
+		in.mark(4);
+		try {
+			int magic = 0;
+			for (int i = 0; i < 4; i++) {
+				int b = in.read();
+				if (b < 0) {
+					return false;
+				}
+				magic = magic << 8 | b;
+			}
+			return magic == BinaryIdWithValueOutputFormat.MAGIC;
+		} finally {
+			in.reset();
+		}
+	}
+
+	/**
+	 * Decodes the contents of a binary output file into lines of text, one vertex at a time.
+	 */
+	public static final class LineDecoder {
+
+		private final DataInputStream in;
+		private final Writable value;
+		private final String delimiter;
+		private long id;
+
+		/**
+		 * Reads the header of a binary output file.
+		 *
+		 * @param in the contents of an output file in the binary format, positioned at the start of the file
+		 * @throws IOException if the header could not be read or is not valid
+		 */
+		public LineDecoder(InputStream in) throws IOException {
+			this.in = in instanceof DataInputStream ? (DataInputStream)in : new DataInputStream(in);
+			if (this.in.readInt() != BinaryIdWithValueOutputFormat.MAGIC) {
+				throw new IOException("Data is not in the binary output format");
+			}
+			this.value = createValue(this.in.readUTF());
+			this.delimiter = this.in.readUTF();
+		}
+
+		/**
+		 * @return the next vertex formatted as a line of text without line separator, or null at the end of the file
+		 * @throws IOException if the next vertex could not be read
+		 */
+		public String nextLine() throws IOException {
+			try {
+				id = in.readLong();
+			} catch (EOFException e) {
+				return null;
+			}
+			value.readFields(in);
+			return Long.toString(id) + delimiter + value.toString();
+		}
+
+		/**
+		 * @return the ID of the vertex last returned by {@link #nextLine()}
+		 */
+		public long getId() {
+			return id;
+		}
+
+	}
+
+	private static Writable createValue(String className) throws IOException {
+		try {
+			return ReflectionUtils.newInstance(Class.forName(className).asSubclass(Writable.class), null);
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException("Unsupported vertex value class in binary output: " + className, e);
+		}
+	}
+
+}
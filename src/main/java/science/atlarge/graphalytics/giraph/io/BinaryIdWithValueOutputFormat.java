@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.io.formats.IdWithValueTextOutputFormat;
+import org.apache.giraph.io.formats.TextVertexOutputFormat;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Binary alternative to {@link LongIdWithValueTextOutputFormat}, for output that is downloaded and decoded before
+ * validation. Every output file starts with a magic number, the name of the vertex value class, and the delimiter
+ * configured for the text format, followed by the ID and serialized value of every vertex. Files are converted to the
+ * text format by {@link BinaryIdWithValueOutputDecoder}.
+ */
+public class BinaryIdWithValueOutputFormat extends TextVertexOutputFormat<LongWritable, Writable, Writable> {
+
+	/**
+	 * Magic number at the start of every output file.
+	 */
+	public static final int MAGIC = 0x47494456;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	@Override
+	public TextVertexWriter createVertexWriter(TaskAttemptContext context)
+			throws IOException, InterruptedException {
+		return new BinaryIdWithValueWriter();
+	}
+
+	private class BinaryIdWithValueWriter extends TextVertexWriter {
+
+		private DataOutputStream out;
+
+		@Override
+		public void initialize(TaskAttemptContext context) throws IOException, InterruptedException {
+			Path file = textOutputFormat.getDefaultWorkFile(context, "");
+			out = new DataOutputStream(new BufferedOutputStream(
+					file.getFileSystem(context.getConfiguration()).create(file, false), BUFFER_SIZE));
+			out.writeInt(MAGIC);
+			out.writeUTF(getConf().getVertexValueClass().getName());
+			out.writeUTF(getConf().get(IdWithValueTextOutputFormat.LINE_TOKENIZE_VALUE,
+					IdWithValueTextOutputFormat.LINE_TOKENIZE_VALUE_DEFAULT));
+		}
+
+		@Override
+		public void writeVertex(Vertex<LongWritable, Writable, Writable> vertex)
+				throws IOException, InterruptedException {
+			out.writeLong(vertex.getId().get());
+			vertex.getValue().write(out);
+		}
+
+		@Override
+		public void close(TaskAttemptContext context) throws IOException, InterruptedException {
+			out.close();
+		}
+
+	}
+
+}
@@ -15,16 +15,7 @@
  */
 package science.atlarge.graphalytics.giraph.io;
 
-import java.io.IOException;
-import java.util.regex.Pattern;
-
-import org.apache.giraph.io.EdgeReader;
-import org.apache.giraph.io.formats.TextEdgeInputFormat;
 import org.apache.hadoop.io.DoubleWritable;
-import org.apache.hadoop.io.LongWritable;
-import org.apache.hadoop.io.Text;
-import org.apache.hadoop.mapreduce.InputSplit;
-import org.apache.hadoop.mapreduce.TaskAttemptContext;
 
 /**
  * Input format for edge-based directed graphs. Inspired by IntNullTextEdgeInputFormat
@@ -32,44 +23,21 @@ import org.apache.hadoop.mapreduce.TaskAttemptContext;
  *
  * @author Tim Hegeman
  */
-public class DirectedLongDoubleTextEdgeInputFormat extends TextEdgeInputFormat<LongWritable, DoubleWritable> {
-
-	private static final Pattern SEPARATOR = Pattern.compile(" ");
+public class DirectedLongDoubleTextEdgeInputFormat extends LongTextEdgeInputFormat<DoubleWritable> {
 
 	@Override
-	public EdgeReader<LongWritable, DoubleWritable> createEdgeReader(
-			InputSplit split, TaskAttemptContext context) throws IOException {
-		return new LongDoubleEdgeReader();
+	protected boolean isUndirected() {
+		return false;
 	}
 
-	private class LongDoubleEdgeReader extends TextEdgeReaderFromEachLineProcessed<Triplet<Long, Long, Double>> {
-
-		@Override
-		protected Triplet<Long, Long, Double> preprocessLine(Text line) throws IOException {
-			String[] tokens = SEPARATOR.split(line.toString());
-			long source = Long.parseLong(tokens[0]);
-			long destination = Long.parseLong(tokens[1]);
-			double value = Double.parseDouble(tokens[2]);
-			return new Triplet<>(source, destination, value);
-		}
-
-		@Override
-		protected LongWritable getTargetVertexId(Triplet<Long, Long, Double> line)
-				throws IOException {
-			return new LongWritable(line.getSecond());
-		}
-
-		@Override
-		protected LongWritable getSourceVertexId(Triplet<Long, Long, Double> line)
-				throws IOException {
-			return new LongWritable(line.getFirst());
-		}
-
-		@Override
-		protected DoubleWritable getValue(Triplet<Long, Long, Double> line) throws IOException {
-			return new DoubleWritable(line.getThird());
-		}
+	@Override
+	protected DoubleWritable createEdgeValue() {
+		return new DoubleWritable();
+	}
 
+	@Override
+	protected void readEdgeValue(TextLineTokenizer tokenizer, DoubleWritable value) {
+		value.set(tokenizer.nextDouble());
 	}
 
 }
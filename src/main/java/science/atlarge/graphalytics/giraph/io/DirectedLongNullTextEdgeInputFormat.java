@@ -15,16 +15,7 @@
  */
 package science.atlarge.graphalytics.giraph.io;
 
-import java.io.IOException;
-import java.util.regex.Pattern;
-
-import org.apache.giraph.io.EdgeReader;
-import org.apache.giraph.io.formats.TextEdgeInputFormat;
-import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.NullWritable;
-import org.apache.hadoop.io.Text;
-import org.apache.hadoop.mapreduce.InputSplit;
-import org.apache.hadoop.mapreduce.TaskAttemptContext;
 
 /**
  * Input format for edge-based directed graphs. Inspired by IntNullTextEdgeInputFormat
@@ -32,43 +23,16 @@ import org.apache.hadoop.mapreduce.TaskAttemptContext;
  *
  * @author Tim Hegeman
  */
-public class DirectedLongNullTextEdgeInputFormat extends TextEdgeInputFormat<LongWritable, NullWritable> {
-
-	private static final Pattern SEPARATOR = Pattern.compile(" ");
+public class DirectedLongNullTextEdgeInputFormat extends LongTextEdgeInputFormat<NullWritable> {
 
 	@Override
-	public EdgeReader<LongWritable, NullWritable> createEdgeReader(
-			InputSplit split, TaskAttemptContext context) throws IOException {
-		return new LongNullEdgeReader();
+	protected boolean isUndirected() {
+		return false;
 	}
 
-	private class LongNullEdgeReader extends TextEdgeReaderFromEachLineProcessed<Triplet<Long, Long, Void>> {
-
-		@Override
-		protected Triplet preprocessLine(Text line) throws IOException {
-			String[] tokens = SEPARATOR.split(line.toString());
-			long source = Long.parseLong(tokens[0]);
-			long destination = Long.parseLong(tokens[1]);
-			return new Triplet<Long, Long, Void>(source, destination, null);
-		}
-
-		@Override
-		protected LongWritable getTargetVertexId(Triplet<Long, Long, Void> line)
-				throws IOException {
-			return new LongWritable(line.getSecond());
-		}
-
-		@Override
-		protected LongWritable getSourceVertexId(Triplet<Long, Long, Void> line)
-				throws IOException {
-			return new LongWritable(line.getFirst());
-		}
-
-		@Override
-		protected NullWritable getValue(Triplet<Long, Long, Void> line) throws IOException {
-			return NullWritable.get();
-		}
-
+	@Override
+	protected NullWritable createEdgeValue() {
+		return NullWritable.get();
 	}
 
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.io.formats.IdWithValueTextOutputFormat;
+import org.apache.giraph.io.formats.TextVertexOutputFormat;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Output format for vertices with long IDs, producing the same output as Giraph's {@link IdWithValueTextOutputFormat}:
+ * one line per vertex, containing the vertex ID and value separated by the configured delimiter. Lines are formatted
+ * directly into a reused byte buffer, which is written to the output file when full. Long values, and double values
+ * that are integral or infinite, are formatted without creating any objects; other values are formatted using their
+ * {@link Object#toString()} method.
+ */
+public class LongIdWithValueTextOutputFormat extends TextVertexOutputFormat<LongWritable, Writable, Writable> {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/**
+	 * The largest magnitude below which Double.toString formats integral values as plain digits followed by ".0".
+	 */
+	private static final double MAX_PLAIN_DOUBLE = 1e7;
+	private static final byte[] POSITIVE_INFINITY = "Infinity".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] NEGATIVE_INFINITY = "-Infinity".getBytes(StandardCharsets.US_ASCII);
+
+	@Override
+	public TextVertexWriter createVertexWriter(TaskAttemptContext context)
+			throws IOException, InterruptedException {
+		return new LongIdWithValueWriter();
+	}
+
+	private class LongIdWithValueWriter extends TextVertexWriter {
+
+		private FSDataOutputStream out;
+		private byte[] delimiter;
+		private byte[] buffer = new byte[BUFFER_SIZE];
+		private int position = 0;
+
+		@Override
+		public void initialize(TaskAttemptContext context) throws IOException, InterruptedException {
+			Path file = textOutputFormat.getDefaultWorkFile(context, "");
+			out = file.getFileSystem(context.getConfiguration()).create(file, false);
+			delimiter = getConf().get(IdWithValueTextOutputFormat.LINE_TOKENIZE_VALUE,
+					IdWithValueTextOutputFormat.LINE_TOKENIZE_VALUE_DEFAULT).getBytes(StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public void writeVertex(Vertex<LongWritable, Writable, Writable> vertex)
+				throws IOException, InterruptedException {
+			// Room for the ID, delimiter, a formatted long or double, and the line separator
+			ensureCapacity(64 + delimiter.length);
+			writeLong(vertex.getId().get());
+			System.arraycopy(delimiter, 0, buffer, position, delimiter.length);
+			position += delimiter.length;
+
+			Writable value = vertex.getValue();
+			if (value instanceof LongWritable) {
+				writeLong(((LongWritable)value).get());
+			} else if (value instanceof DoubleWritable) {
+				writeDouble(((DoubleWritable)value).get());
+			} else {
+				writeString(value.toString());
+			}
+			buffer[position++] = '\n';
+		}
+
+		@Override
+		public void close(TaskAttemptContext context) throws IOException, InterruptedException {
+			flush();
+			out.close();
+		}
+
+		private void ensureCapacity(int length) throws IOException {
+			if (buffer.length - position < length) {
+				flush();
+				if (buffer.length < length) {
+					buffer = new byte[Math.max(length, buffer.length * 2)];
+				}
+			}
+		}
+
+		private void flush() throws IOException {
+			out.write(buffer, 0, position);
+			position = 0;
+		}
+
+		private void writeLong(long value) {
+			if (value == Long.MIN_VALUE) {
+				writeAscii(Long.toString(value));
+				return;
+			}
+			if (value < 0) {
+				buffer[position++] = '-';
+				value = -value;
+			}
+
+			// Write the digits from right to left
+			int digits = 1;
+			for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+				digits++;
+			}
+			int end = position + digits;
+			for (int i = end - 1; i >= position; i--) {
+				buffer[i] = (byte)('0' + value % 10);
+				value /= 10;
+			}
+			position = end;
+		}
+
+		private void writeDouble(double value) throws IOException {
+			if (value == Double.POSITIVE_INFINITY) {
+				writeBytes(POSITIVE_INFINITY);
+			} else if (value == Double.NEGATIVE_INFINITY) {
+				writeBytes(NEGATIVE_INFINITY);
+			} else if (value == Math.rint(value) && Math.abs(value) < MAX_PLAIN_DOUBLE &&
+					(value != 0.0 || 1.0 / value > 0)) {
+				// Integral values (except negative zero) are formatted as by Double.toString
+				writeLong((long)value);
+				buffer[position++] = '.';
+				buffer[position++] = '0';
+			} else {
+				writeAscii(Double.toString(value));
+			}
+		}
+
+		private void writeBytes(byte[] bytes) {
+			System.arraycopy(bytes, 0, buffer, position, bytes.length);
+			position += bytes.length;
+		}
+
+		private void writeAscii(String value) {
+			// Only used for numbers, which fit in the space reserved per line
+			for (int i = 0; i < value.length(); i++) {
+				buffer[position++] = (byte)value.charAt(i);
+			}
+		}
+
+		private void writeString(String value) throws IOException {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			ensureCapacity(bytes.length + 1);
+			writeBytes(bytes);
+		}
+
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.io.EdgeReader;
+import org.apache.giraph.io.formats.TextEdgeInputFormat;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+import java.io.IOException;
+
+/**
+ * Common base for the text edge input formats of graphs with long vertex IDs. Each line contains a source vertex ID,
+ * a destination vertex ID, and optionally an edge value, separated by spaces or tabs. Lines are parsed directly from
+ * the bytes of the input using a {@link TextLineTokenizer}, and the returned vertex IDs and edges are reused between
+ * calls (Giraph serializes each edge before the next one is read). For undirected graphs every line is returned as
+ * two edges, one in each direction.
+ *
+ * @param <E> edge value type
+ */
+public abstract class LongTextEdgeInputFormat<E extends Writable> extends TextEdgeInputFormat<LongWritable, E> {
+
+	@Override
+	public EdgeReader<LongWritable, E> createEdgeReader(InputSplit split, TaskAttemptContext context)
+			throws IOException {
+		return new LongEdgeReader();
+	}
+
+	/**
+	 * @return true iff every edge should also be returned in the reverse direction
+	 */
+	protected abstract boolean isUndirected();
+
+	/**
+	 * @return a new edge value object, to be reused for all edges read by a single reader
+	 */
+	protected abstract E createEdgeValue();
+
+	/**
+	 * Hook to parse the value of an edge from the remainder of its line. The default implementation ignores the
+	 * remainder of the line.
+	 *
+	 * @param tokenizer the tokenizer, positioned after the destination vertex ID
+	 * @param value     the edge value object to update
+	 */
+	protected void readEdgeValue(TextLineTokenizer tokenizer, E value) {
+	}
+
+	/**
+	 * Hook to record the direction of an edge in its value, called before every edge is returned. The default
+	 * implementation does nothing.
+	 *
+	 * @param value    the edge value object to update
+	 * @param reversed true iff the edge is the reverse of an edge in the input
+	 */
+	protected void setEdgeDirection(E value, boolean reversed) {
+	}
+
+	private class LongEdgeReader extends TextEdgeReader {
+
+		private final TextLineTokenizer tokenizer = new TextLineTokenizer();
+		private final boolean undirected = isUndirected();
+		private final LongWritable sourceId = new LongWritable();
+		private final LongWritable targetId = new LongWritable();
+		private final E value = createEdgeValue();
+		private final Edge<LongWritable, E> edge = EdgeFactory.create(targetId, value);
+
+		private boolean outputBackwards = true;
+		private long first;
+		private long second;
+
+		@Override
+		public boolean nextEdge() throws IOException, InterruptedException {
+			if (undirected && !outputBackwards) {
+				outputBackwards = true;
+				sourceId.set(second);
+				targetId.set(first);
+				setEdgeDirection(value, true);
+				return true;
+			}
+
+			if (!getRecordReader().nextKeyValue()) {
+				return false;
+			}
+
+			tokenizer.reset(getRecordReader().getCurrentValue());
+			first = tokenizer.nextLong();
+			second = tokenizer.nextLong();
+			readEdgeValue(tokenizer, value);
+			outputBackwards = false;
+			sourceId.set(first);
+			targetId.set(second);
+			setEdgeDirection(value, false);
+			return true;
+		}
+
+		@Override
+		public LongWritable getCurrentSourceId() throws IOException, InterruptedException {
+			return sourceId;
+		}
+
+		@Override
+		public Edge<LongWritable, E> getCurrentEdge() throws IOException, InterruptedException {
+			return edge;
+		}
+
+	}
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import org.apache.hadoop.io.BooleanWritable;
+
+/**
+ * Input format for directed graphs that are processed as undirected graphs. Every edge is returned in both
+ * directions, like {@link UndirectedLongNullTextEdgeInputFormat}, with a value of true for the edge as it appears in
+ * the input and false for its reverse. A pair of opposite edges in the input thus results in two edges between the
+ * same vertices in either direction, one of each value.
+ */
+public class SymmetrizedLongBooleanTextEdgeInputFormat extends LongTextEdgeInputFormat<BooleanWritable> {
+
+	@Override
+	protected boolean isUndirected() {
+		return true;
+	}
+
+	@Override
+	protected BooleanWritable createEdgeValue() {
+		return new BooleanWritable(true);
+	}
+
+	@Override
+	protected void setEdgeDirection(BooleanWritable value, boolean reversed) {
+		value.set(!reversed);
+	}
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import org.apache.hadoop.io.Text;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits a line of text into space- or tab-separated tokens and parses them as numbers, directly from the UTF-8 bytes
+ * backing a {@link Text} object. Unlike {@code String.split} followed by {@code Long.parseLong}, this does not
+ * allocate any objects for the common case of plain integers and decimal numbers. A single tokenizer can be reused
+ * for any number of lines.
+ */
+public class TextLineTokenizer {
+
+	/**
+	 * Powers of ten that are exactly representable as a double.
+	 */
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	/**
+	 * Maximum number of significant digits for which the mantissa of a decimal number is exactly representable.
+	 */
+	private static final int MAX_EXACT_DIGITS = 15;
+
+	private byte[] bytes = new byte[0];
+	private int length;
+	private int position;
+
+	/**
+	 * @param line the line to tokenize
+	 */
+	public void reset(Text line) {
+		reset(line.getBytes(), line.getLength());
+	}
+
+	/**
+	 * @param bytes  buffer containing the line to tokenize
+	 * @param length the length of the line in the buffer
+	 */
+	public void reset(byte[] bytes, int length) {
+		this.bytes = bytes;
+		this.length = length;
+		this.position = 0;
+	}
+
+	/**
+	 * @return true iff there is at least one more token on the current line
+	 */
+	public boolean hasNext() {
+		skipSeparators();
+		return position < length;
+	}
+
+	/**
+	 * Parses the next token as a long, with the same semantics as {@link Long#parseLong(String)}.
+	 *
+	 * @return the parsed value
+	 * @throws NumberFormatException if there is no next token, or it is not a valid long
+	 */
+	public long nextLong() {
+		int start = nextTokenStart();
+		int end = tokenEnd(start);
+		position = end;
+
+		int i = start;
+		boolean negative = false;
+		if (bytes[i] == '-' || bytes[i] == '+') {
+			negative = bytes[i] == '-';
+			i++;
+		}
+		if (i == end) {
+			throw invalidToken(start, end);
+		}
+
+		// Accumulate negatively to be able to represent Long.MIN_VALUE, following Long.parseLong
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long multiplicationLimit = limit / 10;
+		long result = 0;
+		for (; i < end; i++) {
+			int digit = bytes[i] - '0';
+			if (digit < 0 || digit > 9 || result < multiplicationLimit) {
+				throw invalidToken(start, end);
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				throw invalidToken(start, end);
+			}
+			result -= digit;
+		}
+		return negative ? result : -result;
+	}
+
+	/**
+	 * Parses the next token as a double, with the same semantics as {@link Double#parseDouble(String)}. Decimal
+	 * numbers with at most 15 significant digits and a small exponent are parsed directly; all other inputs fall back
+	 * to {@link Double#parseDouble(String)}.
+	 *
+	 * @return the parsed value
+	 * @throws NumberFormatException if there is no next token, or it is not a valid double
+	 */
+	public double nextDouble() {
+		int start = nextTokenStart();
+		int end = tokenEnd(start);
+		position = end;
+
+		int i = start;
+		boolean negative = false;
+		if (bytes[i] == '-' || bytes[i] == '+') {
+			negative = bytes[i] == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int significantDigits = 0;
+		int exponent = 0;
+		boolean anyDigits = false;
+		boolean seenPoint = false;
+		for (; i < end; i++) {
+			byte b = bytes[i];
+			if (b >= '0' && b <= '9') {
+				anyDigits = true;
+				if (mantissa != 0 || b != '0') {
+					significantDigits++;
+				}
+				if (significantDigits > MAX_EXACT_DIGITS) {
+					return parseDoubleSlow(start, end);
+				}
+				mantissa = mantissa * 10 + (b - '0');
+				if (seenPoint) {
+					exponent--;
+				}
+			} else if (b == '.' && !seenPoint) {
+				seenPoint = true;
+			} else {
+				break;
+			}
+		}
+		if (!anyDigits) {
+			return parseDoubleSlow(start, end);
+		}
+
+		if (i < end) {
+			// Only a simple integer exponent is supported on the fast path
+			if (bytes[i] != 'e' && bytes[i] != 'E') {
+				return parseDoubleSlow(start, end);
+			}
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+				negativeExponent = bytes[i] == '-';
+				i++;
+			}
+			if (i == end || end - i > 3) {
+				return parseDoubleSlow(start, end);
+			}
+			int explicitExponent = 0;
+			for (; i < end; i++) {
+				int digit = bytes[i] - '0';
+				if (digit < 0 || digit > 9) {
+					return parseDoubleSlow(start, end);
+				}
+				explicitExponent = explicitExponent * 10 + digit;
+			}
+			exponent += negativeExponent ? -explicitExponent : explicitExponent;
+		}
+
+		// Both the mantissa and the power of ten are exact, so a single operation rounds correctly
+		double value;
+		if (mantissa == 0) {
+			value = 0.0;
+		} else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+			value = mantissa * POWERS_OF_TEN[exponent];
+		} else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+			value = mantissa / POWERS_OF_TEN[-exponent];
+		} else {
+			return parseDoubleSlow(start, end);
+		}
+		return negative ? -value : value;
+	}
+
+	private double parseDoubleSlow(int start, int end) {
+		return Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+	}
+
+	private int nextTokenStart() {
+		skipSeparators();
+		if (position >= length) {
+			throw new NumberFormatException("Expected another token in line: \"" +
+					new String(bytes, 0, length, StandardCharsets.UTF_8) + "\"");
+		}
+		return position;
+	}
+
+	private int tokenEnd(int start) {
+		int end = start;
+		while (end < length && !isSeparator(bytes[end])) {
+			end++;
+		}
+		return end;
+	}
+
+	private void skipSeparators() {
+		while (position < length && isSeparator(bytes[position])) {
+			position++;
+		}
+	}
+
+	private static boolean isSeparator(byte b) {
+		return b == ' ' || b == '\t' || b == '\r';
+	}
+
+	private NumberFormatException invalidToken(int start, int end) {
+		return new NumberFormatException("For input string: \"" +
+				new String(bytes, start, end - start, StandardCharsets.UTF_8) + "\"");
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Utility methods for reading and writing zig-zag encoded variable-length longs, and for storing (sorted) lists of
+ * longs as a sequence of such encoded deltas. Small deltas, as found between consecutive vertex IDs in a sorted
+ * adjacency list, take one or two bytes instead of eight.
+ */
+public final class VarLongEncoding {
+
+	private VarLongEncoding() {
+	}
+
+	/**
+	 * Writes a single long using a zig-zag encoded, 7-bits-per-byte variable length encoding.
+	 *
+	 * @param out   the output to write to
+	 * @param value the value to write
+	 * @throws IOException if the output could not be written to
+	 */
+	public static void writeVarLong(DataOutput out, long value) throws IOException {
+		long zigZag = (value << 1) ^ (value >> 63);
+		while ((zigZag & ~0x7FL) != 0) {
+			out.writeByte((int)((zigZag & 0x7F) | 0x80));
+			zigZag >>>= 7;
+		}
+		out.writeByte((int)zigZag);
+	}
+
+	/**
+	 * Reads a single long written by {@link #writeVarLong(DataOutput, long)}.
+	 *
+	 * @param in the input to read from
+	 * @return the decoded value
+	 * @throws IOException if the input could not be read, or does not contain a valid encoded long
+	 */
+	public static long readVarLong(DataInput in) throws IOException {
+		long zigZag = 0;
+		int shift = 0;
+		byte b;
+		do {
+			if (shift > 63) {
+				throw new IOException("Malformed variable length long");
+			}
+			b = in.readByte();
+			zigZag |= (long)(b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return (zigZag >>> 1) ^ -(zigZag & 1);
+	}
+
+	/**
+	 * Writes a list of longs as deltas between consecutive values, starting from zero. The encoding is most compact
+	 * for sorted lists, but any ordering is supported.
+	 *
+	 * @param out    the output to write to
+	 * @param values the array containing the values to write
+	 * @param offset the index of the first value to write
+	 * @param length the number of values to write
+	 * @throws IOException if the output could not be written to
+	 */
+	public static void writeDeltas(DataOutput out, long[] values, int offset, int length) throws IOException {
+		long previous = 0;
+		for (int i = offset; i < offset + length; i++) {
+			writeVarLong(out, values[i] - previous);
+			previous = values[i];
+		}
+	}
+
+	/**
+	 * Reads a list of longs written by {@link #writeDeltas(DataOutput, long[], int, int)} into an existing array.
+	 *
+	 * @param in     the input to read from
+	 * @param values the array to store the decoded values in
+	 * @param offset the index at which to store the first value
+	 * @param length the number of values to read
+	 * @throws IOException if the input could not be read
+	 */
+	public static void readDeltas(DataInput in, long[] values, int offset, int length) throws IOException {
+		long previous = 0;
+		for (int i = offset; i < offset + length; i++) {
+			previous += readVarLong(in);
+			values[i] = previous;
+		}
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.metrics;
+
+/**
+ * Metrics of a single superstep of a Giraph job, as recorded in the superstep metrics file of a benchmark run. Every
+ * superstep is stored as one comma-separated line.
+ */
+public final class SuperstepMetrics {
+
+	/**
+	 * Header line of the superstep metrics file.
+	 */
+	public static final String HEADER = "superstep,time-ms,vertices,edges,active-vertices,messages-sent," +
+			"message-bytes-sent,slowest-worker,slowest-worker-compute-and-flush-ms";
+
+	private static final String SEPARATOR = ",";
+	private static final int FIELD_COUNT = 9;
+
+	private final long superstep;
+	private final long timeMillis;
+	private final long vertices;
+	private final long edges;
+	private final long activeVertices;
+	private final long messagesSent;
+	private final long messageBytesSent;
+	private final String slowestWorker;
+	private final long slowestWorkerMillis;
+
+	/**
+	 * @param superstep           the superstep number, or -1 for the input superstep
+	 * @param timeMillis          the duration of the superstep as measured by the master
+	 * @param vertices            the number of vertices in the graph after the superstep
+	 * @param edges               the number of edges in the graph after the superstep
+	 * @param activeVertices      the number of vertices that did not vote to halt in the superstep
+	 * @param messagesSent        the number of messages sent in the superstep
+	 * @param messageBytesSent    the number of bytes of messages sent in the superstep
+	 * @param slowestWorker       the worker that spent the most time computing and flushing messages in the superstep,
+	 *                            or an empty string if unknown
+	 * @param slowestWorkerMillis the time spent computing and flushing messages by the slowest worker
+	 */
+	public SuperstepMetrics(long superstep, long timeMillis, long vertices, long edges, long activeVertices,
+			long messagesSent, long messageBytesSent, String slowestWorker, long slowestWorkerMillis) {
+		this.superstep = superstep;
+		this.timeMillis = timeMillis;
+		this.vertices = vertices;
+		this.edges = edges;
+		this.activeVertices = activeVertices;
+		this.messagesSent = messagesSent;
+		this.messageBytesSent = messageBytesSent;
+		this.slowestWorker = slowestWorker;
+		this.slowestWorkerMillis = slowestWorkerMillis;
+	}
+
+	/**
+	 * Parses a line of the superstep metrics file.
+	 *
+	 * @param line a line of the superstep metrics file, excluding the header
+	 * @return the parsed metrics
+	 * @throws IllegalArgumentException if the line is malformed
+	 */
+	public static SuperstepMetrics parse(String line) {
+		String[] fields = line.split(SEPARATOR, -1);
+		if (fields.length != FIELD_COUNT) {
+			throw new IllegalArgumentException("Malformed superstep metrics: " + line);
+		}
+		try {
+			return new SuperstepMetrics(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+					Long.parseLong(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4]),
+					Long.parseLong(fields[5]), Long.parseLong(fields[6]), fields[7], Long.parseLong(fields[8]));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Malformed superstep metrics: " + line, e);
+		}
+	}
+
+	/**
+	 * @return the metrics formatted as a line of the superstep metrics file, without line separator
+	 */
+	public String toLine() {
+		return superstep + SEPARATOR + timeMillis + SEPARATOR + vertices + SEPARATOR + edges + SEPARATOR +
+				activeVertices + SEPARATOR + messagesSent + SEPARATOR + messageBytesSent + SEPARATOR + slowestWorker +
+				SEPARATOR + slowestWorkerMillis;
+	}
+
+	public long getSuperstep() {
+		return superstep;
+	}
+
+	public long getTimeMillis() {
+		return timeMillis;
+	}
+
+	public long getVertices() {
+		return vertices;
+	}
+
+	public long getEdges() {
+		return edges;
+	}
+
+	public long getActiveVertices() {
+		return activeVertices;
+	}
+
+	public long getMessagesSent() {
+		return messagesSent;
+	}
+
+	public long getMessageBytesSent() {
+		return messageBytesSent;
+	}
+
+	public String getSlowestWorker() {
+		return slowestWorker;
+	}
+
+	public long getSlowestWorkerMillis() {
+		return slowestWorkerMillis;
+	}
+
+}
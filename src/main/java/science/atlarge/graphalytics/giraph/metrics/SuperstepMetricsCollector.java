@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.metrics;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Combines the superstep metrics written to HDFS by {@link SuperstepMetricsMasterObserver} and
+ * {@link SuperstepMetricsWorkerObserver} into a local superstep metrics file, which can be read with
+ * {@link SuperstepMetricsReader}, and a local worker metrics file with the time every worker spent computing and
+ * flushing messages, and waiting at the barrier, in every superstep. Both files are in CSV format.
+ */
+public final class SuperstepMetricsCollector {
+
+	/**
+	 * Name of the file in the metrics directory that is written by the master.
+	 */
+	static final String MASTER_FILE = "master";
+	/**
+	 * Prefix of the files in the metrics directory that are written by the workers, followed by the task partition.
+	 */
+	static final String WORKER_FILE_PREFIX = "worker-";
+	/**
+	 * Header line of the worker metrics file.
+	 */
+	public static final String WORKER_HEADER = "superstep,worker,compute-and-flush-ms,barrier-wait-ms";
+
+	private SuperstepMetricsCollector() {
+	}
+
+	/**
+	 * Reads the metrics written to a metrics directory on HDFS, and writes one line per superstep to a local
+	 * superstep metrics file and one line per superstep and worker to a local worker metrics file.
+	 *
+	 * @param fileSystem       the file system containing the metrics directory
+	 * @param metricsDirectory the metrics directory of a completed job
+	 * @param superstepFile    the local file to write the superstep metrics to
+	 * @param workerFile       the local file to write the worker metrics to
+	 * @throws IOException if the metrics could not be read or written
+	 */
+	public static void collect(FileSystem fileSystem, Path metricsDirectory, File superstepFile, File workerFile)
+			throws IOException {
+		createParentDirectory(superstepFile);
+		createParentDirectory(workerFile);
+
+		// Copy the metrics of every worker, and find the slowest worker of every superstep
+		Long2ObjectOpenHashMap<String> slowestWorkers = new Long2ObjectOpenHashMap<>();
+		Long2LongOpenHashMap slowestWorkerMillis = new Long2LongOpenHashMap();
+		slowestWorkerMillis.defaultReturnValue(-1);
+		try (Writer writer = createWriter(workerFile)) {
+			writer.write(WORKER_HEADER);
+			writer.write('\n');
+			for (FileStatus file : fileSystem.listStatus(metricsDirectory)) {
+				if (!file.getPath().getName().startsWith(WORKER_FILE_PREFIX)) {
+					continue;
+				}
+				try (BufferedReader reader = open(fileSystem, file.getPath())) {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						String[] fields = line.split("\t");
+						if (fields.length != 4) {
+							continue;
+						}
+						long superstep = Long.parseLong(fields[0]);
+						long millis = Long.parseLong(fields[2]);
+						if (millis > slowestWorkerMillis.get(superstep)) {
+							slowestWorkerMillis.put(superstep, millis);
+							slowestWorkers.put(superstep, fields[1]);
+						}
+						writer.write(fields[0] + "," + fields[1] + "," + fields[2] + "," + fields[3]);
+						writer.write('\n');
+					}
+				}
+			}
+		}
+
+		// Join the master's metrics with the slowest worker of every superstep
+		try (BufferedReader reader = open(fileSystem, new Path(metricsDirectory, MASTER_FILE));
+			 Writer writer = createWriter(superstepFile)) {
+			writer.write(SuperstepMetrics.HEADER);
+			writer.write('\n');
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t");
+				if (fields.length != 7) {
+					continue;
+				}
+				long superstep = Long.parseLong(fields[0]);
+				String slowestWorker = slowestWorkers.containsKey(superstep) ? slowestWorkers.get(superstep) : "";
+				SuperstepMetrics metrics = new SuperstepMetrics(superstep, Long.parseLong(fields[1]),
+						Long.parseLong(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4]),
+						Long.parseLong(fields[5]), Long.parseLong(fields[6]), slowestWorker,
+						Math.max(0, slowestWorkerMillis.get(superstep)));
+				writer.write(metrics.toLine());
+				writer.write('\n');
+			}
+		}
+	}
+
+	static void writeLines(Configuration configuration, Path file, List<String> lines) throws IOException {
+		FileSystem fileSystem = file.getFileSystem(configuration);
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(fileSystem.create(file, true),
+				StandardCharsets.UTF_8))) {
+			for (String line : lines) {
+				writer.write(line);
+				writer.write('\n');
+			}
+		}
+	}
+
+	private static void createParentDirectory(File file) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Failed to create local directory: " + parent);
+		}
+	}
+
+	private static Writer createWriter(File file) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+	}
+
+	private static BufferedReader open(FileSystem fileSystem, Path file) throws IOException {
+		return new BufferedReader(new InputStreamReader(fileSystem.open(file), StandardCharsets.UTF_8));
+	}
+
+}
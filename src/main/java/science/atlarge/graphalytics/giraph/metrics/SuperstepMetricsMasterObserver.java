@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.metrics;
+
+import org.apache.giraph.conf.DefaultImmutableClassesGiraphConfigurable;
+import org.apache.giraph.counters.GiraphStats;
+import org.apache.giraph.master.MasterObserver;
+import org.apache.hadoop.fs.Path;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import science.atlarge.graphalytics.giraph.GiraphJob;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the duration, size of the graph, number of active vertices, and number of messages sent of every superstep
+ * on the master, and writes them to the metrics directory of the job when the application completes.
+ */
+public class SuperstepMetricsMasterObserver extends DefaultImmutableClassesGiraphConfigurable
+		implements MasterObserver {
+	private static final Logger LOG = LogManager.getLogger();
+
+	private final List<String> lines = new ArrayList<>();
+	private long superstepStartMillis;
+
+	@Override
+	public void preApplication() {
+	}
+
+	@Override
+	public void preSuperstep(long superstep) {
+		superstepStartMillis = System.currentTimeMillis();
+	}
+
+	@Override
+	public void postSuperstep(long superstep) {
+		long timeMillis = System.currentTimeMillis() - superstepStartMillis;
+		// The master has updated the job statistics with the aggregated worker statistics of this superstep
+		GiraphStats stats = GiraphStats.getInstance();
+		long vertices = stats.getVertices().getValue();
+		long activeVertices = vertices - stats.getFinishedVertexes().getValue();
+		lines.add(superstep + "\t" + timeMillis + "\t" + vertices + "\t" + stats.getEdges().getValue() + "\t" +
+				activeVertices + "\t" + stats.getSentMessages().getValue() + "\t" +
+				stats.getSentMessageBytes().getValue());
+	}
+
+	@Override
+	public void postApplication() {
+		Path file = new Path(GiraphJob.METRICS_DIRECTORY.get(getConf()), SuperstepMetricsCollector.MASTER_FILE);
+		try {
+			SuperstepMetricsCollector.writeLines(getConf(), file, lines);
+		} catch (IOException e) {
+			LOG.warn("Failed to write superstep metrics to " + file, e);
+		}
+	}
+
+	@Override
+	public void applicationFailed(Exception e) {
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.metrics;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads a superstep metrics file one superstep at a time.
+ */
+public final class SuperstepMetricsReader implements Closeable {
+
+	private final BufferedReader reader;
+
+	/**
+	 * @param file the superstep metrics file to read
+	 * @throws IOException if the file could not be opened
+	 */
+	public SuperstepMetricsReader(File file) throws IOException {
+		this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @return the metrics of the next superstep, or null if the end of the file has been reached
+	 * @throws IOException if the file could not be read or is malformed
+	 */
+	public SuperstepMetrics next() throws IOException {
+		String line;
+		do {
+			line = reader.readLine();
+			if (line == null) {
+				return null;
+			}
+		} while (line.isEmpty() || line.equals(SuperstepMetrics.HEADER));
+
+		try {
+			return SuperstepMetrics.parse(line);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.metrics;
+
+import org.apache.giraph.conf.DefaultImmutableClassesGiraphConfigurable;
+import org.apache.giraph.worker.WorkerObserver;
+import org.apache.hadoop.fs.Path;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import science.atlarge.graphalytics.giraph.GiraphJob;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the time every worker spends in each superstep, and writes it to the metrics directory of the job when the
+ * application completes. Giraph notifies worker observers of the end of a superstep after the worker has processed all
+ * of its partitions and has waited for its outgoing messages to be delivered, but before it enters the barrier. The
+ * first time recorded therefore runs from the start of the superstep until all messages have been flushed, and the
+ * slowest worker by this measure is the one that determines the duration of the superstep. The second time runs from
+ * then until the next superstep starts, and covers waiting at the barrier for the other workers and the setup of the
+ * next superstep.
+ */
+public class SuperstepMetricsWorkerObserver extends DefaultImmutableClassesGiraphConfigurable
+		implements WorkerObserver {
+	private static final Logger LOG = LogManager.getLogger();
+
+	private final List<String> lines = new ArrayList<>();
+	private String workerName;
+	private long superstepStartMillis;
+	private long flushEndMillis;
+	private long lastSuperstep;
+	private long lastComputeAndFlushMillis;
+	private boolean pendingSuperstep = false;
+
+	@Override
+	public void preApplication() {
+		String hostName;
+		try {
+			hostName = InetAddress.getLocalHost().getHostName();
+		} catch (IOException e) {
+			hostName = "unknown";
+		}
+		workerName = hostName + "/" + getConf().getTaskPartition();
+	}
+
+	@Override
+	public void preSuperstep(long superstep) {
+		superstepStartMillis = System.currentTimeMillis();
+		completePendingSuperstep(superstepStartMillis);
+	}
+
+	@Override
+	public void postSuperstep(long superstep) {
+		flushEndMillis = System.currentTimeMillis();
+		// The barrier wait of this superstep is known once the next superstep starts
+		lastSuperstep = superstep;
+		lastComputeAndFlushMillis = flushEndMillis - superstepStartMillis;
+		pendingSuperstep = true;
+	}
+
+	@Override
+	public void postApplication() {
+		completePendingSuperstep(System.currentTimeMillis());
+
+		Path file = new Path(GiraphJob.METRICS_DIRECTORY.get(getConf()),
+				SuperstepMetricsCollector.WORKER_FILE_PREFIX + getConf().getTaskPartition());
+		try {
+			SuperstepMetricsCollector.writeLines(getConf(), file, lines);
+		} catch (IOException e) {
+			LOG.warn("Failed to write superstep metrics to " + file, e);
+		}
+	}
+
+	@Override
+	public void applicationFailed(Exception e) {
+	}
+
+	private void completePendingSuperstep(long nowMillis) {
+		if (pendingSuperstep) {
+			lines.add(lastSuperstep + "\t" + workerName + "\t" + lastComputeAndFlushMillis + "\t" +
+					(nowMillis - flushEndMillis));
+			pendingSuperstep = false;
+		}
+	}
+
+}
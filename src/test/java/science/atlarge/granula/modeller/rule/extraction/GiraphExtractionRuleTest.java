@@ -0,0 +1,194 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.granula.modeller.rule.extraction;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import science.atlarge.granula.modeller.source.log.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Extracts Granula and Grade10 records from logs with {@link GiraphExtractionRule}, covering the line endings and
+ * attribute forms that the byte-level scanner has to handle.
+ */
+public class GiraphExtractionRuleTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testCrLfLineEndings() throws IOException {
+        List<Log> logs = extract("noise\r\nGRANULA InfoName:A InfoValue:1\r\nGRANULA InfoName:B InfoValue:2\r\n");
+
+        assertEquals(2, logs.size());
+        assertEquals("1", logs.get(0).getInfoValue("InfoValue"));
+        assertEquals("2", logs.get(1).getInfoValue("InfoValue"));
+    }
+
+    @Test
+    public void testCarriageReturnLineEndings() throws IOException {
+        List<Log> logs = extract("noise\rGRANULA InfoName:A InfoValue:1\rGRANULA InfoName:B InfoValue:2\r");
+
+        assertEquals(2, logs.size());
+        assertEquals("A", logs.get(0).getInfoValue("InfoName"));
+        assertEquals("B", logs.get(1).getInfoValue("InfoName"));
+    }
+
+    @Test
+    public void testLastLineWithoutLineSeparator() throws IOException {
+        List<Log> logs = extract("noise\nGRANULA InfoName:A InfoValue:1");
+
+        assertEquals(1, logs.size());
+        assertEquals("1", logs.get(0).getInfoValue("InfoValue"));
+    }
+
+    @Test
+    public void testLineLongerThanBuffer() throws IOException {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            log.append("short line ").append(i).append('\n');
+        }
+        for (int i = 0; i < 200 * 1024; i++) {
+            log.append('x');
+        }
+        log.append(" GRANULA InfoName:Long InfoValue:1\n");
+        for (int i = 0; i < 1000; i++) {
+            log.append("short line ").append(i).append('\n');
+        }
+        log.append("GRANULA InfoName:Short InfoValue:2\n");
+
+        List<Log> logs = extract(log.toString());
+
+        assertEquals(2, logs.size());
+        assertEquals("Long", logs.get(0).getInfoValue("InfoName"));
+        assertEquals("Short", logs.get(1).getInfoValue("InfoName"));
+    }
+
+    @Test
+    public void testGranulaTakesPrecedenceOverOperationLog() throws IOException {
+        List<Log> logs = extract("OperationLog ComputeThread event=start time=12 worker=3 superstep=4 " +
+                "thread=compute-5 GRANULA InfoName:A InfoValue:1\n");
+
+        assertEquals(1, logs.size());
+        assertEquals("A", logs.get(0).getInfoValue("InfoName"));
+    }
+
+    @Test
+    public void testOperationLog() throws IOException {
+        List<Log> logs = extract("OperationLog ComputeThread event=start time=12 worker=3 superstep=4 " +
+                "thread=compute-5\n");
+
+        assertEquals(1, logs.size());
+        assertEquals("StartTime", logs.get(0).getInfoValue("InfoName"));
+        assertEquals("12", logs.get(0).getInfoValue("InfoValue"));
+        assertEquals("3-5", logs.get(0).getInfoValue("ActorId"));
+        assertEquals("4", logs.get(0).getInfoValue("MissionId"));
+    }
+
+    @Test
+    public void testGranulaWithoutRecord() throws IOException {
+        List<Log> logs = extract("GRANULA\nnoGRANULA-InfoName:A\nGRANULA InfoName:B\n");
+
+        assertEquals(1, logs.size());
+        assertEquals("B", logs.get(0).getInfoValue("InfoName"));
+    }
+
+    @Test
+    public void testBareSeparator() throws IOException {
+        List<Log> logs = extract("GRANULA InfoName:A :: InfoValue:1\n");
+
+        assertEquals(1, logs.size());
+        assertEquals("A", logs.get(0).getInfoValue("InfoName"));
+        assertEquals("1", logs.get(0).getInfoValue("InfoValue"));
+    }
+
+    @Test
+    public void testValueWithSeparator() throws IOException {
+        List<Log> logs = extract("GRANULA InfoName:a:b:c InfoValue:1\n");
+
+        assertEquals(1, logs.size());
+        assertEquals("", logs.get(0).getInfoValue("InfoName"));
+        assertEquals("1", logs.get(0).getInfoValue("InfoValue"));
+    }
+
+    @Test
+    public void testEscapedValue() throws IOException {
+        List<Log> logs = extract("GRANULA InfoName:A InfoValue:host[COLON]8080[SPACE]up\n");
+
+        assertEquals(1, logs.size());
+        assertEquals("host:8080 up", logs.get(0).getInfoValue("InfoValue"));
+    }
+
+    @Test
+    public void testExtractLogFromFiles() throws IOException {
+        int linesPerFile = 5000;
+        List<File> files = new ArrayList<>();
+        Set<String> expectedValues = new HashSet<>();
+        for (String name : Arrays.asList("first", "second")) {
+            StringBuilder log = new StringBuilder();
+            for (int i = 0; i < linesPerFile; i++) {
+                log.append("noise ").append(i).append('\n');
+                log.append("GRANULA InfoName:").append(name).append(" InfoValue:").append(i).append('\n');
+                expectedValues.add(name + "-" + i);
+            }
+            File file = temporaryFolder.newFile(name + ".log");
+            Files.write(file.toPath(), log.toString().getBytes(Charset.defaultCharset()));
+            files.add(file);
+        }
+
+        final List<Log> logs = Collections.synchronizedList(new ArrayList<Log>());
+        new GiraphExtractionRule(1).extractLogFromFiles(files, new GiraphExtractionRule.LogSink() {
+            @Override
+            public void accept(Log log) {
+                logs.add(log);
+            }
+        }, 2);
+
+        Set<String> values = new HashSet<>();
+        for (Log log : logs) {
+            values.add(log.getInfoValue("InfoName") + "-" + log.getInfoValue("InfoValue"));
+        }
+        assertEquals(2 * linesPerFile, logs.size());
+        assertEquals(expectedValues, values);
+    }
+
+    private static List<Log> extract(String log) throws IOException {
+        final List<Log> logs = new ArrayList<>();
+        new GiraphExtractionRule(1).extractLogFromInputStream(
+                new ByteArrayInputStream(log.getBytes(Charset.defaultCharset())), new GiraphExtractionRule.LogSink() {
+                    @Override
+                    public void accept(Log log) {
+                        logs.add(log);
+                    }
+                });
+        return logs;
+    }
+
+}
@@ -76,4 +76,29 @@ public class GiraphTestGraphLoader {
 				new DefaultWritableConverter<>(vertexValue),
 				new DefaultWritableConverter<>(edgeValue));
 	}
+
+	/**
+	 * Creates a graph in which every edge of the input also appears in reverse, as read by an edge input format that
+	 * symmetrizes a directed graph.
+	 */
+	public static <V extends Writable, E extends Writable> TestGraph<LongWritable, V, E> createSymmetrizedGraph(
+			GiraphConfiguration configuration, GraphStructure input, V vertexValue, E edgeValue, E reverseEdgeValue) {
+		PropertyGraph<Void, Void> propertyGraph = input.toPropertyGraph();
+		TestGraph<LongWritable, V, E> graph = createPropertyGraph(
+				configuration,
+				propertyGraph,
+				new DefaultWritableConverter<>(vertexValue),
+				new DefaultWritableConverter<>(edgeValue));
+
+		for (PropertyGraph<Void, Void>.Vertex v: propertyGraph.getVertices()) {
+			for (PropertyGraph<Void, Void>.Edge e: v.getOutgoingEdges()) {
+				graph.addEdge(
+						new LongWritable(e.getDestinationVertex().getId()),
+						new LongWritable(e.getSourceVertex().getId()),
+						reverseEdgeValue);
+			}
+		}
+
+		return graph;
+	}
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import science.atlarge.graphalytics.giraph.io.BinaryIdWithValueOutputFormat;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Merges unsorted part files on the local file system with {@link HdfsOutputMerger}, using runs small enough to
+ * force several spills per part and several merge passes.
+ */
+public class HdfsOutputMergerTest {
+
+	private static final int PARTS = 5;
+	private static final int LINES_PER_PART = 2000;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testMergeIsGloballySorted() throws Exception {
+		File source = temporaryFolder.newFolder("output");
+		Random random = new Random(42);
+		List<String> expectedLines = new ArrayList<>();
+
+		for (int part = 0; part < PARTS; part++) {
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(source,
+					String.format("part-m-%05d", part))), StandardCharsets.UTF_8)) {
+				for (int i = 0; i < LINES_PER_PART; i++) {
+					long id = randomId(random);
+					String line = id + " " + random.nextInt(100);
+					writer.write(line);
+					writer.write('\n');
+					expectedLines.add(line);
+				}
+			}
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(source, "part-m-binary")))) {
+			out.writeInt(BinaryIdWithValueOutputFormat.MAGIC);
+			out.writeUTF("org.apache.hadoop.io.LongWritable");
+			out.writeUTF(" ");
+			for (int i = 0; i < LINES_PER_PART; i++) {
+				long id = randomId(random);
+				long value = random.nextLong();
+				out.writeLong(id);
+				out.writeLong(value);
+				expectedLines.add(id + " " + value);
+			}
+		}
+
+		// Marker and hidden files are not part of the output
+		Files.write(new File(source, "_SUCCESS").toPath(), new byte[0]);
+		Files.write(new File(source, ".hidden").toPath(), "not output".getBytes(StandardCharsets.UTF_8));
+
+		File destination = new File(temporaryFolder.newFolder("merged"), "output.txt");
+		FileSystem fileSystem = FileSystem.getLocal(new Configuration());
+		HdfsOutputMerger merger = new HdfsOutputMerger(fileSystem, 3, 4096, 3);
+		merger.merge(new Path(source.getAbsolutePath()), destination);
+		assertTrue("Runs over the memory budget were not spilled", merger.getSpilledRunCount() > PARTS);
+
+		List<String> mergedLines = Files.readAllLines(destination.toPath(), StandardCharsets.UTF_8);
+		long previousId = Long.MIN_VALUE;
+		for (String line : mergedLines) {
+			long id = Long.parseLong(line.substring(0, line.indexOf(' ')));
+			assertTrue("Output is not sorted at vertex " + id, id >= previousId);
+			previousId = id;
+		}
+
+		Collections.sort(expectedLines);
+		Collections.sort(mergedLines);
+		assertEquals(expectedLines, mergedLines);
+		assertEquals("Temporary runs were not removed", 1, destination.getParentFile().list().length);
+	}
+
+	@Test
+	public void testSmallOutputIsNotSpilled() throws Exception {
+		File source = temporaryFolder.newFolder("output");
+		Files.write(new File(source, "part-m-00000").toPath(), "5 50\n-3 30\n1 10\n".getBytes(StandardCharsets.UTF_8));
+		Files.write(new File(source, "part-m-00001").toPath(), "4 40\n2 20\n".getBytes(StandardCharsets.UTF_8));
+
+		File destination = new File(temporaryFolder.newFolder("merged"), "output.txt");
+		HdfsOutputMerger merger = new HdfsOutputMerger(FileSystem.getLocal(new Configuration()), 2);
+		merger.merge(new Path(source.getAbsolutePath()), destination);
+
+		assertEquals(0, merger.getSpilledRunCount());
+		assertEquals(Arrays.asList("-3 30", "1 10", "2 20", "4 40", "5 50"),
+				Files.readAllLines(destination.toPath(), StandardCharsets.UTF_8));
+	}
+
+	@Test(expected = IOException.class)
+	public void testLineWithoutVertexId() throws Exception {
+		File source = temporaryFolder.newFolder("output");
+		Files.write(new File(source, "part-m-00000").toPath(), "1 2\nnot a vertex\n".getBytes(StandardCharsets.UTF_8));
+
+		File destination = new File(temporaryFolder.newFolder("merged"), "output.txt");
+		new HdfsOutputMerger(FileSystem.getLocal(new Configuration()), 1)
+				.merge(new Path(source.getAbsolutePath()), destination);
+	}
+
+	private static long randomId(Random random) {
+		switch (random.nextInt(4)) {
+			case 0:
+				return -random.nextInt(1000);
+			case 1:
+				return random.nextLong();
+			default:
+				return random.nextInt(100000);
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+/**
+ * Records the messages sent by a computation in the benchmark harnesses, and derives how many of them remain after
+ * combining. Vertices are assigned to a configurable number of simulated workers by the hash of their ID, like
+ * Giraph's default hash partitioning. With a combiner, at most one message per target vertex leaves each sending
+ * worker per superstep, and the receiving message store keeps a single message per target vertex.
+ *
+ * <p>Computations call {@link #record} for every message from within a single job at a time, so all state is static.
+ */
+public final class MessageTrafficRecorder {
+
+	private static int workers = 1;
+	private static long combineFromSuperstep;
+
+	private static long currentSuperstep = -1;
+	private static final LongOpenHashSet workerTargets = new LongOpenHashSet();
+	private static final LongOpenHashSet targets = new LongOpenHashSet();
+
+	private static long messages;
+	private static long combinedSentMessages;
+	private static long combinedStoredMessages;
+
+	private MessageTrafficRecorder() {
+	}
+
+	/**
+	 * Clears all recorded messages.
+	 *
+	 * @param workerCount            number of simulated workers
+	 * @param firstCombinedSuperstep first superstep in which the job uses its combiner
+	 */
+	public static synchronized void reset(int workerCount, long firstCombinedSuperstep) {
+		workers = workerCount;
+		combineFromSuperstep = firstCombinedSuperstep;
+		currentSuperstep = -1;
+		workerTargets.clear();
+		targets.clear();
+		messages = 0;
+		combinedSentMessages = 0;
+		combinedStoredMessages = 0;
+	}
+
+	/**
+	 * Records a single message.
+	 *
+	 * @param superstep the superstep in which the message is sent
+	 * @param sourceId  the ID of the sending vertex
+	 * @param targetId  the ID of the receiving vertex
+	 */
+	public static synchronized void record(long superstep, long sourceId, long targetId) {
+		if (superstep != currentSuperstep) {
+			finishSuperstep();
+			currentSuperstep = superstep;
+		}
+		messages++;
+		if (superstep < combineFromSuperstep) {
+			combinedSentMessages++;
+			combinedStoredMessages++;
+		} else {
+			workerTargets.add(targetId * workers + workerOf(sourceId));
+			targets.add(targetId);
+		}
+	}
+
+	private static int workerOf(long vertexId) {
+		int hash = (int) (vertexId ^ (vertexId >>> 32));
+		return Math.abs(hash % workers);
+	}
+
+	private static void finishSuperstep() {
+		combinedSentMessages += workerTargets.size();
+		combinedStoredMessages += targets.size();
+		workerTargets.clear();
+		targets.clear();
+	}
+
+	/**
+	 * @return the number of messages sent by the computation, which is also the number sent and stored without a
+	 * combiner
+	 */
+	public static synchronized long getMessages() {
+		return messages;
+	}
+
+	/**
+	 * @return the number of messages sent between workers after combining at the sending worker
+	 */
+	public static synchronized long getCombinedSentMessages() {
+		finishSuperstep();
+		return combinedSentMessages;
+	}
+
+	/**
+	 * @return the number of messages held by the receiving message stores after combining
+	 */
+	public static synchronized long getCombinedStoredMessages() {
+		finishSuperstep();
+		return combinedStoredMessages;
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates random graphs with a power-law degree distribution for the benchmark harnesses, following the Chung-Lu
+ * model: the endpoints of every edge are drawn independently with a probability proportional to a per-vertex weight
+ * {@code (i + 1)^(-1 / (exponent - 1))}. Vertex 0 has the highest expected degree. Self-loops and duplicate edges
+ * are removed.
+ */
+public final class PowerLawGraphGenerator {
+
+	private final double[] cumulativeWeights;
+	private final Random random;
+
+	/**
+	 * @param vertices number of vertices, with IDs 0 to vertices - 1
+	 * @param exponent exponent of the degree distribution, larger than 1 (real-world graphs are typically between 2
+	 *                 and 3)
+	 * @param seed     seed of the random number generator
+	 */
+	public PowerLawGraphGenerator(int vertices, double exponent, long seed) {
+		this.cumulativeWeights = new double[vertices];
+		this.random = new Random(seed);
+		double total = 0.0;
+		for (int i = 0; i < vertices; i++) {
+			total += Math.pow(i + 1, -1.0 / (exponent - 1.0));
+			cumulativeWeights[i] = total;
+		}
+	}
+
+	/**
+	 * @return a random vertex, drawn with a probability proportional to its weight
+	 */
+	public int nextVertex() {
+		double target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+		int index = Arrays.binarySearch(cumulativeWeights, target);
+		return index >= 0 ? index : Math.min(-index - 1, cumulativeWeights.length - 1);
+	}
+
+	/**
+	 * Draws the given number of edges and returns them as sorted adjacency lists.
+	 *
+	 * @param edges      number of edges to draw, before removing self-loops and duplicates
+	 * @param undirected true iff every edge should be added in both directions
+	 * @return the adjacency list of every vertex
+	 */
+	public long[][] generateAdjacencyLists(long edges, boolean undirected) {
+		int vertices = cumulativeWeights.length;
+		long[] pairs = new long[(int) (undirected ? 2 * edges : edges)];
+		int count = 0;
+		for (long i = 0; i < edges; i++) {
+			int source = nextVertex();
+			int destination = nextVertex();
+			if (source == destination) {
+				continue;
+			}
+			pairs[count++] = (long) source * vertices + destination;
+			if (undirected) {
+				pairs[count++] = (long) destination * vertices + source;
+			}
+		}
+		Arrays.sort(pairs, 0, count);
+
+		int[] degrees = new int[vertices];
+		for (int i = 0; i < count; i++) {
+			if (i == 0 || pairs[i] != pairs[i - 1]) {
+				degrees[(int) (pairs[i] / vertices)]++;
+			}
+		}
+		long[][] adjacencyLists = new long[vertices][];
+		for (int v = 0; v < vertices; v++) {
+			adjacencyLists[v] = new long[degrees[v]];
+		}
+		int[] filled = new int[vertices];
+		for (int i = 0; i < count; i++) {
+			if (i == 0 || pairs[i] != pairs[i - 1]) {
+				int source = (int) (pairs[i] / vertices);
+				adjacencyLists[source][filled[source]++] = pairs[i] % vertices;
+			}
+		}
+		return adjacencyLists;
+	}
+
+	/**
+	 * @return the random number generator of this generator, e.g. to draw edge values
+	 */
+	public Random getRandom() {
+		return random;
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.bfs;
+
+import science.atlarge.graphalytics.domain.algorithms.BreadthFirstSearchParameters;
+import science.atlarge.graphalytics.giraph.GiraphTestGraphLoader;
+import science.atlarge.graphalytics.validation.GraphStructure;
+import science.atlarge.graphalytics.validation.algorithms.bfs.BreadthFirstSearchOutput;
+import science.atlarge.graphalytics.validation.algorithms.bfs.BreadthFirstSearchValidationTest;
+import org.apache.giraph.conf.GiraphConfiguration;
+import org.apache.giraph.graph.Computation;
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.utils.InternalVertexRunner;
+import org.apache.giraph.utils.TestGraph;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test class for direction-optimizing BFS. Directed graphs are not supported by this computation, so the directed
+ * tests use the default computation.
+ */
+public class DirectionOptimizingBreadthFirstSearchComputationTest extends BreadthFirstSearchValidationTest {
+
+	private static BreadthFirstSearchOutput executeBreadthFirstSearch(Class<? extends Computation> computationClass,
+			GraphStructure graph, BreadthFirstSearchParameters parameters) throws Exception {
+		GiraphConfiguration configuration = new GiraphConfiguration();
+		configuration.setComputationClass(computationClass);
+		if (computationClass == DirectionOptimizingBreadthFirstSearchComputation.class) {
+			configuration.setMasterComputeClass(DirectionOptimizingBreadthFirstSearchMasterComputation.class);
+			configuration.setWorkerContextClass(DirectionOptimizingBreadthFirstSearchWorkerContext.class);
+		}
+		BreadthFirstSearchConfiguration.SOURCE_VERTEX.set(configuration, parameters.getSourceVertex());
+
+		TestGraph<LongWritable, LongWritable, NullWritable> inputGraph =
+				GiraphTestGraphLoader.createGraph(configuration, graph, new LongWritable(Long.MAX_VALUE), NullWritable.get());
+
+		TestGraph<LongWritable, LongWritable, NullWritable> result =
+				InternalVertexRunner.runWithInMemoryOutput(configuration, inputGraph);
+
+		Map<Long, Long> pathLengths = new HashMap<>();
+		for (Map.Entry<LongWritable, Vertex<LongWritable, LongWritable, NullWritable>> vertexEntry :
+				result.getVertices().entrySet()) {
+			pathLengths.put(vertexEntry.getKey().get(), vertexEntry.getValue().getValue().get());
+		}
+
+		return new BreadthFirstSearchOutput(pathLengths);
+	}
+
+	@Override
+	public BreadthFirstSearchOutput executeDirectedBreadthFirstSearch(
+			GraphStructure graph, BreadthFirstSearchParameters parameters) throws Exception {
+		return executeBreadthFirstSearch(BreadthFirstSearchComputation.class, graph, parameters);
+	}
+
+	@Override
+	public BreadthFirstSearchOutput executeUndirectedBreadthFirstSearch(
+			GraphStructure graph, BreadthFirstSearchParameters parameters) throws Exception {
+		return executeBreadthFirstSearch(DirectionOptimizingBreadthFirstSearchComputation.class, graph, parameters);
+	}
+
+}
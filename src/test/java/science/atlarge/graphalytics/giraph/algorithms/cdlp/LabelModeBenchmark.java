@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.cdlp;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import science.atlarge.graphalytics.giraph.PowerLawGraphGenerator;
+
+import java.util.Random;
+
+/**
+ * Measures the time to find the most frequent incoming label of every vertex with {@link LabelModeFinder}, against
+ * the per-vertex {@code Long2LongOpenHashMap} it replaced, for the degree distributions of a power-law graph and of
+ * a graph with uniform degrees of the same average. Labels follow a simple community structure: every vertex draws
+ * most of its incoming labels from a few labels of its community, and the rest from all vertices.
+ *
+ * <p>Usage: {@code LabelModeBenchmark [vertices] [edges] [rounds]}, run with the test classpath. Defaults to 100,000
+ * vertices, 2,000,000 undirected edges with a degree exponent of 2.1, and 5 timed rounds after 3 warm-up rounds.
+ */
+public class LabelModeBenchmark {
+
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int LABELS_PER_COMMUNITY = 4;
+	private static final double LOCAL_LABEL_PROBABILITY = 0.8;
+
+	public static void main(String[] args) {
+		int vertices = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		long edges = args.length > 1 ? Long.parseLong(args[1]) : 2000000L;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+		PowerLawGraphGenerator generator = new PowerLawGraphGenerator(vertices, 2.1, 42);
+		long[][] adjacencyLists = generator.generateAdjacencyLists(edges, true);
+		int[] powerLawDegrees = new int[vertices];
+		long totalDegree = 0;
+		int maxDegree = 0;
+		for (int v = 0; v < vertices; v++) {
+			powerLawDegrees[v] = adjacencyLists[v].length;
+			totalDegree += powerLawDegrees[v];
+			maxDegree = Math.max(maxDegree, powerLawDegrees[v]);
+		}
+		int[] uniformDegrees = new int[vertices];
+		for (int v = 0; v < vertices; v++) {
+			uniformDegrees[v] = (int) (totalDegree / vertices);
+		}
+		System.out.printf("average degree %.1f, maximum degree %d%n", totalDegree / (double) vertices, maxDegree);
+
+		run("power-law", generateLabels(powerLawDegrees, new Random(42)), rounds);
+		run("uniform", generateLabels(uniformDegrees, new Random(42)), rounds);
+	}
+
+	private static long[][] generateLabels(int[] degrees, Random random) {
+		int vertices = degrees.length;
+		long[][] labels = new long[vertices][];
+		for (int v = 0; v < vertices; v++) {
+			long communityBase = (long) (v / 100) * 100;
+			labels[v] = new long[degrees[v]];
+			for (int i = 0; i < degrees[v]; i++) {
+				labels[v][i] = random.nextDouble() < LOCAL_LABEL_PROBABILITY ?
+						communityBase + random.nextInt(LABELS_PER_COMMUNITY) :
+						random.nextInt(vertices);
+			}
+		}
+		return labels;
+	}
+
+	private static void run(String name, long[][] labels, int rounds) {
+		long labelCount = 0;
+		for (long[] vertexLabels : labels) {
+			labelCount += vertexLabels.length;
+		}
+
+		LabelModeFinder finder = new LabelModeFinder();
+		Long2LongOpenHashMap labelOccurences = new Long2LongOpenHashMap();
+		for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+			long start = System.nanoTime();
+			long hashMapChecksum = 0;
+			for (long[] vertexLabels : labels) {
+				hashMapChecksum += hashMapMode(labelOccurences, vertexLabels);
+			}
+			long hashMapTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			long finderChecksum = 0;
+			for (long[] vertexLabels : labels) {
+				finder.clear();
+				for (long label : vertexLabels) {
+					finder.add(label);
+				}
+				finderChecksum += finder.findMode();
+			}
+			long finderTime = System.nanoTime() - start;
+
+			if (hashMapChecksum != finderChecksum) {
+				throw new IllegalStateException("Label modes differ");
+			}
+			if (round >= WARMUP_ROUNDS) {
+				System.out.printf("%-10s round %d: hash map %6.2f ns/label, sorted array %6.2f ns/label%n",
+						name, round - WARMUP_ROUNDS + 1, hashMapTime / (double) labelCount,
+						finderTime / (double) labelCount);
+			}
+		}
+	}
+
+	/**
+	 * The label counting of the computation before it was replaced by {@link LabelModeFinder}.
+	 */
+	private static long hashMapMode(Long2LongOpenHashMap labelOccurences, long[] labels) {
+		labelOccurences.clear();
+		labelOccurences.defaultReturnValue(0L);
+		for (long label : labels) {
+			labelOccurences.put(label, labelOccurences.get(label) + 1);
+		}
+
+		long bestLabel = 0;
+		long highestFrequency = 0;
+		for (Long2LongMap.Entry labelFrequency : labelOccurences.long2LongEntrySet()) {
+			long label = labelFrequency.getLongKey();
+			long frequency = labelFrequency.getLongValue();
+			if (frequency > highestFrequency || (frequency == highestFrequency && label < bestLabel)) {
+				bestLabel = label;
+				highestFrequency = frequency;
+			}
+		}
+		return bestLabel;
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.cdlp;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares {@link LabelModeFinder} against a hash map reference, on both the insertion sort and the radix sort path.
+ */
+public class LabelModeFinderTest {
+
+	private static final int ITERATIONS = 2000;
+
+	@Test
+	public void testNoLabels() {
+		assertEquals(0L, new LabelModeFinder().findMode());
+	}
+
+	@Test
+	public void testTieIsBrokenBySmallestLabel() {
+		LabelModeFinder finder = new LabelModeFinder();
+		for (long label : new long[]{7, -3, 7, 12, -3, 12}) {
+			finder.add(label);
+		}
+		assertEquals(-3L, finder.findMode());
+	}
+
+	@Test
+	public void testTieIsBrokenBySmallestLabelOnRadixPath() {
+		LabelModeFinder finder = new LabelModeFinder();
+		// Every label occurs equally often, and the labels differ in several bytes including the sign byte
+		long[] distinct = {Long.MAX_VALUE, 1L << 40, 255, 256, -1, -256, Long.MIN_VALUE + 1, Long.MIN_VALUE};
+		for (int i = 0; i < 8; i++) {
+			for (long label : distinct) {
+				finder.add(label);
+			}
+		}
+		assertEquals(Long.MIN_VALUE, finder.findMode());
+	}
+
+	@Test
+	public void testRandomLabelsSmallRange() {
+		// Few distinct labels, so most vertices have ties
+		testRandomLabels(new Random(1), 5, false);
+	}
+
+	@Test
+	public void testRandomLabelsWideRange() {
+		testRandomLabels(new Random(2), 1000, false);
+	}
+
+	@Test
+	public void testRandomLabelsFullRange() {
+		// Labels spread over all bytes, including the sign byte
+		testRandomLabels(new Random(3), 50, true);
+	}
+
+	private static void testRandomLabels(Random random, int distinctLabels, boolean fullRange) {
+		// Reuse a single finder, as the computation does
+		LabelModeFinder finder = new LabelModeFinder();
+		for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+			long[] candidates = new long[distinctLabels];
+			for (int i = 0; i < distinctLabels; i++) {
+				candidates[i] = fullRange ? random.nextLong() : random.nextInt(2 * distinctLabels) - distinctLabels;
+			}
+
+			// Mix small and large numbers of labels to cover both sort algorithms
+			int size = iteration % 2 == 0 ?
+					random.nextInt(LabelModeFinder.INSERTION_SORT_THRESHOLD + 1) :
+					LabelModeFinder.INSERTION_SORT_THRESHOLD + 1 + random.nextInt(2000);
+			Map<Long, Integer> counts = new HashMap<>();
+			finder.clear();
+			for (int i = 0; i < size; i++) {
+				long label = candidates[random.nextInt(distinctLabels)];
+				finder.add(label);
+				Integer count = counts.get(label);
+				counts.put(label, count == null ? 1 : count + 1);
+			}
+
+			assertEquals("iteration " + iteration + " with " + size + " labels", referenceMode(counts),
+					finder.findMode());
+		}
+	}
+
+	private static long referenceMode(Map<Long, Integer> counts) {
+		long bestLabel = 0;
+		int highestFrequency = 0;
+		for (Map.Entry<Long, Integer> entry : counts.entrySet()) {
+			long label = entry.getKey();
+			int frequency = entry.getValue();
+			if (frequency > highestFrequency || (frequency == highestFrequency && label < bestLabel)) {
+				bestLabel = label;
+				highestFrequency = frequency;
+			}
+		}
+		return bestLabel;
+	}
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.ffm;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.apache.giraph.conf.GiraphConfiguration;
+import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.edge.EdgeFactory;
+import org.apache.giraph.graph.Vertex;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import science.atlarge.graphalytics.giraph.algorithms.ffm.ForestFireModelData.ForestFireModelState;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Microbenchmark of the burnLinks step of {@link DirectedForestFireModelComputation} for a hub vertex that is burning
+ * for many instigators at once, against a copy of the previous implementation based on boxed hash sets and maps.
+ * Every instigator is acknowledged as alive by a random subset of the hub's neighbours, half of which are incoming
+ * neighbours. Edge requests are counted and messages are dropped.
+ *
+ * <p>Usage: {@code BurnLinksBenchmark [instigators] [neighbours] [acknowledgements per instigator] [rounds]}, run with
+ * the test classpath. Defaults to 100,000 instigators, 1,000 neighbours, 10 acknowledgements per instigator, and 10
+ * timed rounds after 5 warm-up rounds.
+ */
+public class BurnLinksBenchmark {
+
+	private static final int WARMUP_ROUNDS = 5;
+	private static final float FORWARD_PROBABILITY = 0.5f;
+	private static final float BACKWARD_PROBABILITY = 0.5f;
+
+	public static void main(String[] args) throws Exception {
+		int instigators = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int neighbours = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int acknowledgements = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+		Random random = new Random(42);
+		long hubId = 0;
+		long[] neighbourIds = new long[neighbours];
+		List<Long> inEdges = new ArrayList<>();
+		for (int i = 0; i < neighbours; i++) {
+			neighbourIds[i] = 1000000000L + i;
+			if (i % 2 == 0) {
+				inEdges.add(neighbourIds[i]);
+			}
+		}
+		long[] instigatorIds = new long[instigators];
+		for (int i = 0; i < instigators; i++) {
+			instigatorIds[i] = 2000000000L + 7L * i;
+		}
+
+		// Every (neighbour, instigator) acknowledgement, grouped per neighbour in ascending order of instigator
+		LongArrayList[] acknowledged = new LongArrayList[neighbours];
+		for (int i = 0; i < neighbours; i++) {
+			acknowledged[i] = new LongArrayList();
+		}
+		for (long instigatorId : instigatorIds) {
+			for (int i = 0; i < acknowledgements; i++) {
+				LongArrayList list = acknowledged[random.nextInt(neighbours)];
+				if (list.isEmpty() || list.getLong(list.size() - 1) != instigatorId) {
+					list.add(instigatorId);
+				}
+			}
+		}
+
+		// Vertex value of the hub, burning for every instigator
+		ForestFireModelData data = ForestFireModelData.fromInEdges(inEdges);
+		for (long instigatorId : instigatorIds) {
+			data.setState(instigatorId, ForestFireModelState.BURNING);
+		}
+
+		// Batched acknowledgements, one message per neighbour, as received by the current implementation
+		List<ForestFireModelMessage> batchedMessages = new ArrayList<>();
+		for (int i = 0; i < neighbours; i++) {
+			if (!acknowledged[i].isEmpty()) {
+				batchedMessages.add(ForestFireModelMessage.aliveAcknowledgement(neighbourIds[i],
+						acknowledged[i].toLongArray(), acknowledged[i].size()));
+			}
+		}
+
+		GiraphConfiguration giraphConfiguration = new GiraphConfiguration();
+		giraphConfiguration.setComputationClass(CountingDirectedForestFireModelComputation.class);
+		ForestFireModelConfiguration.FORWARD_PROBABILITY.set(giraphConfiguration, FORWARD_PROBABILITY);
+		ForestFireModelConfiguration.BACKWARD_PROBABILITY.set(giraphConfiguration, BACKWARD_PROBABILITY);
+		ImmutableClassesGiraphConfiguration<LongWritable, ForestFireModelData, NullWritable> configuration =
+				new ImmutableClassesGiraphConfiguration<>(giraphConfiguration);
+		Vertex<LongWritable, ForestFireModelData, NullWritable> vertex = configuration.createVertex();
+		vertex.initialize(new LongWritable(hubId), data);
+
+		CountingDirectedForestFireModelComputation computation = new CountingDirectedForestFireModelComputation();
+		computation.setConf(configuration);
+		HashMapBurnLinks baseline = new HashMapBurnLinks(new Random(42));
+
+		for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+			long start = System.nanoTime();
+			baseline.burnLinks(inEdges, instigatorIds, neighbourIds, acknowledged);
+			long baselineTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			computation.burnLinks(vertex, batchedMessages);
+			long currentTime = System.nanoTime() - start;
+
+			if (round >= WARMUP_ROUNDS) {
+				System.out.printf("round %2d: hashmap %8.2f ms (%d edges), primitive %8.2f ms (%d edges)%n",
+						round - WARMUP_ROUNDS + 1, baselineTime / 1e6, baseline.edgeRequests,
+						currentTime / 1e6, computation.edgeRequests);
+			}
+			baseline.edgeRequests = 0;
+			computation.edgeRequests = 0;
+		}
+	}
+
+	/**
+	 * Directed forest fire model computation that counts its edge requests and drops its messages.
+	 */
+	public static class CountingDirectedForestFireModelComputation extends DirectedForestFireModelComputation {
+
+		private long edgeRequests;
+
+		@Override
+		public void addEdgeRequest(LongWritable sourceVertexId, Edge<LongWritable, NullWritable> edge) {
+			edgeRequests++;
+		}
+
+		@Override
+		public void sendMessage(LongWritable id, ForestFireModelMessage message) {
+			// Every burned link also sends one message, so only the edge requests are counted
+		}
+
+	}
+
+	/**
+	 * The burnLinks step as it was before it was rewritten on primitive collections, driven by one acknowledgement
+	 * per (neighbour, instigator) pair as the messages were sent at the time.
+	 */
+	private static class HashMapBurnLinks {
+
+		private final Random rnd;
+		private long edgeRequests;
+
+		private HashMapBurnLinks(Random rnd) {
+			this.rnd = rnd;
+		}
+
+		private void burnLinks(List<Long> inEdges, long[] burningInstigators, long[] neighbourIds,
+				LongArrayList[] acknowledged) throws IOException {
+			Set<Long> inLinks = new HashSet<>();
+			for (long in : inEdges) {
+				inLinks.add(in);
+			}
+			Map<Long, Set<Long>> aliveInLinks = new HashMap<>();
+			Map<Long, Set<Long>> aliveOutLinks = new HashMap<>();
+			for (int i = 0; i < neighbourIds.length; i++) {
+				long sourceId = neighbourIds[i];
+				for (int j = 0; j < acknowledged[i].size(); j++) {
+					long instigatorId = acknowledged[i].getLong(j);
+					if (inLinks.contains(sourceId)) {
+						addToLinksMap(aliveInLinks, instigatorId, sourceId);
+					} else {
+						addToLinksMap(aliveOutLinks, instigatorId, sourceId);
+					}
+				}
+			}
+			for (long instigatorId : burningInstigators) {
+				LongWritable instigatorIdFull = new LongWritable(instigatorId);
+				ForestFireModelMessage message = ForestFireModelMessage.burningNotification(instigatorId);
+				if (aliveOutLinks.containsKey(instigatorId)) {
+					int outBurningCount = getGeometricVariable(1.0f - FORWARD_PROBABILITY);
+					Set<Long> outBurning = selectLinksFromSet(aliveOutLinks.get(instigatorId), outBurningCount);
+					for (Long target : outBurning) {
+						LongWritable targetId = new LongWritable(target);
+						addEdgeRequest(instigatorIdFull, EdgeFactory.create(targetId));
+						sendMessage(targetId, message);
+					}
+				}
+				if (aliveInLinks.containsKey(instigatorId)) {
+					int inBurningCount = getGeometricVariable(1.0f - BACKWARD_PROBABILITY);
+					Set<Long> inBurning = selectLinksFromSet(aliveInLinks.get(instigatorId), inBurningCount);
+					for (Long target : inBurning) {
+						LongWritable targetId = new LongWritable(target);
+						addEdgeRequest(instigatorIdFull, EdgeFactory.create(targetId));
+						sendMessage(targetId, message);
+					}
+				}
+			}
+		}
+
+		private static void addToLinksMap(Map<Long, Set<Long>> linksMap, long instigatorId, long sourceId) {
+			if (!linksMap.containsKey(instigatorId)) {
+				linksMap.put(instigatorId, new HashSet<Long>());
+			}
+			linksMap.get(instigatorId).add(sourceId);
+		}
+
+		private Set<Long> selectLinksFromSet(Set<Long> links, int amount) {
+			if (amount >= links.size()) {
+				return links;
+			}
+
+			List<Long> linksAsList = new ArrayList<>(links);
+			Set<Long> selection = new HashSet<>();
+			while (amount > 0) {
+				int idx = rnd.nextInt(linksAsList.size());
+				selection.add(linksAsList.get(idx));
+				linksAsList.remove(idx);
+				amount--;
+			}
+			return selection;
+		}
+
+		private int getGeometricVariable(float p) {
+			if (p == 1.0f) {
+				return 0;
+			}
+			return (int)(Math.log(rnd.nextFloat()) / Math.log(1 - p));
+		}
+
+		private void addEdgeRequest(LongWritable sourceVertexId, Edge<LongWritable, NullWritable> edge) {
+			edgeRequests++;
+		}
+
+		private void sendMessage(LongWritable id, ForestFireModelMessage message) {
+		}
+
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.ffm;
+
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Writable;
+import science.atlarge.graphalytics.giraph.algorithms.ffm.ForestFireModelData.ForestFireModelState;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the heap footprint per vertex, and the bytes allocated per deserialization, of {@link ForestFireModelData}
+ * against a copy of the previous implementation that kept the instigator states in a {@code HashMap<Long, State>}.
+ * The footprint is the growth of the used heap after a full garbage collection while a large number of vertex values
+ * is retained; allocations are read from the HotSpot thread allocation counter when it is available.
+ *
+ * <p>Usage: {@code ForestFireModelDataFootprintBenchmark [vertices]}, run with the test classpath and a heap large
+ * enough for the vertices (e.g. {@code -Xmx4g}). Defaults to 200,000 vertices, each with 8 incoming edges, for 0, 1,
+ * 4 and 16 instigator states per vertex.
+ */
+public class ForestFireModelDataFootprintBenchmark {
+
+	private static final int IN_EDGES = 8;
+	private static final int[] STATES_PER_VERTEX = {0, 1, 4, 16};
+	private static final int DESERIALIZATIONS = 1000000;
+
+	public static void main(String[] args) throws Exception {
+		int vertices = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+		System.out.printf("%-8s %-10s %16s %24s%n", "states", "storage", "bytes/vertex", "bytes allocated/readFields");
+		for (int states : STATES_PER_VERTEX) {
+			byte[] serialized = serialize(createData(states, new Random(42)));
+
+			System.out.printf("%-8d %-10s %16.1f %24s%n", states, "hashmap",
+					footprintPerVertex(vertices, states, true), allocationsPerRead(new HashMapData(), serialized));
+			System.out.printf("%-8d %-10s %16.1f %24s%n", states, "arrays",
+					footprintPerVertex(vertices, states, false),
+					allocationsPerRead(new ForestFireModelData(), serialized));
+		}
+	}
+
+	private static ForestFireModelData createData(int states, Random random) {
+		ForestFireModelData data = ForestFireModelData.fromInEdges(Collections.<Long>emptyList());
+		for (int i = 0; i < states; i++) {
+			data.setState(random.nextLong(), ForestFireModelState.values()[random.nextInt(3)]);
+		}
+		return data;
+	}
+
+	private static byte[] serialize(ForestFireModelData data) throws IOException {
+		long[] inEdges = new long[IN_EDGES];
+		for (int i = 0; i < IN_EDGES; i++) {
+			inEdges[i] = i * 1000003L;
+		}
+		// Serialize with incoming edges, in the shared wire format of both implementations
+		DataOutputBuffer out = new DataOutputBuffer();
+		out.writeInt(IN_EDGES);
+		for (long inEdge : inEdges) {
+			out.writeLong(inEdge);
+		}
+		DataOutputBuffer states = new DataOutputBuffer();
+		data.write(states);
+		// Skip the empty in-edge list written by the data object itself
+		out.write(states.getData(), 4, states.getLength() - 4);
+		return Arrays.copyOf(out.getData(), out.getLength());
+	}
+
+	/**
+	 * Deserializes the same vertex value into many objects and measures the retained heap.
+	 */
+	private static double footprintPerVertex(int vertices, int states, boolean hashMap) throws IOException {
+		Random random = new Random(42);
+		byte[][] serialized = new byte[64][];
+		for (int i = 0; i < serialized.length; i++) {
+			serialized[i] = serialize(createData(states, random));
+		}
+
+		Writable[] retained = new Writable[vertices];
+		long before = usedHeap();
+		DataInputBuffer in = new DataInputBuffer();
+		for (int v = 0; v < vertices; v++) {
+			Writable data = hashMap ? new HashMapData() : new ForestFireModelData();
+			byte[] bytes = serialized[v % serialized.length];
+			in.reset(bytes, bytes.length);
+			data.readFields(in);
+			retained[v] = data;
+		}
+		long after = usedHeap();
+		double perVertex = (after - before) / (double) vertices;
+		// Keep the objects reachable until after the measurement
+		if (retained[vertices - 1] == null) {
+			throw new IllegalStateException();
+		}
+		return perVertex;
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Deserializes into the same object many times, as Giraph does when it reuses a vertex value.
+	 */
+	private static String allocationsPerRead(Writable data, byte[] serialized) throws IOException {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+			return "n/a";
+		}
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		DataInputBuffer in = new DataInputBuffer();
+		for (int i = 0; i < DESERIALIZATIONS; i++) {
+			in.reset(serialized, serialized.length);
+			data.readFields(in);
+		}
+		long before = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < DESERIALIZATIONS; i++) {
+			in.reset(serialized, serialized.length);
+			data.readFields(in);
+		}
+		long after = threadBean.getThreadAllocatedBytes(threadId);
+		return String.format("%.1f", (after - before) / (double) DESERIALIZATIONS);
+	}
+
+	/**
+	 * The state storage of {@link ForestFireModelData} before it was replaced by parallel arrays.
+	 */
+	private static class HashMapData implements Writable {
+
+		private long[] inEdges = new long[0];
+		private Map<Long, ForestFireModelState> statePerInstigator = new HashMap<>();
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeInt(inEdges.length);
+			for (long inEdge : inEdges) {
+				out.writeLong(inEdge);
+			}
+			out.writeInt(statePerInstigator.size());
+			for (Map.Entry<Long, ForestFireModelState> state : statePerInstigator.entrySet()) {
+				out.writeLong(state.getKey());
+				out.writeByte(state.getValue().ordinal());
+			}
+		}
+
+		@Override
+		public void readFields(DataInput in) throws IOException {
+			int length = in.readInt();
+			inEdges = new long[length];
+			for (int i = 0; i < length; i++) {
+				inEdges[i] = in.readLong();
+			}
+			length = in.readInt();
+			statePerInstigator = new HashMap<>();
+			for (int i = 0; i < length; i++) {
+				long id = in.readLong();
+				ForestFireModelState state = ForestFireModelState.values()[in.readByte()];
+				statePerInstigator.put(id, state);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.lcc;
+
+import science.atlarge.graphalytics.giraph.GiraphTestGraphLoader;
+import science.atlarge.graphalytics.validation.GraphStructure;
+import science.atlarge.graphalytics.validation.algorithms.lcc.LocalClusteringCoefficientOutput;
+import science.atlarge.graphalytics.validation.algorithms.lcc.LocalClusteringCoefficientValidationTest;
+import org.apache.giraph.conf.GiraphConfiguration;
+import org.apache.giraph.graph.Computation;
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.utils.InternalVertexRunner;
+import org.apache.giraph.utils.TestGraph;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test class for the degree-ordered local clustering coefficient computation on undirected graphs. Directed graphs
+ * are not supported by this computation, so the directed tests use the default computation.
+ */
+public class DegreeOrderedLocalClusteringCoefficientComputationTest extends LocalClusteringCoefficientValidationTest {
+
+	private LocalClusteringCoefficientOutput executeLocalClusteringCoefficient(
+			Class<? extends Computation> computationClass, GraphStructure graph) throws Exception {
+		GiraphConfiguration configuration = new GiraphConfiguration();
+		configuration.setComputationClass(computationClass);
+		configure(configuration);
+
+		TestGraph<LongWritable, DoubleWritable, NullWritable> inputGraph =
+				GiraphTestGraphLoader.createGraph(configuration, graph, new DoubleWritable(-1), NullWritable.get());
+
+		TestGraph<LongWritable, DoubleWritable, NullWritable> result =
+				InternalVertexRunner.runWithInMemoryOutput(configuration, inputGraph);
+
+		Map<Long, Double> localClusteringCoefficients = new HashMap<>();
+		for (Map.Entry<LongWritable, Vertex<LongWritable, DoubleWritable, NullWritable>> vertexEntry :
+				result.getVertices().entrySet()) {
+			localClusteringCoefficients.put(vertexEntry.getKey().get(), vertexEntry.getValue().getValue().get());
+		}
+		return new LocalClusteringCoefficientOutput(localClusteringCoefficients);
+	}
+
+	/**
+	 * Sets additional options of the job that computes the local clustering coefficients.
+	 */
+	protected void configure(GiraphConfiguration configuration) {
+	}
+
+	@Override
+	public LocalClusteringCoefficientOutput executeDirectedLocalClusteringCoefficient(GraphStructure graph) throws Exception {
+		return executeLocalClusteringCoefficient(DirectedLocalClusteringCoefficientComputation.class, graph);
+	}
+
+	@Override
+	public LocalClusteringCoefficientOutput executeUndirectedLocalClusteringCoefficient(GraphStructure graph) throws Exception {
+		return executeLocalClusteringCoefficient(DegreeOrderedLocalClusteringCoefficientComputation.class, graph);
+	}
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.lcc;
+
+import org.apache.giraph.conf.GiraphConfiguration;
+import org.apache.giraph.edge.LongNullHashSetEdges;
+
+/**
+ * Runs the degree-ordered local clustering coefficient tests with out-edges stored in a hash set, which does not keep
+ * the sorted order in which the computation sets the edges to higher-ranked neighbours. Such an implementation can be
+ * selected with giraph.outEdgesClass through the platform options.
+ */
+public class HashEdgesDegreeOrderedLocalClusteringCoefficientComputationTest
+		extends DegreeOrderedLocalClusteringCoefficientComputationTest {
+
+	@Override
+	protected void configure(GiraphConfiguration configuration) {
+		configuration.setOutEdgesClass(LongNullHashSetEdges.class);
+	}
+
+}
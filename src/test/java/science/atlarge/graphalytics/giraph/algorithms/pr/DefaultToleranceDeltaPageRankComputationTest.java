@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.pr;
+
+import org.apache.giraph.conf.GiraphConfiguration;
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.utils.InternalVertexRunner;
+import org.apache.giraph.utils.TestGraph;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+import org.junit.Test;
+import science.atlarge.graphalytics.giraph.PowerLawGraphGenerator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Validates the delta-based PageRank algorithm with the default tolerance, in which vertices skip sending small
+ * changes in their rank. The results must still pass the validation tests, and must not deviate from those of the
+ * exact algorithm by more than the bound computed by {@link DeltaPageRankMasterComputation}.
+ */
+public class DefaultToleranceDeltaPageRankComputationTest extends DeltaPageRankComputationTest {
+
+	private static final float DAMPING_FACTOR = 0.85f;
+	/**
+	 * Enough iterations for most ranks to change by less than the default tolerance in the last iterations.
+	 */
+	private static final int ITERATIONS = 100;
+
+	private static volatile double reportedDeviationBound;
+
+	@Override
+	protected float getTolerance() {
+		return PageRankConfiguration.DELTA_TOLERANCE.getDefaultValue();
+	}
+
+	@Test
+	public void testDeviationWithinReportedBound() throws Exception {
+		long[][] graph = new PowerLawGraphGenerator(500, 2.5, 42).generateAdjacencyLists(5000, false);
+
+		GiraphConfiguration deltaConfiguration = createConfiguration();
+		deltaConfiguration.setComputationClass(DeltaPageRankComputation.class);
+		deltaConfiguration.setMasterComputeClass(RecordingDeltaPageRankMasterComputation.class);
+		PageRankConfiguration.DELTA_TOLERANCE.set(deltaConfiguration, getTolerance());
+		reportedDeviationBound = -1.0;
+		Map<Long, Double> deltaRanks = new HashMap<>();
+		TestGraph<LongWritable, DeltaPageRankValue, NullWritable> deltaResult =
+				InternalVertexRunner.runWithInMemoryOutput(deltaConfiguration,
+						createGraph(deltaConfiguration, graph, new DeltaPageRankValue()));
+		for (Map.Entry<LongWritable, Vertex<LongWritable, DeltaPageRankValue, NullWritable>> vertexEntry :
+				deltaResult.getVertices().entrySet()) {
+			deltaRanks.put(vertexEntry.getKey().get(), vertexEntry.getValue().getValue().getRank());
+		}
+
+		GiraphConfiguration exactConfiguration = createConfiguration();
+		exactConfiguration.setComputationClass(PageRankComputation.class);
+		exactConfiguration.setMasterComputeClass(PageRankMasterComputation.class);
+		TestGraph<LongWritable, DoubleWritable, NullWritable> exactResult =
+				InternalVertexRunner.runWithInMemoryOutput(exactConfiguration,
+						createGraph(exactConfiguration, graph, new DoubleWritable()));
+
+		double deviation = 0.0;
+		for (Map.Entry<LongWritable, Vertex<LongWritable, DoubleWritable, NullWritable>> vertexEntry :
+				exactResult.getVertices().entrySet()) {
+			deviation += Math.abs(deltaRanks.get(vertexEntry.getKey().get()) - vertexEntry.getValue().getValue().get());
+		}
+
+		assertEquals(graph.length, deltaRanks.size());
+		assertTrue("No rank updates were skipped, bound: " + reportedDeviationBound, reportedDeviationBound > 0.0);
+		// Allow for differences in floating point rounding between the two algorithms
+		assertTrue("Deviation " + deviation + " exceeds reported bound " + reportedDeviationBound,
+				deviation <= reportedDeviationBound + 1e-12);
+	}
+
+	private static GiraphConfiguration createConfiguration() {
+		GiraphConfiguration configuration = new GiraphConfiguration();
+		configuration.setWorkerContextClass(PageRankWorkerContext.class);
+		PageRankConfiguration.DAMPING_FACTOR.set(configuration, DAMPING_FACTOR);
+		PageRankConfiguration.NUMBER_OF_ITERATIONS.set(configuration, ITERATIONS);
+		return configuration;
+	}
+
+	private static <V extends Writable> TestGraph<LongWritable, V, NullWritable> createGraph(
+			GiraphConfiguration configuration, long[][] adjacencyLists, V value) {
+		TestGraph<LongWritable, V, NullWritable> graph = new TestGraph<>(configuration);
+		for (int v = 0; v < adjacencyLists.length; v++) {
+			graph.addVertex(new LongWritable(v), WritableUtils.clone(value, configuration));
+		}
+		for (int v = 0; v < adjacencyLists.length; v++) {
+			for (long target : adjacencyLists[v]) {
+				graph.addEdge(new LongWritable(v), new LongWritable(target), NullWritable.get());
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Records the deviation bound after every superstep, so that it can be compared with the actual deviation.
+	 */
+	public static class RecordingDeltaPageRankMasterComputation extends DeltaPageRankMasterComputation {
+
+		@Override
+		public void compute() {
+			super.compute();
+			reportedDeviationBound = getDeviationBound();
+		}
+
+	}
+
+}
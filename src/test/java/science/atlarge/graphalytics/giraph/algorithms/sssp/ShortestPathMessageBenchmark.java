@@ -0,0 +1,223 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.algorithms.sssp;
+
+import org.apache.giraph.comm.messages.MessageEncodeAndStoreType;
+import org.apache.giraph.conf.GiraphConfiguration;
+import org.apache.giraph.conf.GiraphConstants;
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.utils.InternalVertexRunner;
+import org.apache.giraph.utils.TestGraph;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import science.atlarge.graphalytics.giraph.PowerLawGraphGenerator;
+import science.atlarge.graphalytics.giraph.combiner.MinimumDoubleMessageCombiner;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the total number of messages sent, and the number of supersteps, of delta-stepping SSSP against the
+ * Bellman-Ford-style {@link SingleSourceShortestPathComputation} on a power-law graph, for uniform and for skewed edge
+ * weights and a range of bucket widths. Both computations run through Giraph's in-process runner with the
+ * configuration of {@link SingleSourceShortestPathJob}; their messages are counted by subclasses that intercept
+ * sendMessage, before any combining. The harness fails if the two computations find different distances.
+ *
+ * <p>Usage: {@code ShortestPathMessageBenchmark [vertices] [edges] [bucket widths...]}, run with the test classpath.
+ * Defaults to 100,000 vertices, 1,000,000 edges with a degree exponent of 2.1, and bucket widths 0.1, 0.5, 1 and 5.
+ * Uniform weights are drawn from [0, 1); skewed weights are 100 * u^4, which makes most edges light and a few very
+ * heavy.
+ */
+public class ShortestPathMessageBenchmark {
+
+	private static final AtomicLong MESSAGES = new AtomicLong();
+	private static final AtomicLong LAST_SUPERSTEP = new AtomicLong();
+
+	public static void main(String[] args) throws Exception {
+		int vertices = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		long edges = args.length > 1 ? Long.parseLong(args[1]) : 1000000L;
+		float[] bucketWidths = {0.1f, 0.5f, 1.0f, 5.0f};
+		if (args.length > 2) {
+			bucketWidths = new float[args.length - 2];
+			for (int i = 2; i < args.length; i++) {
+				bucketWidths[i - 2] = Float.parseFloat(args[i]);
+			}
+		}
+
+		PowerLawGraphGenerator generator = new PowerLawGraphGenerator(vertices, 2.1, 42);
+		long[][] graph = generator.generateAdjacencyLists(edges, false);
+
+		System.out.printf("%-10s %-24s %14s %12s%n", "weights", "algorithm", "messages", "supersteps");
+		for (boolean skewed : new boolean[]{false, true}) {
+			double[][] weights = generateWeights(graph, generator.getRandom(), skewed);
+			String weightName = skewed ? "skewed" : "uniform";
+
+			Map<Long, Double> reference = runBellmanFord(graph, weights);
+			System.out.printf("%-10s %-24s %14d %12d%n", weightName, "bellman-ford", MESSAGES.get(),
+					LAST_SUPERSTEP.get() + 1);
+
+			for (float bucketWidth : bucketWidths) {
+				Map<Long, Double> distances = runDeltaStepping(graph, weights, bucketWidth);
+				compare(reference, distances);
+				System.out.printf("%-10s %-24s %14d %12d%n", weightName, "delta-stepping (" + bucketWidth + ")",
+						MESSAGES.get(), LAST_SUPERSTEP.get() + 1);
+			}
+		}
+	}
+
+	private static double[][] generateWeights(long[][] graph, Random random, boolean skewed) {
+		double[][] weights = new double[graph.length][];
+		for (int v = 0; v < graph.length; v++) {
+			weights[v] = new double[graph[v].length];
+			for (int i = 0; i < weights[v].length; i++) {
+				double u = random.nextDouble();
+				weights[v][i] = skewed ? 100.0 * u * u * u * u : u;
+			}
+		}
+		return weights;
+	}
+
+	private static GiraphConfiguration createConfiguration() {
+		GiraphConfiguration configuration = new GiraphConfiguration();
+		SingleSourceShortestPathConfiguration.SOURCE_VERTEX.set(configuration, 0L);
+		GiraphConstants.MESSAGE_ENCODE_AND_STORE_TYPE.set(configuration,
+				MessageEncodeAndStoreType.EXTRACT_BYTEARRAY_PER_PARTITION);
+		configuration.setMessageCombinerClass(MinimumDoubleMessageCombiner.class);
+		return configuration;
+	}
+
+	private static Map<Long, Double> runBellmanFord(long[][] graph, double[][] weights) throws Exception {
+		GiraphConfiguration configuration = createConfiguration();
+		configuration.setComputationClass(CountingSingleSourceShortestPathComputation.class);
+
+		TestGraph<LongWritable, DoubleWritable, DoubleWritable> input = new TestGraph<>(configuration);
+		for (int v = 0; v < graph.length; v++) {
+			input.addVertex(new LongWritable(v), new DoubleWritable(Double.POSITIVE_INFINITY));
+		}
+		addEdges(input, graph, weights);
+
+		MESSAGES.set(0);
+		LAST_SUPERSTEP.set(0);
+		TestGraph<LongWritable, DoubleWritable, DoubleWritable> result =
+				InternalVertexRunner.runWithInMemoryOutput(configuration, input);
+
+		Map<Long, Double> distances = new HashMap<>();
+		for (Map.Entry<LongWritable, Vertex<LongWritable, DoubleWritable, DoubleWritable>> vertexEntry :
+				result.getVertices().entrySet()) {
+			distances.put(vertexEntry.getKey().get(), vertexEntry.getValue().getValue().get());
+		}
+		return distances;
+	}
+
+	private static Map<Long, Double> runDeltaStepping(long[][] graph, double[][] weights, float bucketWidth)
+			throws Exception {
+		GiraphConfiguration configuration = createConfiguration();
+		configuration.setComputationClass(CountingDeltaSteppingSingleSourceShortestPathComputation.class);
+		configuration.setMasterComputeClass(DeltaSteppingMasterComputation.class);
+		SingleSourceShortestPathConfiguration.BUCKET_WIDTH.set(configuration, bucketWidth);
+
+		TestGraph<LongWritable, DeltaSteppingValue, DoubleWritable> input = new TestGraph<>(configuration);
+		for (int v = 0; v < graph.length; v++) {
+			input.addVertex(new LongWritable(v), new DeltaSteppingValue());
+		}
+		addEdges(input, graph, weights);
+
+		MESSAGES.set(0);
+		LAST_SUPERSTEP.set(0);
+		TestGraph<LongWritable, DeltaSteppingValue, DoubleWritable> result =
+				InternalVertexRunner.runWithInMemoryOutput(configuration, input);
+
+		Map<Long, Double> distances = new HashMap<>();
+		for (Map.Entry<LongWritable, Vertex<LongWritable, DeltaSteppingValue, DoubleWritable>> vertexEntry :
+				result.getVertices().entrySet()) {
+			distances.put(vertexEntry.getKey().get(), vertexEntry.getValue().getValue().getDistance());
+		}
+		return distances;
+	}
+
+	private static void addEdges(TestGraph<LongWritable, ?, DoubleWritable> input, long[][] graph,
+			double[][] weights) {
+		for (int v = 0; v < graph.length; v++) {
+			for (int i = 0; i < graph[v].length; i++) {
+				input.addEdge(new LongWritable(v), new LongWritable(graph[v][i]), new DoubleWritable(weights[v][i]));
+			}
+		}
+	}
+
+	private static void compare(Map<Long, Double> expected, Map<Long, Double> actual) {
+		for (Map.Entry<Long, Double> entry : expected.entrySet()) {
+			double expectedDistance = entry.getValue();
+			double actualDistance = actual.get(entry.getKey());
+			if (expectedDistance != actualDistance &&
+					Math.abs(expectedDistance - actualDistance) > 1e-9 * Math.abs(expectedDistance)) {
+				throw new IllegalStateException("Distance of vertex " + entry.getKey() + " differs: " +
+						expectedDistance + " != " + actualDistance);
+			}
+		}
+	}
+
+	private static void recordSuperstep(long superstep) {
+		long last = LAST_SUPERSTEP.get();
+		while (superstep > last && !LAST_SUPERSTEP.compareAndSet(last, superstep)) {
+			last = LAST_SUPERSTEP.get();
+		}
+	}
+
+	/**
+	 * Bellman-Ford-style SSSP computation that counts the messages it sends.
+	 */
+	public static class CountingSingleSourceShortestPathComputation extends SingleSourceShortestPathComputation {
+
+		@Override
+		public void compute(Vertex<LongWritable, DoubleWritable, DoubleWritable> vertex,
+				Iterable<DoubleWritable> messages) throws IOException {
+			recordSuperstep(getSuperstep());
+			super.compute(vertex, messages);
+		}
+
+		@Override
+		public void sendMessage(LongWritable id, DoubleWritable message) {
+			MESSAGES.incrementAndGet();
+			super.sendMessage(id, message);
+		}
+
+	}
+
+	/**
+	 * Delta-stepping SSSP computation that counts the messages it sends.
+	 */
+	public static class CountingDeltaSteppingSingleSourceShortestPathComputation
+			extends DeltaSteppingSingleSourceShortestPathComputation {
+
+		@Override
+		public void compute(Vertex<LongWritable, DeltaSteppingValue, DoubleWritable> vertex,
+				Iterable<DoubleWritable> messages) throws IOException {
+			recordSuperstep(getSuperstep());
+			super.compute(vertex, messages);
+		}
+
+		@Override
+		public void sendMessage(LongWritable id, DoubleWritable message) {
+			MESSAGES.incrementAndGet();
+			super.sendMessage(id, message);
+		}
+
+	}
+
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.combiner;
+
+import org.apache.giraph.comm.messages.MessageEncodeAndStoreType;
+import org.apache.giraph.conf.GiraphConfiguration;
+import org.apache.giraph.conf.GiraphConstants;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.graph.Computation;
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.utils.InternalVertexRunner;
+import org.apache.giraph.utils.TestGraph;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Writable;
+import science.atlarge.graphalytics.giraph.MessageTrafficRecorder;
+import science.atlarge.graphalytics.giraph.PowerLawGraphGenerator;
+import science.atlarge.graphalytics.giraph.algorithms.bfs.BreadthFirstSearchComputation;
+import science.atlarge.graphalytics.giraph.algorithms.bfs.BreadthFirstSearchConfiguration;
+import science.atlarge.graphalytics.giraph.algorithms.sssp.SingleSourceShortestPathComputation;
+import science.atlarge.graphalytics.giraph.algorithms.sssp.SingleSourceShortestPathConfiguration;
+import science.atlarge.graphalytics.giraph.algorithms.wcc.DirectedWeaklyConnectedComponentsComputation;
+import science.atlarge.graphalytics.giraph.algorithms.wcc.DirectedWeaklyConnectedComponentsMasterComputation;
+import science.atlarge.graphalytics.giraph.algorithms.wcc.UndirectedWeaklyConnectedComponentsComputation;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Measures the reduction in network traffic and message store size of the BFS, SSSP and WCC combiners on a power-law
+ * graph. Every algorithm runs twice through Giraph's in-process runner, once without and once with its combiner, and
+ * the harness checks that both runs produce the same output. The messages of the computation are recorded by
+ * subclasses that intercept sendMessage and sendMessageToAllEdges; {@link MessageTrafficRecorder} then derives the
+ * number of messages left after combining at the sending workers and in the receiving message stores.
+ *
+ * <p>Serialized sizes assume the wire format of Giraph's byte-array messages: an 8-byte target vertex ID plus an
+ * 8-byte message per message sent, and an 8-byte message per message stored.
+ *
+ * <p>Usage: {@code MessageCombinerBenchmark [vertices] [edges] [workers]}, run with the test classpath. Defaults to
+ * 100,000 vertices, 1,000,000 edges with a degree exponent of 2.1, and 8 simulated workers.
+ */
+public class MessageCombinerBenchmark {
+
+	private static final int MESSAGE_BYTES = 8;
+	private static final int VERTEX_ID_BYTES = 8;
+
+	public static void main(String[] args) throws Exception {
+		int vertices = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		long edges = args.length > 1 ? Long.parseLong(args[1]) : 1000000L;
+		int workers = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+		PowerLawGraphGenerator generator = new PowerLawGraphGenerator(vertices, 2.1, 42);
+		long[][] directed = generator.generateAdjacencyLists(edges, false);
+		long[][] undirected = generator.generateAdjacencyLists(edges, true);
+		Random random = generator.getRandom();
+		double[][] weights = new double[vertices][];
+		for (int v = 0; v < vertices; v++) {
+			weights[v] = new double[directed[v].length];
+			for (int i = 0; i < weights[v].length; i++) {
+				weights[v][i] = random.nextDouble();
+			}
+		}
+
+		System.out.printf("%-20s %14s %14s %14s %14s %14s%n", "algorithm", "messages", "sent", "sent bytes",
+				"stored", "stored bytes");
+		runBreadthFirstSearch(directed, workers);
+		runSingleSourceShortestPaths(directed, weights, workers);
+		runWeaklyConnectedComponents("wcc (undirected)", undirected, workers,
+				RecordingUndirectedWeaklyConnectedComponentsComputation.class, false);
+		runWeaklyConnectedComponents("wcc (directed)", directed, workers,
+				RecordingDirectedWeaklyConnectedComponentsComputation.class, true);
+	}
+
+	private static void runBreadthFirstSearch(long[][] graph, int workers) throws Exception {
+		Map<Long, String>[] outputs = newOutputs();
+		for (int run = 0; run < 2; run++) {
+			boolean combine = run == 1;
+			GiraphConfiguration configuration = createConfiguration();
+			configuration.setComputationClass(RecordingBreadthFirstSearchComputation.class);
+			BreadthFirstSearchConfiguration.SOURCE_VERTEX.set(configuration, 0L);
+			if (combine) {
+				configuration.setMessageCombinerClass(FirstWinsLongMessageCombiner.class);
+			}
+
+			TestGraph<LongWritable, LongWritable, NullWritable> input = new TestGraph<>(configuration);
+			for (int v = 0; v < graph.length; v++) {
+				input.addVertex(new LongWritable(v), new LongWritable());
+			}
+			for (int v = 0; v < graph.length; v++) {
+				for (long target : graph[v]) {
+					input.addEdge(new LongWritable(v), new LongWritable(target), NullWritable.get());
+				}
+			}
+
+			MessageTrafficRecorder.reset(workers, 0);
+			outputs[run] = collectOutput(InternalVertexRunner.runWithInMemoryOutput(configuration, input));
+		}
+		report("bfs", outputs);
+	}
+
+	private static void runSingleSourceShortestPaths(long[][] graph, double[][] weights, int workers)
+			throws Exception {
+		Map<Long, String>[] outputs = newOutputs();
+		for (int run = 0; run < 2; run++) {
+			boolean combine = run == 1;
+			GiraphConfiguration configuration = createConfiguration();
+			configuration.setComputationClass(RecordingSingleSourceShortestPathComputation.class);
+			SingleSourceShortestPathConfiguration.SOURCE_VERTEX.set(configuration, 0L);
+			if (combine) {
+				configuration.setMessageCombinerClass(MinimumDoubleMessageCombiner.class);
+			}
+
+			TestGraph<LongWritable, DoubleWritable, DoubleWritable> input = new TestGraph<>(configuration);
+			for (int v = 0; v < graph.length; v++) {
+				input.addVertex(new LongWritable(v), new DoubleWritable(Double.POSITIVE_INFINITY));
+			}
+			for (int v = 0; v < graph.length; v++) {
+				for (int i = 0; i < graph[v].length; i++) {
+					input.addEdge(new LongWritable(v), new LongWritable(graph[v][i]),
+							new DoubleWritable(weights[v][i]));
+				}
+			}
+
+			MessageTrafficRecorder.reset(workers, 0);
+			outputs[run] = collectOutput(InternalVertexRunner.runWithInMemoryOutput(configuration, input));
+		}
+		report("sssp", outputs);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static void runWeaklyConnectedComponents(String name, long[][] graph, int workers,
+			Class<? extends Computation> computationClass, boolean directed)
+			throws Exception {
+		Map<Long, String>[] outputs = newOutputs();
+		for (int run = 0; run < 2; run++) {
+			boolean combine = run == 1;
+			GiraphConfiguration configuration = createConfiguration();
+			configuration.setComputationClass(computationClass);
+			if (combine && directed) {
+				// Incoming edges are discovered from the uncombined messages of the first superstep
+				configuration.setMasterComputeClass(DirectedWeaklyConnectedComponentsMasterComputation.class);
+			} else if (combine) {
+				configuration.setMessageCombinerClass(MinimumLongMessageCombiner.class);
+			}
+
+			TestGraph<LongWritable, LongWritable, NullWritable> input = new TestGraph<>(configuration);
+			for (int v = 0; v < graph.length; v++) {
+				input.addVertex(new LongWritable(v), new LongWritable());
+			}
+			for (int v = 0; v < graph.length; v++) {
+				for (long target : graph[v]) {
+					input.addEdge(new LongWritable(v), new LongWritable(target), NullWritable.get());
+				}
+			}
+
+			MessageTrafficRecorder.reset(workers, directed ? 1 : 0);
+			outputs[run] = collectOutput(InternalVertexRunner.runWithInMemoryOutput(configuration, input));
+		}
+		report(name, outputs);
+	}
+
+	private static GiraphConfiguration createConfiguration() {
+		GiraphConfiguration configuration = new GiraphConfiguration();
+		// Same message store as the BFS, SSSP and WCC jobs
+		GiraphConstants.MESSAGE_ENCODE_AND_STORE_TYPE.set(configuration,
+				MessageEncodeAndStoreType.EXTRACT_BYTEARRAY_PER_PARTITION);
+		return configuration;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<Long, String>[] newOutputs() {
+		return new Map[2];
+	}
+
+	private static <V extends Writable, E extends Writable> Map<Long, String> collectOutput(
+			TestGraph<LongWritable, V, E> result) {
+		Map<Long, String> output = new TreeMap<>();
+		for (Map.Entry<LongWritable, Vertex<LongWritable, V, E>> vertexEntry : result.getVertices().entrySet()) {
+			output.put(vertexEntry.getKey().get(), vertexEntry.getValue().getValue().toString());
+		}
+		return output;
+	}
+
+	/**
+	 * Prints the traffic recorded in the last (combined) run; the computation sends the same messages in both runs.
+	 */
+	private static void report(String name, Map<Long, String>[] outputs) {
+		if (!outputs[0].equals(outputs[1])) {
+			throw new IllegalStateException("Output of " + name + " differs with and without combiner");
+		}
+		long messages = MessageTrafficRecorder.getMessages();
+		long sent = MessageTrafficRecorder.getCombinedSentMessages();
+		long stored = MessageTrafficRecorder.getCombinedStoredMessages();
+		System.out.printf("%-20s %14s %14s %14s %14s %14s%n", name + " (none)", messages, messages,
+				messages * (VERTEX_ID_BYTES + MESSAGE_BYTES), messages, messages * MESSAGE_BYTES);
+		System.out.printf("%-20s %14s %14s %14s %14s %14s%n", name + " (combiner)", messages, sent,
+				sent * (VERTEX_ID_BYTES + MESSAGE_BYTES), stored, stored * MESSAGE_BYTES);
+	}
+
+	/**
+	 * BFS computation that records every message it sends.
+	 */
+	public static class RecordingBreadthFirstSearchComputation extends BreadthFirstSearchComputation {
+
+		private long currentVertexId;
+
+		@Override
+		public void compute(Vertex<LongWritable, LongWritable, NullWritable> vertex,
+				Iterable<LongWritable> messages) throws IOException {
+			currentVertexId = vertex.getId().get();
+			super.compute(vertex, messages);
+		}
+
+		@Override
+		public void sendMessage(LongWritable id, LongWritable message) {
+			MessageTrafficRecorder.record(getSuperstep(), currentVertexId, id.get());
+			super.sendMessage(id, message);
+		}
+
+		@Override
+		public void sendMessageToAllEdges(Vertex<LongWritable, LongWritable, NullWritable> vertex,
+				LongWritable message) {
+			for (Edge<LongWritable, NullWritable> edge : vertex.getEdges()) {
+				MessageTrafficRecorder.record(getSuperstep(), vertex.getId().get(), edge.getTargetVertexId().get());
+			}
+			super.sendMessageToAllEdges(vertex, message);
+		}
+
+	}
+
+	/**
+	 * SSSP computation that records every message it sends.
+	 */
+	public static class RecordingSingleSourceShortestPathComputation extends SingleSourceShortestPathComputation {
+
+		private long currentVertexId;
+
+		@Override
+		public void compute(Vertex<LongWritable, DoubleWritable, DoubleWritable> vertex,
+				Iterable<DoubleWritable> messages) throws IOException {
+			currentVertexId = vertex.getId().get();
+			super.compute(vertex, messages);
+		}
+
+		@Override
+		public void sendMessage(LongWritable id, DoubleWritable message) {
+			MessageTrafficRecorder.record(getSuperstep(), currentVertexId, id.get());
+			super.sendMessage(id, message);
+		}
+
+		@Override
+		public void sendMessageToAllEdges(Vertex<LongWritable, DoubleWritable, DoubleWritable> vertex,
+				DoubleWritable message) {
+			for (Edge<LongWritable, DoubleWritable> edge : vertex.getEdges()) {
+				MessageTrafficRecorder.record(getSuperstep(), vertex.getId().get(), edge.getTargetVertexId().get());
+			}
+			super.sendMessageToAllEdges(vertex, message);
+		}
+
+	}
+
+	/**
+	 * Undirected WCC computation that records every message it sends.
+	 */
+	public static class RecordingUndirectedWeaklyConnectedComponentsComputation
+			extends UndirectedWeaklyConnectedComponentsComputation {
+
+		private long currentVertexId;
+
+		@Override
+		public void compute(Vertex<LongWritable, LongWritable, NullWritable> vertex,
+				Iterable<LongWritable> messages) throws IOException {
+			currentVertexId = vertex.getId().get();
+			super.compute(vertex, messages);
+		}
+
+		@Override
+		public void sendMessage(LongWritable id, LongWritable message) {
+			MessageTrafficRecorder.record(getSuperstep(), currentVertexId, id.get());
+			super.sendMessage(id, message);
+		}
+
+		@Override
+		public void sendMessageToAllEdges(Vertex<LongWritable, LongWritable, NullWritable> vertex,
+				LongWritable message) {
+			for (Edge<LongWritable, NullWritable> edge : vertex.getEdges()) {
+				MessageTrafficRecorder.record(getSuperstep(), vertex.getId().get(), edge.getTargetVertexId().get());
+			}
+			super.sendMessageToAllEdges(vertex, message);
+		}
+
+	}
+
+	/**
+	 * Directed WCC computation that records every message it sends.
+	 */
+	public static class RecordingDirectedWeaklyConnectedComponentsComputation
+			extends DirectedWeaklyConnectedComponentsComputation {
+
+		private long currentVertexId;
+
+		@Override
+		public void compute(Vertex<LongWritable, LongWritable, NullWritable> vertex,
+				Iterable<LongWritable> messages) throws IOException {
+			currentVertexId = vertex.getId().get();
+			super.compute(vertex, messages);
+		}
+
+		@Override
+		public void sendMessage(LongWritable id, LongWritable message) {
+			MessageTrafficRecorder.record(getSuperstep(), currentVertexId, id.get());
+			super.sendMessage(id, message);
+		}
+
+		@Override
+		public void sendMessageToAllEdges(Vertex<LongWritable, LongWritable, NullWritable> vertex,
+				LongWritable message) {
+			for (Edge<LongWritable, NullWritable> edge : vertex.getEdges()) {
+				MessageTrafficRecorder.record(getSuperstep(), vertex.getId().get(), edge.getTargetVertexId().get());
+			}
+			super.sendMessageToAllEdges(vertex, message);
+		}
+
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import org.apache.giraph.conf.GiraphConfiguration;
+import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.graph.Computation;
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.io.VertexReader;
+import org.apache.giraph.io.formats.GiraphFileInputFormat;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobID;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.JobContextImpl;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import science.atlarge.graphalytics.giraph.algorithms.bfs.BreadthFirstSearchComputation;
+import science.atlarge.graphalytics.giraph.algorithms.sssp.SingleSourceShortestPathComputation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Converts small graphs to the binary CSR format and reads them back through {@link BinaryCsrVertexInputFormat}.
+ */
+public class BinaryCsrGraphConverterTest {
+
+	private static final long[] VERTICES = {5, 1, 3, 10, 7, -2};
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testDirectedUnweightedGraph() throws Exception {
+		String[] edges = {"1 3", "1 5", "3 1", "5 10", "10 1", "10 3", "10 5", "-2 1", "1 -2"};
+		Map<Long, List<String>> expected = expectedAdjacency(edges, true);
+
+		Map<Long, List<String>> actual = convertAndRead(edges, true, BreadthFirstSearchComputation.class);
+
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testUndirectedWeightedGraph() throws Exception {
+		String[] edges = {"1 3 0.5", "3 5 1.25", "5 1 2", "10 -2 3.5e2", "7 10 1e-3"};
+		Map<Long, List<String>> expected = expectedAdjacency(edges, false);
+
+		Map<Long, List<String>> actual = convertAndRead(edges, false, SingleSourceShortestPathComputation.class);
+
+		assertEquals(expected, actual);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private Map<Long, List<String>> convertAndRead(String[] edges, boolean directed,
+			Class<? extends Computation> computationClass) throws Exception {
+		File vertexFile = writeLines("graph.v", toStrings(VERTICES));
+		File edgeFile = writeLines("graph.e", edges);
+		FileSystem fs = FileSystem.getLocal(new Configuration());
+		Path outputDirectory = new Path(new File(temporaryFolder.getRoot(), "graph.csr").getAbsolutePath());
+
+		// A small part size spreads the graph over several parts
+		new BinaryCsrGraphConverter(directed, 3).convert(vertexFile.getAbsolutePath(), edgeFile.getAbsolutePath(),
+				fs, outputDirectory);
+		assertTrue(fs.listStatus(outputDirectory).length > 1);
+
+		GiraphConfiguration configuration = new GiraphConfiguration();
+		configuration.setComputationClass(computationClass);
+		configuration.setVertexInputFormatClass(BinaryCsrVertexInputFormat.class);
+		GiraphFileInputFormat.addVertexInputPath(configuration, outputDirectory);
+		ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> immutableConfiguration =
+				new ImmutableClassesGiraphConfiguration<>(configuration);
+
+		BinaryCsrVertexInputFormat inputFormat = new BinaryCsrVertexInputFormat();
+		inputFormat.setConf(immutableConfiguration);
+		Map<Long, List<String>> adjacency = new TreeMap<>();
+		for (InputSplit split : inputFormat.getSplits(new JobContextImpl(immutableConfiguration, new JobID()), 1)) {
+			TaskAttemptContext context = new TaskAttemptContextImpl(immutableConfiguration, new TaskAttemptID());
+			VertexReader<LongWritable, Writable, Writable> reader = inputFormat.createVertexReader(split, context);
+			reader.setConf(immutableConfiguration);
+			reader.initialize(split, context);
+			while (reader.nextVertex()) {
+				Vertex<LongWritable, Writable, Writable> vertex = reader.getCurrentVertex();
+				List<String> neighbours = new ArrayList<>();
+				for (Edge<LongWritable, Writable> edge : vertex.getEdges()) {
+					neighbours.add(formatEdge(edge.getTargetVertexId().get(), edge.getValue()));
+				}
+				Collections.sort(neighbours);
+				adjacency.put(vertex.getId().get(), neighbours);
+			}
+			reader.close();
+		}
+		return adjacency;
+	}
+
+	private static Map<Long, List<String>> expectedAdjacency(String[] edges, boolean directed) {
+		Map<Long, List<String>> adjacency = new TreeMap<>();
+		for (long vertex : VERTICES) {
+			adjacency.put(vertex, new ArrayList<String>());
+		}
+		for (String edge : edges) {
+			String[] tokens = edge.split(" ");
+			long source = Long.parseLong(tokens[0]);
+			long destination = Long.parseLong(tokens[1]);
+			Writable value = tokens.length > 2 ? new DoubleWritable(Double.parseDouble(tokens[2])) : null;
+			adjacency.get(source).add(formatEdge(destination, value));
+			if (!directed) {
+				adjacency.get(destination).add(formatEdge(source, value));
+			}
+		}
+		for (List<String> neighbours : adjacency.values()) {
+			Collections.sort(neighbours);
+		}
+		return adjacency;
+	}
+
+	private static String formatEdge(long destination, Writable value) {
+		return value instanceof DoubleWritable ? destination + ":" + ((DoubleWritable)value).get() :
+				Long.toString(destination);
+	}
+
+	private static String[] toStrings(long[] values) {
+		String[] strings = new String[values.length];
+		for (int i = 0; i < values.length; i++) {
+			strings[i] = Long.toString(values[i]);
+		}
+		return strings;
+	}
+
+	private File writeLines(String name, String[] lines) throws IOException {
+		File file = temporaryFolder.newFile(name);
+		try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+			for (String line : lines) {
+				writer.print(line);
+				writer.print('\n');
+			}
+		}
+		return file;
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
+import org.apache.giraph.io.formats.IdWithValueTextOutputFormat;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Writable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import science.atlarge.graphalytics.giraph.algorithms.bfs.BreadthFirstSearchComputation;
+import science.atlarge.graphalytics.giraph.algorithms.sssp.SingleSourceShortestPathComputation;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Encodes vertices with {@link BinaryIdWithValueOutputFormat}, decodes them with
+ * {@link BinaryIdWithValueOutputDecoder}, and compares the result with the output of Giraph's
+ * {@link IdWithValueTextOutputFormat}.
+ */
+public class BinaryIdWithValueOutputFormatTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testLongValuesRoundTrip() throws Exception {
+		assertRoundTrip(LongIdWithValueTextOutputFormatTest.createConfiguration(
+				BreadthFirstSearchComputation.class, null), LongIdWithValueTextOutputFormatTest.longValues());
+	}
+
+	@Test
+	public void testDoubleValuesRoundTrip() throws Exception {
+		assertRoundTrip(LongIdWithValueTextOutputFormatTest.createConfiguration(
+				SingleSourceShortestPathComputation.class, null), LongIdWithValueTextOutputFormatTest.doubleValues());
+	}
+
+	@Test
+	public void testConfiguredDelimiterRoundTrip() throws Exception {
+		assertRoundTrip(LongIdWithValueTextOutputFormatTest.createConfiguration(
+				SingleSourceShortestPathComputation.class, ", "), LongIdWithValueTextOutputFormatTest.doubleValues());
+	}
+
+	private void assertRoundTrip(ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> configuration,
+			Writable[] values) throws Exception {
+		byte[] expected = LongIdWithValueTextOutputFormatTest.writeOutput(
+				new IdWithValueTextOutputFormat<LongWritable, Writable, Writable>(), configuration, values,
+				temporaryFolder.newFolder());
+		byte[] binary = LongIdWithValueTextOutputFormatTest.writeOutput(new BinaryIdWithValueOutputFormat(),
+				configuration, values, temporaryFolder.newFolder());
+
+		InputStream input = new BufferedInputStream(new ByteArrayInputStream(binary));
+		assertTrue(BinaryIdWithValueOutputDecoder.isBinaryOutput(input));
+		BinaryIdWithValueOutputDecoder.LineDecoder decoder = new BinaryIdWithValueOutputDecoder.LineDecoder(input);
+		StringBuilder decoded = new StringBuilder();
+		String line;
+		while ((line = decoder.nextLine()) != null) {
+			decoded.append(line).append('\n');
+		}
+		assertEquals(new String(expected, StandardCharsets.UTF_8), decoded.toString());
+	}
+
+}
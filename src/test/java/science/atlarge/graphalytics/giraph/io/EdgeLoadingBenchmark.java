@@ -0,0 +1,203 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import org.apache.giraph.edge.Edge;
+import org.apache.giraph.io.EdgeInputFormat;
+import org.apache.giraph.io.EdgeReader;
+import org.apache.giraph.io.formats.TextEdgeInputFormat;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the single-threaded loading throughput (edges per second per core) of the text edge input formats,
+ * against a copy of the {@code String.split}/{@code Long.parseLong} readers they replaced. Each reader is driven
+ * through Hadoop's line record reader over the same local file, exactly as Giraph drives it during input.
+ *
+ * <p>Usage: {@code EdgeLoadingBenchmark [edges] [rounds]}, run with the test classpath. Defaults to 5,000,000 edges
+ * and 5 timed rounds after one warm-up round.
+ */
+public class EdgeLoadingBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int edges = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		File unweighted = File.createTempFile("edges-unweighted", ".txt");
+		File weighted = File.createTempFile("edges-weighted", ".txt");
+		try {
+			writeEdges(unweighted, edges, false);
+			writeEdges(weighted, edges, true);
+
+			run("split (unweighted)", new SplitLongNullTextEdgeInputFormat(), unweighted, edges, rounds);
+			run("tokenizer (unweighted)", new DirectedLongNullTextEdgeInputFormat(), unweighted, edges, rounds);
+			run("split (weighted)", new SplitLongDoubleTextEdgeInputFormat(), weighted, edges, rounds);
+			run("tokenizer (weighted)", new DirectedLongDoubleTextEdgeInputFormat(), weighted, edges, rounds);
+		} finally {
+			unweighted.delete();
+			weighted.delete();
+		}
+	}
+
+	private static void writeEdges(File file, int edges, boolean weighted) throws IOException {
+		Random random = new Random(42);
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(file), 1 << 20)) {
+			for (int i = 0; i < edges; i++) {
+				// Vertex IDs in the same range as the larger Graphalytics datasets
+				writer.write(Long.toString(random.nextInt(100000000)));
+				writer.write(' ');
+				writer.write(Long.toString(random.nextInt(100000000)));
+				if (weighted) {
+					writer.write(' ');
+					writer.write(Double.toString(random.nextInt(1000000) / 1000.0));
+				}
+				writer.write('\n');
+			}
+		}
+	}
+
+	private static <E extends Writable> void run(String name, EdgeInputFormat<LongWritable, E> format, File file,
+			int edges, int rounds) throws Exception {
+		long checksum = 0;
+		for (int round = 0; round <= rounds; round++) {
+			long start = System.nanoTime();
+			checksum += readAll(format, file);
+			long elapsed = System.nanoTime() - start;
+			if (round > 0) {
+				System.out.printf("%-24s round %d: %,12.0f edges/s%n", name, round, edges * 1e9 / elapsed);
+			}
+		}
+		System.out.printf("%-24s checksum %d%n", name, checksum);
+	}
+
+	private static <E extends Writable> long readAll(EdgeInputFormat<LongWritable, E> format, File file)
+			throws Exception {
+		Configuration conf = new Configuration();
+		TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+		InputSplit split = new FileSplit(new Path(file.toURI()), 0, file.length(), null);
+
+		long checksum = 0;
+		EdgeReader<LongWritable, E> reader = format.createEdgeReader(split, context);
+		reader.initialize(split, context);
+		try {
+			while (reader.nextEdge()) {
+				Edge<LongWritable, E> edge = reader.getCurrentEdge();
+				checksum += reader.getCurrentSourceId().get() ^ edge.getTargetVertexId().get();
+				if (edge.getValue() instanceof DoubleWritable) {
+					checksum += (long) ((DoubleWritable) edge.getValue()).get();
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return checksum;
+	}
+
+	/**
+	 * The unweighted reader as it was before the shared tokenizer: one String, one String[] and new writables per edge.
+	 */
+	private static class SplitLongNullTextEdgeInputFormat extends TextEdgeInputFormat<LongWritable, NullWritable> {
+
+		private static final Pattern SEPARATOR = Pattern.compile(" ");
+
+		@Override
+		public EdgeReader<LongWritable, NullWritable> createEdgeReader(InputSplit split, TaskAttemptContext context)
+				throws IOException {
+			return new TextEdgeReaderFromEachLineProcessed<long[]>() {
+
+				@Override
+				protected long[] preprocessLine(Text line) throws IOException {
+					String[] tokens = SEPARATOR.split(line.toString());
+					return new long[]{Long.parseLong(tokens[0]), Long.parseLong(tokens[1])};
+				}
+
+				@Override
+				protected LongWritable getSourceVertexId(long[] line) throws IOException {
+					return new LongWritable(line[0]);
+				}
+
+				@Override
+				protected LongWritable getTargetVertexId(long[] line) throws IOException {
+					return new LongWritable(line[1]);
+				}
+
+				@Override
+				protected NullWritable getValue(long[] line) throws IOException {
+					return NullWritable.get();
+				}
+
+			};
+		}
+
+	}
+
+	/**
+	 * The weighted reader as it was before the shared tokenizer, including the boxed (source, target, value) triple.
+	 */
+	private static class SplitLongDoubleTextEdgeInputFormat extends TextEdgeInputFormat<LongWritable, DoubleWritable> {
+
+		private static final Pattern SEPARATOR = Pattern.compile(" ");
+
+		@Override
+		public EdgeReader<LongWritable, DoubleWritable> createEdgeReader(InputSplit split,
+				TaskAttemptContext context) throws IOException {
+			return new TextEdgeReaderFromEachLineProcessed<Object[]>() {
+
+				@Override
+				protected Object[] preprocessLine(Text line) throws IOException {
+					String[] tokens = SEPARATOR.split(line.toString());
+					return new Object[]{Long.parseLong(tokens[0]), Long.parseLong(tokens[1]),
+							Double.parseDouble(tokens[2])};
+				}
+
+				@Override
+				protected LongWritable getSourceVertexId(Object[] line) throws IOException {
+					return new LongWritable((Long) line[0]);
+				}
+
+				@Override
+				protected LongWritable getTargetVertexId(Object[] line) throws IOException {
+					return new LongWritable((Long) line[1]);
+				}
+
+				@Override
+				protected DoubleWritable getValue(Object[] line) throws IOException {
+					return new DoubleWritable((Double) line[2]);
+				}
+
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import org.apache.giraph.conf.GiraphConfiguration;
+import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
+import org.apache.giraph.graph.Computation;
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.io.VertexWriter;
+import org.apache.giraph.io.formats.IdWithValueTextOutputFormat;
+import org.apache.giraph.io.formats.TextVertexOutputFormat;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import science.atlarge.graphalytics.giraph.algorithms.bfs.BreadthFirstSearchComputation;
+import science.atlarge.graphalytics.giraph.algorithms.sssp.SingleSourceShortestPathComputation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that {@link LongIdWithValueTextOutputFormat} produces exactly the same bytes as Giraph's
+ * {@link IdWithValueTextOutputFormat}, including for the edge cases of long and double formatting.
+ */
+public class LongIdWithValueTextOutputFormatTest {
+
+	static final long[] IDS = {0, 1, -1, 42, -1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE};
+	static final long[] LONG_VALUES = {0, 7, -7, 9999999999L, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+	static final double[] DOUBLE_VALUES = {
+			0.0, -0.0, 1.0, -1.0, 0.1, 12345.678, 9999999.0, 1e7, -1e7, 123456789.0, 1e-3, 1e-4,
+			Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+			Double.MIN_VALUE, -Double.MIN_VALUE, Double.MIN_NORMAL / 3, 1e-310,
+			Double.MAX_VALUE, -Double.MAX_VALUE, 1e300, Double.MIN_NORMAL
+	};
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testLongValuesMatchGiraphFormat() throws Exception {
+		ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> configuration =
+				createConfiguration(BreadthFirstSearchComputation.class, null);
+		Writable[] values = longValues();
+
+		assertOutputEquals(configuration, values);
+	}
+
+	@Test
+	public void testDoubleValuesMatchGiraphFormat() throws Exception {
+		ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> configuration =
+				createConfiguration(SingleSourceShortestPathComputation.class, null);
+		Writable[] values = doubleValues();
+
+		assertOutputEquals(configuration, values);
+	}
+
+	@Test
+	public void testConfiguredDelimiterMatchesGiraphFormat() throws Exception {
+		ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> configuration =
+				createConfiguration(SingleSourceShortestPathComputation.class, ",");
+		Writable[] values = doubleValues();
+
+		assertOutputEquals(configuration, values);
+	}
+
+	@Test
+	public void testManyVerticesSpanningSeveralBuffers() throws Exception {
+		ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> configuration =
+				createConfiguration(SingleSourceShortestPathComputation.class, null);
+		Writable[] values = new Writable[20000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = new DoubleWritable(DOUBLE_VALUES[i % DOUBLE_VALUES.length] * (i % 3 == 0 ? 1 : -i));
+		}
+
+		assertOutputEquals(configuration, values);
+	}
+
+	private void assertOutputEquals(ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> configuration,
+			Writable[] values) throws Exception {
+		byte[] expected = writeOutput(new IdWithValueTextOutputFormat<LongWritable, Writable, Writable>(),
+				configuration, values, temporaryFolder.newFolder());
+		byte[] actual = writeOutput(new LongIdWithValueTextOutputFormat(), configuration, values,
+				temporaryFolder.newFolder());
+
+		assertEquals(new String(expected, StandardCharsets.UTF_8), new String(actual, StandardCharsets.UTF_8));
+		assertArrayEquals(expected, actual);
+	}
+
+	static Writable[] longValues() {
+		Writable[] values = new Writable[IDS.length * LONG_VALUES.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = new LongWritable(LONG_VALUES[i % LONG_VALUES.length]);
+		}
+		return values;
+	}
+
+	static Writable[] doubleValues() {
+		Writable[] values = new Writable[IDS.length * DOUBLE_VALUES.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = new DoubleWritable(DOUBLE_VALUES[i % DOUBLE_VALUES.length]);
+		}
+		return values;
+	}
+
+	/**
+	 * @param computationClass computation whose type parameters determine the vertex value class
+	 * @param delimiter        the delimiter between ID and value, or null for the default
+	 */
+	@SuppressWarnings("rawtypes")
+	static ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> createConfiguration(
+			Class<? extends Computation> computationClass, String delimiter) {
+		GiraphConfiguration configuration = new GiraphConfiguration();
+		configuration.setComputationClass(computationClass);
+		if (delimiter != null) {
+			configuration.set(IdWithValueTextOutputFormat.LINE_TOKENIZE_VALUE, delimiter);
+		}
+		return new ImmutableClassesGiraphConfiguration<>(configuration);
+	}
+
+	/**
+	 * Writes one vertex per value through an output format, with IDs cycling through {@link #IDS}, and returns the
+	 * contents of the resulting output file.
+	 */
+	static byte[] writeOutput(TextVertexOutputFormat<LongWritable, Writable, Writable> outputFormat,
+			ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> configuration, Writable[] values,
+			File outputDirectory) throws Exception {
+		ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> jobConfiguration =
+				new ImmutableClassesGiraphConfiguration<>(configuration);
+		Path outputPath = new Path(new File(outputDirectory, "output").getAbsolutePath());
+		jobConfiguration.set(FileOutputFormat.OUTDIR, outputPath.toString());
+		TaskAttemptContext context = new TaskAttemptContextImpl(jobConfiguration,
+				new TaskAttemptID("test", 1, TaskType.MAP, 0, 0));
+
+		outputFormat.setConf(jobConfiguration);
+		VertexWriter<LongWritable, Writable, Writable> writer = outputFormat.createVertexWriter(context);
+		writer.setConf(jobConfiguration);
+		writer.initialize(context);
+		for (int i = 0; i < values.length; i++) {
+			Vertex<LongWritable, Writable, Writable> vertex = jobConfiguration.createVertex();
+			vertex.initialize(new LongWritable(IDS[i % IDS.length]), values[i]);
+			writer.writeVertex(vertex);
+		}
+		writer.close(context);
+
+		FileSystem fs = FileSystem.getLocal(jobConfiguration);
+		return readSingleFile(fs, outputPath);
+	}
+
+	private static byte[] readSingleFile(FileSystem fs, Path directory) throws IOException {
+		Path file = findPartFile(fs, directory);
+		if (file == null) {
+			throw new IOException("No output file written to " + directory);
+		}
+		ByteArrayOutputStream contents = new ByteArrayOutputStream();
+		try (InputStream in = fs.open(file)) {
+			IOUtils.copyBytes(in, contents, 4096, false);
+		}
+		return contents.toByteArray();
+	}
+
+	private static Path findPartFile(FileSystem fs, Path directory) throws IOException {
+		for (FileStatus status : fs.listStatus(directory)) {
+			if (status.isDirectory()) {
+				Path file = findPartFile(fs, status.getPath());
+				if (file != null) {
+					return file;
+				}
+			} else if (status.getPath().getName().startsWith("part-")) {
+				return status.getPath();
+			}
+		}
+		return null;
+	}
+
+}
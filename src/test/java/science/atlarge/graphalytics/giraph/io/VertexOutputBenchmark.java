@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.io;
+
+import org.apache.giraph.conf.GiraphConfiguration;
+import org.apache.giraph.conf.ImmutableClassesGiraphConfiguration;
+import org.apache.giraph.graph.Vertex;
+import org.apache.giraph.io.VertexWriter;
+import org.apache.giraph.io.formats.IdWithValueTextOutputFormat;
+import org.apache.giraph.io.formats.TextVertexOutputFormat;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import science.atlarge.graphalytics.giraph.algorithms.bfs.BreadthFirstSearchComputation;
+import science.atlarge.graphalytics.giraph.algorithms.pr.PageRankComputation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Measures the single-threaded throughput (vertices per second) and output size of Giraph's
+ * {@link IdWithValueTextOutputFormat}, {@link LongIdWithValueTextOutputFormat} and
+ * {@link BinaryIdWithValueOutputFormat}, writing to the local file system. Long values follow the BFS output (small
+ * depths), double values the PageRank output (arbitrary fractions).
+ *
+ * <p>Usage: {@code VertexOutputBenchmark [vertices] [rounds]}, run with the test classpath. Defaults to 5,000,000
+ * vertices and 5 timed rounds after one warm-up round.
+ */
+public class VertexOutputBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int vertices = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		File directory = Files.createTempDirectory("graphalytics-output").toFile();
+		try {
+			for (boolean doubles : new boolean[]{false, true}) {
+				GiraphConfiguration giraphConfiguration = new GiraphConfiguration();
+				giraphConfiguration.setComputationClass(doubles ?
+						PageRankComputation.class : BreadthFirstSearchComputation.class);
+				ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> configuration =
+						new ImmutableClassesGiraphConfiguration<>(giraphConfiguration);
+				String values = doubles ? "double" : "long";
+
+				run("giraph text (" + values + ")", new IdWithValueTextOutputFormat<LongWritable, Writable, Writable>(),
+						configuration, doubles, vertices, rounds, directory);
+				run("buffered text (" + values + ")", new LongIdWithValueTextOutputFormat(),
+						configuration, doubles, vertices, rounds, directory);
+				run("binary (" + values + ")", new BinaryIdWithValueOutputFormat(),
+						configuration, doubles, vertices, rounds, directory);
+			}
+		} finally {
+			FileSystem.getLocal(new GiraphConfiguration()).delete(new Path(directory.getAbsolutePath()), true);
+		}
+	}
+
+	private static void run(String name, TextVertexOutputFormat<LongWritable, Writable, Writable> outputFormat,
+			ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> configuration, boolean doubles,
+			int vertices, int rounds, File directory) throws Exception {
+		for (int round = 0; round <= rounds; round++) {
+			Path outputPath = new Path(new File(directory, "output-" + System.nanoTime()).getAbsolutePath());
+			ImmutableClassesGiraphConfiguration<LongWritable, Writable, Writable> jobConfiguration =
+					new ImmutableClassesGiraphConfiguration<>(configuration);
+			jobConfiguration.set(FileOutputFormat.OUTDIR, outputPath.toString());
+			TaskAttemptContext context = new TaskAttemptContextImpl(jobConfiguration,
+					new TaskAttemptID("benchmark", 1, TaskType.MAP, 0, 0));
+
+			// Giraph reuses a single vertex object per partition when writing output
+			Vertex<LongWritable, Writable, Writable> vertex = jobConfiguration.createVertex();
+			LongWritable id = new LongWritable();
+			Writable value = doubles ? new DoubleWritable() : new LongWritable();
+			vertex.initialize(id, value);
+			Random random = new Random(42);
+
+			long start = System.nanoTime();
+			outputFormat.setConf(jobConfiguration);
+			VertexWriter<LongWritable, Writable, Writable> writer = outputFormat.createVertexWriter(context);
+			writer.setConf(jobConfiguration);
+			writer.initialize(context);
+			for (int i = 0; i < vertices; i++) {
+				id.set(i * 7919L % 100000000L);
+				if (doubles) {
+					((DoubleWritable) value).set(random.nextDouble() / vertices);
+				} else {
+					((LongWritable) value).set(random.nextInt(20));
+				}
+				writer.writeVertex(vertex);
+			}
+			writer.close(context);
+			long elapsed = System.nanoTime() - start;
+
+			FileSystem fs = FileSystem.getLocal(jobConfiguration);
+			long bytes = outputSize(fs, outputPath);
+			fs.delete(outputPath, true);
+			if (round > 0) {
+				System.out.printf("%-24s round %d: %,12.0f vertices/s, %,d bytes%n", name, round,
+						vertices * 1e9 / elapsed, bytes);
+			}
+		}
+	}
+
+	private static long outputSize(FileSystem fs, Path directory) throws IOException {
+		long size = 0;
+		for (FileStatus status : fs.listStatus(directory)) {
+			if (status.isDirectory()) {
+				size += outputSize(fs, status.getPath());
+			} else if (status.getPath().getName().startsWith("part-")) {
+				// Excludes the checksum files of the local file system
+				size += status.getLen();
+			}
+		}
+		return size;
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.metrics;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Collects the metrics written by the master and worker observers to a directory on the local file system.
+ */
+public class SuperstepMetricsCollectorTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testCollectJoinsSlowestWorker() throws Exception {
+		File metricsDirectory = temporaryFolder.newFolder("metrics");
+		write(new File(metricsDirectory, SuperstepMetricsCollector.MASTER_FILE),
+				"-1\t800\t1000\t5000\t1000\t0\t0\n" +
+				"0\t1250\t1000\t5000\t42\t7\t56\n" +
+				"1\t300\t998\t4990\t0\t0\t0\n");
+		write(new File(metricsDirectory, SuperstepMetricsCollector.WORKER_FILE_PREFIX + "1"),
+				"0\tnode301/1\t900\t350\n" +
+				"1\tnode301/1\t200\t100\n");
+		write(new File(metricsDirectory, SuperstepMetricsCollector.WORKER_FILE_PREFIX + "2"),
+				"0\tnode302/2\t1100\t150\n" +
+				"1\tnode302/2\t150\t150\n");
+
+		File superstepFile = new File(temporaryFolder.getRoot(), "logs/superstep-metrics.csv");
+		File workerFile = new File(temporaryFolder.getRoot(), "logs/worker-metrics.csv");
+		SuperstepMetricsCollector.collect(FileSystem.getLocal(new Configuration()),
+				new Path(metricsDirectory.getAbsolutePath()), superstepFile, workerFile);
+
+		try (SuperstepMetricsReader reader = new SuperstepMetricsReader(superstepFile)) {
+			assertMetrics(reader.next(), -1, 800, 1000, 5000, 1000, 0, 0, "", 0);
+			assertMetrics(reader.next(), 0, 1250, 1000, 5000, 42, 7, 56, "node302/2", 1100);
+			assertMetrics(reader.next(), 1, 300, 998, 4990, 0, 0, 0, "node301/1", 200);
+			assertNull(reader.next());
+		}
+		assertEquals(SuperstepMetrics.HEADER, Files.readAllLines(superstepFile.toPath(), StandardCharsets.UTF_8)
+				.get(0));
+
+		List<String> workerLines = Files.readAllLines(workerFile.toPath(), StandardCharsets.UTF_8);
+		assertEquals(SuperstepMetricsCollector.WORKER_HEADER, workerLines.get(0));
+		assertEquals(new HashSet<>(Arrays.asList(
+				"0,node301/1,900,350",
+				"1,node301/1,200,100",
+				"0,node302/2,1100,150",
+				"1,node302/2,150,150")), new HashSet<>(workerLines.subList(1, workerLines.size())));
+		assertEquals(5, workerLines.size());
+	}
+
+	private static void assertMetrics(SuperstepMetrics metrics, long superstep, long timeMillis, long vertices,
+			long edges, long activeVertices, long messagesSent, long messageBytesSent, String slowestWorker,
+			long slowestWorkerMillis) {
+		assertEquals(superstep, metrics.getSuperstep());
+		assertEquals(timeMillis, metrics.getTimeMillis());
+		assertEquals(vertices, metrics.getVertices());
+		assertEquals(edges, metrics.getEdges());
+		assertEquals(activeVertices, metrics.getActiveVertices());
+		assertEquals(messagesSent, metrics.getMessagesSent());
+		assertEquals(messageBytesSent, metrics.getMessageBytesSent());
+		assertEquals(slowestWorker, metrics.getSlowestWorker());
+		assertEquals(slowestWorkerMillis, metrics.getSlowestWorkerMillis());
+	}
+
+	private static void write(File file, String contents) throws IOException {
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
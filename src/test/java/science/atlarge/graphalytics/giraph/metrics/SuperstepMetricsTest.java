@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015 Delft University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package science.atlarge.graphalytics.giraph.metrics;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Formats superstep metrics as lines of the superstep metrics file and parses them back.
+ */
+public class SuperstepMetricsTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testFormatParseRoundTrip() {
+		SuperstepMetrics metrics = new SuperstepMetrics(3, 1250, 1000, 5000, 42, 123456789012L, 987654321098L,
+				"node301/2", 1100);
+
+		SuperstepMetrics parsed = SuperstepMetrics.parse(metrics.toLine());
+
+		assertEquals(3, parsed.getSuperstep());
+		assertEquals(1250, parsed.getTimeMillis());
+		assertEquals(1000, parsed.getVertices());
+		assertEquals(5000, parsed.getEdges());
+		assertEquals(42, parsed.getActiveVertices());
+		assertEquals(123456789012L, parsed.getMessagesSent());
+		assertEquals(987654321098L, parsed.getMessageBytesSent());
+		assertEquals("node301/2", parsed.getSlowestWorker());
+		assertEquals(1100, parsed.getSlowestWorkerMillis());
+		assertEquals(metrics.toLine(), parsed.toLine());
+	}
+
+	@Test
+	public void testInputSuperstepWithoutSlowestWorker() {
+		SuperstepMetrics metrics = new SuperstepMetrics(-1, 800, 1000, 5000, 1000, 0, 0, "", 0);
+
+		SuperstepMetrics parsed = SuperstepMetrics.parse(metrics.toLine());
+
+		assertEquals(-1, parsed.getSuperstep());
+		assertEquals(1000, parsed.getVertices());
+		assertEquals(5000, parsed.getEdges());
+		assertEquals("", parsed.getSlowestWorker());
+		assertEquals(metrics.toLine(), parsed.toLine());
+	}
+
+	@Test
+	public void testHeaderMatchesFields() {
+		String line = new SuperstepMetrics(0, 1250, 1000, 5000, 42, 7, 56, "node301/2", 1100).toLine();
+		assertEquals(SuperstepMetrics.HEADER.split(",").length, line.split(",", -1).length);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseMissingField() {
+		SuperstepMetrics.parse("3,1250,1000,5000,42,7,56,node301/2");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseNonNumericField() {
+		SuperstepMetrics.parse("3,fast,1000,5000,42,7,56,node301/2,1100");
+	}
+
+	@Test
+	public void testReaderSkipsHeader() throws IOException {
+		SuperstepMetrics first = new SuperstepMetrics(-1, 800, 1000, 5000, 1000, 0, 0, "", 0);
+		SuperstepMetrics second = new SuperstepMetrics(0, 1250, 1000, 5000, 42, 7, 56, "node301/2", 1100);
+		File file = temporaryFolder.newFile("superstep-metrics.csv");
+		Files.write(file.toPath(), (SuperstepMetrics.HEADER + "\n" + first.toLine() + "\n" + second.toLine() + "\n")
+				.getBytes(StandardCharsets.UTF_8));
+
+		try (SuperstepMetricsReader reader = new SuperstepMetricsReader(file)) {
+			assertEquals(first.toLine(), reader.next().toLine());
+			assertEquals(second.toLine(), reader.next().toLine());
+			assertNull(reader.next());
+		}
+	}
+
+}